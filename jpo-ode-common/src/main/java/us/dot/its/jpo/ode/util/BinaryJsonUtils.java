@@ -0,0 +1,96 @@
+package us.dot.its.jpo.ode.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Converts JSON text to and from the binary JSON formats Smile and CBOR.
+ * <p>
+ * The conversion copies the token stream, so the binary document has exactly
+ * the fields, order and values of the text; a consumer switching from the
+ * text topic reads the same structure with a Smile or CBOR parser. Smile keeps
+ * decimal numbers as decimals, so they survive a round trip unchanged; CBOR
+ * carries them as doubles, since decimal fractions are not read back by every
+ * CBOR parser.
+ * </p>
+ */
+public class BinaryJsonUtils {
+
+   public enum Format {
+      SMILE(new SmileFactory(), true), CBOR(new CBORFactory(), false);
+
+      private final JsonFactory factory;
+      private final boolean exactDecimals;
+
+      private Format(JsonFactory factory, boolean exactDecimals) {
+         this.factory = factory;
+         this.exactDecimals = exactDecimals;
+      }
+
+      /**
+       * @return the named format, null if the name is empty
+       */
+      public static Format of(String name) {
+         if (null == name || name.trim().isEmpty()) {
+            return null;
+         }
+         return valueOf(name.trim().toUpperCase());
+      }
+   }
+
+   public static class BinaryJsonUtilsException extends Exception {
+
+      private static final long serialVersionUID = 1L;
+
+      public BinaryJsonUtilsException(String message, Exception e) {
+         super(message, e);
+      }
+   }
+
+   private static final JsonFactory jsonFactory = new JsonFactory();
+
+   private BinaryJsonUtils() {
+   }
+
+   public static byte[] fromJson(String json, Format format) throws BinaryJsonUtilsException {
+      ByteArrayOutputStream out = new ByteArrayOutputStream(json.length());
+      try (JsonParser parser = jsonFactory.createParser(json);
+            JsonGenerator generator = format.factory.createGenerator(out)) {
+         copy(parser, generator, format.exactDecimals);
+      } catch (IOException e) {
+         throw new BinaryJsonUtilsException("Error converting JSON to " + format, e);
+      }
+      return out.toByteArray();
+   }
+
+   public static String toJson(byte[] binary, Format format) throws BinaryJsonUtilsException {
+      StringWriter out = new StringWriter(binary.length * 2);
+      try (JsonParser parser = format.factory.createParser(binary);
+            JsonGenerator generator = jsonFactory.createGenerator(out)) {
+         copy(parser, generator, format.exactDecimals);
+      } catch (IOException e) {
+         throw new BinaryJsonUtilsException("Error converting " + format + " to JSON", e);
+      }
+      return out.toString();
+   }
+
+   private static void copy(JsonParser parser, JsonGenerator generator, boolean exactDecimals)
+         throws IOException {
+      JsonToken token;
+      while (null != (token = parser.nextToken())) {
+         if (exactDecimals && token == JsonToken.VALUE_NUMBER_FLOAT) {
+            generator.writeNumber(parser.getDecimalValue());
+         } else {
+            generator.copyCurrentEvent(parser);
+         }
+      }
+   }
+}
@@ -0,0 +1,204 @@
+package us.dot.its.jpo.ode.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * A Gson JsonWriter that builds a Jackson tree instead of writing text.
+ * <p>
+ * Each value becomes the node Jackson's readTree gives for the text Gson
+ * would have written: integers become int, long or BigInteger nodes and
+ * anything written with a fraction or an exponent becomes a double node.
+ * </p>
+ */
+class JsonNodeWriter extends JsonWriter {
+
+   private static final Writer UNWRITABLE_WRITER = new Writer() {
+      @Override
+      public void write(char[] buffer, int offset, int counter) {
+         throw new AssertionError();
+      }
+
+      @Override
+      public void flush() {
+         throw new AssertionError();
+      }
+
+      @Override
+      public void close() {
+         throw new AssertionError();
+      }
+   };
+
+   private final JsonNodeFactory nodes;
+   private final Deque<JsonNode> stack = new ArrayDeque<>();
+   private String pendingName;
+   private JsonNode root;
+
+   JsonNodeWriter(JsonNodeFactory nodes) {
+      super(UNWRITABLE_WRITER);
+      this.nodes = nodes;
+   }
+
+   /**
+    * @return the written value, null if none was written
+    */
+   JsonNode get() {
+      if (!stack.isEmpty()) {
+         throw new IllegalStateException("Unclosed JSON object or array");
+      }
+      return root;
+   }
+
+   private JsonWriter put(JsonNode value) {
+      JsonNode parent = stack.peek();
+      if (null == parent) {
+         if (null != root) {
+            throw new IllegalStateException("JSON must have only one top-level value");
+         }
+         root = value;
+      } else if (parent.isObject()) {
+         if (null == pendingName) {
+            throw new IllegalStateException("Object value written without a name");
+         }
+         ((ObjectNode) parent).set(pendingName, value);
+         pendingName = null;
+      } else {
+         ((ArrayNode) parent).add(value);
+      }
+      return this;
+   }
+
+   private JsonWriter open(JsonNode container) {
+      put(container);
+      stack.push(container);
+      return this;
+   }
+
+   private JsonWriter close(boolean object) {
+      JsonNode container = stack.peek();
+      if (null == container || container.isObject() != object || null != pendingName) {
+         throw new IllegalStateException("Nesting problem closing " + (object ? "object" : "array"));
+      }
+      stack.pop();
+      return this;
+   }
+
+   @Override
+   public JsonWriter beginArray() throws IOException {
+      return open(nodes.arrayNode());
+   }
+
+   @Override
+   public JsonWriter endArray() throws IOException {
+      return close(false);
+   }
+
+   @Override
+   public JsonWriter beginObject() throws IOException {
+      return open(nodes.objectNode());
+   }
+
+   @Override
+   public JsonWriter endObject() throws IOException {
+      return close(true);
+   }
+
+   @Override
+   public JsonWriter name(String name) throws IOException {
+      if (null == name) {
+         throw new NullPointerException("name == null");
+      }
+      JsonNode parent = stack.peek();
+      if (null == parent || !parent.isObject() || null != pendingName) {
+         throw new IllegalStateException("Name written outside of an object");
+      }
+      pendingName = name;
+      return this;
+   }
+
+   @Override
+   public JsonWriter value(String value) throws IOException {
+      return null == value ? nullValue() : put(nodes.textNode(value));
+   }
+
+   // jsonValue(String) is not in every Gson version, hence no @Override
+   public JsonWriter jsonValue(String value) throws IOException {
+      return null == value ? nullValue() : put(OdeJsonCodec.readTree(value));
+   }
+
+   @Override
+   public JsonWriter nullValue() throws IOException {
+      if (null != pendingName && !getSerializeNulls()) {
+         pendingName = null;
+         return this;
+      }
+      return put(nodes.nullNode());
+   }
+
+   @Override
+   public JsonWriter value(boolean value) throws IOException {
+      return put(nodes.booleanNode(value));
+   }
+
+   // value(Boolean) is not in every Gson version, hence no @Override
+   public JsonWriter value(Boolean value) throws IOException {
+      return null == value ? nullValue() : value(value.booleanValue());
+   }
+
+   // value(float) is not in every Gson version, hence no @Override
+   public JsonWriter value(float value) throws IOException {
+      return value(Float.valueOf(value));
+   }
+
+   @Override
+   public JsonWriter value(double value) throws IOException {
+      return put(nodes.numberNode(value));
+   }
+
+   @Override
+   public JsonWriter value(long value) throws IOException {
+      return put(integralNode(value));
+   }
+
+   @Override
+   public JsonWriter value(Number value) throws IOException {
+      if (null == value) {
+         return nullValue();
+      }
+      if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+         return value(value.longValue());
+      }
+      String text = value.toString();
+      if (text.indexOf('.') >= 0 || text.indexOf('e') >= 0 || text.indexOf('E') >= 0
+            || text.indexOf('N') >= 0 || text.indexOf('I') >= 0) {
+         return put(nodes.numberNode(Double.parseDouble(text)));
+      }
+      BigInteger integer = new BigInteger(text);
+      return put(integer.bitLength() < 64 ? integralNode(integer.longValue()) : nodes.numberNode(integer));
+   }
+
+   private JsonNode integralNode(long value) {
+      return value == (int) value ? nodes.numberNode((int) value) : nodes.numberNode(value);
+   }
+
+   @Override
+   public void flush() throws IOException {
+   }
+
+   @Override
+   public void close() throws IOException {
+      if (!stack.isEmpty()) {
+         throw new IOException("Incomplete document");
+      }
+   }
+}
@@ -30,8 +30,6 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 
 public class JsonUtils {
    
@@ -45,8 +43,6 @@ public class JsonUtils {
 
    }
 
-   private static Gson gsonCompact;
-   private static Gson gsonVerbose;
    private static ObjectMapper mapper;
    private static Logger logger;
 
@@ -55,16 +51,14 @@ public class JsonUtils {
    }
 
    static {
-      gsonCompact = new GsonBuilder().create();
-      gsonVerbose = new GsonBuilder().serializeNulls().create();
-      mapper = new ObjectMapper();
+      mapper = OdeJsonCodec.getMapper();
    }
 
    public static String toJson(Object o, boolean verbose) {
 
       // convert java object to JSON format,
       // and returned as JSON formatted string
-      return verbose ? gsonVerbose.toJson(o) : gsonCompact.toJson(o);
+      return OdeJsonCodec.toJson(o, verbose);
       // String json = null;
       // try {
       // json = mapper.writeValueAsString(o);
@@ -75,7 +69,7 @@ public class JsonUtils {
    }
 
    public static Object fromJson(String s, Class<?> clazz) {
-      return gsonCompact.fromJson(s, clazz);
+      return OdeJsonCodec.fromJson(s, clazz);
       /*
        * Object o = null; try { o = mapper.readValue(s, clazz); } catch
        * (IOException e) { e.printStackTrace(); } return o;
@@ -84,7 +78,7 @@ public class JsonUtils {
    
    public static Object jacksonFromJson(String s, Class<?> clazz) throws JsonUtilsException {
       try {
-         return mapper.readValue(s, clazz);
+         return OdeJsonCodec.jacksonFromJson(s, clazz);
       } catch (IOException e) {
          throw new JsonUtilsException("Error deserializing JSON tree to " + clazz.getName(), e);
       }
@@ -0,0 +1,272 @@
+package us.dot.its.jpo.ode.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * The one place ODE objects are written to and read from JSON.
+ * <p>
+ * Objects are written by Gson, so the JSON is the same as it has always been:
+ * compact JSON leaves out null fields, verbose JSON writes them. The Gson
+ * type adapter of each class is looked up once and kept, and the JSON is
+ * written into a buffer kept per thread, straight to a String, to UTF-8
+ * bytes or to a stream. Custom serializers of model classes are declared on
+ * the class with Gson's JsonAdapter annotation and are picked up here.
+ * </p>
+ * <p>
+ * {@link #toObjectNode(Object)} writes an object into a Jackson tree without
+ * going through a JSON string, with the same nodes Jackson would read from
+ * the compact JSON. Jackson is used for trees and for classes that need
+ * Jackson to read them, with one ObjectReader kept per class.
+ * </p>
+ */
+public class OdeJsonCodec {
+
+   // a thread's buffer is let go after a record larger than this
+   private static final int MAX_KEPT_BUFFER = 1 << 20;
+
+   private static final Gson gsonCompact = new GsonBuilder().create();
+   private static final Gson gsonVerbose = new GsonBuilder().serializeNulls().create();
+   private static final ObjectMapper mapper = new ObjectMapper();
+
+   private static final ConcurrentMap<Class<?>, TypeAdapter<?>> compactAdapters = new ConcurrentHashMap<>();
+   private static final ConcurrentMap<Class<?>, TypeAdapter<?>> verboseAdapters = new ConcurrentHashMap<>();
+   private static final ConcurrentMap<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+   private static final ThreadLocal<Buffers> buffers = ThreadLocal.withInitial(Buffers::new);
+
+   private OdeJsonCodec() {
+   }
+
+   public static String toJson(Object o, boolean verbose) {
+      Buffers b = buffers.get();
+      if (b.inUse) {
+         // an adapter writing JSON of its own
+         StringBuilderWriter chars = new StringBuilderWriter();
+         write(o, verbose, chars);
+         return chars.builder.toString();
+      }
+      b.inUse = true;
+      try {
+         write(o, verbose, b.chars);
+         return b.chars.builder.toString();
+      } finally {
+         b.release();
+      }
+   }
+
+   /**
+    * @return the UTF-8 bytes of {@link #toJson(Object, boolean)}
+    */
+   public static byte[] toJsonBytes(Object o, boolean verbose) {
+      Buffers b = buffers.get();
+      if (b.inUse) {
+         return toJson(o, verbose).getBytes(StandardCharsets.UTF_8);
+      }
+      b.inUse = true;
+      try {
+         write(o, verbose, b.chars);
+         return b.encode();
+      } finally {
+         b.release();
+      }
+   }
+
+   /**
+    * Writes the UTF-8 bytes of {@link #toJson(Object, boolean)} to a stream,
+    * leaving it open.
+    */
+   public static void writeJson(Object o, boolean verbose, OutputStream out) throws IOException {
+      Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+      write(o, verbose, writer);
+      writer.flush();
+   }
+
+   public static <T> T fromJson(String json, Class<T> clazz) {
+      return gsonCompact.fromJson(json, clazz);
+   }
+
+   public static <T> T fromJson(byte[] json, Class<T> clazz) {
+      return gsonCompact.fromJson(new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8),
+            clazz);
+   }
+
+   /**
+    * @return the tree Jackson reads from the compact JSON of an object
+    */
+   public static ObjectNode toObjectNode(Object o) {
+      JsonNodeWriter writer = new JsonNodeWriter(mapper.getNodeFactory());
+      writeTo(o, false, writer);
+      JsonNode node = writer.get();
+      if (!node.isObject()) {
+         throw new IllegalArgumentException(
+               (null == o ? "null" : o.getClass().getName()) + " is not written as a JSON object");
+      }
+      return (ObjectNode) node;
+   }
+
+   public static <T> T jacksonFromJson(String json, Class<T> clazz) throws IOException {
+      return readerFor(clazz).readValue(json);
+   }
+
+   public static JsonNode readTree(String json) throws IOException {
+      return mapper.readTree(json);
+   }
+
+   public static JsonNode readTree(byte[] json) throws IOException {
+      return mapper.readTree(json);
+   }
+
+   public static ObjectMapper getMapper() {
+      return mapper;
+   }
+
+   private static ObjectReader readerFor(Class<?> clazz) {
+      ObjectReader reader = readers.get(clazz);
+      if (null == reader) {
+         reader = mapper.readerFor(clazz);
+         readers.putIfAbsent(clazz, reader);
+      }
+      return reader;
+   }
+
+   private static void write(Object o, boolean verbose, Writer out) {
+      JsonWriter writer = new JsonWriter(out);
+      writeTo(o, verbose, writer);
+   }
+
+   /*
+    * Sets the writer up as Gson.toJson does
+    */
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   private static void writeTo(Object o, boolean verbose, JsonWriter writer) {
+      writer.setLenient(true);
+      writer.setHtmlSafe(true);
+      writer.setSerializeNulls(verbose);
+      try {
+         if (null == o) {
+            writer.nullValue();
+         } else {
+            ((TypeAdapter) adapterFor(o.getClass(), verbose)).write(writer, o);
+         }
+         writer.flush();
+      } catch (IOException e) {
+         throw new JsonWriteException(e);
+      }
+   }
+
+   private static TypeAdapter<?> adapterFor(Class<?> clazz, boolean verbose) {
+      ConcurrentMap<Class<?>, TypeAdapter<?>> adapters = verbose ? verboseAdapters : compactAdapters;
+      TypeAdapter<?> adapter = adapters.get(clazz);
+      if (null == adapter) {
+         adapter = (verbose ? gsonVerbose : gsonCompact).getAdapter(clazz);
+         adapters.putIfAbsent(clazz, adapter);
+      }
+      return adapter;
+   }
+
+   public static class JsonWriteException extends RuntimeException {
+      private static final long serialVersionUID = 1L;
+
+      public JsonWriteException(IOException cause) {
+         super(cause);
+      }
+   }
+
+   private static class StringBuilderWriter extends Writer {
+      private final StringBuilder builder = new StringBuilder(1024);
+
+      @Override
+      public void write(char[] cbuf, int off, int len) {
+         builder.append(cbuf, off, len);
+      }
+
+      @Override
+      public void write(int c) {
+         builder.append((char) c);
+      }
+
+      @Override
+      public void write(String str, int off, int len) {
+         builder.append(str, off, off + len);
+      }
+
+      @Override
+      public Writer append(CharSequence csq) {
+         builder.append(csq);
+         return this;
+      }
+
+      @Override
+      public void flush() {
+      }
+
+      @Override
+      public void close() {
+      }
+   }
+
+   private static class Buffers {
+      private StringBuilderWriter chars = new StringBuilderWriter();
+      private ByteBuffer bytes = ByteBuffer.allocate(1024);
+      private final CharsetEncoder utf8 = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+      private boolean inUse;
+
+      /*
+       * Encodes the written JSON as String.getBytes does, without the String
+       */
+      byte[] encode() {
+         CharBuffer in = CharBuffer.wrap(chars.builder);
+         utf8.reset();
+         bytes.clear();
+         while (utf8.encode(in, bytes, true).isOverflow()) {
+            grow();
+         }
+         while (utf8.flush(bytes).isOverflow()) {
+            grow();
+         }
+         return Arrays.copyOf(bytes.array(), bytes.position());
+      }
+
+      private void grow() {
+         ByteBuffer larger = ByteBuffer.allocate(bytes.capacity() * 2);
+         bytes.flip();
+         larger.put(bytes);
+         bytes = larger;
+      }
+
+      void release() {
+         inUse = false;
+         if (chars.builder.capacity() > MAX_KEPT_BUFFER) {
+            chars = new StringBuilderWriter();
+         } else {
+            chars.builder.setLength(0);
+         }
+         if (bytes.capacity() > MAX_KEPT_BUFFER) {
+            bytes = ByteBuffer.allocate(1024);
+         }
+      }
+   }
+}
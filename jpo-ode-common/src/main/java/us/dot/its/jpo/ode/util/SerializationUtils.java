@@ -14,7 +14,7 @@ public class SerializationUtils<T> {
       
       Output output = new Output(1024, -1);
       kryo.writeClassAndObject(output, object);
-      byte[] bytes = output.getBuffer();
+      byte[] bytes = output.toBytes();
       output.close();
       return bytes;
    }
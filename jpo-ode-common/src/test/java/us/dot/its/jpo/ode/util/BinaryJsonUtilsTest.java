@@ -0,0 +1,61 @@
+package us.dot.its.jpo.ode.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import us.dot.its.jpo.ode.util.BinaryJsonUtils.BinaryJsonUtilsException;
+import us.dot.its.jpo.ode.util.BinaryJsonUtils.Format;
+
+public class BinaryJsonUtilsTest {
+
+   private static final String BSM = "{\"metadata\":{\"payloadType\":\"us.dot.its.jpo.ode.model.OdeBsmPayload\","
+         + "\"serialId\":{\"streamId\":\"10817812-036b-4d7b-867b-ae0bc62a2b3e\",\"bundleSize\":1,\"bundleId\":0,"
+         + "\"recordId\":0,\"serialNumber\":0},\"receivedAt\":\"2017-06-13T19:52:45.500Z\",\"schemaVersion\":1,"
+         + "\"sanitized\":false},\"payload\":{\"dataType\":\"us.dot.its.jpo.ode.plugin.j2735.J2735Bsm\","
+         + "\"data\":{\"coreData\":{\"msgCnt\":102,\"id\":\"BEA10000\",\"secMark\":36799,"
+         + "\"position\":{\"latitude\":41.1641851,\"longitude\":-104.8454708,\"elevation\":1896.9},"
+         + "\"accelSet\":{\"accelYaw\":0.00},\"accuracy\":{\"semiMajor\":2.00,\"semiMinor\":2.00},"
+         + "\"speed\":0.00,\"heading\":321.0125,\"brakes\":{\"wheelBrakes\":{\"leftFront\":false,"
+         + "\"rightFront\":false,\"unavailable\":true,\"leftRear\":false,\"rightRear\":false},"
+         + "\"traction\":\"unavailable\",\"abs\":\"off\",\"scs\":\"unavailable\",\"brakeBoost\":\"unavailable\","
+         + "\"auxBrakes\":\"unavailable\"},\"size\":{\"width\":190,\"length\":570}},\"partII\":[]}}}";
+
+   @Test
+   public void smileShouldRoundTripExactly() throws BinaryJsonUtilsException {
+      byte[] smile = BinaryJsonUtils.fromJson(BSM, Format.SMILE);
+      assertTrue(smile.length < BSM.length());
+      assertEquals(BSM, BinaryJsonUtils.toJson(smile, Format.SMILE));
+   }
+
+   @Test
+   public void cborShouldKeepFieldStructure() throws BinaryJsonUtilsException, IOException {
+      byte[] cbor = BinaryJsonUtils.fromJson(BSM, Format.CBOR);
+      assertTrue(cbor.length < BSM.length());
+
+      ObjectMapper mapper = new ObjectMapper();
+      JsonNode expected = mapper.readTree(BSM);
+      JsonNode actual = mapper.readTree(BinaryJsonUtils.toJson(cbor, Format.CBOR));
+      assertEquals(expected, actual);
+   }
+
+   @Test(expected = BinaryJsonUtilsException.class)
+   public void shouldRejectMalformedJson() throws BinaryJsonUtilsException {
+      BinaryJsonUtils.fromJson("{\"a\":", Format.SMILE);
+   }
+
+   @Test
+   public void shouldParseFormat() {
+      assertNull(Format.of(null));
+      assertNull(Format.of(" "));
+      assertEquals(Format.CBOR, Format.of("cbor"));
+      assertEquals(Format.SMILE, Format.of(" Smile "));
+   }
+}
@@ -0,0 +1,114 @@
+package us.dot.its.jpo.ode.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import us.dot.its.jpo.ode.model.OdeObject;
+
+public class OdeJsonCodecTest {
+
+   enum Color {
+      RED, GREEN
+   }
+
+   static class Inner extends OdeObject {
+      private static final long serialVersionUID = 1L;
+
+      BigDecimal latitude = BigDecimal.valueOf(404740215, 7);
+      BigDecimal speed = BigDecimal.valueOf(0, 2);
+      BigDecimal zero = BigDecimal.valueOf(0, 7);
+      Boolean flag;
+   }
+
+   static class Outer extends OdeObject {
+      private static final long serialVersionUID = 1L;
+
+      int i = 11;
+      long big = 1L << 40;
+      float f = 2.2f;
+      double d = 33333.33333333333d;
+      BigInteger huge = BigInteger.valueOf(Long.MAX_VALUE).multiply(BigInteger.TEN);
+      String s = "<OdeAsn1Data> & 'quotes' \u00e9";
+      String none;
+      Color color = Color.GREEN;
+      Inner inner = new Inner();
+      List<Object> list = new ArrayList<>();
+      Map<String, Object> map = new LinkedHashMap<>();
+      byte[] bytes = { 1, -2 };
+
+      Outer() {
+         list.add(1);
+         list.add(null);
+         list.add("two");
+         list.add(new Inner());
+         map.put("a", 3.5);
+         map.put("b", null);
+      }
+   }
+
+   private final Gson gsonCompact = new GsonBuilder().create();
+   private final Gson gsonVerbose = new GsonBuilder().serializeNulls().create();
+
+   @Test
+   public void shouldWriteSameJsonAsGson() {
+      Outer outer = new Outer();
+      assertEquals(gsonCompact.toJson(outer), OdeJsonCodec.toJson(outer, false));
+      assertEquals(gsonVerbose.toJson(outer), OdeJsonCodec.toJson(outer, true));
+      assertEquals(gsonCompact.toJson(null), OdeJsonCodec.toJson(null, false));
+      assertEquals(gsonCompact.toJson("text"), OdeJsonCodec.toJson("text", false));
+   }
+
+   @Test
+   public void shouldWriteUtf8Bytes() throws IOException {
+      Outer outer = new Outer();
+      byte[] expected = gsonVerbose.toJson(outer).getBytes(StandardCharsets.UTF_8);
+      assertArrayEquals(expected, OdeJsonCodec.toJsonBytes(outer, true));
+      // the thread's buffer is reused
+      assertArrayEquals(expected, OdeJsonCodec.toJsonBytes(outer, true));
+
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      OdeJsonCodec.writeJson(outer, true, out);
+      assertArrayEquals(expected, out.toByteArray());
+   }
+
+   @Test
+   public void shouldReadWhatItWrites() {
+      Inner inner = new Inner();
+      inner.flag = true;
+      String json = OdeJsonCodec.toJson(inner, true);
+      assertEquals(json, OdeJsonCodec.toJson(OdeJsonCodec.fromJson(json, Inner.class), true));
+      assertEquals(json, OdeJsonCodec.toJson(
+            OdeJsonCodec.fromJson(json.getBytes(StandardCharsets.UTF_8), Inner.class), true));
+   }
+
+   @Test
+   public void shouldBuildSameTreeAsReadingJson() throws IOException {
+      Outer outer = new Outer();
+      ObjectNode expected = (ObjectNode) new ObjectMapper().readTree(gsonCompact.toJson(outer));
+      ObjectNode actual = OdeJsonCodec.toObjectNode(outer);
+      assertEquals(expected, actual);
+      assertEquals(expected.toString(), actual.toString());
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void shouldRejectTreeOfNonObject() {
+      OdeJsonCodec.toObjectNode("text");
+   }
+}
@@ -0,0 +1,816 @@
+package us.dot.its.jpo.ode.model;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import us.dot.its.jpo.ode.plugin.j2735.J2735AccelerationSet4Way;
+import us.dot.its.jpo.ode.plugin.j2735.J2735BrakeSystemStatus;
+import us.dot.its.jpo.ode.plugin.j2735.J2735BsmCoreData;
+import us.dot.its.jpo.ode.plugin.j2735.J2735PositionalAccuracy;
+import us.dot.its.jpo.ode.plugin.j2735.J2735TransmissionState;
+import us.dot.its.jpo.ode.plugin.j2735.J2735VehicleSize;
+import us.dot.its.jpo.ode.plugin.j2735.OdePosition3D;
+import us.dot.its.jpo.ode.plugin.j2735.builders.AngleBuilder;
+import us.dot.its.jpo.ode.plugin.j2735.builders.BrakeSystemStatusBuilder;
+import us.dot.its.jpo.ode.plugin.j2735.builders.ElevationBuilder;
+import us.dot.its.jpo.ode.plugin.j2735.builders.LatitudeBuilder;
+import us.dot.its.jpo.ode.plugin.j2735.builders.LongitudeBuilder;
+import us.dot.its.jpo.ode.plugin.j2735.builders.SpeedOrVelocityBuilder;
+import us.dot.its.jpo.ode.plugin.j2735.builders.VehicleSizeBuilder;
+
+/**
+ * A {@link J2735BsmCoreData} that keeps the position, acceleration, accuracy,
+ * speed, heading and steering angle as the J2735 integers from the decoder
+ * output instead of BigDecimals.
+ * <p>
+ * Each of those fields holds its J2735 value in J2735 units, e.g. 1/10 micro
+ * degree for latitude and longitude, 0.1 m for elevation and 0.02 m/s for
+ * speed, with the J2735 "unavailable" value where the data element was
+ * unavailable. The <code>get...Degrees</code>, <code>get...Meters</code> etc.
+ * accessors convert on the fly and return NaN for an unavailable value.
+ * </p>
+ * <p>
+ * The BigDecimal parts are only built when one of their getters or setters
+ * of {@link J2735BsmCoreData} is first called. From then on the BigDecimal
+ * model is the data that is written, while the integer accessors keep giving
+ * the decoded values.
+ * </p>
+ * <p>
+ * Gson writes it in the same JSON shape, with the same numbers, as a
+ * {@link J2735BsmCoreData} built by
+ * {@link us.dot.its.jpo.ode.plugin.j2735.builders.BsmCoreDataBuilder} from
+ * the same decoder output, so a consumer cannot tell the two apart, and reads
+ * that JSON back into the J2735 integers.
+ * </p>
+ */
+@JsonAdapter(CompactBsmCoreData.GsonAdapterFactory.class)
+public class CompactBsmCoreData extends J2735BsmCoreData {
+
+   private static final long serialVersionUID = 1L;
+
+   // J2735 values meaning unavailable
+   public static final int SEC_MARK_UNAVAILABLE = 65535;
+   public static final int LATITUDE_UNAVAILABLE = 900000001;
+   public static final int LONGITUDE_UNAVAILABLE = 1800000001;
+   public static final int ELEVATION_UNAVAILABLE = -4096;
+   public static final int ACCELERATION_UNAVAILABLE = 2001;
+   public static final int VERTICAL_ACCELERATION_UNAVAILABLE = -127;
+   public static final int SEMI_AXIS_ACCURACY_UNAVAILABLE = 255;
+   public static final int ORIENTATION_UNAVAILABLE = 65535;
+   public static final int SPEED_UNAVAILABLE = 8191;
+   public static final int HEADING_UNAVAILABLE = 28800;
+   public static final int STEERING_ANGLE_UNAVAILABLE = 0x7F;
+
+   private static final int ELEVATION_MAX = 61439;
+   private static final int ELEVATION_MIN = -4095;
+   private static final int ACCELERATION_LIMIT = 2000;
+   private static final int VERTICAL_ACCELERATION_MIN = -126;
+   private static final int VERTICAL_ACCELERATION_MAX = 127;
+   private static final double ORIENTATION_UNIT = 0.0054932479;
+
+   private int latitude = LATITUDE_UNAVAILABLE; // 1/10 micro degree
+   private int longitude = LONGITUDE_UNAVAILABLE; // 1/10 micro degree
+   private int elevation = ELEVATION_UNAVAILABLE; // 0.1 m
+   private int accelLat = ACCELERATION_UNAVAILABLE; // 0.01 m/s^2
+   private int accelLong = ACCELERATION_UNAVAILABLE; // 0.01 m/s^2
+   private int accelVert = VERTICAL_ACCELERATION_UNAVAILABLE; // 0.02 G
+   private int accelYaw; // 0.01 degree/s
+   private int semiMajor = SEMI_AXIS_ACCURACY_UNAVAILABLE; // 0.05 m
+   private int semiMinor = SEMI_AXIS_ACCURACY_UNAVAILABLE; // 0.05 m
+   private int orientation = ORIENTATION_UNAVAILABLE; // 360/65535 degree
+   private int speed = SPEED_UNAVAILABLE; // 0.02 m/s
+   private int heading = HEADING_UNAVAILABLE; // 0.0125 degree
+   private int angle = STEERING_ANGLE_UNAVAILABLE; // 1.5 degree
+
+   // set once the BigDecimal parts have been built
+   private boolean expanded;
+
+   /**
+    * Reads the coreData element of a decoded BasicSafetyMessage, applying the
+    * bounds checks and limits of the J2735 builders.
+    */
+   public static CompactBsmCoreData fromCoreData(JsonNode coreData) {
+      CompactBsmCoreData compact = new CompactBsmCoreData();
+
+      compact.setMsgCnt(coreData.get("msgCnt").asInt());
+      compact.setId(coreData.get("id").asText());
+      int secMark = coreData.get("secMark").asInt();
+      compact.setSecMark(secMark != SEC_MARK_UNAVAILABLE ? secMark : null);
+
+      compact.latitude = coreData.get("lat").asInt();
+      compact.longitude = coreData.get("long").asInt();
+      int elev = coreData.get("elev").asInt();
+      if (elev != ELEVATION_UNAVAILABLE) {
+         elev = Math.max(ELEVATION_MIN, Math.min(ELEVATION_MAX, elev));
+      }
+      compact.elevation = elev;
+
+      JsonNode accelSet = coreData.get("accelSet");
+      compact.accelLong = acceleration(accelSet.get("long").asInt());
+      compact.accelLat = acceleration(accelSet.get("lat").asInt());
+      int vert = accelSet.get("vert").asInt();
+      if (vert != VERTICAL_ACCELERATION_UNAVAILABLE) {
+         vert = vert < VERTICAL_ACCELERATION_UNAVAILABLE ? VERTICAL_ACCELERATION_MIN
+               : Math.min(VERTICAL_ACCELERATION_MAX, vert);
+      }
+      compact.accelVert = vert;
+      int yaw = accelSet.get("yaw").asInt();
+      if (yaw > 32767 || yaw < -32767) {
+         throw new IllegalArgumentException("Yaw rate out of bounds");
+      }
+      compact.accelYaw = yaw;
+
+      JsonNode accuracy = coreData.get("accuracy");
+      compact.semiMajor = accuracy.get("semiMajor").asInt();
+      if (compact.semiMajor < 0 || compact.semiMajor > 255) {
+         throw new IllegalArgumentException("SemiMajorAccuracy value out of bounds");
+      }
+      compact.semiMinor = accuracy.get("semiMinor").asInt();
+      if (compact.semiMinor < 0 || compact.semiMinor > 255) {
+         throw new IllegalArgumentException("SemiMinorAccuracy value out of bounds");
+      }
+      compact.orientation = accuracy.get("orientation").asInt();
+      if (compact.orientation < 0 || compact.orientation > 65535) {
+         throw new IllegalArgumentException("SemiMajorOrientation value out of bounds");
+      }
+
+      JsonNode trans = coreData.get("transmission");
+      if (trans != null) {
+         int transmission = trans.asInt();
+         if (transmission != J2735TransmissionState.UNAVAILABLE.ordinal()) {
+            compact.setTransmission(J2735TransmissionState.values()[transmission]);
+         }
+      }
+
+      compact.speed = coreData.get("speed").asInt();
+      if (compact.speed < 0 || compact.speed > SPEED_UNAVAILABLE) {
+         throw new IllegalArgumentException("Speed or velocity out of bounds");
+      }
+
+      JsonNode head = coreData.get("heading");
+      if (head != null) {
+         compact.heading = head.asInt();
+      }
+      JsonNode steeringAngle = coreData.get("angle");
+      if (steeringAngle != null) {
+         compact.angle = steeringAngle.asInt();
+      }
+
+      compact.setBrakes(BrakeSystemStatusBuilder.genericBrakeSystemStatus(coreData.get("brakes")));
+      compact.setSize(VehicleSizeBuilder.genericVehicleSize(coreData.get("size")));
+
+      return compact;
+   }
+
+   private static int acceleration(int accel) {
+      if (accel == ACCELERATION_UNAVAILABLE) {
+         return accel;
+      }
+      return accel < -ACCELERATION_LIMIT ? -ACCELERATION_LIMIT : Math.min(ACCELERATION_LIMIT, accel);
+   }
+
+   /**
+    * @return a plain {@link J2735BsmCoreData} of the same core data
+    */
+   public J2735BsmCoreData toJ2735BsmCoreData() {
+      J2735BsmCoreData coreData = new J2735BsmCoreData();
+      coreData.setMsgCnt(getMsgCnt());
+      coreData.setId(getId());
+      coreData.setSecMark(getSecMark());
+      coreData.setPosition(getPosition());
+      coreData.setAccelSet(getAccelSet());
+      coreData.setAccuracy(getAccuracy());
+      coreData.setTransmission(getTransmission());
+      coreData.setSpeed(getSpeed());
+      coreData.setHeading(getHeading());
+      coreData.setAngle(getAngle());
+      coreData.setBrakes(getBrakes());
+      coreData.setSize(getSize());
+      return coreData;
+   }
+
+   /*
+    * Builds the BigDecimal parts as the J2735 builders would
+    */
+   private void expand() {
+      if (expanded) {
+         return;
+      }
+      expanded = true;
+      super.setPosition(new OdePosition3D(LatitudeBuilder.genericLatitude(latitude),
+            LongitudeBuilder.genericLongitude(longitude), ElevationBuilder.genericElevation(elevation)));
+
+      J2735AccelerationSet4Way accelSet = new J2735AccelerationSet4Way();
+      accelSet.setAccelLat(decimal(accelLat, accelLat != ACCELERATION_UNAVAILABLE, 1, 2));
+      accelSet.setAccelLong(decimal(accelLong, accelLong != ACCELERATION_UNAVAILABLE, 1, 2));
+      accelSet.setAccelVert(decimal(accelVert, accelVert != VERTICAL_ACCELERATION_UNAVAILABLE, 2, 2));
+      accelSet.setAccelYaw(BigDecimal.valueOf(accelYaw, 2));
+      super.setAccelSet(accelSet);
+
+      J2735PositionalAccuracy accuracy = new J2735PositionalAccuracy();
+      accuracy.setSemiMajor(decimal(semiMajor, semiMajor != SEMI_AXIS_ACCURACY_UNAVAILABLE, 5, 2));
+      accuracy.setSemiMinor(decimal(semiMinor, semiMinor != SEMI_AXIS_ACCURACY_UNAVAILABLE, 5, 2));
+      accuracy.setOrientation(orientationDecimal());
+      super.setAccuracy(accuracy);
+
+      super.setSpeed(speed != SPEED_UNAVAILABLE ? SpeedOrVelocityBuilder.genericSpeedOrVelocity(speed) : null);
+      super.setHeading(AngleBuilder.longToDecimal(heading));
+      super.setAngle(decimal(angle, angle != STEERING_ANGLE_UNAVAILABLE, 15, 1));
+   }
+
+   boolean isExpanded() {
+      return expanded;
+   }
+
+   private static BigDecimal decimal(int value, boolean available, int multiplier, int scale) {
+      return available ? BigDecimal.valueOf(value * (long) multiplier, scale) : null;
+   }
+
+   /*
+    * The orientation is not a decimal multiple of the J2735 unit, so it is
+    * computed as PositionalAccuracyBuilder does
+    */
+   private BigDecimal orientationDecimal() {
+      if (orientation == ORIENTATION_UNAVAILABLE) {
+         return null;
+      }
+      return BigDecimal.valueOf(ORIENTATION_UNIT * orientation).setScale(10, RoundingMode.HALF_EVEN);
+   }
+
+   @Override
+   public OdePosition3D getPosition() {
+      expand();
+      return super.getPosition();
+   }
+
+   @Override
+   public void setPosition(OdePosition3D position) {
+      expand();
+      super.setPosition(position);
+   }
+
+   @Override
+   public J2735AccelerationSet4Way getAccelSet() {
+      expand();
+      return super.getAccelSet();
+   }
+
+   @Override
+   public void setAccelSet(J2735AccelerationSet4Way accelSet) {
+      expand();
+      super.setAccelSet(accelSet);
+   }
+
+   @Override
+   public J2735PositionalAccuracy getAccuracy() {
+      expand();
+      return super.getAccuracy();
+   }
+
+   @Override
+   public void setAccuracy(J2735PositionalAccuracy accuracy) {
+      expand();
+      super.setAccuracy(accuracy);
+   }
+
+   @Override
+   public BigDecimal getSpeed() {
+      expand();
+      return super.getSpeed();
+   }
+
+   @Override
+   public void setSpeed(BigDecimal speed) {
+      expand();
+      super.setSpeed(speed);
+   }
+
+   @Override
+   public BigDecimal getHeading() {
+      expand();
+      return super.getHeading();
+   }
+
+   @Override
+   public void setHeading(BigDecimal heading) {
+      expand();
+      super.setHeading(heading);
+   }
+
+   @Override
+   public BigDecimal getAngle() {
+      expand();
+      return super.getAngle();
+   }
+
+   @Override
+   public void setAngle(BigDecimal angle) {
+      expand();
+      super.setAngle(angle);
+   }
+
+   @Override
+   public int hashCode() {
+      expand();
+      return super.hashCode();
+   }
+
+   @Override
+   public boolean equals(Object obj) {
+      expand();
+      if (obj instanceof CompactBsmCoreData) {
+         ((CompactBsmCoreData) obj).expand();
+      }
+      return super.equals(obj);
+   }
+
+   private static double scaled(int value, boolean available, double unit) {
+      return available ? value * unit : Double.NaN;
+   }
+
+   public double getLatitudeDegrees() {
+      return scaled(latitude, latitude != LATITUDE_UNAVAILABLE, 1e-7);
+   }
+
+   public double getLongitudeDegrees() {
+      return scaled(longitude, longitude != LONGITUDE_UNAVAILABLE, 1e-7);
+   }
+
+   public double getElevationMeters() {
+      return scaled(elevation, elevation != ELEVATION_UNAVAILABLE, 0.1);
+   }
+
+   public double getAccelLatMetersPerSecondSquared() {
+      return scaled(accelLat, accelLat != ACCELERATION_UNAVAILABLE, 0.01);
+   }
+
+   public double getAccelLongMetersPerSecondSquared() {
+      return scaled(accelLong, accelLong != ACCELERATION_UNAVAILABLE, 0.01);
+   }
+
+   public double getAccelVertG() {
+      return scaled(accelVert, accelVert != VERTICAL_ACCELERATION_UNAVAILABLE, 0.02);
+   }
+
+   public double getAccelYawDegreesPerSecond() {
+      return accelYaw * 0.01;
+   }
+
+   public double getSemiMajorMeters() {
+      return scaled(semiMajor, semiMajor != SEMI_AXIS_ACCURACY_UNAVAILABLE, 0.05);
+   }
+
+   public double getSemiMinorMeters() {
+      return scaled(semiMinor, semiMinor != SEMI_AXIS_ACCURACY_UNAVAILABLE, 0.05);
+   }
+
+   public double getOrientationDegrees() {
+      return scaled(orientation, orientation != ORIENTATION_UNAVAILABLE, ORIENTATION_UNIT);
+   }
+
+   public double getSpeedMetersPerSecond() {
+      return scaled(speed, speed != SPEED_UNAVAILABLE, 0.02);
+   }
+
+   public double getHeadingDegrees() {
+      return scaled(heading, heading != HEADING_UNAVAILABLE, 0.0125);
+   }
+
+   public double getAngleDegrees() {
+      return scaled(angle, angle != STEERING_ANGLE_UNAVAILABLE, 1.5);
+   }
+
+   public int getLatitude() {
+      return latitude;
+   }
+
+   public int getLongitude() {
+      return longitude;
+   }
+
+   public int getElevation() {
+      return elevation;
+   }
+
+   public int getAccelLat() {
+      return accelLat;
+   }
+
+   public int getAccelLong() {
+      return accelLong;
+   }
+
+   public int getAccelVert() {
+      return accelVert;
+   }
+
+   public int getAccelYaw() {
+      return accelYaw;
+   }
+
+   public int getSemiMajor() {
+      return semiMajor;
+   }
+
+   public int getSemiMinor() {
+      return semiMinor;
+   }
+
+   public int getOrientation() {
+      return orientation;
+   }
+
+   public int getSpeedUnits() {
+      return speed;
+   }
+
+   public int getHeadingUnits() {
+      return heading;
+   }
+
+   public int getAngleUnits() {
+      return angle;
+   }
+
+   /**
+    * Writes {@link CompactBsmCoreData} with the field names and order of
+    * {@link J2735BsmCoreData}. Every decimal is written as the text
+    * BigDecimal.toString() gives for it, without creating the BigDecimal.
+    * Once the BigDecimal parts were built, it is written as a
+    * {@link J2735BsmCoreData}.
+    */
+   public static class GsonAdapterFactory implements TypeAdapterFactory {
+
+      @SuppressWarnings("unchecked")
+      @Override
+      public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+         if (!CompactBsmCoreData.class.isAssignableFrom(type.getRawType())) {
+            return null;
+         }
+         return (TypeAdapter<T>) new GsonAdapter(gson);
+      }
+   }
+
+   private static class GsonAdapter extends TypeAdapter<CompactBsmCoreData> {
+
+      private final TypeAdapter<J2735BsmCoreData> expandedAdapter;
+      private final TypeAdapter<J2735TransmissionState> transmissionAdapter;
+      private final TypeAdapter<J2735BrakeSystemStatus> brakesAdapter;
+      private final TypeAdapter<J2735VehicleSize> sizeAdapter;
+
+      GsonAdapter(Gson gson) {
+         this.expandedAdapter = gson.getAdapter(J2735BsmCoreData.class);
+         this.transmissionAdapter = gson.getAdapter(J2735TransmissionState.class);
+         this.brakesAdapter = gson.getAdapter(J2735BrakeSystemStatus.class);
+         this.sizeAdapter = gson.getAdapter(J2735VehicleSize.class);
+      }
+
+      @Override
+      public void write(JsonWriter out, CompactBsmCoreData value) throws IOException {
+         if (null == value) {
+            out.nullValue();
+            return;
+         }
+         if (value.expanded) {
+            expandedAdapter.write(out, value);
+            return;
+         }
+         FixedPoint number = new FixedPoint();
+
+         out.beginObject();
+         out.name("msgCnt").value(value.getMsgCnt());
+         out.name("id").value(value.getId());
+         out.name("secMark").value(value.getSecMark());
+
+         out.name("position").beginObject();
+         decimal(out.name("latitude"), number, value.latitude, value.latitude != LATITUDE_UNAVAILABLE, 1, 7);
+         decimal(out.name("longitude"), number, value.longitude, value.longitude != LONGITUDE_UNAVAILABLE, 1, 7);
+         decimal(out.name("elevation"), number, value.elevation, value.elevation != ELEVATION_UNAVAILABLE, 1, 1);
+         out.endObject();
+
+         out.name("accelSet").beginObject();
+         decimal(out.name("accelLat"), number, value.accelLat, value.accelLat != ACCELERATION_UNAVAILABLE, 1, 2);
+         decimal(out.name("accelLong"), number, value.accelLong, value.accelLong != ACCELERATION_UNAVAILABLE, 1, 2);
+         decimal(out.name("accelVert"), number, value.accelVert,
+               value.accelVert != VERTICAL_ACCELERATION_UNAVAILABLE, 2, 2);
+         decimal(out.name("accelYaw"), number, value.accelYaw, true, 1, 2);
+         out.endObject();
+
+         out.name("accuracy").beginObject();
+         decimal(out.name("semiMajor"), number, value.semiMajor,
+               value.semiMajor != SEMI_AXIS_ACCURACY_UNAVAILABLE, 5, 2);
+         decimal(out.name("semiMinor"), number, value.semiMinor,
+               value.semiMinor != SEMI_AXIS_ACCURACY_UNAVAILABLE, 5, 2);
+         out.name("orientation").value(value.orientationDecimal());
+         out.endObject();
+
+         transmissionAdapter.write(out.name("transmission"), value.getTransmission());
+
+         decimal(out.name("speed"), number, value.speed, value.speed != SPEED_UNAVAILABLE, 2, 2);
+         decimal(out.name("heading"), number, value.heading, value.heading != HEADING_UNAVAILABLE, 125, 4);
+         decimal(out.name("angle"), number, value.angle, value.angle != STEERING_ANGLE_UNAVAILABLE, 15, 1);
+
+         brakesAdapter.write(out.name("brakes"), value.getBrakes());
+         sizeAdapter.write(out.name("size"), value.getSize());
+
+         out.endObject();
+      }
+
+      private static void decimal(JsonWriter out, FixedPoint number, int value, boolean available, int multiplier,
+            int scale) throws IOException {
+         if (available) {
+            out.value(number.set(value * (long) multiplier, scale));
+         } else {
+            out.nullValue();
+         }
+      }
+
+      /*
+       * Reads the JSON of a J2735BsmCoreData back into the J2735 integers
+       */
+      @Override
+      public CompactBsmCoreData read(JsonReader in) throws IOException {
+         if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+         }
+         CompactBsmCoreData value = new CompactBsmCoreData();
+         in.beginObject();
+         while (in.hasNext()) {
+            switch (in.nextName()) {
+            case "msgCnt":
+               value.setMsgCnt(integer(in));
+               break;
+            case "id":
+               value.setId(string(in));
+               break;
+            case "secMark":
+               value.setSecMark(integer(in));
+               break;
+            case "position":
+               readPosition(in, value);
+               break;
+            case "accelSet":
+               readAccelSet(in, value);
+               break;
+            case "accuracy":
+               readAccuracy(in, value);
+               break;
+            case "transmission":
+               value.setTransmission(transmissionAdapter.read(in));
+               break;
+            case "speed":
+               value.speed = units(in, SPEED_UNAVAILABLE, 2, 2);
+               break;
+            case "heading":
+               value.heading = units(in, HEADING_UNAVAILABLE, 125, 4);
+               break;
+            case "angle":
+               value.angle = units(in, STEERING_ANGLE_UNAVAILABLE, 15, 1);
+               break;
+            case "brakes":
+               value.setBrakes(brakesAdapter.read(in));
+               break;
+            case "size":
+               value.setSize(sizeAdapter.read(in));
+               break;
+            default:
+               in.skipValue();
+            }
+         }
+         in.endObject();
+         return value;
+      }
+
+      private static void readPosition(JsonReader in, CompactBsmCoreData value) throws IOException {
+         if (!beginObject(in)) {
+            return;
+         }
+         while (in.hasNext()) {
+            switch (in.nextName()) {
+            case "latitude":
+               value.latitude = units(in, LATITUDE_UNAVAILABLE, 1, 7);
+               break;
+            case "longitude":
+               value.longitude = units(in, LONGITUDE_UNAVAILABLE, 1, 7);
+               break;
+            case "elevation":
+               value.elevation = units(in, ELEVATION_UNAVAILABLE, 1, 1);
+               break;
+            default:
+               in.skipValue();
+            }
+         }
+         in.endObject();
+      }
+
+      private static void readAccelSet(JsonReader in, CompactBsmCoreData value) throws IOException {
+         if (!beginObject(in)) {
+            return;
+         }
+         while (in.hasNext()) {
+            switch (in.nextName()) {
+            case "accelLat":
+               value.accelLat = units(in, ACCELERATION_UNAVAILABLE, 1, 2);
+               break;
+            case "accelLong":
+               value.accelLong = units(in, ACCELERATION_UNAVAILABLE, 1, 2);
+               break;
+            case "accelVert":
+               value.accelVert = units(in, VERTICAL_ACCELERATION_UNAVAILABLE, 2, 2);
+               break;
+            case "accelYaw":
+               value.accelYaw = units(in, 0, 1, 2);
+               break;
+            default:
+               in.skipValue();
+            }
+         }
+         in.endObject();
+      }
+
+      private static void readAccuracy(JsonReader in, CompactBsmCoreData value) throws IOException {
+         if (!beginObject(in)) {
+            return;
+         }
+         while (in.hasNext()) {
+            switch (in.nextName()) {
+            case "semiMajor":
+               value.semiMajor = units(in, SEMI_AXIS_ACCURACY_UNAVAILABLE, 5, 2);
+               break;
+            case "semiMinor":
+               value.semiMinor = units(in, SEMI_AXIS_ACCURACY_UNAVAILABLE, 5, 2);
+               break;
+            case "orientation":
+               if (in.peek() == JsonToken.NULL) {
+                  in.nextNull();
+               } else {
+                  value.orientation = (int) Math.round(in.nextDouble() / ORIENTATION_UNIT);
+               }
+               break;
+            default:
+               in.skipValue();
+            }
+         }
+         in.endObject();
+      }
+
+      /*
+       * @return false if the object is null
+       */
+      private static boolean beginObject(JsonReader in) throws IOException {
+         if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return false;
+         }
+         in.beginObject();
+         return true;
+      }
+
+      private static Integer integer(JsonReader in) throws IOException {
+         if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+         }
+         return in.nextInt();
+      }
+
+      private static String string(JsonReader in) throws IOException {
+         if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+         }
+         return in.nextString();
+      }
+
+      /*
+       * @return the decimal in J2735 units, value / (multiplier * 10^-scale)
+       */
+      private static int units(JsonReader in, int unavailable, int multiplier, int scale) throws IOException {
+         if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return unavailable;
+         }
+         try {
+            return (int) (FixedPoint.unscaled(in.nextString(), scale) / multiplier);
+         } catch (NumberFormatException | ArithmeticException e) {
+            throw new JsonSyntaxException(e);
+         }
+      }
+   }
+
+   /**
+    * A reusable decimal of an unscaled value and a scale, whose toString() is
+    * that of BigDecimal.valueOf(unscaled, scale).
+    */
+   static final class FixedPoint extends Number {
+
+      private static final long serialVersionUID = 1L;
+
+      private final char[] chars = new char[32];
+      private long unscaled;
+      private int scale;
+
+      /**
+       * @return the unscaled value of the decimal text at the given scale,
+       *         as BigDecimal.setScale(scale).unscaledValue() would give it
+       */
+      static long unscaled(String text, int scale) {
+         int length = text.length();
+         boolean negative = length > 0 && text.charAt(0) == '-';
+         long unscaled = 0;
+         int fraction = -1;
+         // up to 18 digits fit in a long; anything else is left to BigDecimal
+         boolean plain = length > (negative ? 1 : 0) && length <= 18;
+         for (int i = negative ? 1 : 0; plain && i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '.' && fraction < 0) {
+               fraction = 0;
+            } else if (c >= '0' && c <= '9' && fraction < scale) {
+               unscaled = unscaled * 10 + (c - '0');
+               if (fraction >= 0) {
+                  fraction++;
+               }
+            } else {
+               plain = false;
+            }
+         }
+         if (!plain) {
+            return new BigDecimal(text).setScale(scale, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+         }
+         for (int f = Math.max(fraction, 0); f < scale; f++) {
+            unscaled *= 10;
+         }
+         return negative ? -unscaled : unscaled;
+      }
+
+      FixedPoint set(long unscaled, int scale) {
+         this.unscaled = unscaled;
+         this.scale = scale;
+         return this;
+      }
+
+      @Override
+      public String toString() {
+         long magnitude = Math.abs(unscaled);
+         int digits = 1;
+         for (long m = magnitude / 10; m > 0; m /= 10) {
+            digits++;
+         }
+         // BigDecimal switches to scientific notation below 1E-6
+         if (digits - 1 - scale < -6) {
+            return BigDecimal.valueOf(unscaled, scale).toString();
+         }
+
+         int end = Math.max(digits, scale + 1) + (scale > 0 ? 1 : 0) + (unscaled < 0 ? 1 : 0);
+         int pos = end;
+         for (int i = 0; i < scale; i++) {
+            chars[--pos] = (char) ('0' + magnitude % 10);
+            magnitude /= 10;
+         }
+         if (scale > 0) {
+            chars[--pos] = '.';
+         }
+         do {
+            chars[--pos] = (char) ('0' + magnitude % 10);
+            magnitude /= 10;
+         } while (magnitude > 0);
+         if (unscaled < 0) {
+            chars[--pos] = '-';
+         }
+         return new String(chars, pos, end - pos);
+      }
+
+      @Override
+      public int intValue() {
+         return (int) doubleValue();
+      }
+
+      @Override
+      public long longValue() {
+         return (long) doubleValue();
+      }
+
+      @Override
+      public float floatValue() {
+         return (float) doubleValue();
+      }
+
+      @Override
+      public double doubleValue() {
+         return unscaled / Math.pow(10, scale);
+      }
+   }
+}
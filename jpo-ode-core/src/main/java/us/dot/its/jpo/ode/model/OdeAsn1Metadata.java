@@ -8,6 +8,9 @@ public class OdeAsn1Metadata extends OdeLogMetadataReceived {
    private static final long serialVersionUID = -8601265839394150140L;
 
    private List<Asn1Encoding> encodings = new ArrayList<Asn1Encoding>();
+   private WsmpHeaderDetails wsmpHeader;
+   // Kafka record key of the source, carried through the ASN.1 codec
+   private String partitionKey;
 
    public OdeAsn1Metadata() {
       super();
@@ -29,4 +32,20 @@ public class OdeAsn1Metadata extends OdeLogMetadataReceived {
       encodings.add(encoding);
       return this;
    }
+
+   public WsmpHeaderDetails getWsmpHeader() {
+      return wsmpHeader;
+   }
+
+   public void setWsmpHeader(WsmpHeaderDetails wsmpHeader) {
+      this.wsmpHeader = wsmpHeader;
+   }
+
+   public String getPartitionKey() {
+      return partitionKey;
+   }
+
+   public void setPartitionKey(String partitionKey) {
+      this.partitionKey = partitionKey;
+   }
 }
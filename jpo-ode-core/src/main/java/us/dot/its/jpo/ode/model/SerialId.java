@@ -235,6 +235,11 @@ public class SerialId {
       return serialNumber;
    }
 
+   public SerialId setSerialNumber(long serialNumber) {
+      this.serialNumber = serialNumber;
+      return this;
+   }
+
    @Override
    public String toString() {
       return streamId + UUID_DELIMITER + bundleSize + 
@@ -0,0 +1,55 @@
+package us.dot.its.jpo.ode.model;
+
+public class WsmpHeaderDetails extends OdeObject {
+
+   private static final long serialVersionUID = 2398527345720957304L;
+
+   private Integer wsmpVersion;
+   private Long psid;
+   private Integer channel;
+   private Integer dataRate;
+
+   public WsmpHeaderDetails() {
+      super();
+   }
+
+   public WsmpHeaderDetails(Integer wsmpVersion, Long psid, Integer channel, Integer dataRate) {
+      super();
+      this.wsmpVersion = wsmpVersion;
+      this.psid = psid;
+      this.channel = channel;
+      this.dataRate = dataRate;
+   }
+
+   public Integer getWsmpVersion() {
+      return wsmpVersion;
+   }
+
+   public void setWsmpVersion(Integer wsmpVersion) {
+      this.wsmpVersion = wsmpVersion;
+   }
+
+   public Long getPsid() {
+      return psid;
+   }
+
+   public void setPsid(Long psid) {
+      this.psid = psid;
+   }
+
+   public Integer getChannel() {
+      return channel;
+   }
+
+   public void setChannel(Integer channel) {
+      this.channel = channel;
+   }
+
+   public Integer getDataRate() {
+      return dataRate;
+   }
+
+   public void setDataRate(Integer dataRate) {
+      this.dataRate = dataRate;
+   }
+}
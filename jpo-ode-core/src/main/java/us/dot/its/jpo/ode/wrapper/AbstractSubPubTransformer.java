@@ -1,11 +1,16 @@
 package us.dot.its.jpo.ode.wrapper;
 
+import java.util.List;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
 /**
  * @author 572682
  *
  * This abstract class provides a basic pipeline functionality through the messaging
  * framework. The objects of this class subscribe to a topic, process received messages
- * and publish the results to another topic.
+ * and publish the results to another topic. The results of a consumed batch are sent
+ * together and flushed once.
  *   
  * @param <K> Message Key type
  * @param <S> Received Message Value Type
@@ -35,6 +40,21 @@ public abstract class AbstractSubPubTransformer<K, S, P> extends AbstractSubscri
        return toBePublished;
     }
 
+    @SuppressWarnings("unchecked")
+    @Override
+    protected void batchProcessed(List<ConsumerRecord<K, S>> records, List<Object> results) {
+       int published = 0;
+       for (int i = 0; i < results.size(); i++) {
+          if (null != results.get(i)) {
+             producer.send(outputTopic, records.get(i).key(), (P) results.get(i));
+             published++;
+          }
+       }
+       if (published > 0) {
+          producer.flush();
+       }
+    }
+
    public MessageProducer<K, P> getProducer() {
       return producer;
    }
@@ -1,8 +1,16 @@
 package us.dot.its.jpo.ode.wrapper;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,6 +20,12 @@ import org.slf4j.LoggerFactory;
  *         This abstract class provides a basic service that subscribes to one
  *         or more topics and process the received messages in the derived
  *         classes.
+ *         <p>
+ *         Consumed records are handed over a poll batch at a time through
+ *         {@link #processBatch(List)}. Derived classes that can share work
+ *         across a batch override it; the others only implement
+ *         {@link #process(Object)}.
+ *         </p>
  * 
  * @param <K>
  *           Message Key type
@@ -21,7 +35,8 @@ import org.slf4j.LoggerFactory;
 public abstract class AbstractSubscriberProcessor<K, S> extends MessageProcessor<K, S> {
 
    protected Logger logger = LoggerFactory.getLogger(this.getClass());
-   protected int messagesConsumed = 0;
+   // counted from every parallel consumer lane
+   protected final AtomicLong messagesConsumed = new AtomicLong();
 
    /**
     * Starts a Kafka listener that runs call() every time a new msg arrives
@@ -40,9 +55,64 @@ public abstract class AbstractSubscriberProcessor<K, S> extends MessageProcessor
       });
    }
 
+   /**
+    * Processes the batch through {@link #processBatch(List)} and returns the
+    * last offset of each partition in it.
+    */
+   @Override
+   public Map<TopicPartition, Long> process(ConsumerRecords<K, S> consumerRecords) throws Exception {
+      List<ConsumerRecord<K, S>> records = new ArrayList<>(consumerRecords.count());
+      Map<TopicPartition, Long> processedOffsets = new HashMap<>();
+      for (ConsumerRecord<K, S> consumerRecord : consumerRecords) {
+         records.add(consumerRecord);
+         processedOffsets.put(new TopicPartition(consumerRecord.topic(), consumerRecord.partition()),
+               consumerRecord.offset());
+      }
+
+      try {
+         batchProcessed(records, processBatch(records));
+      } catch (Exception e) {
+         throw new Exception("Error processing message", e);
+      }
+      return processedOffsets;
+   }
+
+   /**
+    * Processes the records of one poll batch, in order per partition. The
+    * default calls {@link #process(Object)} for each record with
+    * {@link #getRecord()} set to it. A record that fails is logged and gets a
+    * null result, so the rest of the batch is still processed and published.
+    * 
+    * @return the result of each record, null where there is none
+    */
+   public List<Object> processBatch(List<ConsumerRecord<K, S>> records) throws Exception {
+      List<Object> results = new ArrayList<>(records.size());
+      for (ConsumerRecord<K, S> consumerRecord : records) {
+         setRecord(consumerRecord);
+         messagesConsumed.incrementAndGet();
+         Object result = null;
+         try {
+            result = process(consumerRecord.value());
+         } catch (Exception e) {
+            logger.error("Error processing record {}-{}@{}", consumerRecord.topic(), consumerRecord.partition(),
+                  consumerRecord.offset(), e);
+         }
+         results.add(result);
+      }
+      return results;
+   }
+
+   /**
+    * Called with the results of {@link #processBatch(List)} once the whole
+    * batch is processed.
+    */
+   protected void batchProcessed(List<ConsumerRecord<K, S>> records, List<Object> results) throws Exception {
+      // nothing to do by default
+   }
+
    @Override
    public Object call() {
-      messagesConsumed++;
+      messagesConsumed.incrementAndGet();
 
       S consumedData = getRecord().value();
 
@@ -0,0 +1,87 @@
+package us.dot.its.jpo.ode.wrapper;
+
+/**
+ * Sizes the worker pool of a {@link ParallelMessageConsumer} from the trend of
+ * its consumer lag.
+ * <p>
+ * One worker is added after a number of consecutive lag samples above the
+ * scale up lag that did not fall, i.e. the stage is behind and not catching
+ * up. One worker is removed after as many consecutive samples at or below a
+ * tenth of the scale up lag. The worker count stays within the configured
+ * bounds.
+ * </p>
+ */
+public class AdaptiveWorkerController {
+
+   private final int minWorkers;
+   private final int maxWorkers;
+   private final long scaleUpLag;
+   private final long scaleDownLag;
+   private final int samples;
+
+   private int workers;
+   private long previousLag = -1;
+   private int behindSamples;
+   private int idleSamples;
+
+   /**
+    * @param initialWorkers
+    *           workers to start with, moved within the bounds
+    * @param scaleUpLag
+    *           total lag in records above which the stage counts as behind
+    * @param samples
+    *           consecutive samples needed before changing the worker count
+    */
+   public AdaptiveWorkerController(int minWorkers, int maxWorkers, int initialWorkers, long scaleUpLag, int samples) {
+      if (minWorkers < 1 || maxWorkers < minWorkers) {
+         throw new IllegalArgumentException(
+               "Invalid worker bounds " + minWorkers + ".." + maxWorkers + ", need 1 <= min <= max");
+      }
+      this.minWorkers = minWorkers;
+      this.maxWorkers = maxWorkers;
+      this.workers = Math.max(minWorkers, Math.min(maxWorkers, initialWorkers));
+      this.scaleUpLag = Math.max(1, scaleUpLag);
+      this.scaleDownLag = this.scaleUpLag / 10;
+      this.samples = Math.max(1, samples);
+   }
+
+   /**
+    * @param totalLag
+    *           records behind the end of all assigned partitions
+    * @return the number of workers to use from now on
+    */
+   public synchronized int update(long totalLag) {
+      if (totalLag > scaleUpLag && (previousLag < 0 || totalLag >= previousLag)) {
+         behindSamples++;
+      } else {
+         behindSamples = 0;
+      }
+      if (totalLag <= scaleDownLag) {
+         idleSamples++;
+      } else {
+         idleSamples = 0;
+      }
+      previousLag = totalLag;
+
+      if (behindSamples >= samples && workers < maxWorkers) {
+         workers++;
+         behindSamples = 0;
+      } else if (idleSamples >= samples && workers > minWorkers) {
+         workers--;
+         idleSamples = 0;
+      }
+      return workers;
+   }
+
+   public synchronized int getWorkers() {
+      return workers;
+   }
+
+   public int getMinWorkers() {
+      return minWorkers;
+   }
+
+   public int getMaxWorkers() {
+      return maxWorkers;
+   }
+}
@@ -0,0 +1,147 @@
+package us.dot.its.jpo.ode.wrapper;
+
+import java.util.Base64;
+
+import us.dot.its.jpo.ode.util.DateTimeUtils;
+import us.dot.its.jpo.ode.util.JsonUtils;
+
+/**
+ * A record that a pipeline stage failed to process, as written to the stage's
+ * dead letter topic by {@link DeadLetterPublisher}.
+ * <p>
+ * The envelope is JSON so it can be searched with the usual tools; the
+ * original record value is kept byte for byte, Base64 encoded, so
+ * {@link DeadLetterReplayer} can send it back to its topic unchanged.
+ * </p>
+ */
+public class DeadLetterEnvelope {
+
+   private String stage;
+   private String topic;
+   private int partition = -1;
+   private long offset = -1;
+   private String key;
+   private String exceptionClass;
+   private String exceptionMessage;
+   private String failedAt;
+   private String payload;
+
+   public DeadLetterEnvelope() {
+      super();
+   }
+
+   /**
+    * @param maxMessageLength
+    *           longest exception message kept, longer ones are cut
+    */
+   public DeadLetterEnvelope(String stage, String topic, int partition, long offset, String key, byte[] payload,
+         Throwable error, int maxMessageLength) {
+      this.stage = stage;
+      this.topic = topic;
+      this.partition = partition;
+      this.offset = offset;
+      this.key = key;
+      this.exceptionClass = error.getClass().getName();
+      this.exceptionMessage = truncate(error.getMessage(), maxMessageLength);
+      this.failedAt = DateTimeUtils.now();
+      setPayloadBytes(payload);
+   }
+
+   public static String truncate(String s, int maxLength) {
+      if (null == s || s.length() <= maxLength) {
+         return s;
+      }
+      return s.substring(0, Math.max(0, maxLength)) + "...";
+   }
+
+   public String toJson() {
+      return JsonUtils.toJson(this, false);
+   }
+
+   public static DeadLetterEnvelope fromJson(String json) {
+      return (DeadLetterEnvelope) JsonUtils.fromJson(json, DeadLetterEnvelope.class);
+   }
+
+   /**
+    * @return the original record value, null if it had none
+    */
+   public byte[] getPayloadBytes() {
+      return null == payload ? null : Base64.getDecoder().decode(payload);
+   }
+
+   public void setPayloadBytes(byte[] payloadBytes) {
+      this.payload = null == payloadBytes ? null : Base64.getEncoder().encodeToString(payloadBytes);
+   }
+
+   public String getStage() {
+      return stage;
+   }
+
+   public void setStage(String stage) {
+      this.stage = stage;
+   }
+
+   public String getTopic() {
+      return topic;
+   }
+
+   public void setTopic(String topic) {
+      this.topic = topic;
+   }
+
+   public int getPartition() {
+      return partition;
+   }
+
+   public void setPartition(int partition) {
+      this.partition = partition;
+   }
+
+   public long getOffset() {
+      return offset;
+   }
+
+   public void setOffset(long offset) {
+      this.offset = offset;
+   }
+
+   public String getKey() {
+      return key;
+   }
+
+   public void setKey(String key) {
+      this.key = key;
+   }
+
+   public String getExceptionClass() {
+      return exceptionClass;
+   }
+
+   public void setExceptionClass(String exceptionClass) {
+      this.exceptionClass = exceptionClass;
+   }
+
+   public String getExceptionMessage() {
+      return exceptionMessage;
+   }
+
+   public void setExceptionMessage(String exceptionMessage) {
+      this.exceptionMessage = exceptionMessage;
+   }
+
+   public String getFailedAt() {
+      return failedAt;
+   }
+
+   public void setFailedAt(String failedAt) {
+      this.failedAt = failedAt;
+   }
+
+   public String getPayload() {
+      return payload;
+   }
+
+   public void setPayload(String payload) {
+      this.payload = payload;
+   }
+}
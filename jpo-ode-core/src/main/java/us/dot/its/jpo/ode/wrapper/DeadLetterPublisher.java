@@ -0,0 +1,144 @@
+package us.dot.its.jpo.ode.wrapper;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Takes the records a pipeline stage failed to process and writes each one,
+ * wrapped in a {@link DeadLetterEnvelope}, to the stage's dead letter topic.
+ * <p>
+ * The envelope holds the stage name, where the record was consumed from, the
+ * exception class and its message cut to a maximum length, and the record
+ * value as it was on the input topic. The value is serialized back with the
+ * serializer matching the stage's deserializer, so for POJO topics it is the
+ * equivalent bytes rather than the very same ones.
+ * </p>
+ * <p>
+ * Failures are logged through a {@link RateLimitedLogger} and never with the
+ * record itself. A publisher without a producer only logs and counts.
+ * </p>
+ *
+ * @param <V>
+ *           Value type of the records the stage consumes
+ */
+public class DeadLetterPublisher<V> {
+
+   public static final int DEFAULT_MAX_MESSAGE_LENGTH = 512;
+
+   private final String stage;
+   private final String topic;
+   private final MessageProducer<String, String> producer;
+   private final Serializer<V> valueSerializer;
+   private final RateLimitedLogger errorLogger;
+   private int maxMessageLength = DEFAULT_MAX_MESSAGE_LENGTH;
+
+   private final AtomicLong failed = new AtomicLong();
+   private volatile boolean unflushed;
+
+   /**
+    * @param topic
+    *           the stage's dead letter topic, see {@link #topicFor}
+    * @param producer
+    *           producer of the dead letter topic, null to only log failures
+    * @param valueSerializer
+    *           serializer giving back the bytes of a consumed value, null
+    *           to send dead letters without them
+    */
+   public DeadLetterPublisher(String stage, String topic, MessageProducer<String, String> producer,
+         Serializer<V> valueSerializer, RateLimitedLogger errorLogger) {
+      this.stage = stage;
+      this.topic = topic;
+      this.producer = producer;
+      this.valueSerializer = valueSerializer;
+      this.errorLogger = errorLogger;
+   }
+
+   /**
+    * @return the dead letter topic of a stage
+    */
+   public static String topicFor(String topicPrefix, String stage) {
+      return topicPrefix + stage;
+   }
+
+   public boolean isEnabled() {
+      return null != producer && null != topic;
+   }
+
+   public void publish(ConsumerRecord<String, V> record, Throwable error) {
+      publish(record.topic(), record.partition(), record.offset(), record.key(), record.value(), error);
+   }
+
+   /**
+    * Logs the failure, rate limited, and sends the record to the dead letter
+    * topic.
+    *
+    * @param partition
+    *           partition and offset of the record, -1 where unknown
+    */
+   public void publish(String sourceTopic, int partition, long offset, String key, V value, Throwable error) {
+      failed.incrementAndGet();
+      errorLogger.error(stage + " failed to process record " + sourceTopic + "-" + partition + "@" + offset, error);
+      if (!isEnabled()) {
+         return;
+      }
+
+      byte[] payload = null;
+      if (null != value && null != valueSerializer) {
+         try {
+            payload = valueSerializer.serialize(sourceTopic, value);
+         } catch (Exception e) {
+            errorLogger.error(stage + " failed to serialize dead letter", e);
+         }
+      }
+
+      DeadLetterEnvelope envelope = new DeadLetterEnvelope(stage, sourceTopic, partition, offset, key, payload, error,
+            maxMessageLength);
+      unflushed = true;
+      producer.send(topic, key, envelope.toJson(), new Callback() {
+         @Override
+         public void onCompletion(RecordMetadata metadata, Exception e) {
+            if (null != e) {
+               errorLogger.error(stage + " failed to send dead letter to " + topic, e);
+            }
+         }
+      });
+   }
+
+   /**
+    * Waits for the dead letters sent since the last flush, so a batch's
+    * offsets are not committed before its failed records are kept.
+    */
+   public void flush() {
+      if (unflushed && isEnabled()) {
+         unflushed = false;
+         producer.flush();
+      }
+   }
+
+   public String getStage() {
+      return stage;
+   }
+
+   public String getTopic() {
+      return topic;
+   }
+
+   /**
+    * @return the number of records that failed, sent or not
+    */
+   public long getFailed() {
+      return failed.get();
+   }
+
+   public int getMaxMessageLength() {
+      return maxMessageLength;
+   }
+
+   public void setMaxMessageLength(int maxMessageLength) {
+      this.maxMessageLength = maxMessageLength;
+   }
+}
@@ -0,0 +1,135 @@
+package us.dot.its.jpo.ode.wrapper;
+
+import java.util.Arrays;
+import java.util.Properties;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import us.dot.its.jpo.ode.context.AppContext;
+
+/**
+ * Sends the records of a dead letter topic back to the topics they failed
+ * on, once the cause has been fixed, so the stage processes them again.
+ * <p>
+ * The dead letter topic is read from the group's committed offsets, or from
+ * the start for a new group, until a poll returns nothing. Offsets are
+ * committed after each batch is sent, so a replay that stops part way
+ * resumes where it left off and a finished one is not repeated.
+ * </p>
+ *
+ * <pre>
+ * java us.dot.its.jpo.ode.wrapper.DeadLetterReplayer brokers deadLetterTopic [targetTopic]
+ * </pre>
+ */
+public class DeadLetterReplayer {
+
+   public static final String DEFAULT_GROUP_ID = "DeadLetterReplayer";
+   public static final long DEFAULT_POLL_TIMEOUT_MS = 5000;
+
+   private static final Logger logger = LoggerFactory.getLogger(DeadLetterReplayer.class);
+
+   private final MessageProducer<String, byte[]> producer;
+   private final String targetTopic;
+
+   /**
+    * @param targetTopic
+    *           topic to send every record to, null for the topic each one was
+    *           consumed from
+    */
+   public DeadLetterReplayer(MessageProducer<String, byte[]> producer, String targetTopic) {
+      this.producer = producer;
+      this.targetTopic = targetTopic;
+   }
+
+   /**
+    * Replays the whole dead letter topic.
+    *
+    * @return the number of records replayed
+    */
+   public long replay(String brokers, String groupId, String deadLetterTopic, long pollTimeoutMillis) {
+      Properties props = new Properties();
+      props.put("bootstrap.servers", brokers);
+      props.put("group.id", groupId);
+      props.put("enable.auto.commit", "false");
+      props.put("auto.offset.reset", "earliest");
+      props.put("key.deserializer", MessageConsumer.SERIALIZATION_STRING_DESERIALIZER);
+      props.put("value.deserializer", MessageConsumer.SERIALIZATION_STRING_DESERIALIZER);
+
+      KafkaConsumer<String, String> consumer = new KafkaConsumer<>(props);
+      long replayed = 0;
+      try {
+         consumer.subscribe(Arrays.asList(deadLetterTopic));
+         ConsumerRecords<String, String> records = consumer.poll(pollTimeoutMillis);
+         while (null != records && !records.isEmpty()) {
+            replayed += replay(records);
+            producer.flush();
+            consumer.commitSync();
+            records = consumer.poll(pollTimeoutMillis);
+         }
+      } finally {
+         consumer.close();
+      }
+      logger.info("Replayed {} record(s) from {}", replayed, deadLetterTopic);
+      return replayed;
+   }
+
+   /**
+    * Sends the original record of each envelope in the batch. Records that
+    * are not envelopes, have no topic to go to or carry no payload are logged
+    * and skipped.
+    *
+    * @return the number of records sent
+    */
+   public int replay(ConsumerRecords<String, String> records) {
+      int sent = 0;
+      for (ConsumerRecord<String, String> record : records) {
+         DeadLetterEnvelope envelope = null;
+         try {
+            envelope = DeadLetterEnvelope.fromJson(record.value());
+         } catch (Exception e) {
+            logger.debug("Failed to parse dead letter envelope", e);
+         }
+         if (null == envelope) {
+            logger.warn("Skipping {}-{}@{}, not a dead letter envelope", record.topic(), record.partition(),
+                  record.offset());
+            continue;
+         }
+         String topic = null != targetTopic ? targetTopic : envelope.getTopic();
+         if (null == topic) {
+            logger.warn("Skipping {}-{}@{}, no topic to replay to", record.topic(), record.partition(),
+                  record.offset());
+            continue;
+         }
+         if (null == envelope.getPayloadBytes()) {
+            // the stage had no bytes to keep, replaying a null value would only fail again
+            logger.warn("Skipping {}-{}@{}, no payload to replay", record.topic(), record.partition(),
+                  record.offset());
+            continue;
+         }
+         // a Kafka Streams stage only knows the key of the dead letter record
+         String key = null != envelope.getKey() ? envelope.getKey() : record.key();
+         producer.send(topic, key, envelope.getPayloadBytes());
+         sent++;
+      }
+      return sent;
+   }
+
+   public static void main(String[] args) {
+      if (args.length < 2) {
+         System.err.println("Usage: DeadLetterReplayer brokers deadLetterTopic [targetTopic]");
+         System.exit(1);
+      }
+      MessageProducer<String, byte[]> producer = MessageProducer.defaultByteArrayMessageProducer(args[0],
+            AppContext.DEFAULT_KAFKA_PRODUCER_TYPE);
+      try {
+         new DeadLetterReplayer(producer, args.length > 2 ? args[2] : null).replay(args[0], DEFAULT_GROUP_ID,
+               args[1], DEFAULT_POLL_TIMEOUT_MS);
+      } finally {
+         producer.close();
+      }
+   }
+}
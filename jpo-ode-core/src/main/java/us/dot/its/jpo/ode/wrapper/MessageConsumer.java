@@ -6,6 +6,7 @@ import java.util.Properties;
 
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.errors.WakeupException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -13,7 +14,8 @@ public class MessageConsumer<K, V> {
    
    private String name = "DefaultMessageConsumer";
 
-   private static final int CONSUMER_POLL_TIMEOUT_MS = 60000;
+   public static final long DEFAULT_CONSUMER_POLL_TIMEOUT_MS = 60000;
+   public static final long DEFAULT_CONSUMER_LAG_REFRESH_MS = 5000;
    public static final String SERIALIZATION_STRING_DESERIALIZER = "org.apache.kafka.common.serialization.StringDeserializer";
    public static final String SERIALIZATION_BYTE_ARRAY_DESERIALIZER = "org.apache.kafka.common.serialization.ByteArrayDeserializer";
    public static final int DEFAULT_CONSUMER_SESSION_TIMEOUT_MS = 30000;
@@ -26,8 +28,17 @@ public class MessageConsumer<K, V> {
 
    private KafkaConsumer<K, V> consumer;
 
+   // consumer settings, used when the consumer is created on first use
+   private Properties props;
+
    private boolean isRunning = false;
 
+   private long pollTimeoutMillis = DEFAULT_CONSUMER_POLL_TIMEOUT_MS;
+   private long lagRefreshMillis = DEFAULT_CONSUMER_LAG_REFRESH_MS;
+   private long lagCheckedAt;
+   private long lastPollEnd;
+   private MessageConsumerMetrics metrics;
+
     public static MessageConsumer<String, byte[]> defaultByteArrayMessageConsumer(
         String brokers, String groupId, MessageProcessor<String, byte[]> processor) {
 
@@ -64,7 +75,7 @@ public class MessageConsumer<K, V> {
        this.processor = processor;
        props.put("bootstrap.servers", brokers);
        props.put("group.id", groupId);
-       this.consumer = new KafkaConsumer<K, V>(props);
+       this.props = props;
 
        logger.info("Consumer Created for groupId {}", groupId);
    }
@@ -73,7 +84,7 @@ public class MessageConsumer<K, V> {
       this.processor = processor;
       props.put("bootstrap.servers", brokers);
       props.put("group.id", groupId);
-      this.consumer = new KafkaConsumer<K, V>(props);
+      this.props = props;
 
       logger.info("Consumer Created for groupId {}", groupId);
 
@@ -83,36 +94,122 @@ public class MessageConsumer<K, V> {
 
         List<String> listTopics = Arrays.asList(topics);
         logger.info("Subscribing to {}", listTopics);
+        KafkaConsumer<K, V> consumer = getConsumer();
         consumer.subscribe(listTopics);
+        getMetrics().register(listTopics);
 
         isRunning = true;
         boolean gotMessages = false;
         while (isRunning) {
             try {
-                ConsumerRecords<K, V> records = consumer.poll(CONSUMER_POLL_TIMEOUT_MS);
+                ConsumerRecords<K, V> records = poll(consumer);
                 if (records != null && !records.isEmpty()) {
                     gotMessages = true;
                     logger.debug("{} consuming {} message(s)", name, records.count());
                     processor.process(records);
                 } else {
                     if (gotMessages) {
-                        logger.debug("{} no messages consumed in {} seconds.", name, CONSUMER_POLL_TIMEOUT_MS / 1000);
+                        logger.debug("{} no messages consumed in {} seconds.", name, pollTimeoutMillis / 1000);
                         gotMessages = false;
                     }
                 }
+            } catch (WakeupException e) {
+                if (isRunning) {
+                    logger.error(" {} error processing consumed messages", name, e);
+                }
             } catch (Exception e) {
                 logger.error(" {} error processing consumed messages", name, e);
             }
         }
 
 		logger.debug("Closing message consumer.");
+        getMetrics().unregister();
         consumer.close();
     }
 
+   /**
+    * Polls the consumer, recording poll latency, records per poll and the time
+    * spent processing the previous poll. Refreshes the partition lag when it is
+    * older than the lag refresh interval and passes it to
+    * {@link #lagUpdated(long)}.
+    */
+   protected ConsumerRecords<K, V> poll(KafkaConsumer<K, V> consumer) {
+      MessageConsumerMetrics metrics = getMetrics();
+      long start = System.nanoTime();
+      if (lastPollEnd != 0) {
+         metrics.processed(start - lastPollEnd);
+      }
+      ConsumerRecords<K, V> records = consumer.poll(pollTimeoutMillis);
+      lastPollEnd = System.nanoTime();
+      metrics.polled(lastPollEnd - start, null == records ? 0 : records.count());
+
+      long now = System.currentTimeMillis();
+      if (now - lagCheckedAt >= lagRefreshMillis) {
+         lagCheckedAt = now;
+         try {
+            lagUpdated(metrics.updateLag(consumer));
+         } catch (WakeupException e) {
+            throw e;
+         } catch (Exception e) {
+            logger.warn("{} unable to read consumer lag", name, e);
+         }
+      }
+      return records;
+   }
+
+   /**
+    * Called from the polling thread with the total lag of the assigned
+    * partitions each time it is refreshed.
+    */
+   protected void lagUpdated(long totalLag) {
+      // nothing to adjust by default
+   }
+
    public void close() {
       isRunning = false;
    }
 
+   public long getPollTimeoutMillis() {
+      return pollTimeoutMillis;
+   }
+
+   public void setPollTimeoutMillis(long pollTimeoutMillis) {
+      if (pollTimeoutMillis > 0) {
+         this.pollTimeoutMillis = pollTimeoutMillis;
+      }
+   }
+
+   /**
+    * Sets the max.poll.records consumer setting; 0 keeps the Kafka default.
+    * 
+    * @throws IllegalStateException
+    *            if the consumer has already been created
+    */
+   public synchronized void setMaxPollRecords(int maxPollRecords) {
+      if (maxPollRecords <= 0) {
+         return;
+      }
+      if (null != consumer || null == props) {
+         throw new IllegalStateException(name + " consumer already created, cannot set max.poll.records");
+      }
+      props.put("max.poll.records", maxPollRecords);
+   }
+
+   public long getLagRefreshMillis() {
+      return lagRefreshMillis;
+   }
+
+   public void setLagRefreshMillis(long lagRefreshMillis) {
+      this.lagRefreshMillis = lagRefreshMillis;
+   }
+
+   public synchronized MessageConsumerMetrics getMetrics() {
+      if (null == metrics) {
+         metrics = new MessageConsumerMetrics(name);
+      }
+      return metrics;
+   }
+
    public MessageProcessor<K, V> getProcessor() {
       return processor;
    }
@@ -121,11 +218,21 @@ public class MessageConsumer<K, V> {
       this.processor = processor;
    }
 
-   public KafkaConsumer<K, V> getConsumer() {
+   public synchronized KafkaConsumer<K, V> getConsumer() {
+      if (null == consumer && null != props) {
+         consumer = new KafkaConsumer<K, V>(props);
+      }
       return consumer;
    }
 
-   public void setConsumer(KafkaConsumer<K, V> consumer) {
+   /**
+    * @return whether the Kafka consumer has been created yet
+    */
+   protected synchronized boolean isConsumerCreated() {
+      return null != consumer;
+   }
+
+   public synchronized void setConsumer(KafkaConsumer<K, V> consumer) {
       this.consumer = consumer;
    }
 
@@ -0,0 +1,222 @@
+package us.dot.its.jpo.ode.wrapper;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Poll and lag metrics of one {@link MessageConsumer}, exported as an MBean
+ * under "us.dot.its.jpo.ode:type=MessageConsumer,name=...,topic=...". The
+ * topics are part of the name since consumers of one class, such as the
+ * exporters, share a consumer name.
+ * <p>
+ * Poll latency is the time spent inside poll, processing time the time from
+ * the end of a poll to the next one. The lag of a partition is the number of
+ * records between the consumer position and the end of the partition, read
+ * from the brokers at most once per lag refresh interval.
+ * </p>
+ */
+public class MessageConsumerMetrics implements MessageConsumerMetricsMBean {
+
+   private static final Logger logger = LoggerFactory.getLogger(MessageConsumerMetrics.class);
+
+   private final String name;
+
+   private final LongAdder polls = new LongAdder();
+   private final LongAdder emptyPolls = new LongAdder();
+   private final LongAdder recordsConsumed = new LongAdder();
+   private final LongAdder pollNanos = new LongAdder();
+   private final LongAdder processingNanos = new LongAdder();
+   private final LongAdder processedPolls = new LongAdder();
+   private final AtomicInteger maxRecordsPerPoll = new AtomicInteger();
+   private final AtomicInteger workers = new AtomicInteger(1);
+   private volatile int lastRecordsPerPoll;
+   private volatile long lastPollNanos;
+
+   private volatile Map<TopicPartition, Long> partitionLag = Collections.emptyMap();
+   private volatile long totalLag = -1;
+   private volatile long lagUpdatedAt;
+
+   private ObjectName objectName;
+
+   public MessageConsumerMetrics(String name) {
+      this.name = name;
+   }
+
+   void register(List<String> topics) {
+      try {
+         objectName = new ObjectName("us.dot.its.jpo.ode:type=MessageConsumer,name=" + ObjectName.quote(name)
+               + ",topic=" + ObjectName.quote(String.join(",", topics)));
+         ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+      } catch (JMException e) {
+         logger.warn("Unable to register {} metrics MBean", name, e);
+         objectName = null;
+      }
+   }
+
+   ObjectName getObjectName() {
+      return objectName;
+   }
+
+   void unregister() {
+      if (null != objectName) {
+         try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+         } catch (JMException e) {
+            logger.debug("Unable to unregister {} metrics MBean", name, e);
+         }
+         objectName = null;
+      }
+   }
+
+   void polled(long nanos, int records) {
+      polls.increment();
+      pollNanos.add(nanos);
+      lastPollNanos = nanos;
+      lastRecordsPerPoll = records;
+      if (records == 0) {
+         emptyPolls.increment();
+      } else {
+         recordsConsumed.add(records);
+         maxRecordsPerPoll.accumulateAndGet(records, Math::max);
+      }
+   }
+
+   void processed(long nanos) {
+      processedPolls.increment();
+      processingNanos.add(nanos);
+   }
+
+   void setWorkers(int workers) {
+      this.workers.set(workers);
+   }
+
+   /**
+    * Reads the end offsets of the assigned partitions; must be called from
+    * the polling thread.
+    *
+    * @return the total lag, or -1 if it could not be read
+    */
+   long updateLag(KafkaConsumer<?, ?> consumer) {
+      Set<TopicPartition> assignment = consumer.assignment();
+      if (assignment.isEmpty()) {
+         partitionLag = Collections.emptyMap();
+         totalLag = 0;
+      } else {
+         Map<TopicPartition, Long> endOffsets = consumer.endOffsets(assignment);
+         Map<TopicPartition, Long> lag = new LinkedHashMap<>();
+         long total = 0;
+         for (TopicPartition partition : assignment) {
+            Long endOffset = endOffsets.get(partition);
+            if (null != endOffset) {
+               long partitionLag = Math.max(0, endOffset - consumer.position(partition));
+               lag.put(partition, partitionLag);
+               total += partitionLag;
+            }
+         }
+         partitionLag = lag;
+         totalLag = total;
+      }
+      lagUpdatedAt = System.currentTimeMillis();
+      return totalLag;
+   }
+
+   @Override
+   public long getPolls() {
+      return polls.sum();
+   }
+
+   @Override
+   public long getEmptyPolls() {
+      return emptyPolls.sum();
+   }
+
+   @Override
+   public long getRecordsConsumed() {
+      return recordsConsumed.sum();
+   }
+
+   @Override
+   public int getLastRecordsPerPoll() {
+      return lastRecordsPerPoll;
+   }
+
+   @Override
+   public int getMaxRecordsPerPoll() {
+      return maxRecordsPerPoll.get();
+   }
+
+   @Override
+   public double getAverageRecordsPerPoll() {
+      long count = polls.sum();
+      return count == 0 ? 0 : (double) recordsConsumed.sum() / count;
+   }
+
+   @Override
+   public double getLastPollLatencyMillis() {
+      return lastPollNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+   }
+
+   @Override
+   public double getAveragePollLatencyMillis() {
+      long count = polls.sum();
+      return count == 0 ? 0 : pollNanos.sum() / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+   }
+
+   @Override
+   public double getAverageProcessingMillis() {
+      long count = processedPolls.sum();
+      return count == 0 ? 0 : processingNanos.sum() / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+   }
+
+   /**
+    * @return records behind over all assigned partitions, -1 before the first
+    *         lag update
+    */
+   @Override
+   public long getTotalLag() {
+      return totalLag;
+   }
+
+   /**
+    * @return "topic-partition=lag" of each assigned partition
+    */
+   @Override
+   public String[] getPartitionLag() {
+      Map<TopicPartition, Long> lag = partitionLag;
+      String[] result = new String[lag.size()];
+      int i = 0;
+      for (Map.Entry<TopicPartition, Long> entry : lag.entrySet()) {
+         result[i++] = entry.getKey() + "=" + entry.getValue();
+      }
+      return result;
+   }
+
+   public Map<TopicPartition, Long> getPartitionLagMap() {
+      return partitionLag;
+   }
+
+   @Override
+   public long getLagUpdatedAt() {
+      return lagUpdatedAt;
+   }
+
+   @Override
+   public int getWorkers() {
+      return workers.get();
+   }
+}
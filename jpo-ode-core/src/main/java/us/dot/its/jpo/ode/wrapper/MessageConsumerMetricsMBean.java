@@ -0,0 +1,30 @@
+package us.dot.its.jpo.ode.wrapper;
+
+public interface MessageConsumerMetricsMBean {
+
+   public long getPolls();
+
+   public long getEmptyPolls();
+
+   public long getRecordsConsumed();
+
+   public int getLastRecordsPerPoll();
+
+   public int getMaxRecordsPerPoll();
+
+   public double getAverageRecordsPerPoll();
+
+   public double getLastPollLatencyMillis();
+
+   public double getAveragePollLatencyMillis();
+
+   public double getAverageProcessingMillis();
+
+   public long getTotalLag();
+
+   public String[] getPartitionLag();
+
+   public long getLagUpdatedAt();
+
+   public int getWorkers();
+}
@@ -12,19 +12,23 @@ import org.apache.kafka.common.TopicPartition;
  * @author 572682
  * This abstract class provides the common and basic functionality for processinf messages
  * received from a Kafka topic subscription.
+ * <p>
+ * The record being processed is kept per thread, so a processor without other mutable
+ * state can be run by several consumer workers at once.
+ * </p>
  *  
  * @param <K> Message Key type
  * @param <V> Message Value type
  */
 public abstract class MessageProcessor<K, V> implements Callable<Object> {
 
-   private ConsumerRecord<K, V> record;
+   private final ThreadLocal<ConsumerRecord<K, V>> record = new ThreadLocal<>();
 
    public Map<TopicPartition, Long> process(ConsumerRecords<K, V> consumerRecords) throws Exception {
 
       Map<TopicPartition, Long> processedOffsets = new HashMap<TopicPartition, Long>();
       for (ConsumerRecord<K, V> recordMetadata : consumerRecords) {
-         record = recordMetadata;
+         record.set(recordMetadata);
 
          TopicPartition topicPartition = new TopicPartition(recordMetadata.topic(), recordMetadata.partition());
          try {
@@ -38,11 +42,11 @@ public abstract class MessageProcessor<K, V> implements Callable<Object> {
    }
    
    public ConsumerRecord<K, V> getRecord() {
-      return record;
+      return record.get();
    }
 
    public MessageProcessor<K, V> setRecord(ConsumerRecord<K, V> newRecord) {
-       this.record = newRecord;
+       this.record.set(newRecord);
        return this;
    }
 
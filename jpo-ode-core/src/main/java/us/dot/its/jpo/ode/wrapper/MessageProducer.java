@@ -1,12 +1,15 @@
 package us.dot.its.jpo.ode.wrapper;
 
+import java.util.Collection;
 import java.util.Properties;
+import java.util.concurrent.Future;
 
 import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.serialization.Serializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,6 +32,16 @@ public class MessageProducer<K, V> {
     private static Logger logger = LoggerFactory.getLogger(MessageProducer.class);
 
     Producer<K, V> producer;
+    private Serializer<V> fanOutSerializer;
+    private MessageProducer<K, byte[]> fanOutProducer;
+
+    /**
+     * For subclasses that supply their own producer(s), see
+     * {@link #producerFor(String)}.
+     */
+    protected MessageProducer() {
+        super();
+    }
 
     public MessageProducer(
         String brokers, 
@@ -86,13 +99,22 @@ public class MessageProducer<K, V> {
     }
 
     public void send(String topic, K key, V value) {
+        send(topic, key, value, null);
+    }
+
+    /**
+     * @param callback
+     *           called when the record is acknowledged or has failed, may be
+     *           null
+     */
+    public void send(String topic, K key, V value, final Callback callback) {
         ProducerRecord<K, V> data;
         if (key == null)
             data = new ProducerRecord<>(topic, value);
         else
             data = new ProducerRecord<>(topic, key, value);
 
-        producer.send(data, new Callback() {
+        sent(producerFor(topic).send(data, new Callback() {
 
            @Override
            public void onCompletion(RecordMetadata returnMetadata, Exception e) {
@@ -101,17 +123,100 @@ public class MessageProducer<K, V> {
               } else {
                  logger.debug("Completed publish to topic: {}, offset: {}, partition: {}", returnMetadata.topic(), returnMetadata.offset(), returnMetadata.partition());
               }
-              
+              if (null != callback) {
+                 callback.onCompletion(returnMetadata, e);
+              }
            }
              
-          });
+          }));
+    }
+
+    public void send(Collection<String> topics, K key, V value) {
+        send(topics, key, value, null);
+    }
+
+    /**
+     * Sends the same value to each topic. With a fan-out serializer, see
+     * {@link #setFanOut(Serializer, MessageProducer)}, the value is serialized
+     * once and the same bytes are sent to every topic; otherwise each record
+     * is serialized by the producer.
+     * 
+     * @param callback
+     *           called once per topic when its record is acknowledged or has
+     *           failed, may be null
+     */
+    public void send(Collection<String> topics, K key, V value, Callback callback) {
+        if (topics.size() > 1 && null != fanOutSerializer && null != value) {
+            byte[] serialized = fanOutSerializer.serialize(topics.iterator().next(), value);
+            for (String topic : topics) {
+                fanOutProducer.send(topic, key, serialized, callback);
+            }
+        } else {
+            for (String topic : topics) {
+                send(topic, key, value, callback);
+            }
+        }
+    }
+
+    /**
+     * Lets multi-topic sends serialize a value once.
+     * 
+     * @param serializer
+     *           a serializer equivalent to the producer's value serializer
+     * @param bytesProducer
+     *           sends the serialized values; it must use the same key
+     *           serializer and partitioner as this producer. It is flushed
+     *           and closed with this producer.
+     */
+    public MessageProducer<K, V> setFanOut(Serializer<V> serializer, MessageProducer<K, byte[]> bytesProducer) {
+        this.fanOutSerializer = serializer;
+        this.fanOutProducer = bytesProducer;
+        return this;
+    }
+
+    public MessageProducer<K, byte[]> getFanOutProducer() {
+        return fanOutProducer;
+    }
+
+    /**
+     * Called with the result of each record handed to a Kafka producer.
+     */
+    protected void sent(Future<RecordMetadata> result) {
+    }
+
+    /**
+     * @return the producer records of the given topic are sent with
+     */
+    protected Producer<K, V> producerFor(String topic) {
+        return producer;
+    }
+
+    /**
+     * Blocks until the records sent so far are acknowledged or have failed.
+     */
+    public void flush() {
+        producer.flush();
+        flushFanOut();
     }
 
     public void close() {
         producer.close();
+        closeFanOut();
         logger.info("Producer Closed");
     }
 
+    protected void flushFanOut() {
+        if (null != fanOutProducer) {
+            fanOutProducer.flush();
+        }
+    }
+
+    protected void closeFanOut() {
+        if (null != fanOutProducer) {
+            fanOutProducer.close();
+        }
+    }
+
     public Producer<K, V> getProducer() {
         return producer;
     }
@@ -122,7 +227,7 @@ public class MessageProducer<K, V> {
     }
 
     public void send(ProducerRecord<K, V> producerRecord) {
-        producer.send(producerRecord, new Callback() {
+        sent(producerFor(producerRecord.topic()).send(producerRecord, new Callback() {
 
          @Override
          public void onCompletion(RecordMetadata returnMetadata, Exception e) {
@@ -134,7 +239,7 @@ public class MessageProducer<K, V> {
             
          }
            
-        });
+        }));
 
     }
 
@@ -0,0 +1,346 @@
+package us.dot.its.jpo.ode.wrapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link MessageConsumer} that processes each polled batch on a pool of
+ * workers.
+ * <p>
+ * The records of a batch are split into lanes, one per worker. With
+ * {@link Ordering#PARTITION} all records of a partition go to the same lane;
+ * with {@link Ordering#KEY} all records with the same key do, and records
+ * without a key stay with their partition. Each lane is processed in offset
+ * order by {@link MessageProcessor#process(ConsumerRecords)}, so the processor
+ * must be safe to call from several threads at once.
+ * </p>
+ * <p>
+ * Auto commit is disabled. Once every lane of a batch has finished, the
+ * offsets returned by the processor are committed asynchronously, and
+ * synchronously before partitions are revoked and on close. A lane that fails
+ * is logged and its remaining records are skipped, as the serial consumer
+ * skips the rest of a failed batch.
+ * </p>
+ * <p>
+ * With an {@link AdaptiveWorkerController} the number of lanes follows the
+ * consumer lag: it is changed between batches, each time the lag is refreshed.
+ * </p>
+ *
+ * @param <K>
+ *           Message Key type
+ * @param <V>
+ *           Message Value type
+ */
+public class ParallelMessageConsumer<K, V> extends MessageConsumer<K, V> {
+
+   public enum Ordering {
+      PARTITION, KEY;
+
+      /**
+       * @return the named ordering, PARTITION if the name is empty
+       */
+      public static Ordering of(String name) {
+         if (null == name || name.trim().isEmpty()) {
+            return PARTITION;
+         }
+         return valueOf(name.trim().toUpperCase());
+      }
+   }
+
+   private static final Logger logger = LoggerFactory.getLogger(ParallelMessageConsumer.class);
+
+   private volatile int workers;
+   private final Ordering ordering;
+   private final Map<TopicPartition, OffsetAndMetadata> processedOffsets = new HashMap<>();
+   private final ThreadPoolExecutor executor;
+   private AdaptiveWorkerController workerController;
+   private volatile boolean running;
+
+   /**
+    * @param workers
+    *           number of lanes processed in parallel, 0 for one per available
+    *           processor
+    */
+   public ParallelMessageConsumer(String brokers, String groupId, MessageProcessor<K, V> processor,
+         String valueDeserializer, int workers, Ordering ordering) {
+      super(brokers, groupId, processor, consumerProperties(valueDeserializer));
+      this.workers = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+      this.ordering = null == ordering ? Ordering.PARTITION : ordering;
+      this.executor = new ThreadPoolExecutor(this.workers, this.workers, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<Runnable>(), new WorkerThreadFactory(groupId));
+   }
+
+   public static ParallelMessageConsumer<String, String> defaultStringMessageConsumer(String brokers,
+         String groupId, MessageProcessor<String, String> processor, int workers, Ordering ordering) {
+      return new ParallelMessageConsumer<>(brokers, groupId, processor, SERIALIZATION_STRING_DESERIALIZER,
+            workers, ordering);
+   }
+
+   private static Properties consumerProperties(String valueDeserializer) {
+      Properties props = new Properties();
+      props.put("enable.auto.commit", "false");
+      props.put("session.timeout.ms", DEFAULT_CONSUMER_SESSION_TIMEOUT_MS);
+      props.put("key.deserializer", SERIALIZATION_STRING_DESERIALIZER);
+      props.put("value.deserializer", valueDeserializer);
+      return props;
+   }
+
+   @Override
+   public void subscribe(String... topics) {
+      final KafkaConsumer<K, V> consumer = getConsumer();
+      List<String> listTopics = Arrays.asList(topics);
+      logger.info("{} subscribing to {} with {} {} ordered workers", getName(), listTopics, workers, ordering);
+
+      consumer.subscribe(listTopics, new ConsumerRebalanceListener() {
+         @Override
+         public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+            commitProcessedOffsets(consumer);
+         }
+
+         @Override
+         public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+            // positions come from the committed offsets
+         }
+      });
+
+      getMetrics().setWorkers(workers);
+      getMetrics().register(listTopics);
+      running = true;
+      try {
+         while (running) {
+            try {
+               ConsumerRecords<K, V> records = poll(consumer);
+               if (records != null && !records.isEmpty()) {
+                  logger.debug("{} consuming {} message(s)", getName(), records.count());
+                  processBatch(records);
+                  consumer.commitAsync(new HashMap<>(processedOffsets), new OffsetCommitCallback() {
+                     @Override
+                     public void onComplete(Map<TopicPartition, OffsetAndMetadata> offsets, Exception e) {
+                        if (null != e) {
+                           logger.warn("{} failed to commit offsets {}", getName(), offsets, e);
+                        }
+                     }
+                  });
+               }
+            } catch (WakeupException e) {
+               if (running) {
+                  throw e;
+               }
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+               running = false;
+            } catch (Exception e) {
+               logger.error(" {} error processing consumed messages", getName(), e);
+            }
+         }
+      } finally {
+         executor.shutdownNow();
+         logger.debug("Closing message consumer.");
+         getMetrics().unregister();
+         commitProcessedOffsets(consumer);
+         consumer.close();
+      }
+   }
+
+   /**
+    * Processes the lanes of a batch and records the offset to resume each
+    * partition from.
+    */
+   void processBatch(ConsumerRecords<K, V> records) throws InterruptedException {
+      List<Map<TopicPartition, List<ConsumerRecord<K, V>>>> lanes = split(records);
+
+      List<Map<TopicPartition, Long>> laneOffsets = new ArrayList<>();
+      if (lanes.size() == 1) {
+         laneOffsets.add(processLane(lanes.get(0)));
+      } else {
+         List<Callable<Map<TopicPartition, Long>>> tasks = new ArrayList<>();
+         for (final Map<TopicPartition, List<ConsumerRecord<K, V>>> lane : lanes) {
+            tasks.add(new Callable<Map<TopicPartition, Long>>() {
+               @Override
+               public Map<TopicPartition, Long> call() {
+                  return processLane(lane);
+               }
+            });
+         }
+         for (Future<Map<TopicPartition, Long>> future : executor.invokeAll(tasks)) {
+            try {
+               laneOffsets.add(future.get());
+            } catch (ExecutionException e) {
+               logger.error("{} worker failed", getName(), e.getCause());
+            }
+         }
+      }
+
+      for (Map<TopicPartition, Long> offsets : laneOffsets) {
+         for (Map.Entry<TopicPartition, Long> offset : offsets.entrySet()) {
+            OffsetAndMetadata current = processedOffsets.get(offset.getKey());
+            if (null == current || current.offset() <= offset.getValue()) {
+               processedOffsets.put(offset.getKey(), new OffsetAndMetadata(offset.getValue() + 1));
+            }
+         }
+      }
+   }
+
+   private Map<TopicPartition, Long> processLane(Map<TopicPartition, List<ConsumerRecord<K, V>>> lane) {
+      try {
+         return getProcessor().process(new ConsumerRecords<>(lane));
+      } catch (Exception e) {
+         logger.error(" {} error processing consumed messages", getName(), e);
+         return new HashMap<>();
+      }
+   }
+
+   /**
+    * @return the non-empty lanes, each holding its records in offset order
+    */
+   List<Map<TopicPartition, List<ConsumerRecord<K, V>>>> split(ConsumerRecords<K, V> records) {
+      int workers = this.workers;
+      List<Map<TopicPartition, List<ConsumerRecord<K, V>>>> lanes = new ArrayList<>(workers);
+      for (int i = 0; i < workers; i++) {
+         lanes.add(new HashMap<TopicPartition, List<ConsumerRecord<K, V>>>());
+      }
+
+      int nextLane = 0;
+      for (TopicPartition partition : records.partitions()) {
+         // partitions are dealt out in turn rather than hashed, so a batch
+         // with as many partitions as workers uses every worker
+         int partitionLane = nextLane++ % workers;
+         for (ConsumerRecord<K, V> record : records.records(partition)) {
+            int lane = partitionLane;
+            if (ordering == Ordering.KEY && null != record.key()) {
+               lane = Math.floorMod(record.key().hashCode(), workers);
+            }
+            List<ConsumerRecord<K, V>> laneRecords = lanes.get(lane).get(partition);
+            if (null == laneRecords) {
+               laneRecords = new ArrayList<>();
+               lanes.get(lane).put(partition, laneRecords);
+            }
+            laneRecords.add(record);
+         }
+      }
+
+      List<Map<TopicPartition, List<ConsumerRecord<K, V>>>> nonEmpty = new ArrayList<>();
+      for (Map<TopicPartition, List<ConsumerRecord<K, V>>> lane : lanes) {
+         if (!lane.isEmpty()) {
+            nonEmpty.add(lane);
+         }
+      }
+      return nonEmpty;
+   }
+
+   private void commitProcessedOffsets(KafkaConsumer<K, V> consumer) {
+      if (processedOffsets.isEmpty()) {
+         return;
+      }
+      try {
+         consumer.commitSync(new HashMap<>(processedOffsets));
+      } catch (Exception e) {
+         logger.warn("{} failed to commit offsets {}", getName(), processedOffsets, e);
+      }
+      processedOffsets.clear();
+   }
+
+   Map<TopicPartition, OffsetAndMetadata> getProcessedOffsets() {
+      return processedOffsets;
+   }
+
+   @Override
+   protected void lagUpdated(long totalLag) {
+      AdaptiveWorkerController controller = workerController;
+      if (null != controller) {
+         setWorkers(controller.update(totalLag));
+      }
+   }
+
+   /**
+    * Lets the controller resize the worker pool as the lag changes, starting
+    * from the controller's current worker count.
+    */
+   public void setWorkerController(AdaptiveWorkerController workerController) {
+      this.workerController = workerController;
+      if (null != workerController) {
+         setWorkers(workerController.getWorkers());
+      }
+   }
+
+   public AdaptiveWorkerController getWorkerController() {
+      return workerController;
+   }
+
+   /**
+    * Changes the number of lanes used from the next batch on.
+    */
+   synchronized void setWorkers(int newWorkers) {
+      if (newWorkers < 1 || newWorkers == workers) {
+         return;
+      }
+      logger.info("{} changing workers from {} to {}", getName(), workers, newWorkers);
+      // the core size may never exceed the maximum size
+      if (newWorkers > executor.getMaximumPoolSize()) {
+         executor.setMaximumPoolSize(newWorkers);
+         executor.setCorePoolSize(newWorkers);
+      } else {
+         executor.setCorePoolSize(newWorkers);
+         executor.setMaximumPoolSize(newWorkers);
+      }
+      workers = newWorkers;
+      getMetrics().setWorkers(newWorkers);
+   }
+
+   @Override
+   public void close() {
+      super.close();
+      running = false;
+      if (isConsumerCreated()) {
+         getConsumer().wakeup();
+      }
+   }
+
+   public int getWorkers() {
+      return workers;
+   }
+
+   public Ordering getOrdering() {
+      return ordering;
+   }
+
+   private static class WorkerThreadFactory implements ThreadFactory {
+      private final String name;
+      private final AtomicInteger count = new AtomicInteger();
+
+      private WorkerThreadFactory(String name) {
+         this.name = name;
+      }
+
+      @Override
+      public Thread newThread(Runnable r) {
+         Thread thread = new Thread(r, name + "-worker-" + count.incrementAndGet());
+         thread.setDaemon(true);
+         return thread;
+      }
+   }
+}
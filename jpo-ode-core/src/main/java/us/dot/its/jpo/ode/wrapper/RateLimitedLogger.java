@@ -0,0 +1,70 @@
+package us.dot.its.jpo.ode.wrapper;
+
+import org.slf4j.Logger;
+
+/**
+ * Logs at most a number of errors per interval and counts the rest, so a
+ * storm of bad records does not turn logging into the bottleneck. The number
+ * of errors suppressed is logged with the first error of the next interval.
+ * Every error is still logged with its stack trace at debug level.
+ */
+public class RateLimitedLogger {
+
+   private final Logger logger;
+   private final int maxPerInterval;
+   private final long intervalMillis;
+
+   private long intervalStart;
+   private int logged;
+   private long suppressed;
+   private long totalSuppressed;
+
+   /**
+    * @param maxPerInterval
+    *           errors logged per interval, 0 to only count them
+    */
+   public RateLimitedLogger(Logger logger, int maxPerInterval, long intervalMillis) {
+      this.logger = logger;
+      this.maxPerInterval = Math.max(0, maxPerInterval);
+      this.intervalMillis = Math.max(1, intervalMillis);
+   }
+
+   /**
+    * Logs the error unless the interval's quota is used up. The throwable is
+    * logged by class and message only; its stack trace goes to debug.
+    */
+   public void error(String msg, Throwable t) {
+      long suppressedBefore = permit(System.currentTimeMillis());
+      if (suppressedBefore >= 0) {
+         if (suppressedBefore > 0) {
+            logger.error("{} similar error(s) suppressed", suppressedBefore);
+         }
+         logger.error("{}: {}", msg, String.valueOf(t));
+      }
+      logger.debug(msg, t);
+   }
+
+   /**
+    * @return the number of errors suppressed since the last one logged if
+    *         this one may be logged, else -1
+    */
+   synchronized long permit(long nowMillis) {
+      if (nowMillis - intervalStart >= intervalMillis) {
+         intervalStart = nowMillis;
+         logged = 0;
+      }
+      if (logged < maxPerInterval) {
+         logged++;
+         long s = suppressed;
+         suppressed = 0;
+         return s;
+      }
+      suppressed++;
+      totalSuppressed++;
+      return -1;
+   }
+
+   public synchronized long getTotalSuppressed() {
+      return totalSuppressed;
+   }
+}
@@ -2,6 +2,6 @@ package us.dot.its.jpo.ode.wrapper.serdes;
 
 import us.dot.its.jpo.ode.model.OdeBsmData;
 
-public class OdeBsmDeserializer extends MessagingDeserializer<OdeBsmData> {
+public class OdeBsmDeserializer extends VersionedMessagingDeserializer<OdeBsmData> {
 
 }
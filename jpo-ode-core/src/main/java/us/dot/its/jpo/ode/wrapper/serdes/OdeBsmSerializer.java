@@ -2,6 +2,6 @@ package us.dot.its.jpo.ode.wrapper.serdes;
 
 import us.dot.its.jpo.ode.model.OdeBsmData;
 
-public class OdeBsmSerializer extends MessagingSerializer<OdeBsmData> {
+public class OdeBsmSerializer extends VersionedMessagingSerializer<OdeBsmData> {
 
 }
@@ -0,0 +1,145 @@
+package us.dot.its.jpo.ode.wrapper.serdes;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+import org.apache.kafka.common.errors.SerializationException;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.pool.KryoPool;
+
+import us.dot.its.jpo.ode.model.CompactBsmCoreData;
+import us.dot.its.jpo.ode.model.OdeBsmData;
+import us.dot.its.jpo.ode.model.OdeBsmMetadata;
+import us.dot.its.jpo.ode.model.OdeBsmMetadata.BsmSource;
+import us.dot.its.jpo.ode.model.OdeBsmPayload;
+import us.dot.its.jpo.ode.model.OdeLogMetadata;
+import us.dot.its.jpo.ode.model.OdeLogMetadata.RecordType;
+import us.dot.its.jpo.ode.model.OdeLogMetadata.SecurityResultCode;
+import us.dot.its.jpo.ode.model.OdeMsgMetadata;
+import us.dot.its.jpo.ode.model.OdeMsgMetadata.GeneratedBy;
+import us.dot.its.jpo.ode.model.OdeMsgPayload;
+import us.dot.its.jpo.ode.model.OdeTimData;
+import us.dot.its.jpo.ode.model.OdeTimPayload;
+import us.dot.its.jpo.ode.model.SerialId;
+import us.dot.its.jpo.ode.plugin.j2735.J2735AccelerationSet4Way;
+import us.dot.its.jpo.ode.plugin.j2735.J2735BrakeSystemStatus;
+import us.dot.its.jpo.ode.plugin.j2735.J2735Bsm;
+import us.dot.its.jpo.ode.plugin.j2735.J2735BsmCoreData;
+import us.dot.its.jpo.ode.plugin.j2735.J2735BsmPart2Content;
+import us.dot.its.jpo.ode.plugin.j2735.J2735PositionalAccuracy;
+import us.dot.its.jpo.ode.plugin.j2735.J2735TransmissionState;
+import us.dot.its.jpo.ode.plugin.j2735.J2735VehicleSize;
+import us.dot.its.jpo.ode.plugin.j2735.OdePosition3D;
+import us.dot.its.jpo.ode.util.SerializationUtils;
+
+/**
+ * Thread-safe Kryo encoding of the ODE data records with a schema version
+ * header.
+ * <p>
+ * A record is a {@link #MAGIC} byte, the schema version byte and the object
+ * written with {@link Kryo#writeClassAndObject}, trimmed to the written
+ * length. Kryo instances come from a pool and have the common model classes
+ * registered with fixed ids, so those classes are written as a small id
+ * instead of their name. Other classes are still written by name.
+ * </p>
+ * <p>
+ * A new schema version may only append registrations, so a consumer can read
+ * every version up to its own. Records without the header were written by
+ * {@link SerializationUtils} and are decoded the old way.
+ * </p>
+ */
+public final class OdeKryoCodec {
+
+   public static final byte MAGIC = (byte) 0xD7;
+   public static final byte SCHEMA_VERSION = 2;
+   public static final int HEADER_LENGTH = 2;
+
+   // registered ids start after the ids Kryo reserves for primitives
+   private static final int FIRST_REGISTRATION_ID = 100;
+
+   private static final Class<?>[] REGISTRATIONS_V1 = {
+         OdeBsmData.class, OdeBsmMetadata.class, OdeBsmPayload.class, OdeTimData.class, OdeTimPayload.class,
+         OdeLogMetadata.class, OdeMsgMetadata.class, OdeMsgPayload.class, SerialId.class, BsmSource.class,
+         RecordType.class, SecurityResultCode.class, GeneratedBy.class, J2735Bsm.class, J2735BsmCoreData.class,
+         J2735BsmPart2Content.class, OdePosition3D.class, J2735AccelerationSet4Way.class,
+         J2735PositionalAccuracy.class, J2735TransmissionState.class, J2735BrakeSystemStatus.class,
+         J2735VehicleSize.class, BigDecimal.class, BigInteger.class, ArrayList.class, HashMap.class,
+         LinkedHashMap.class };
+
+   private static final Class<?>[] REGISTRATIONS_V2 = { CompactBsmCoreData.class };
+
+   private static final KryoPool pool = new KryoPool.Builder(OdeKryoCodec::newKryo).softReferences().build();
+
+   private static final ThreadLocal<Output> outputs = ThreadLocal.withInitial(() -> new Output(1024, -1));
+
+   @SuppressWarnings("rawtypes")
+   private static final ThreadLocal<SerializationUtils> legacy = ThreadLocal.withInitial(SerializationUtils::new);
+
+   private OdeKryoCodec() {
+   }
+
+   static Kryo newKryo() {
+      Kryo kryo = new Kryo();
+      // the records are trees, reference tracking would only add bytes
+      kryo.setReferences(false);
+      int id = FIRST_REGISTRATION_ID;
+      for (Class<?> type : REGISTRATIONS_V1) {
+         kryo.register(type, id++);
+      }
+      for (Class<?> type : REGISTRATIONS_V2) {
+         kryo.register(type, id++);
+      }
+      return kryo;
+   }
+
+   public static byte[] encode(Object object) {
+      if (null == object) {
+         return null;
+      }
+      Output output = outputs.get();
+      output.clear();
+      output.writeByte(MAGIC);
+      output.writeByte(SCHEMA_VERSION);
+      Kryo kryo = pool.borrow();
+      try {
+         kryo.writeClassAndObject(output, object);
+      } finally {
+         pool.release(kryo);
+      }
+      return output.toBytes();
+   }
+
+   public static Object decode(byte[] data) {
+      if (null == data) {
+         return null;
+      }
+      if (!hasHeader(data)) {
+         return legacy.get().deserialize(data);
+      }
+      byte version = data[1];
+      if (version < 1 || version > SCHEMA_VERSION) {
+         throw new SerializationException(
+               "Unsupported record schema version " + version + ", this consumer reads up to " + SCHEMA_VERSION);
+      }
+      Kryo kryo = pool.borrow();
+      try {
+         return kryo.readClassAndObject(new Input(data, HEADER_LENGTH, data.length - HEADER_LENGTH));
+      } finally {
+         pool.release(kryo);
+      }
+   }
+
+   /**
+    * Legacy records start with the Kryo class marker, which is never
+    * {@link #MAGIC} for an object written by name.
+    */
+   public static boolean hasHeader(byte[] data) {
+      return data.length >= HEADER_LENGTH && data[0] == MAGIC;
+   }
+}
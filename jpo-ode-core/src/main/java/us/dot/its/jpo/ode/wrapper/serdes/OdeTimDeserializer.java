@@ -2,6 +2,6 @@ package us.dot.its.jpo.ode.wrapper.serdes;
 
 import us.dot.its.jpo.ode.model.OdeTimData;
 
-public class OdeTimDeserializer extends MessagingDeserializer<OdeTimData> {
+public class OdeTimDeserializer extends VersionedMessagingDeserializer<OdeTimData> {
 
 }
@@ -2,6 +2,6 @@ package us.dot.its.jpo.ode.wrapper.serdes;
 
 import us.dot.its.jpo.ode.model.OdeTimData;
 
-public class OdeTimSerializer extends MessagingSerializer<OdeTimData> {
+public class OdeTimSerializer extends VersionedMessagingSerializer<OdeTimData> {
 
 }
@@ -0,0 +1,30 @@
+package us.dot.its.jpo.ode.wrapper.serdes;
+
+import java.util.Map;
+
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Thread-safe deserializer of the records written by
+ * {@link VersionedMessagingSerializer} and of the older
+ * {@link MessagingSerializer} records, see {@link OdeKryoCodec}.
+ */
+public class VersionedMessagingDeserializer<T> implements Deserializer<T> {
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        // nothing to do
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        return (T) OdeKryoCodec.decode(data);
+    }
+
+    @Override
+    public void close() {
+        // nothing to do
+    }
+
+}
@@ -0,0 +1,28 @@
+package us.dot.its.jpo.ode.wrapper.serdes;
+
+import java.util.Map;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Thread-safe serializer writing compact, versioned records, see
+ * {@link OdeKryoCodec}.
+ */
+public class VersionedMessagingSerializer<T> implements Serializer<T> {
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        // nothing to do
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        return OdeKryoCodec.encode(data);
+    }
+
+    @Override
+    public void close() {
+        // nothing to do
+    }
+
+}
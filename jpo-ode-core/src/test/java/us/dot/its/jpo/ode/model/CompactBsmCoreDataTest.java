@@ -0,0 +1,165 @@
+package us.dot.its.jpo.ode.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import us.dot.its.jpo.ode.model.CompactBsmCoreData.FixedPoint;
+import us.dot.its.jpo.ode.plugin.j2735.J2735Bsm;
+import us.dot.its.jpo.ode.plugin.j2735.J2735BsmCoreData;
+import us.dot.its.jpo.ode.plugin.j2735.builders.BsmCoreDataBuilder;
+import us.dot.its.jpo.ode.util.JsonUtils;
+import us.dot.its.jpo.ode.util.OdeJsonCodec;
+
+public class CompactBsmCoreDataTest {
+
+   // the coreData of data/bsmTx_Asn1DecoderOutput.xml as XmlUtils reads it
+   private static final String CORE_DATA = "{\"msgCnt\":95,\"id\":\"24EF0000\",\"secMark\":54300,"
+         + "\"lat\":404740215,\"long\":-1049691438,\"elev\":14967,"
+         + "\"accuracy\":{\"semiMajor\":193,\"semiMinor\":254,\"orientation\":65535},"
+         + "\"transmission\":{\"unavailable\":\"\"},\"speed\":0,\"heading\":4096,\"angle\":127,"
+         + "\"accelSet\":{\"long\":-4,\"lat\":2001,\"vert\":-127,\"yaw\":0},"
+         + "\"brakes\":{\"wheelBrakes\":10000,\"traction\":{\"unavailable\":\"\"},\"abs\":{\"unavailable\":\"\"},"
+         + "\"scs\":{\"unavailable\":\"\"},\"brakeBoost\":{\"unavailable\":\"\"},\"auxBrakes\":{\"unavailable\":\"\"}},"
+         + "\"size\":{\"width\":0,\"length\":0}}";
+
+   private static ObjectNode coreData() throws Exception {
+      return (ObjectNode) new ObjectMapper().readTree(CORE_DATA);
+   }
+
+   private static void assertSameJson(JsonNode coreData) {
+      J2735BsmCoreData expected = BsmCoreDataBuilder.genericBsmCoreData(coreData);
+      CompactBsmCoreData actual = CompactBsmCoreData.fromCoreData(coreData);
+      assertEquals(JsonUtils.toJson(expected, false), JsonUtils.toJson(actual, false));
+      assertEquals(JsonUtils.toJson(expected, true), JsonUtils.toJson(actual, true));
+      assertEquals(JsonUtils.toJson(expected, true), JsonUtils.toJson(actual.toJ2735BsmCoreData(), true));
+   }
+
+   @Test
+   public void shouldWriteSameJsonAsBsmCoreDataBuilder() throws Exception {
+      assertSameJson(coreData());
+   }
+
+   @Test
+   public void shouldWriteSameJsonForAvailableAndLimitValues() throws Exception {
+      ObjectNode coreData = coreData();
+      coreData.put("secMark", 65535).put("lat", 5).put("long", -120).put("elev", 70000).put("speed", 8191)
+            .put("heading", 28799).put("angle", -126).put("transmission", 2);
+      ((ObjectNode) coreData.get("accuracy")).put("semiMajor", 255).put("orientation", 12345);
+      ((ObjectNode) coreData.get("accelSet")).put("long", 2500).put("lat", -2500).put("vert", -200).put("yaw", -32767);
+      ((ObjectNode) coreData.get("size")).put("width", 190).put("length", 480);
+      assertSameJson(coreData);
+
+      coreData.put("lat", 900000001).put("long", 0).put("elev", -5000).remove("heading");
+      ((ObjectNode) coreData.get("accelSet")).put("vert", 200);
+      assertSameJson(coreData);
+   }
+
+   @Test
+   public void shouldConvertToDegreesAndMeters() throws Exception {
+      CompactBsmCoreData compact = CompactBsmCoreData.fromCoreData(coreData());
+      assertEquals(40.4740215, compact.getLatitudeDegrees(), 1e-9);
+      assertEquals(-104.9691438, compact.getLongitudeDegrees(), 1e-9);
+      assertEquals(1496.7, compact.getElevationMeters(), 1e-9);
+      assertEquals(9.65, compact.getSemiMajorMeters(), 1e-9);
+      assertEquals(51.2, compact.getHeadingDegrees(), 1e-9);
+      assertEquals(-0.04, compact.getAccelLongMetersPerSecondSquared(), 1e-9);
+      assertTrue(Double.isNaN(compact.getAccelLatMetersPerSecondSquared()));
+      assertTrue(Double.isNaN(compact.getOrientationDegrees()));
+      assertTrue(Double.isNaN(compact.getAngleDegrees()));
+   }
+
+   @Test
+   public void shouldFormatAsBigDecimal() {
+      FixedPoint number = new FixedPoint();
+      long[] values = { 0, 5, -5, 12, 120, 404740215, -1049691438, 900000000, 14967, -40950, 2000, -8, 3599875 };
+      for (int scale = 0; scale <= 7; scale++) {
+         for (long value : values) {
+            assertEquals(BigDecimal.valueOf(value, scale).toString(), number.set(value, scale).toString());
+         }
+      }
+   }
+
+   @Test
+   public void shouldReadWhatItWrites() throws Exception {
+      ObjectNode coreData = coreData();
+      ((ObjectNode) coreData.get("accuracy")).put("orientation", 12345);
+      coreData.put("heading", 28799).put("angle", -126).put("transmission", 2);
+      CompactBsmCoreData compact = CompactBsmCoreData.fromCoreData(coreData);
+      String json = JsonUtils.toJson(compact, false);
+
+      CompactBsmCoreData read = OdeJsonCodec.fromJson(json, CompactBsmCoreData.class);
+      assertEquals(json, JsonUtils.toJson(read, false));
+      assertEquals(compact.getLatitude(), read.getLatitude());
+      assertEquals(compact.getElevation(), read.getElevation());
+      assertEquals(compact.getAccelVert(), read.getAccelVert());
+      assertEquals(compact.getOrientation(), read.getOrientation());
+      assertEquals(compact.getHeadingUnits(), read.getHeadingUnits());
+      assertEquals(compact.getAngleUnits(), read.getAngleUnits());
+      assertEquals(compact, read);
+   }
+
+   @Test
+   public void shouldBuildBigDecimalsOnlyWhenAskedFor() throws Exception {
+      CompactBsmCoreData compact = CompactBsmCoreData.fromCoreData(coreData());
+      String json = JsonUtils.toJson(compact, false);
+      assertFalse(compact.isExpanded());
+
+      assertEquals(new BigDecimal("40.4740215"), compact.getPosition().getLatitude());
+      assertTrue(compact.isExpanded());
+      assertEquals(json, JsonUtils.toJson(compact, false));
+
+      compact.setSpeed(BigDecimal.valueOf(22.54));
+      assertEquals(json.replace("\"speed\":0.00", "\"speed\":22.54"), JsonUtils.toJson(compact, false));
+   }
+
+   @Test
+   public void shouldWriteSameJsonInsideBsm() throws Exception {
+      J2735Bsm expected = new J2735Bsm();
+      expected.setCoreData(BsmCoreDataBuilder.genericBsmCoreData(coreData()));
+      J2735Bsm actual = new J2735Bsm();
+      actual.setCoreData(CompactBsmCoreData.fromCoreData(coreData()));
+      assertEquals(JsonUtils.toJson(expected, false), JsonUtils.toJson(actual, false));
+      assertEquals(OdeJsonCodec.toObjectNode(expected), OdeJsonCodec.toObjectNode(actual));
+   }
+
+   @Test
+   public void shouldBeWrittenByItsAdapterInsideBsm() throws Exception {
+      J2735Bsm expected = new J2735Bsm();
+      expected.setCoreData(BsmCoreDataBuilder.genericBsmCoreData(coreData()));
+      CompactBsmCoreData coreData = CompactBsmCoreData.fromCoreData(coreData());
+      J2735Bsm actual = new J2735Bsm();
+      actual.setCoreData(coreData);
+
+      // a reflective adapter would leave out the parts not yet built
+      assertEquals(OdeJsonCodec.toJson(expected, true), OdeJsonCodec.toJson(actual, true));
+      assertFalse(coreData.isExpanded());
+   }
+
+   @Test
+   public void shouldParseAsBigDecimal() {
+      String[] texts = { "0", "5", "-5", "1.5", "-0.04", "40.4740215", "-104.9691438", "1496.7", "359.9875",
+            "0.0054932479", "1E+2", "12.345678901234567890" };
+      for (int scale = 0; scale <= 7; scale++) {
+         for (String text : texts) {
+            assertEquals(text + " at scale " + scale,
+                  new BigDecimal(text).setScale(scale, RoundingMode.HALF_EVEN).unscaledValue().longValue(),
+                  FixedPoint.unscaled(text, scale));
+         }
+      }
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void shouldRejectSpeedOutOfBounds() throws Exception {
+      CompactBsmCoreData.fromCoreData(coreData().put("speed", 8192));
+   }
+}
@@ -0,0 +1,95 @@
+package us.dot.its.jpo.ode.wrapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Test;
+
+public class AbstractSubPubTransformerTest {
+
+   private static final String TOPIC = "topic.OdeBsmPojo";
+
+   private static class RecordingProducer extends MessageProducer<String, String> {
+      private final List<String> sent = new ArrayList<>();
+      private int flushes;
+
+      @Override
+      public void send(String topic, String key, String value) {
+         sent.add(topic + "/" + key + "/" + value);
+      }
+
+      @Override
+      public void flush() {
+         flushes++;
+      }
+   }
+
+   private static class UpperCaseTransformer extends AbstractSubPubTransformer<String, String, String> {
+      UpperCaseTransformer(MessageProducer<String, String> producer) {
+         super(producer, "topic.OdeBsmJson");
+      }
+
+      @Override
+      protected Object process(String consumedData) {
+         if ("bad".equals(consumedData)) {
+            throw new IllegalArgumentException("Cannot transform " + consumedData);
+         }
+         // drops the empty records
+         return consumedData.isEmpty() ? null : consumedData.toUpperCase();
+      }
+   }
+
+   @Test
+   public void shouldPublishBatchResultsAndFlushOnce() throws Exception {
+      Map<TopicPartition, List<ConsumerRecord<String, String>>> records = new LinkedHashMap<>();
+      records.put(new TopicPartition(TOPIC, 0), Arrays.asList(new ConsumerRecord<>(TOPIC, 0, 5, "k1", "a"),
+            new ConsumerRecord<>(TOPIC, 0, 6, "k2", ""), new ConsumerRecord<>(TOPIC, 0, 7, "k3", "c")));
+      records.put(new TopicPartition(TOPIC, 1), Arrays.asList(new ConsumerRecord<>(TOPIC, 1, 2, "k4", "d")));
+
+      RecordingProducer producer = new RecordingProducer();
+      Map<TopicPartition, Long> offsets = new UpperCaseTransformer(producer).process(new ConsumerRecords<>(records));
+
+      assertEquals(Arrays.asList("topic.OdeBsmJson/k1/A", "topic.OdeBsmJson/k3/C", "topic.OdeBsmJson/k4/D"),
+            producer.sent);
+      assertEquals(1, producer.flushes);
+      assertEquals(Long.valueOf(7), offsets.get(new TopicPartition(TOPIC, 0)));
+      assertEquals(Long.valueOf(2), offsets.get(new TopicPartition(TOPIC, 1)));
+   }
+
+   @Test
+   public void shouldNotFlushWithoutResults() throws Exception {
+      RecordingProducer producer = new RecordingProducer();
+      UpperCaseTransformer transformer = new UpperCaseTransformer(producer);
+      List<Object> results = transformer
+            .processBatch(Arrays.asList(new ConsumerRecord<>(TOPIC, 0, 1, "k1", "")));
+
+      assertNull(results.get(0));
+      transformer.process(new ConsumerRecords<String, String>(new LinkedHashMap<>()));
+      assertEquals(0, producer.flushes);
+   }
+
+   @Test
+   public void shouldPublishRestOfBatchWhenRecordFails() throws Exception {
+      Map<TopicPartition, List<ConsumerRecord<String, String>>> records = new LinkedHashMap<>();
+      records.put(new TopicPartition(TOPIC, 0), Arrays.asList(new ConsumerRecord<>(TOPIC, 0, 5, "k1", "a"),
+            new ConsumerRecord<>(TOPIC, 0, 6, "k2", "bad"), new ConsumerRecord<>(TOPIC, 0, 7, "k3", "c")));
+
+      RecordingProducer producer = new RecordingProducer();
+      UpperCaseTransformer transformer = new UpperCaseTransformer(producer);
+      Map<TopicPartition, Long> offsets = transformer.process(new ConsumerRecords<>(records));
+
+      assertEquals(Arrays.asList("topic.OdeBsmJson/k1/A", "topic.OdeBsmJson/k3/C"), producer.sent);
+      assertEquals(1, producer.flushes);
+      assertEquals(3, transformer.messagesConsumed.get());
+      assertEquals(Long.valueOf(7), offsets.get(new TopicPartition(TOPIC, 0)));
+   }
+}
@@ -0,0 +1,55 @@
+package us.dot.its.jpo.ode.wrapper;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class AdaptiveWorkerControllerTest {
+
+   @Test
+   public void shouldAddWorkerWhenLagKeepsGrowing() {
+      AdaptiveWorkerController controller = new AdaptiveWorkerController(1, 4, 2, 1000, 3);
+      assertEquals(2, controller.update(5000));
+      assertEquals(2, controller.update(6000));
+      assertEquals(3, controller.update(6000));
+      // the count starts over after each change
+      assertEquals(3, controller.update(7000));
+      assertEquals(3, controller.update(8000));
+      assertEquals(4, controller.update(9000));
+      for (int i = 0; i < 5; i++) {
+         assertEquals(4, controller.update(10000 + i));
+      }
+   }
+
+   @Test
+   public void shouldKeepWorkersWhileCatchingUp() {
+      AdaptiveWorkerController controller = new AdaptiveWorkerController(1, 4, 2, 1000, 2);
+      assertEquals(2, controller.update(5000));
+      assertEquals(2, controller.update(4000));
+      assertEquals(2, controller.update(3000));
+      assertEquals(2, controller.update(2000));
+      assertEquals(2, controller.update(500));
+   }
+
+   @Test
+   public void shouldRemoveWorkerWhenIdle() {
+      AdaptiveWorkerController controller = new AdaptiveWorkerController(1, 4, 3, 1000, 2);
+      assertEquals(3, controller.update(100));
+      assertEquals(2, controller.update(0));
+      assertEquals(2, controller.update(0));
+      assertEquals(1, controller.update(0));
+      assertEquals(1, controller.update(0));
+      assertEquals(1, controller.update(0));
+   }
+
+   @Test
+   public void shouldStartWithinBounds() {
+      assertEquals(2, new AdaptiveWorkerController(2, 4, 1, 1000, 2).getWorkers());
+      assertEquals(4, new AdaptiveWorkerController(2, 4, 8, 1000, 2).getWorkers());
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void shouldRejectInvalidBounds() {
+      new AdaptiveWorkerController(3, 2, 2, 1000, 2);
+   }
+}
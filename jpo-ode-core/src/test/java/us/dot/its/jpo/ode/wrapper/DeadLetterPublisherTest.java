@@ -0,0 +1,126 @@
+package us.dot.its.jpo.ode.wrapper;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+public class DeadLetterPublisherTest {
+
+   private static final String TOPIC = "topic.Asn1DecoderOutput";
+   private static final String DEAD_LETTER_TOPIC = "topic.OdeDeadLetterAsn1DecodedDataRouter";
+
+   private MockProducer<String, String> deadLetterProducer;
+   private DeadLetterPublisher<String> publisher;
+
+   @Before
+   public void setUp() {
+      deadLetterProducer = new MockProducer<>(true, new StringSerializer(), new StringSerializer());
+      MessageProducer<String, String> producer = new MessageProducer<String, String>() {
+      };
+      producer.setProducer(deadLetterProducer);
+      publisher = new DeadLetterPublisher<>("Asn1DecodedDataRouter", DEAD_LETTER_TOPIC, producer,
+            new StringSerializer(), new RateLimitedLogger(LoggerFactory.getLogger(getClass()), 1, 60000));
+   }
+
+   @Test
+   public void shouldSendEnvelopeWithOriginalBytes() {
+      publisher.setMaxMessageLength(10);
+      publisher.publish(new ConsumerRecord<>(TOPIC, 2, 42, "10.1.1.12", "<OdeAsn1Data/>"),
+            new IllegalArgumentException("Unexpected message id 99"));
+
+      List<ProducerRecord<String, String>> sent = deadLetterProducer.history();
+      assertEquals(1, sent.size());
+      assertEquals(DEAD_LETTER_TOPIC, sent.get(0).topic());
+      assertEquals("10.1.1.12", sent.get(0).key());
+
+      DeadLetterEnvelope envelope = DeadLetterEnvelope.fromJson(sent.get(0).value());
+      assertEquals("Asn1DecodedDataRouter", envelope.getStage());
+      assertEquals(TOPIC, envelope.getTopic());
+      assertEquals(2, envelope.getPartition());
+      assertEquals(42, envelope.getOffset());
+      assertEquals(IllegalArgumentException.class.getName(), envelope.getExceptionClass());
+      assertEquals("Unexpected...", envelope.getExceptionMessage());
+      assertArrayEquals("<OdeAsn1Data/>".getBytes(StandardCharsets.UTF_8), envelope.getPayloadBytes());
+      assertEquals(1, publisher.getFailed());
+   }
+
+   @Test
+   public void shouldOnlyCountWhenDisabled() {
+      DeadLetterPublisher<String> disabled = new DeadLetterPublisher<>("ToJsonConverter", null, null,
+            new StringSerializer(), new RateLimitedLogger(LoggerFactory.getLogger(getClass()), 1, 60000));
+      assertFalse(disabled.isEnabled());
+      disabled.publish(TOPIC, -1, -1, null, "value", new IllegalStateException());
+      disabled.flush();
+      assertEquals(1, disabled.getFailed());
+   }
+
+   @Test
+   public void shouldReplayToOriginalTopic() {
+      publisher.publish(new ConsumerRecord<>(TOPIC, 0, 7, "key", "<OdeAsn1Data/>"), new IllegalStateException());
+      DeadLetterEnvelope streamsEnvelope = new DeadLetterEnvelope("Asn1DecodedDataTopology", TOPIC, 1, 3, null,
+            "<tim/>".getBytes(StandardCharsets.UTF_8), new IllegalStateException(), 100);
+
+      List<ConsumerRecord<String, String>> deadLetters = new ArrayList<>();
+      deadLetters.add(
+            new ConsumerRecord<>(DEAD_LETTER_TOPIC, 0, 0, "key", deadLetterProducer.history().get(0).value()));
+      deadLetters.add(new ConsumerRecord<>(DEAD_LETTER_TOPIC, 0, 1, "streamsKey", streamsEnvelope.toJson()));
+      deadLetters.add(new ConsumerRecord<>(DEAD_LETTER_TOPIC, 0, 2, "key", "not an envelope"));
+      deadLetters.add(new ConsumerRecord<>(DEAD_LETTER_TOPIC, 0, 3, "key", new DeadLetterEnvelope(
+            "ToJsonConverter", TOPIC, 0, 8, "key", null, new IllegalStateException(), 100).toJson()));
+      Map<TopicPartition, List<ConsumerRecord<String, String>>> records = new HashMap<>();
+      records.put(new TopicPartition(DEAD_LETTER_TOPIC, 0), deadLetters);
+
+      MockProducer<String, byte[]> replayProducer = new MockProducer<>(true, new StringSerializer(),
+            new ByteArraySerializer());
+      MessageProducer<String, byte[]> producer = new MessageProducer<String, byte[]>() {
+      };
+      producer.setProducer(replayProducer);
+
+      assertEquals(2, new DeadLetterReplayer(producer, null).replay(new ConsumerRecords<>(records)));
+      List<ProducerRecord<String, byte[]>> replayed = replayProducer.history();
+      assertEquals(TOPIC, replayed.get(0).topic());
+      assertEquals("key", replayed.get(0).key());
+      assertArrayEquals("<OdeAsn1Data/>".getBytes(StandardCharsets.UTF_8), replayed.get(0).value());
+      assertEquals("streamsKey", replayed.get(1).key());
+      assertArrayEquals("<tim/>".getBytes(StandardCharsets.UTF_8), replayed.get(1).value());
+      assertEquals(2, replayed.size());
+   }
+
+   @Test
+   public void shouldTruncateMessages() {
+      assertNull(DeadLetterEnvelope.truncate(null, 5));
+      assertEquals("short", DeadLetterEnvelope.truncate("short", 5));
+      assertEquals("longe...", DeadLetterEnvelope.truncate("longer", 5));
+   }
+
+   @Test
+   public void shouldRateLimitLogging() {
+      RateLimitedLogger errorLogger = new RateLimitedLogger(LoggerFactory.getLogger(getClass()), 2, 1000);
+      assertEquals(0, errorLogger.permit(0));
+      assertEquals(0, errorLogger.permit(10));
+      assertEquals(-1, errorLogger.permit(20));
+      assertEquals(-1, errorLogger.permit(999));
+      assertEquals(2, errorLogger.permit(1000));
+      assertEquals(2, errorLogger.getTotalSuppressed());
+      assertTrue(new RateLimitedLogger(LoggerFactory.getLogger(getClass()), 0, 1000).permit(0) < 0);
+   }
+}
@@ -0,0 +1,62 @@
+package us.dot.its.jpo.ode.wrapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+public class MessageConsumerMetricsTest {
+
+   @Test
+   public void shouldSummarizePolls() {
+      MessageConsumerMetrics metrics = new MessageConsumerMetrics("test");
+      metrics.polled(2000000, 10);
+      metrics.polled(4000000, 0);
+      metrics.polled(6000000, 20);
+      metrics.processed(1000000);
+      metrics.processed(3000000);
+
+      assertEquals(3, metrics.getPolls());
+      assertEquals(1, metrics.getEmptyPolls());
+      assertEquals(30, metrics.getRecordsConsumed());
+      assertEquals(20, metrics.getLastRecordsPerPoll());
+      assertEquals(20, metrics.getMaxRecordsPerPoll());
+      assertEquals(10.0, metrics.getAverageRecordsPerPoll(), 0.001);
+      assertEquals(6.0, metrics.getLastPollLatencyMillis(), 0.001);
+      assertEquals(4.0, metrics.getAveragePollLatencyMillis(), 0.001);
+      assertEquals(2.0, metrics.getAverageProcessingMillis(), 0.001);
+      assertEquals(-1, metrics.getTotalLag());
+      assertEquals(0, metrics.getPartitionLag().length);
+   }
+
+   @Test
+   public void shouldRegisterConsumersOfOneClassSeparately() throws Exception {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      MessageConsumerMetrics bsm = new MessageConsumerMetrics("StompStringExporter");
+      MessageConsumerMetrics tim = new MessageConsumerMetrics("StompStringExporter");
+      bsm.register(Arrays.asList("topic.OdeBsmJson"));
+      tim.register(Arrays.asList("topic.OdeTimJson"));
+      ObjectName bsmName = bsm.getObjectName();
+      ObjectName timName = tim.getObjectName();
+      try {
+         assertNotEquals(bsmName, timName);
+         assertTrue(server.isRegistered(bsmName));
+         assertTrue(server.isRegistered(timName));
+      } finally {
+         bsm.unregister();
+         tim.unregister();
+      }
+      assertNull(bsm.getObjectName());
+      assertFalse(server.isRegistered(bsmName));
+      assertFalse(server.isRegistered(timName));
+   }
+}
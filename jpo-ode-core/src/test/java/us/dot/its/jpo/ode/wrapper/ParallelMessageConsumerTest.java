@@ -0,0 +1,166 @@
+package us.dot.its.jpo.ode.wrapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Test;
+
+import us.dot.its.jpo.ode.wrapper.ParallelMessageConsumer.Ordering;
+
+public class ParallelMessageConsumerTest {
+
+   private static final String TOPIC = "topic.Asn1DecoderOutput";
+
+   private static class RecordingProcessor extends MessageProcessor<String, String> {
+      private final ConcurrentLinkedQueue<ConsumerRecord<String, String>> processed = new ConcurrentLinkedQueue<>();
+      private final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+      @Override
+      public Object call() throws Exception {
+         ConsumerRecord<String, String> record = getRecord();
+         if ("fail".equals(record.value())) {
+            throw new IllegalStateException("fail");
+         }
+         threads.add(Thread.currentThread().getName());
+         processed.add(record);
+         // give the other workers a chance to run
+         Thread.sleep(1);
+         return null;
+      }
+   }
+
+   private final RecordingProcessor processor = new RecordingProcessor();
+
+   private ParallelMessageConsumer<String, String> consumer(int workers, Ordering ordering) {
+      return ParallelMessageConsumer.defaultStringMessageConsumer("localhost:9092", "test", processor, workers,
+            ordering);
+   }
+
+   /*
+    * partitions x recordsPerPartition records, keyed round robin over the keys
+    */
+   private static ConsumerRecords<String, String> records(int partitions, int recordsPerPartition, String... keys) {
+      Map<TopicPartition, List<ConsumerRecord<String, String>>> records = new LinkedHashMap<>();
+      int n = 0;
+      for (int p = 0; p < partitions; p++) {
+         List<ConsumerRecord<String, String>> partitionRecords = new ArrayList<>();
+         for (int offset = 0; offset < recordsPerPartition; offset++) {
+            String key = keys.length == 0 ? null : keys[n++ % keys.length];
+            partitionRecords.add(new ConsumerRecord<>(TOPIC, p, 100 + offset, key, "value" + offset));
+         }
+         records.put(new TopicPartition(TOPIC, p), partitionRecords);
+      }
+      return new ConsumerRecords<>(records);
+   }
+
+   @Test
+   public void partitionOrderingShouldKeepEachPartitionInOneLane() {
+      List<Map<TopicPartition, List<ConsumerRecord<String, String>>>> lanes = consumer(2, Ordering.PARTITION)
+            .split(records(4, 5, "a", "b", "c"));
+
+      assertEquals(2, lanes.size());
+      assertEquals(2, lanes.get(0).size());
+      assertEquals(2, lanes.get(1).size());
+      for (Map<TopicPartition, List<ConsumerRecord<String, String>>> lane : lanes) {
+         for (List<ConsumerRecord<String, String>> partitionRecords : lane.values()) {
+            assertEquals(5, partitionRecords.size());
+         }
+      }
+   }
+
+   @Test
+   public void keyOrderingShouldKeepEachKeyInOneLane() {
+      List<Map<TopicPartition, List<ConsumerRecord<String, String>>>> lanes = consumer(4, Ordering.KEY)
+            .split(records(2, 12, "a", "b", "c", "d", "e", "f"));
+
+      Map<String, Integer> laneOfKey = new HashMap<>();
+      for (int lane = 0; lane < lanes.size(); lane++) {
+         for (List<ConsumerRecord<String, String>> partitionRecords : lanes.get(lane).values()) {
+            long previousOffset = -1;
+            for (ConsumerRecord<String, String> record : partitionRecords) {
+               Integer previousLane = laneOfKey.put(record.key(), lane);
+               assertTrue(null == previousLane || previousLane == lane);
+               assertTrue(record.offset() > previousOffset);
+               previousOffset = record.offset();
+            }
+         }
+      }
+      assertEquals(6, laneOfKey.size());
+   }
+
+   @Test
+   public void shouldProcessBatchInParallelAndRecordOffsets() throws InterruptedException {
+      ParallelMessageConsumer<String, String> consumer = consumer(4, Ordering.PARTITION);
+      consumer.processBatch(records(8, 10));
+
+      assertEquals(80, processor.processed.size());
+      assertTrue(processor.threads.size() > 1);
+
+      Map<TopicPartition, Long> lastOffsets = new HashMap<>();
+      for (ConsumerRecord<String, String> record : processor.processed) {
+         TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+         Long last = lastOffsets.put(partition, record.offset());
+         assertTrue(null == last || last < record.offset());
+      }
+      assertEquals(8, consumer.getProcessedOffsets().size());
+      assertEquals(110, consumer.getProcessedOffsets().get(new TopicPartition(TOPIC, 3)).offset());
+   }
+
+   @Test
+   public void shouldNotRecordOffsetsOfFailedLane() throws InterruptedException {
+      Map<TopicPartition, List<ConsumerRecord<String, String>>> records = new LinkedHashMap<>();
+      List<ConsumerRecord<String, String>> failing = new ArrayList<>();
+      failing.add(new ConsumerRecord<String, String>(TOPIC, 0, 7, null, "fail"));
+      failing.add(new ConsumerRecord<String, String>(TOPIC, 0, 8, null, "ok"));
+      records.put(new TopicPartition(TOPIC, 0), failing);
+      List<ConsumerRecord<String, String>> passing = new ArrayList<>();
+      passing.add(new ConsumerRecord<String, String>(TOPIC, 1, 3, null, "ok"));
+      records.put(new TopicPartition(TOPIC, 1), passing);
+
+      ParallelMessageConsumer<String, String> consumer = consumer(2, Ordering.PARTITION);
+      consumer.processBatch(new ConsumerRecords<>(records));
+
+      assertNull(consumer.getProcessedOffsets().get(new TopicPartition(TOPIC, 0)));
+      assertEquals(4, consumer.getProcessedOffsets().get(new TopicPartition(TOPIC, 1)).offset());
+      assertFalse(processor.processed.isEmpty());
+   }
+
+   @Test
+   public void controllerShouldResizeLanes() {
+      ParallelMessageConsumer<String, String> consumer = consumer(2, Ordering.PARTITION);
+      consumer.setWorkerController(new AdaptiveWorkerController(1, 4, 2, 1000, 1));
+      assertEquals(2, consumer.getWorkers());
+
+      consumer.lagUpdated(5000);
+      assertEquals(3, consumer.getWorkers());
+      assertEquals(3, consumer.getMetrics().getWorkers());
+      assertEquals(3, consumer.split(records(6, 2)).size());
+
+      consumer.lagUpdated(0);
+      consumer.lagUpdated(0);
+      assertEquals(1, consumer.getWorkers());
+      assertEquals(1, consumer.split(records(6, 2)).size());
+   }
+
+   @Test
+   public void shouldParseOrdering() {
+      assertEquals(Ordering.PARTITION, Ordering.of(null));
+      assertEquals(Ordering.PARTITION, Ordering.of(""));
+      assertEquals(Ordering.KEY, Ordering.of(" key"));
+      assertEquals(Runtime.getRuntime().availableProcessors(), consumer(0, null).getWorkers());
+   }
+}
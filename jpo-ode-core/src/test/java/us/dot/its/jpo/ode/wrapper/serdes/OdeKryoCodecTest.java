@@ -0,0 +1,148 @@
+package us.dot.its.jpo.ode.wrapper.serdes;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.Test;
+
+import us.dot.its.jpo.ode.model.CompactBsmCoreData;
+import us.dot.its.jpo.ode.model.OdeBsmData;
+import us.dot.its.jpo.ode.model.OdeBsmMetadata;
+import us.dot.its.jpo.ode.model.OdeBsmMetadata.BsmSource;
+import us.dot.its.jpo.ode.model.OdeBsmPayload;
+import us.dot.its.jpo.ode.model.OdeLogMetadata.RecordType;
+import us.dot.its.jpo.ode.model.OdeTimData;
+import us.dot.its.jpo.ode.model.OdeTimPayload;
+import us.dot.its.jpo.ode.model.OdeMsgMetadata;
+import us.dot.its.jpo.ode.plugin.j2735.J2735Bsm;
+import us.dot.its.jpo.ode.plugin.j2735.J2735BsmCoreData;
+import us.dot.its.jpo.ode.plugin.j2735.OdePosition3D;
+import us.dot.its.jpo.ode.util.JsonUtils;
+import us.dot.its.jpo.ode.util.SerializationUtils;
+
+public class OdeKryoCodecTest {
+
+   private static final String CORE_DATA = "{\"msgCnt\":95,\"id\":\"24EF0000\",\"secMark\":54300,"
+         + "\"lat\":404740215,\"long\":-1049691438,\"elev\":14967,"
+         + "\"accuracy\":{\"semiMajor\":193,\"semiMinor\":254,\"orientation\":65535},"
+         + "\"speed\":1127,\"heading\":4096,\"angle\":127,"
+         + "\"accelSet\":{\"long\":-4,\"lat\":2001,\"vert\":-127,\"yaw\":0},"
+         + "\"brakes\":{\"wheelBrakes\":10000,\"traction\":{\"unavailable\":\"\"},\"abs\":{\"unavailable\":\"\"},"
+         + "\"scs\":{\"unavailable\":\"\"},\"brakeBoost\":{\"unavailable\":\"\"},\"auxBrakes\":{\"unavailable\":\"\"}},"
+         + "\"size\":{\"width\":190,\"length\":480}}";
+
+   private static OdeBsmData bsm(int msgCnt) {
+      J2735BsmCoreData coreData = new J2735BsmCoreData();
+      coreData.setMsgCnt(msgCnt);
+      coreData.setId("31325433");
+      coreData.setSecMark(36799);
+      coreData.setPosition(new OdePosition3D(BigDecimal.valueOf(41.1641851), BigDecimal.valueOf(-104.8434230),
+            BigDecimal.valueOf(1896.9)));
+      coreData.setSpeed(BigDecimal.valueOf(22.54));
+      coreData.setHeading(BigDecimal.valueOf(124.9125));
+      J2735Bsm j2735Bsm = new J2735Bsm();
+      j2735Bsm.setCoreData(coreData);
+
+      OdeBsmPayload payload = new OdeBsmPayload(j2735Bsm);
+      OdeBsmMetadata metadata = new OdeBsmMetadata(payload);
+      metadata.setBsmSource(BsmSource.RV);
+      metadata.setRecordType(RecordType.rxMsg);
+      metadata.setLogFileName("rxMsg_1502311127.bin");
+      return new OdeBsmData(metadata, payload);
+   }
+
+   private static OdeTimData tim() {
+      OdeTimPayload payload = new OdeTimPayload();
+      return new OdeTimData(new OdeMsgMetadata(payload), payload);
+   }
+
+   @Test
+   public void shouldRoundTripWithHeader() {
+      OdeBsmData bsm = bsm(1);
+      byte[] bytes = new OdeBsmSerializer().serialize("topic", bsm);
+
+      assertEquals(OdeKryoCodec.MAGIC, bytes[0]);
+      assertEquals(OdeKryoCodec.SCHEMA_VERSION, bytes[1]);
+      assertEquals(bsm.toJson(), new OdeBsmDeserializer().deserialize("topic", bytes).toJson());
+
+      OdeTimData tim = tim();
+      assertEquals(tim.toJson(),
+            new OdeTimDeserializer().deserialize("topic", new OdeTimSerializer().serialize("topic", tim)).toJson());
+   }
+
+   @Test
+   public void shouldRoundTripCompactCoreData() throws Exception {
+      OdeBsmData bsm = bsm(5);
+      J2735Bsm j2735Bsm = (J2735Bsm) bsm.getPayload().getData();
+      j2735Bsm.setCoreData(CompactBsmCoreData.fromCoreData(JsonUtils.toObjectNode(CORE_DATA)));
+
+      OdeBsmData decoded = new OdeBsmDeserializer().deserialize("topic", new OdeBsmSerializer().serialize("topic", bsm));
+      J2735BsmCoreData coreData = ((J2735Bsm) decoded.getPayload().getData()).getCoreData();
+      assertTrue(coreData instanceof CompactBsmCoreData);
+      assertEquals(bsm.toJson(), decoded.toJson());
+   }
+
+   @Test
+   public void shouldReadLegacyRecords() {
+      OdeBsmData bsm = bsm(2);
+      byte[] legacy = new SerializationUtils<OdeBsmData>().serialize(bsm);
+
+      assertEquals(bsm.toJson(), new OdeBsmDeserializer().deserialize("topic", legacy).toJson());
+   }
+
+   @Test(expected = SerializationException.class)
+   public void shouldRejectNewerSchemaVersion() {
+      byte[] bytes = new OdeBsmSerializer().serialize("topic", bsm(3));
+      bytes[1] = OdeKryoCodec.SCHEMA_VERSION + 1;
+      new OdeBsmDeserializer().deserialize("topic", bytes);
+   }
+
+   @Test
+   public void shouldBeSmallerThanLegacyRecords() {
+      OdeBsmData bsm = bsm(4);
+      int size = new OdeBsmSerializer().serialize("topic", bsm).length;
+      int legacySize = new MessagingSerializer<OdeBsmData>().serialize("topic", bsm).length;
+      assertTrue(size + " >= " + legacySize, size < legacySize);
+   }
+
+   @Test
+   public void shouldBeThreadSafe() throws Exception {
+      final OdeBsmSerializer serializer = new OdeBsmSerializer();
+      final OdeBsmDeserializer deserializer = new OdeBsmDeserializer();
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try {
+         List<Future<Integer>> results = new ArrayList<>();
+         for (int t = 0; t < 4; t++) {
+            final int thread = t;
+            results.add(executor.submit(new Callable<Integer>() {
+               @Override
+               public Integer call() {
+                  int matched = 0;
+                  for (int i = 0; i < 500; i++) {
+                     OdeBsmData bsm = bsm(thread * 1000 + i);
+                     OdeBsmData decoded = deserializer.deserialize("topic", serializer.serialize("topic", bsm));
+                     if (bsm.toJson().equals(decoded.toJson())) {
+                        matched++;
+                     }
+                  }
+                  return matched;
+               }
+            }));
+         }
+         for (Future<Integer> result : results) {
+            assertEquals(Integer.valueOf(500), result.get());
+         }
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+}
@@ -0,0 +1,131 @@
+package us.dot.its.jpo.ode.loadgen;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+
+/**
+ * Consumes the topic the replayed packets end up on and reports each stamped
+ * record to the {@link DeliveryTracker}.
+ * <p>
+ * Two record formats are understood: the Asn1DecoderInput XML, whose
+ * payload holds the received bytes hex encoded, and the raw SEMI records
+ * published when ISD pass-through is enabled (an 8 byte header followed by the
+ * received bytes).
+ * </p>
+ */
+public class DeliveryMonitor implements Runnable {
+
+   private static final String BYTES_START = "<bytes>";
+   private static final String BYTES_END = "</bytes>";
+   private static final int RAW_SEMI_HEADER_LENGTH = 8;
+   private static final int RAW_SEMI_VERSION = 1;
+
+   private final String topic;
+   private final DeliveryTracker tracker;
+   private final KafkaConsumer<byte[], byte[]> consumer;
+   private final CountDownLatch assigned = new CountDownLatch(1);
+   private volatile boolean stopped;
+
+   public DeliveryMonitor(String bootstrapServers, String topic, DeliveryTracker tracker) {
+      this.topic = topic;
+      this.tracker = tracker;
+
+      Properties props = new Properties();
+      props.put("bootstrap.servers", bootstrapServers);
+      props.put("group.id", "loadgen-" + UUID.randomUUID());
+      props.put("auto.offset.reset", "latest");
+      props.put("enable.auto.commit", "false");
+      props.put("key.deserializer", ByteArrayDeserializer.class.getName());
+      props.put("value.deserializer", ByteArrayDeserializer.class.getName());
+      this.consumer = new KafkaConsumer<>(props);
+   }
+
+   /**
+    * Waits until the consumer has joined the topic, so no record produced
+    * after this returns is missed.
+    */
+   public boolean awaitAssignment(long timeout, TimeUnit unit) throws InterruptedException {
+      return assigned.await(timeout, unit);
+   }
+
+   public void stop() {
+      stopped = true;
+      consumer.wakeup();
+   }
+
+   @Override
+   public void run() {
+      consumer.subscribe(Arrays.asList(topic), new ConsumerRebalanceListener() {
+         @Override
+         public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+            // nothing to commit
+         }
+
+         @Override
+         public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+            // position at the end before anything is sent
+            consumer.seekToEnd(partitions);
+            for (TopicPartition partition : partitions) {
+               consumer.position(partition);
+            }
+            assigned.countDown();
+         }
+      });
+
+      try {
+         while (!stopped) {
+            ConsumerRecords<byte[], byte[]> records = consumer.poll(100);
+            long now = System.nanoTime();
+            for (ConsumerRecord<byte[], byte[]> record : records) {
+               byte[] payload = extractPayload(record.value());
+               int stampOffset = null == payload ? PacketStamp.NOT_STAMPABLE : PacketStamp.locate(payload);
+               if (stampOffset == PacketStamp.NOT_STAMPABLE) {
+                  tracker.unmatched();
+               } else {
+                  tracker.received(PacketStamp.read(payload, stampOffset), now);
+               }
+            }
+         }
+      } catch (WakeupException e) {
+         if (!stopped) {
+            throw e;
+         }
+      } finally {
+         consumer.close();
+      }
+   }
+
+   /**
+    * @return the UDP payload carried by an output record, or null
+    */
+   static byte[] extractPayload(byte[] value) {
+      if (null == value) {
+         return null;
+      }
+      if (value.length > RAW_SEMI_HEADER_LENGTH && value[0] == 'R' && value[1] == 'S'
+            && value[2] == RAW_SEMI_VERSION) {
+         return Arrays.copyOfRange(value, RAW_SEMI_HEADER_LENGTH, value.length);
+      }
+
+      String xml = new String(value, StandardCharsets.UTF_8);
+      int start = xml.indexOf(BYTES_START);
+      int end = start < 0 ? -1 : xml.indexOf(BYTES_END, start);
+      if (end < 0) {
+         return null;
+      }
+      return Fixture.decodeHex(xml.substring(start + BYTES_START.length(), end).trim());
+   }
+}
@@ -0,0 +1,128 @@
+package us.dot.its.jpo.ode.loadgen;
+
+import java.text.DecimalFormat;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Matches the packets seen at the output topic to the packets sent, by the
+ * sequence number stamped into each packet. Sequence numbers start at a
+ * random base so records left on the topic by earlier runs are not counted.
+ * Send and receive times are both taken from {@link System#nanoTime()} in
+ * this process.
+ */
+public class DeliveryTracker {
+
+   private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+   private final int base;
+   private final long origin = System.nanoTime();
+   private final AtomicLongArray sentAt;
+   private final long[] latencyNanos;
+   private long receivedCount;
+   private long duplicateCount;
+   private long unmatchedCount;
+
+   public DeliveryTracker(int base, int capacity) {
+      this.base = base;
+      this.sentAt = new AtomicLongArray(capacity);
+      this.latencyNanos = new long[capacity];
+   }
+
+   public int stampOf(long sequence) {
+      return base + (int) sequence;
+   }
+
+   /**
+    * Called by the sending thread
+    */
+   public void sent(long sequence, long nanoTime) {
+      sentAt.set((int) sequence, elapsed(nanoTime));
+   }
+
+   /**
+    * Called by the monitoring thread for every stamped record received.
+    *
+    * @return false if the stamp does not belong to a packet of this run
+    */
+   public boolean received(int stamp, long nanoTime) {
+      long index = Integer.toUnsignedLong(stamp - base);
+      long sent;
+      if (index >= latencyNanos.length || 0 == (sent = sentAt.get((int) index))) {
+         unmatchedCount++;
+         return false;
+      }
+      if (0 != latencyNanos[(int) index]) {
+         duplicateCount++;
+      } else {
+         latencyNanos[(int) index] = Math.max(1, elapsed(nanoTime) - sent);
+         receivedCount++;
+      }
+      return true;
+   }
+
+   /*
+    * Never 0, which marks packets not sent
+    */
+   private long elapsed(long nanoTime) {
+      return nanoTime - origin + 1;
+   }
+
+   /**
+    * Counts an output record without a stamp
+    */
+   public void unmatched() {
+      unmatchedCount++;
+   }
+
+   public long getReceivedCount() {
+      return receivedCount;
+   }
+
+   public long getDuplicateCount() {
+      return duplicateCount;
+   }
+
+   public long getUnmatchedCount() {
+      return unmatchedCount;
+   }
+
+   /**
+    * Summarizes loss and latency once the monitoring thread has stopped.
+    *
+    * @param sentCount
+    *           number of packets actually sent
+    * @param topic
+    */
+   public String report(long sentCount, String topic) {
+      long lost = sentCount - receivedCount;
+      StringBuilder sb = new StringBuilder();
+      sb.append(String.format("Received %d of %d at %s, lost %d (%.3f%%), %d duplicate(s), %d unmatched",
+            receivedCount, sentCount, topic, lost, sentCount > 0 ? 100.0 * lost / sentCount : 0.0, duplicateCount,
+            unmatchedCount));
+
+      if (receivedCount > 0) {
+         long[] latencies = new long[(int) receivedCount];
+         int n = 0;
+         for (long latency : latencyNanos) {
+            if (0 != latency) {
+               latencies[n++] = latency;
+            }
+         }
+         Arrays.sort(latencies);
+         DecimalFormat percentileFormat = new DecimalFormat("#.#");
+         sb.append(String.format("%nLatency ms: min %.3f", millis(latencies[0])));
+         for (double percentile : PERCENTILES) {
+            int rank = (int) Math.ceil(percentile / 100.0 * latencies.length) - 1;
+            sb.append(String.format(" p%s %.3f", percentileFormat.format(percentile),
+                  millis(latencies[Math.max(0, rank)])));
+         }
+         sb.append(String.format(" max %.3f", millis(latencies[latencies.length - 1])));
+      }
+      return sb.toString();
+   }
+
+   private static double millis(long nanos) {
+      return nanos / 1e6;
+   }
+}
@@ -0,0 +1,135 @@
+package us.dot.its.jpo.ode.loadgen;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The messages of one replay file, each sent as one UDP packet.
+ * <ul>
+ * <li><b>.hex</b> files hold one hex encoded message per line.</li>
+ * <li>Binary files that are a sequence of UPER MessageFrames, such as the
+ * wsmp capture, are split into their frames.</li>
+ * <li>Any other binary file is a single message.</li>
+ * </ul>
+ */
+public class Fixture {
+
+   public static class FixtureException extends Exception {
+      private static final long serialVersionUID = 1L;
+
+      public FixtureException(String message) {
+         super(message);
+      }
+   }
+
+   private final String name;
+   private final List<byte[]> messages;
+
+   public Fixture(String name, List<byte[]> messages) {
+      this.name = name;
+      this.messages = Collections.unmodifiableList(messages);
+   }
+
+   public static Fixture load(Path file) throws IOException, FixtureException {
+      String name = file.getFileName().toString();
+      List<byte[]> messages;
+      if (name.toLowerCase().endsWith(".hex")) {
+         messages = parseHex(new String(Files.readAllBytes(file), StandardCharsets.US_ASCII));
+      } else {
+         messages = split(Files.readAllBytes(file));
+      }
+      if (messages.isEmpty()) {
+         throw new FixtureException("No messages in " + file);
+      }
+      return new Fixture(name, messages);
+   }
+
+   /**
+    * Splits concatenated UPER MessageFrames. A trailing partial frame, as
+    * left at the end of a truncated capture, is dropped. Returns the whole
+    * buffer as one message if it does not start with a frame.
+    */
+   static List<byte[]> split(byte[] data) {
+      List<byte[]> frames = new ArrayList<>();
+      int offset = 0;
+      while (offset < data.length) {
+         int frameLength = frameLength(data, offset);
+         if (frameLength <= 0 || offset + frameLength > data.length) {
+            break;
+         }
+         frames.add(Arrays.copyOfRange(data, offset, offset + frameLength));
+         offset += frameLength;
+      }
+      if (frames.isEmpty() && data.length > 0) {
+         frames.add(data);
+      }
+      return frames;
+   }
+
+   /*
+    * messageId (2 bytes), then the 1 or 2 byte length determinant of the value
+    */
+   private static int frameLength(byte[] data, int offset) {
+      if (offset + 3 > data.length || data[offset] != 0) {
+         return 0;
+      }
+      int first = data[offset + 2] & 0xFF;
+      if ((first & 0x80) == 0) {
+         return 3 + first;
+      }
+      if ((first & 0xC0) == 0x80 && offset + 4 <= data.length) {
+         return 4 + (((first & 0x3F) << 8) | (data[offset + 3] & 0xFF));
+      }
+      return 0;
+   }
+
+   static List<byte[]> parseHex(String text) throws FixtureException {
+      List<byte[]> messages = new ArrayList<>();
+      for (String line : text.split("\\r?\\n")) {
+         String hex = line.replaceAll("\\s", "");
+         if (hex.isEmpty()) {
+            continue;
+         }
+         byte[] message = decodeHex(hex);
+         if (null == message) {
+            throw new FixtureException("Invalid hex message: " + hex);
+         }
+         messages.add(message);
+      }
+      return messages;
+   }
+
+   /**
+    * @return the decoded bytes, or null if the string is not an even number of
+    *         hex digits
+    */
+   static byte[] decodeHex(String hex) {
+      if (hex.length() % 2 != 0) {
+         return null;
+      }
+      byte[] bytes = new byte[hex.length() / 2];
+      for (int i = 0; i < bytes.length; i++) {
+         int hi = Character.digit(hex.charAt(2 * i), 16);
+         int lo = Character.digit(hex.charAt(2 * i + 1), 16);
+         if (hi < 0 || lo < 0) {
+            return null;
+         }
+         bytes[i] = (byte) ((hi << 4) | lo);
+      }
+      return bytes;
+   }
+
+   public String getName() {
+      return name;
+   }
+
+   public List<byte[]> getMessages() {
+      return messages;
+   }
+}
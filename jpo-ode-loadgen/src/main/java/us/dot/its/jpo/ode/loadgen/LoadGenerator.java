@@ -0,0 +1,192 @@
+package us.dot.its.jpo.ode.loadgen;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
+import us.dot.its.jpo.ode.loadgen.Fixture.FixtureException;
+
+/**
+ * Command line UDP replay and load generator for the ODE receivers.
+ * <p>
+ * Replays the messages of one or more fixture files to a receiver port at a
+ * given rate and burst size, optionally from several source addresses, and
+ * reports the achieved send rate. When a Kafka bootstrap server is given, it
+ * also consumes the output topic (Asn1DecoderInput by default) while sending
+ * and reports loss and send-to-topic latency.
+ * </p>
+ */
+public class LoadGenerator {
+
+   private static final String DEFAULT_TOPIC = "topic.Asn1DecoderInput";
+   private static final long ASSIGNMENT_TIMEOUT_SECONDS = 30;
+
+   private LoadGenerator() {
+      throw new UnsupportedOperationException("Cannot instantiate static class.");
+   }
+
+   public static void main(String[] args) {
+
+      Options options = new Options();
+
+      Option file_option = new Option("f", "file", true, "Comma separated fixture files (.uper, .hex)");
+      file_option.setRequired(true);
+      options.addOption(file_option);
+
+      Option port_option = new Option("p", "port", true, "Receiver port");
+      port_option.setRequired(true);
+      options.addOption(port_option);
+
+      options.addOption(new Option("i", "ip", true, "Receiver address (default 127.0.0.1)"));
+      options.addOption(new Option("r", "rate", true, "Packets per second, 0 for unthrottled (default 1000)"));
+      options.addOption(new Option("n", "count", true, "Packets to send (default 10000)"));
+      options.addOption(new Option("B", "burst", true, "Packets sent back to back per burst (default 1)"));
+      options.addOption(new Option("s", "sources", true,
+            "Comma separated local source addresses or ranges, e.g. 127.0.0.2-127.0.0.50"));
+      options.addOption(new Option("b", "bootstrap-server", true,
+            "Kafka endpoint ('ip:port') to measure loss and latency at"));
+      options.addOption(new Option("t", "topic", true, "Output topic (default " + DEFAULT_TOPIC + ")"));
+      options.addOption(new Option("w", "wait", true, "Milliseconds to wait for output after sending (default 5000)"));
+      options.addOption(new Option("x", "no-stamp", false, "Send the messages unchanged (disables the receive report)"));
+
+      CommandLineParser parser = new DefaultParser();
+      HelpFormatter formatter = new HelpFormatter();
+      CommandLine cmd;
+
+      try {
+         cmd = parser.parse(options, args);
+      } catch (ParseException e) {
+         System.out.println(e.getMessage());
+         formatter.printHelp("LoadGenerator", options);
+
+         System.exit(1);
+         return;
+      }
+
+      try {
+         run(cmd);
+      } catch (IllegalArgumentException | IOException | FixtureException e) {
+         System.out.println("Error: " + e.getMessage());
+         System.exit(1);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+   }
+
+   private static void run(CommandLine cmd) throws IOException, FixtureException, InterruptedException {
+      InetSocketAddress target = new InetSocketAddress(cmd.getOptionValue("ip", "127.0.0.1"),
+            Integer.parseInt(cmd.getOptionValue("port")));
+      double rate = Double.parseDouble(cmd.getOptionValue("rate", "1000"));
+      long count = Long.parseLong(cmd.getOptionValue("count", "10000"));
+      int burst = Integer.parseInt(cmd.getOptionValue("burst", "1"));
+      long waitMillis = Long.parseLong(cmd.getOptionValue("wait", "5000"));
+      String topic = cmd.getOptionValue("topic", DEFAULT_TOPIC);
+      boolean stamp = !cmd.hasOption("no-stamp");
+      if (rate < 0 || count < 0 || burst < 1) {
+         throw new IllegalArgumentException("rate and count must not be negative, burst must be positive");
+      }
+
+      List<byte[]> messages = new ArrayList<>();
+      for (String file : cmd.getOptionValue("file").split(",")) {
+         Fixture fixture = Fixture.load(Paths.get(file.trim()));
+         int stampable = 0;
+         for (byte[] message : fixture.getMessages()) {
+            if (message.length > ReplaySender.MAX_PACKET_SIZE) {
+               throw new FixtureException(fixture.getName() + " has a message larger than a UDP packet");
+            }
+            if (!stamp || PacketStamp.locate(message) != PacketStamp.NOT_STAMPABLE) {
+               messages.add(message);
+               stampable++;
+            }
+         }
+         System.out.println(String.format("Loaded %d message(s) from %s, skipped %d too short to stamp", stampable,
+               fixture.getName(), fixture.getMessages().size() - stampable));
+      }
+      if (messages.isEmpty()) {
+         throw new FixtureException("No messages to send");
+      }
+
+      DeliveryTracker tracker = null;
+      DeliveryMonitor monitor = null;
+      Thread monitorThread = null;
+      if (stamp) {
+         if (count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("count is limited to " + Integer.MAX_VALUE + " stamped packets");
+         }
+         tracker = new DeliveryTracker(new Random().nextInt(), (int) count);
+      }
+      if (cmd.hasOption("bootstrap-server")) {
+         if (null == tracker) {
+            throw new IllegalArgumentException("The receive report needs stamped packets");
+         }
+         monitor = new DeliveryMonitor(cmd.getOptionValue("bootstrap-server"), topic, tracker);
+         monitorThread = new Thread(monitor, "LoadGeneratorMonitor");
+         monitorThread.setDaemon(true);
+         monitorThread.start();
+         if (!monitor.awaitAssignment(ASSIGNMENT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            monitor.stop();
+            throw new IOException("Not assigned to " + topic + " within " + ASSIGNMENT_TIMEOUT_SECONDS + " s");
+         }
+         System.out.println("Monitoring " + topic);
+      }
+
+      try (ReplaySender sender = new ReplaySender(target, parseSources(cmd.getOptionValue("sources")))) {
+         System.out.println("Sending " + count + " packets to " + target);
+         sender.send(messages, count, rate, burst, tracker);
+         System.out.println(sender.report(rate));
+
+         if (null != monitor) {
+            Thread.sleep(waitMillis);
+            monitor.stop();
+            monitorThread.join();
+            System.out.println(tracker.report(sender.getSentCount(), topic));
+         }
+      }
+   }
+
+   /**
+    * Parses "a.b.c.d,e.f.g.h-e.f.g.k" into the listed IPv4 addresses
+    */
+   static List<InetAddress> parseSources(String sources) throws UnknownHostException {
+      List<InetAddress> addresses = new ArrayList<>();
+      if (null == sources || sources.trim().isEmpty()) {
+         return addresses;
+      }
+      for (String source : sources.split(",")) {
+         String[] range = source.trim().split("-");
+         if (range.length == 1) {
+            addresses.add(InetAddress.getByName(range[0]));
+            continue;
+         }
+         byte[] firstAddress = InetAddress.getByName(range[0]).getAddress();
+         byte[] lastAddress = InetAddress.getByName(range[1]).getAddress();
+         if (range.length != 2 || firstAddress.length != 4 || lastAddress.length != 4) {
+            throw new IllegalArgumentException("Only IPv4 source ranges are supported: " + source);
+         }
+         int first = ByteBuffer.wrap(firstAddress).getInt();
+         int last = ByteBuffer.wrap(lastAddress).getInt();
+         if (Integer.compareUnsigned(first, last) > 0) {
+            throw new IllegalArgumentException("Invalid source range: " + source);
+         }
+         for (long address = Integer.toUnsignedLong(first); address <= Integer.toUnsignedLong(last); address++) {
+            addresses.add(InetAddress.getByAddress(ByteBuffer.allocate(4).putInt((int) address).array()));
+         }
+      }
+      return addresses;
+   }
+}
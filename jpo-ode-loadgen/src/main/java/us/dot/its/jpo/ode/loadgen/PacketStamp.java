@@ -0,0 +1,110 @@
+package us.dot.its.jpo.ode.loadgen;
+
+/**
+ * Locates, writes and reads the 32 bit field the load generator uses to tag
+ * each replayed packet with its sequence number.
+ * <p>
+ * The tag replaces a field that is already a 4 byte identifier, so the
+ * message stays valid UPER: the BSM TemporaryID for BSMs (raw or in a
+ * MessageFrame) and the requestID for SEMI data messages. Giving every packet
+ * a distinct identifier also keeps the ODE duplicate filter from discarding
+ * replayed copies of the same fixture.
+ * </p>
+ */
+public class PacketStamp {
+
+   /**
+    * Returned by {@link #locate} when the message is too short to hold a tag
+    */
+   public static final int NOT_STAMPABLE = -1;
+
+   private static final int BSM_MESSAGE_ID = 0x0014;
+
+   // BasicSafetyMessage SEQUENCE preamble (extension, partII, regional) and
+   // msgCnt precede the TemporaryID
+   private static final int BSM_ID_BIT_OFFSET = 3 + 7;
+
+   // SEMI dialogID and seqID are each an extension bit plus a 4 bit index,
+   // followed by the 4 byte groupID
+   private static final int SEMI_ENUM_BITS = 5;
+   private static final int SEMI_GROUP_ID_BITS = 32;
+   private static final int SEMI_DATA_SEQ_ID = 4;
+   private static final int SEMI_VEH_SIT_DATA_DIALOG_ID = 0;
+   private static final int SEMI_INTERSECTION_SIT_DATA_DIALOG_ID = 8;
+
+   private static final int STAMP_BITS = 32;
+
+   private PacketStamp() {
+      throw new UnsupportedOperationException("Cannot instantiate static class.");
+   }
+
+   /**
+    * @return the bit offset of the tag in the message, or
+    *         {@link #NOT_STAMPABLE}
+    */
+   public static int locate(byte[] message, int length) {
+      int bitOffset;
+      if (length >= 3 && readBits(message, 0, 16) == BSM_MESSAGE_ID) {
+         // MessageFrame: messageId, then the open type length determinant
+         int lengthDeterminantBits = (message[2] & 0x80) == 0 ? 8 : 16;
+         bitOffset = 16 + lengthDeterminantBits + BSM_ID_BIT_OFFSET;
+      } else if (isSemiData(message, length, 0, SEMI_VEH_SIT_DATA_DIALOG_ID)) {
+         bitOffset = 2 * SEMI_ENUM_BITS + SEMI_GROUP_ID_BITS;
+      } else if (isSemiData(message, length, 1, SEMI_INTERSECTION_SIT_DATA_DIALOG_ID)) {
+         bitOffset = 1 + 2 * SEMI_ENUM_BITS + SEMI_GROUP_ID_BITS;
+      } else {
+         bitOffset = BSM_ID_BIT_OFFSET;
+      }
+      return bitOffset + STAMP_BITS <= length * 8 ? bitOffset : NOT_STAMPABLE;
+   }
+
+   public static int locate(byte[] message) {
+      return locate(message, message.length);
+   }
+
+   private static boolean isSemiData(byte[] message, int length, int preambleBits, int dialogId) {
+      return length * 8 >= preambleBits + 2 * SEMI_ENUM_BITS
+            && readBits(message, preambleBits, SEMI_ENUM_BITS) == dialogId
+            && readBits(message, preambleBits + SEMI_ENUM_BITS, SEMI_ENUM_BITS) == SEMI_DATA_SEQ_ID;
+   }
+
+   /**
+    * Writes the tag, most significant bit first, at a bit offset returned by
+    * {@link #locate}.
+    */
+   public static void write(byte[] message, int bitOffset, int stamp) {
+      for (int i = 0; i < STAMP_BITS; i++) {
+         int bit = bitOffset + i;
+         int mask = 0x80 >>> (bit & 7);
+         if ((stamp & (0x80000000 >>> i)) != 0) {
+            message[bit >> 3] |= mask;
+         } else {
+            message[bit >> 3] &= ~mask;
+         }
+      }
+   }
+
+   public static int read(byte[] message, int bitOffset) {
+      int stamp = 0;
+      for (int i = 0; i < STAMP_BITS; i += 8) {
+         stamp = (stamp << 8) | readBits(message, bitOffset + i, 8);
+      }
+      return stamp;
+   }
+
+   /*
+    * Reads up to 16 bits, most significant bit first
+    */
+   private static int readBits(byte[] data, int bitOffset, int bitCount) {
+      int index = bitOffset >> 3;
+      int word = (data[index] & 0xFF) << 16;
+      if (index + 1 < data.length) {
+         word |= (data[index + 1] & 0xFF) << 8;
+      }
+      if (index + 2 < data.length) {
+         word |= data[index + 2] & 0xFF;
+      }
+      int shift = 24 - (bitOffset & 7) - bitCount;
+      return (word >> shift) & ((1 << bitCount) - 1);
+   }
+}
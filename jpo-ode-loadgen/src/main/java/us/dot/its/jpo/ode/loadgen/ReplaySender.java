@@ -0,0 +1,166 @@
+package us.dot.its.jpo.ode.loadgen;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays messages to a UDP port at a fixed packet rate.
+ * <p>
+ * Packets go out in bursts of back-to-back sends, one burst every
+ * burstSize / rate seconds, so a burst size of 1 is an evenly paced stream
+ * and larger bursts reproduce the clumping of many OBUs behind one RSU.
+ * Packets rotate over one socket per source address; binding sockets to
+ * several local addresses (any 127.x.y.z address on Linux loopback) makes the
+ * receivers see many distinct senders.
+ * </p>
+ */
+public class ReplaySender implements Closeable {
+
+   public static final int MAX_PACKET_SIZE = 65507;
+
+   // shorter waits are spun rather than parked
+   private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+   private static final long PROGRESS_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+   private final List<DatagramSocket> sockets = new ArrayList<>();
+   private final List<DatagramPacket> packets = new ArrayList<>();
+
+   private long sentCount;
+   private long sentBytes;
+   private long errorCount;
+   private long elapsedNanos;
+
+   /**
+    * @param target
+    *           receiver address and port
+    * @param sources
+    *           local addresses to send from; the wildcard address if empty
+    */
+   public ReplaySender(InetSocketAddress target, List<InetAddress> sources) throws IOException {
+      try {
+         if (sources.isEmpty()) {
+            addSource(target, new DatagramSocket());
+         }
+         for (InetAddress source : sources) {
+            addSource(target, new DatagramSocket(new InetSocketAddress(source, 0)));
+         }
+      } catch (IOException e) {
+         close();
+         throw e;
+      }
+   }
+
+   private void addSource(InetSocketAddress target, DatagramSocket socket) {
+      sockets.add(socket);
+      packets.add(new DatagramPacket(new byte[MAX_PACKET_SIZE], MAX_PACKET_SIZE, target));
+   }
+
+   /**
+    * Sends count packets, cycling through the messages.
+    *
+    * @param rate
+    *           packets per second, 0 to send as fast as possible
+    * @param burstSize
+    *           packets sent back to back per burst
+    * @param tracker
+    *           stamps and records each packet; null to send the messages
+    *           unchanged
+    */
+   public void send(List<byte[]> messages, long count, double rate, int burstSize, DeliveryTracker tracker) {
+      int[] stampOffsets = new int[messages.size()];
+      for (int m = 0; m < stampOffsets.length; m++) {
+         stampOffsets[m] = null == tracker ? PacketStamp.NOT_STAMPABLE : PacketStamp.locate(messages.get(m));
+      }
+
+      long burstNanos = rate > 0 ? (long) (burstSize * TimeUnit.SECONDS.toNanos(1) / rate) : 0;
+      long start = System.nanoTime();
+      long nextBurst = start;
+      long nextProgress = start + PROGRESS_NANOS;
+      long progressCount = 0;
+
+      long sequence = 0;
+      while (sequence < count) {
+         for (int b = 0; b < burstSize && sequence < count; b++, sequence++) {
+            int m = (int) (sequence % messages.size());
+            sendOne(sequence, messages.get(m), stampOffsets[m], tracker);
+         }
+
+         long now = System.nanoTime();
+         if (now >= nextProgress) {
+            System.out.println(String.format("Sent %d, %.1f pkt/s", sentCount,
+                  (sentCount - progressCount) * 1e9 / (now - nextProgress + PROGRESS_NANOS)));
+            progressCount = sentCount;
+            nextProgress = now + PROGRESS_NANOS;
+         }
+
+         if (burstNanos > 0) {
+            nextBurst += burstNanos;
+            pace(nextBurst);
+         }
+      }
+      elapsedNanos = System.nanoTime() - start;
+   }
+
+   private void sendOne(long sequence, byte[] message, int stampOffset, DeliveryTracker tracker) {
+      DatagramPacket packet = packets.get((int) (sequence % packets.size()));
+      byte[] buffer = packet.getData();
+      System.arraycopy(message, 0, buffer, 0, message.length);
+      if (stampOffset != PacketStamp.NOT_STAMPABLE) {
+         PacketStamp.write(buffer, stampOffset, tracker.stampOf(sequence));
+      }
+      packet.setLength(message.length);
+
+      try {
+         if (null != tracker) {
+            tracker.sent(sequence, System.nanoTime());
+         }
+         sockets.get((int) (sequence % sockets.size())).send(packet);
+         sentCount++;
+         sentBytes += message.length;
+      } catch (IOException e) {
+         if (errorCount++ == 0) {
+            System.out.println("Send error: " + e);
+         }
+      }
+   }
+
+   private static void pace(long deadline) {
+      long remaining;
+      while ((remaining = deadline - System.nanoTime()) > 0) {
+         if (remaining > SPIN_NANOS) {
+            LockSupport.parkNanos(remaining - SPIN_NANOS);
+         }
+      }
+   }
+
+   public String report(double targetRate) {
+      double seconds = elapsedNanos / 1e9;
+      return String.format("Sent %d packets from %d source(s) in %.3f s: %.1f pkt/s (target %s), %.2f Mbit/s, %d error(s)",
+            sentCount, sockets.size(), seconds, seconds > 0 ? sentCount / seconds : 0.0,
+            targetRate > 0 ? String.format("%.1f", targetRate) : "unlimited",
+            seconds > 0 ? sentBytes * 8 / seconds / 1e6 : 0.0, errorCount);
+   }
+
+   public long getSentCount() {
+      return sentCount;
+   }
+
+   public long getErrorCount() {
+      return errorCount;
+   }
+
+   @Override
+   public void close() {
+      for (DatagramSocket socket : sockets) {
+         socket.close();
+      }
+   }
+}
@@ -0,0 +1,57 @@
+package us.dot.its.jpo.ode.loadgen;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class DeliveryTrackerTest {
+
+   @Test
+   public void shouldMatchStampsToSentPackets() {
+      DeliveryTracker tracker = new DeliveryTracker(Integer.MAX_VALUE - 1, 4);
+      long now = System.nanoTime();
+      tracker.sent(0, now);
+      tracker.sent(1, now);
+      tracker.sent(2, now);
+
+      assertTrue(tracker.received(tracker.stampOf(0), now + 1000000));
+      // stamps wrap past Integer.MAX_VALUE
+      assertEquals(Integer.MIN_VALUE, tracker.stampOf(2));
+      assertTrue(tracker.received(tracker.stampOf(2), now + 3000000));
+      assertTrue(tracker.received(tracker.stampOf(2), now + 4000000));
+      // not sent, or not from this run
+      assertFalse(tracker.received(tracker.stampOf(3), now));
+      assertFalse(tracker.received(tracker.stampOf(4), now));
+
+      assertEquals(2, tracker.getReceivedCount());
+      assertEquals(1, tracker.getDuplicateCount());
+      assertEquals(2, tracker.getUnmatchedCount());
+      String report = tracker.report(3, "topic.Asn1DecoderInput");
+      assertTrue(report, report.contains("lost 1 (33.333%)"));
+      assertTrue(report, report.contains("min 1.000"));
+      assertTrue(report, report.contains("max 3.000"));
+   }
+
+   @Test
+   public void shouldExtractAsn1DecoderInputPayload() {
+      String xml = "<OdeAsn1Data><payload><dataType>us.dot.its.jpo.ode.model.OdeHexByteArray</dataType>"
+            + "<data><bytes>0014251A</bytes></data></payload></OdeAsn1Data>";
+
+      assertArrayEquals(new byte[] { 0x00, 0x14, 0x25, 0x1a },
+            DeliveryMonitor.extractPayload(xml.getBytes(StandardCharsets.UTF_8)));
+      assertNull(DeliveryMonitor.extractPayload("<OdeAsn1Data/>".getBytes(StandardCharsets.UTF_8)));
+   }
+
+   @Test
+   public void shouldExtractRawSemiPayload() {
+      byte[] record = new byte[] { 'R', 'S', 1, 1, 1, 2, 3, 4, 0x20, (byte) 0x88 };
+
+      assertArrayEquals(new byte[] { 0x20, (byte) 0x88 }, DeliveryMonitor.extractPayload(record));
+   }
+}
@@ -0,0 +1,66 @@
+package us.dot.its.jpo.ode.loadgen;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import us.dot.its.jpo.ode.loadgen.Fixture.FixtureException;
+
+public class FixtureTest {
+
+   @Test
+   public void shouldSplitConcatenatedMessageFrames() {
+      byte[] data = new byte[] { 0x00, 0x14, 0x02, 0x11, 0x22, 0x00, 0x14, 0x01, 0x33 };
+
+      List<byte[]> frames = Fixture.split(data);
+
+      assertEquals(2, frames.size());
+      assertArrayEquals(new byte[] { 0x00, 0x14, 0x02, 0x11, 0x22 }, frames.get(0));
+      assertArrayEquals(new byte[] { 0x00, 0x14, 0x01, 0x33 }, frames.get(1));
+   }
+
+   @Test
+   public void shouldSplitLongMessageFrames() {
+      byte[] data = new byte[4 + 200];
+      data[1] = 0x14;
+      data[2] = (byte) 0x80;
+      data[3] = (byte) 200;
+
+      assertEquals(1, Fixture.split(data).size());
+      assertEquals(204, Fixture.split(data).get(0).length);
+   }
+
+   @Test
+   public void otherDataShouldBeOneMessage() {
+      byte[] data = new byte[] { 0x59, (byte) 0xaf, (byte) 0xa8, 0x40 };
+      assertEquals(1, Fixture.split(data).size());
+      assertArrayEquals(data, Fixture.split(data).get(0));
+   }
+
+   @Test
+   public void shouldDropTrailingPartialFrame() {
+      byte[] truncated = new byte[] { 0x00, 0x14, 0x01, 0x33, 0x00, 0x14, 0x05, 0x00 };
+
+      List<byte[]> frames = Fixture.split(truncated);
+
+      assertEquals(1, frames.size());
+      assertArrayEquals(new byte[] { 0x00, 0x14, 0x01, 0x33 }, frames.get(0));
+   }
+
+   @Test
+   public void shouldParseOneHexMessagePerLine() throws FixtureException {
+      List<byte[]> messages = Fixture.parseHex("401480ca\r\n\n 00 14 01 33\n");
+
+      assertEquals(2, messages.size());
+      assertArrayEquals(new byte[] { 0x40, 0x14, (byte) 0x80, (byte) 0xca }, messages.get(0));
+      assertArrayEquals(new byte[] { 0x00, 0x14, 0x01, 0x33 }, messages.get(1));
+   }
+
+   @Test(expected = FixtureException.class)
+   public void invalidHexShouldThrow() throws FixtureException {
+      Fixture.parseHex("40148");
+   }
+}
@@ -0,0 +1,60 @@
+package us.dot.its.jpo.ode.loadgen;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class PacketStampTest {
+
+   // start of data/bsm.uper
+   private static final byte[] RAW_BSM = new byte[] { 0x59, (byte) 0xaf, (byte) 0xa8, 0x40, 0x00, 0x23,
+         (byte) 0xef, (byte) 0xe7, 0x17, 0x08 };
+
+   // start of data/isd.uper
+   private static final byte[] ISD = new byte[] { 0x20, (byte) 0x88, 0x26, 0x01, (byte) 0x86, (byte) 0xc5, 0x77,
+         (byte) 0xea, 0x33, (byte) 0xc0 };
+
+   // start of data/vsdm.uper
+   private static final byte[] VSD = new byte[] { 0x01, 0x00, 0x00, 0x00, 0x00, 0x00, 0x40, 0x40, 0x40, 0x40,
+         (byte) 0xa0 };
+
+   @Test
+   public void shouldLocateBsmTemporaryId() {
+      assertEquals(10, PacketStamp.locate(RAW_BSM));
+      assertEquals(16 + 8 + 10, PacketStamp.locate(new byte[] { 0x00, 0x14, 0x25, 0, 0, 0, 0, 0, 0 }));
+      assertEquals(16 + 16 + 10, PacketStamp.locate(new byte[] { 0x00, 0x14, (byte) 0x80, (byte) 0xac, 0, 0, 0, 0,
+            0, 0 }));
+   }
+
+   @Test
+   public void shouldLocateSemiRequestId() {
+      assertEquals(43, PacketStamp.locate(ISD));
+      assertEquals(42, PacketStamp.locate(VSD));
+      // the fixture requestID
+      assertEquals(0x01010101, PacketStamp.read(VSD, 42));
+   }
+
+   @Test
+   public void shortMessagesShouldNotBeStampable() {
+      assertEquals(PacketStamp.NOT_STAMPABLE, PacketStamp.locate(new byte[0]));
+      assertEquals(PacketStamp.NOT_STAMPABLE, PacketStamp.locate(new byte[] { 0x59, (byte) 0xaf, 0x01 }));
+      assertEquals(PacketStamp.NOT_STAMPABLE, PacketStamp.locate(Arrays.copyOf(VSD, 9)));
+   }
+
+   @Test
+   public void writeShouldOnlyReplaceTheStampBits() {
+      byte[] message = RAW_BSM.clone();
+      PacketStamp.write(message, 10, 0xCAFEBABE);
+
+      assertEquals(0xCAFEBABE, PacketStamp.read(message, 10));
+      assertEquals(RAW_BSM[0], message[0]);
+      assertEquals(RAW_BSM[1] & 0xC0, message[1] & 0xC0);
+      assertEquals(RAW_BSM[5] & 0x3F, message[5] & 0x3F);
+      assertArrayEquals(Arrays.copyOfRange(RAW_BSM, 6, RAW_BSM.length),
+            Arrays.copyOfRange(message, 6, message.length));
+      assertEquals(10, PacketStamp.locate(message));
+   }
+}
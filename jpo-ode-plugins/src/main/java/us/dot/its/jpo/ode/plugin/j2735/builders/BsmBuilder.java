@@ -1,10 +1,12 @@
 package us.dot.its.jpo.ode.plugin.j2735.builders;
 
 import java.util.Iterator;
+import java.util.function.Function;
 
 import com.fasterxml.jackson.databind.JsonNode;
 
 import us.dot.its.jpo.ode.plugin.j2735.J2735Bsm;
+import us.dot.its.jpo.ode.plugin.j2735.J2735BsmCoreData;
 import us.dot.its.jpo.ode.plugin.j2735.builders.BsmPart2ContentBuilder.BsmPart2ContentBuilderException;
 
 public class BsmBuilder {
@@ -14,10 +16,19 @@ public class BsmBuilder {
     }
 
     public static J2735Bsm genericBsm(JsonNode basicSafetyMessage) throws BsmPart2ContentBuilderException {
+        return genericBsm(basicSafetyMessage, BsmCoreDataBuilder::genericBsmCoreData);
+    }
+
+    /**
+     * @param coreDataBuilder
+     *           builds the core data from the coreData element
+     */
+    public static J2735Bsm genericBsm(JsonNode basicSafetyMessage,
+          Function<JsonNode, ? extends J2735BsmCoreData> coreDataBuilder) throws BsmPart2ContentBuilderException {
         J2735Bsm genericBsm = new J2735Bsm();
         JsonNode coreData = basicSafetyMessage.get("coreData");
         if (coreData != null) {
-            genericBsm.setCoreData(BsmCoreDataBuilder.genericBsmCoreData(coreData));
+            genericBsm.setCoreData(coreDataBuilder.apply(coreData));
         }
 
         JsonNode partII = basicSafetyMessage.get("partII");
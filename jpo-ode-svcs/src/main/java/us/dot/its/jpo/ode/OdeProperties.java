@@ -37,6 +37,24 @@ public class OdeProperties implements EnvironmentAware {
    private String j2735CoderClassName = "us.dot.its.jpo.ode.plugin.j2735.oss.OssJ2735Coder";
    private String kafkaBrokers = null;
    private String kafkaProducerType = AppContext.DEFAULT_KAFKA_PRODUCER_TYPE;
+   private String kafkaProducerProfiles = ""; // shared producer settings, "name:setting=value,...;name:..."
+   private String kafkaTopicProducerProfiles = ""; // "topic:profile,...", other topics use the default profile
+   private int kafkaConsumerWorkerThreads = 0; // workers per parallel topic consumer, 0 for one per core
+   private String kafkaConsumerOrdering = "PARTITION"; // records kept in order per PARTITION or per KEY
+   private long kafkaConsumerPollTimeoutMillis = 60000; // longest wait for records in one poll
+   private int kafkaConsumerMaxPollRecords = 0; // max.poll.records, 0 for the Kafka default
+   private long kafkaConsumerLagRefreshMillis = 5000; // how often consumer lag is read from the brokers
+   private boolean kafkaConsumerAdaptiveWorkers = false; // resize parallel consumer workers from the lag trend
+   private int kafkaConsumerMinWorkerThreads = 1; // lower bound of adaptive workers
+   private int kafkaConsumerMaxWorkerThreads = 0; // upper bound of adaptive workers, 0 for one per core
+   private long kafkaConsumerScaleUpLag = 1000; // lag in records above which a stage counts as behind
+   private int kafkaConsumerScaleSamples = 3; // consecutive lag samples needed before resizing
+   private boolean kafkaStreamsTopologyEnabled = false; // decode, route and convert to JSON in one Kafka Streams pass
+   private String binaryJsonFormat = ""; // SMILE or CBOR to also publish JSON topics in that format, empty for none
+   private String kafkaPartitionKeyStrategy = "NONE"; // NONE, SOURCE or VEHICLE (recommended), see PartitionKeyStrategy
+   private boolean kafkaDeadLetterEnabled = false; // send records a stage fails on to its dead letter topic
+   private String kafkaTopicDeadLetterPrefix = "topic.OdeDeadLetter"; // dead letter topic is prefix + stage name
+   private int kafkaDeadLetterLogsPerMinute = 10; // failures logged per stage and minute, the rest are counted
    private Boolean verboseJson = false;
    private String externalIpv4 = "";
    private String externalIpv6 = "";
@@ -71,6 +89,18 @@ public class OdeProperties implements EnvironmentAware {
     */
    private int trustRetries = 2; // if trust handshake fails, how many times to retry
    private int messagesUntilTrustReestablished = 10; // renew trust session every x messages
+   private boolean udpNioReceiverEnabled = false; // use DatagramChannel readers instead of a single DatagramSocket
+   private int udpReceiverThreads = 1; // number of reader threads per UDP receiver when NIO is enabled
+   private boolean udpRingBufferEnabled = true; // hand received packets to publish workers through a ring buffer
+   private int udpRingBufferSize = 4096; // ring buffer slots shared by the UDP services, rounded up to a power of two
+   private String udpRingBufferWaitStrategy = "BLOCKING"; // BUSY_SPIN, YIELDING, SLEEPING or BLOCKING
+   private String udpRingBufferOverflowPolicy = "DROP_OLDEST"; // DROP_OLDEST, DROP_NEWEST or BLOCK
+   private int udpPublisherThreads = 2; // number of workers shared by the UDP services draining the ring buffer
+   private int udpBufferPoolSize = 1024; // receive buffers kept for reuse per UDP service
+   private String udpSourceAllowList = ""; // comma separated sender IPs accepted by the UDP receivers, empty for any
+   private long udpRateLimitIdleTimeoutMillis = 60000; // forget a sender's rate limit state after this much silence
+   private int udpRateLimitMaxSources = 10000; // senders tracked individually, the rest share one bucket
+   private long udpKernelStatsRefreshMillis = 1000; // how long /proc/net/udp readings are reused by the UDP metrics
    
    /*
     * Kafka Topics
@@ -113,6 +143,14 @@ public class OdeProperties implements EnvironmentAware {
     */
    private int bsmReceiverPort = 46800;
    private int bsmBufferSize = 500;
+   private boolean bsmDedupEnabled = false; // suppress duplicate BSMs before the asn1_codec round trip
+   private long bsmDedupWindowMillis = 2000; // how long a BSM is remembered for duplicate suppression
+   private int bsmDedupCapacity = 65536; // BSMs remembered per half window before the window is cut short
+   private boolean bsmDedupDecodedKeyEnabled = false; // also suppress decoded BSMs by tempId, msgCnt and secMark
+   private int bsmRateLimitPerSecond = 0; // BSM packets/sec accepted per sender IP, 0 for no limit
+   private int bsmRateLimitBurst = 100;
+   private int bsmSocketReceiveBufferSize = 0; // SO_RCVBUF bytes of the BSM receiver socket, 0 for the OS default
+   private int bsmSocketSendBufferSize = 0; // SO_SNDBUF bytes of the BSM receiver socket, 0 for the OS default
 
    /*
     * Vehicle Situation Data (VSD) Properties
@@ -121,6 +159,10 @@ public class OdeProperties implements EnvironmentAware {
    private int vsdReceiverPort = 46753;
    private int vsdDepositorPort = 5555;
    private int vsdTrustport = 5556;
+   private int vsdRateLimitPerSecond = 0; // VSD packets/sec accepted per sender IP, 0 for no limit
+   private int vsdRateLimitBurst = 20;
+   private int vsdSocketReceiveBufferSize = 0; // SO_RCVBUF bytes of the VSD receiver socket, 0 for the OS default
+   private int vsdSocketSendBufferSize = 0; // SO_SNDBUF bytes of the VSD receiver socket, 0 for the OS default
 
    /*
     * Intersection Situation Data (ISD) Properties
@@ -129,6 +171,11 @@ public class OdeProperties implements EnvironmentAware {
    private int isdReceiverPort = 46801;
    private int isdDepositorPort = 6666;
    private int isdTrustPort = 6667;
+   private int isdRateLimitPerSecond = 0; // ISD packets/sec accepted per sender IP, 0 for no limit
+   private int isdRateLimitBurst = 20;
+   private int isdSocketReceiveBufferSize = 0; // SO_RCVBUF bytes of the ISD receiver socket, 0 for the OS default
+   private int isdSocketSendBufferSize = 0; // SO_SNDBUF bytes of the ISD receiver socket, 0 for the OS default
+   private boolean isdPassThroughEnabled = false; // publish ISDs as received UPER bytes instead of decoding them
    private int dataReceiptBufferSize;
 
    private int importProcessorBufferSize = OdePlugin.INPUT_STREAM_BUFFER_SIZE;
@@ -694,4 +741,380 @@ public class OdeProperties implements EnvironmentAware {
    public void setFileWatcherPeriod(Integer fileWatcherPeriod) {
       this.fileWatcherPeriod = fileWatcherPeriod;
    }
+
+   public boolean isUdpNioReceiverEnabled() {
+      return udpNioReceiverEnabled;
+   }
+
+   public void setUdpNioReceiverEnabled(boolean udpNioReceiverEnabled) {
+      this.udpNioReceiverEnabled = udpNioReceiverEnabled;
+   }
+
+   public int getUdpReceiverThreads() {
+      return udpReceiverThreads;
+   }
+
+   public void setUdpReceiverThreads(int udpReceiverThreads) {
+      this.udpReceiverThreads = udpReceiverThreads;
+   }
+
+   public boolean isUdpRingBufferEnabled() {
+      return udpRingBufferEnabled;
+   }
+
+   public void setUdpRingBufferEnabled(boolean udpRingBufferEnabled) {
+      this.udpRingBufferEnabled = udpRingBufferEnabled;
+   }
+
+   public int getUdpRingBufferSize() {
+      return udpRingBufferSize;
+   }
+
+   public void setUdpRingBufferSize(int udpRingBufferSize) {
+      this.udpRingBufferSize = udpRingBufferSize;
+   }
+
+   public String getUdpRingBufferWaitStrategy() {
+      return udpRingBufferWaitStrategy;
+   }
+
+   public void setUdpRingBufferWaitStrategy(String udpRingBufferWaitStrategy) {
+      this.udpRingBufferWaitStrategy = udpRingBufferWaitStrategy;
+   }
+
+   public String getUdpRingBufferOverflowPolicy() {
+      return udpRingBufferOverflowPolicy;
+   }
+
+   public void setUdpRingBufferOverflowPolicy(String udpRingBufferOverflowPolicy) {
+      this.udpRingBufferOverflowPolicy = udpRingBufferOverflowPolicy;
+   }
+
+   public int getUdpPublisherThreads() {
+      return udpPublisherThreads;
+   }
+
+   public void setUdpPublisherThreads(int udpPublisherThreads) {
+      this.udpPublisherThreads = udpPublisherThreads;
+   }
+
+   public boolean isBsmDedupEnabled() {
+      return bsmDedupEnabled;
+   }
+
+   public void setBsmDedupEnabled(boolean bsmDedupEnabled) {
+      this.bsmDedupEnabled = bsmDedupEnabled;
+   }
+
+   public long getBsmDedupWindowMillis() {
+      return bsmDedupWindowMillis;
+   }
+
+   public void setBsmDedupWindowMillis(long bsmDedupWindowMillis) {
+      this.bsmDedupWindowMillis = bsmDedupWindowMillis;
+   }
+
+   public int getBsmDedupCapacity() {
+      return bsmDedupCapacity;
+   }
+
+   public void setBsmDedupCapacity(int bsmDedupCapacity) {
+      this.bsmDedupCapacity = bsmDedupCapacity;
+   }
+
+   public boolean isBsmDedupDecodedKeyEnabled() {
+      return bsmDedupDecodedKeyEnabled;
+   }
+
+   public void setBsmDedupDecodedKeyEnabled(boolean bsmDedupDecodedKeyEnabled) {
+      this.bsmDedupDecodedKeyEnabled = bsmDedupDecodedKeyEnabled;
+   }
+
+   public String getUdpSourceAllowList() {
+      return udpSourceAllowList;
+   }
+
+   public void setUdpSourceAllowList(String udpSourceAllowList) {
+      this.udpSourceAllowList = udpSourceAllowList;
+   }
+
+   public long getUdpRateLimitIdleTimeoutMillis() {
+      return udpRateLimitIdleTimeoutMillis;
+   }
+
+   public void setUdpRateLimitIdleTimeoutMillis(long udpRateLimitIdleTimeoutMillis) {
+      this.udpRateLimitIdleTimeoutMillis = udpRateLimitIdleTimeoutMillis;
+   }
+
+   public int getUdpRateLimitMaxSources() {
+      return udpRateLimitMaxSources;
+   }
+
+   public void setUdpRateLimitMaxSources(int udpRateLimitMaxSources) {
+      this.udpRateLimitMaxSources = udpRateLimitMaxSources;
+   }
+
+   public int getBsmRateLimitPerSecond() {
+      return bsmRateLimitPerSecond;
+   }
+
+   public void setBsmRateLimitPerSecond(int bsmRateLimitPerSecond) {
+      this.bsmRateLimitPerSecond = bsmRateLimitPerSecond;
+   }
+
+   public int getBsmRateLimitBurst() {
+      return bsmRateLimitBurst;
+   }
+
+   public void setBsmRateLimitBurst(int bsmRateLimitBurst) {
+      this.bsmRateLimitBurst = bsmRateLimitBurst;
+   }
+
+   public int getIsdRateLimitPerSecond() {
+      return isdRateLimitPerSecond;
+   }
+
+   public void setIsdRateLimitPerSecond(int isdRateLimitPerSecond) {
+      this.isdRateLimitPerSecond = isdRateLimitPerSecond;
+   }
+
+   public int getIsdRateLimitBurst() {
+      return isdRateLimitBurst;
+   }
+
+   public void setIsdRateLimitBurst(int isdRateLimitBurst) {
+      this.isdRateLimitBurst = isdRateLimitBurst;
+   }
+
+   public int getVsdRateLimitPerSecond() {
+      return vsdRateLimitPerSecond;
+   }
+
+   public void setVsdRateLimitPerSecond(int vsdRateLimitPerSecond) {
+      this.vsdRateLimitPerSecond = vsdRateLimitPerSecond;
+   }
+
+   public int getVsdRateLimitBurst() {
+      return vsdRateLimitBurst;
+   }
+
+   public void setVsdRateLimitBurst(int vsdRateLimitBurst) {
+      this.vsdRateLimitBurst = vsdRateLimitBurst;
+   }
+
+   public int getUdpBufferPoolSize() {
+      return udpBufferPoolSize;
+   }
+
+   public void setUdpBufferPoolSize(int udpBufferPoolSize) {
+      this.udpBufferPoolSize = udpBufferPoolSize;
+   }
+
+   public boolean isIsdPassThroughEnabled() {
+      return isdPassThroughEnabled;
+   }
+
+   public void setIsdPassThroughEnabled(boolean isdPassThroughEnabled) {
+      this.isdPassThroughEnabled = isdPassThroughEnabled;
+   }
+
+   public int getBsmSocketReceiveBufferSize() {
+      return bsmSocketReceiveBufferSize;
+   }
+
+   public void setBsmSocketReceiveBufferSize(int bsmSocketReceiveBufferSize) {
+      this.bsmSocketReceiveBufferSize = bsmSocketReceiveBufferSize;
+   }
+
+   public int getBsmSocketSendBufferSize() {
+      return bsmSocketSendBufferSize;
+   }
+
+   public void setBsmSocketSendBufferSize(int bsmSocketSendBufferSize) {
+      this.bsmSocketSendBufferSize = bsmSocketSendBufferSize;
+   }
+
+   public int getVsdSocketReceiveBufferSize() {
+      return vsdSocketReceiveBufferSize;
+   }
+
+   public void setVsdSocketReceiveBufferSize(int vsdSocketReceiveBufferSize) {
+      this.vsdSocketReceiveBufferSize = vsdSocketReceiveBufferSize;
+   }
+
+   public int getVsdSocketSendBufferSize() {
+      return vsdSocketSendBufferSize;
+   }
+
+   public void setVsdSocketSendBufferSize(int vsdSocketSendBufferSize) {
+      this.vsdSocketSendBufferSize = vsdSocketSendBufferSize;
+   }
+
+   public int getIsdSocketReceiveBufferSize() {
+      return isdSocketReceiveBufferSize;
+   }
+
+   public void setIsdSocketReceiveBufferSize(int isdSocketReceiveBufferSize) {
+      this.isdSocketReceiveBufferSize = isdSocketReceiveBufferSize;
+   }
+
+   public int getIsdSocketSendBufferSize() {
+      return isdSocketSendBufferSize;
+   }
+
+   public void setIsdSocketSendBufferSize(int isdSocketSendBufferSize) {
+      this.isdSocketSendBufferSize = isdSocketSendBufferSize;
+   }
+
+   public long getUdpKernelStatsRefreshMillis() {
+      return udpKernelStatsRefreshMillis;
+   }
+
+   public void setUdpKernelStatsRefreshMillis(long udpKernelStatsRefreshMillis) {
+      this.udpKernelStatsRefreshMillis = udpKernelStatsRefreshMillis;
+   }
+
+   public String getKafkaProducerProfiles() {
+      return kafkaProducerProfiles;
+   }
+
+   public void setKafkaProducerProfiles(String kafkaProducerProfiles) {
+      this.kafkaProducerProfiles = kafkaProducerProfiles;
+   }
+
+   public String getKafkaTopicProducerProfiles() {
+      return kafkaTopicProducerProfiles;
+   }
+
+   public void setKafkaTopicProducerProfiles(String kafkaTopicProducerProfiles) {
+      this.kafkaTopicProducerProfiles = kafkaTopicProducerProfiles;
+   }
+
+   public int getKafkaConsumerWorkerThreads() {
+      return kafkaConsumerWorkerThreads;
+   }
+
+   public void setKafkaConsumerWorkerThreads(int kafkaConsumerWorkerThreads) {
+      this.kafkaConsumerWorkerThreads = kafkaConsumerWorkerThreads;
+   }
+
+   public String getKafkaConsumerOrdering() {
+      return kafkaConsumerOrdering;
+   }
+
+   public void setKafkaConsumerOrdering(String kafkaConsumerOrdering) {
+      this.kafkaConsumerOrdering = kafkaConsumerOrdering;
+   }
+
+   public long getKafkaConsumerPollTimeoutMillis() {
+      return kafkaConsumerPollTimeoutMillis;
+   }
+
+   public void setKafkaConsumerPollTimeoutMillis(long kafkaConsumerPollTimeoutMillis) {
+      this.kafkaConsumerPollTimeoutMillis = kafkaConsumerPollTimeoutMillis;
+   }
+
+   public int getKafkaConsumerMaxPollRecords() {
+      return kafkaConsumerMaxPollRecords;
+   }
+
+   public void setKafkaConsumerMaxPollRecords(int kafkaConsumerMaxPollRecords) {
+      this.kafkaConsumerMaxPollRecords = kafkaConsumerMaxPollRecords;
+   }
+
+   public long getKafkaConsumerLagRefreshMillis() {
+      return kafkaConsumerLagRefreshMillis;
+   }
+
+   public void setKafkaConsumerLagRefreshMillis(long kafkaConsumerLagRefreshMillis) {
+      this.kafkaConsumerLagRefreshMillis = kafkaConsumerLagRefreshMillis;
+   }
+
+   public boolean isKafkaConsumerAdaptiveWorkers() {
+      return kafkaConsumerAdaptiveWorkers;
+   }
+
+   public void setKafkaConsumerAdaptiveWorkers(boolean kafkaConsumerAdaptiveWorkers) {
+      this.kafkaConsumerAdaptiveWorkers = kafkaConsumerAdaptiveWorkers;
+   }
+
+   public int getKafkaConsumerMinWorkerThreads() {
+      return kafkaConsumerMinWorkerThreads;
+   }
+
+   public void setKafkaConsumerMinWorkerThreads(int kafkaConsumerMinWorkerThreads) {
+      this.kafkaConsumerMinWorkerThreads = kafkaConsumerMinWorkerThreads;
+   }
+
+   public int getKafkaConsumerMaxWorkerThreads() {
+      return kafkaConsumerMaxWorkerThreads;
+   }
+
+   public void setKafkaConsumerMaxWorkerThreads(int kafkaConsumerMaxWorkerThreads) {
+      this.kafkaConsumerMaxWorkerThreads = kafkaConsumerMaxWorkerThreads;
+   }
+
+   public long getKafkaConsumerScaleUpLag() {
+      return kafkaConsumerScaleUpLag;
+   }
+
+   public void setKafkaConsumerScaleUpLag(long kafkaConsumerScaleUpLag) {
+      this.kafkaConsumerScaleUpLag = kafkaConsumerScaleUpLag;
+   }
+
+   public int getKafkaConsumerScaleSamples() {
+      return kafkaConsumerScaleSamples;
+   }
+
+   public void setKafkaConsumerScaleSamples(int kafkaConsumerScaleSamples) {
+      this.kafkaConsumerScaleSamples = kafkaConsumerScaleSamples;
+   }
+
+   public boolean isKafkaStreamsTopologyEnabled() {
+      return kafkaStreamsTopologyEnabled;
+   }
+
+   public void setKafkaStreamsTopologyEnabled(boolean kafkaStreamsTopologyEnabled) {
+      this.kafkaStreamsTopologyEnabled = kafkaStreamsTopologyEnabled;
+   }
+
+   public String getBinaryJsonFormat() {
+      return binaryJsonFormat;
+   }
+
+   public void setBinaryJsonFormat(String binaryJsonFormat) {
+      this.binaryJsonFormat = binaryJsonFormat;
+   }
+
+   public String getKafkaPartitionKeyStrategy() {
+      return kafkaPartitionKeyStrategy;
+   }
+
+   public void setKafkaPartitionKeyStrategy(String kafkaPartitionKeyStrategy) {
+      this.kafkaPartitionKeyStrategy = kafkaPartitionKeyStrategy;
+   }
+
+   public boolean isKafkaDeadLetterEnabled() {
+      return kafkaDeadLetterEnabled;
+   }
+
+   public void setKafkaDeadLetterEnabled(boolean kafkaDeadLetterEnabled) {
+      this.kafkaDeadLetterEnabled = kafkaDeadLetterEnabled;
+   }
+
+   public String getKafkaTopicDeadLetterPrefix() {
+      return kafkaTopicDeadLetterPrefix;
+   }
+
+   public void setKafkaTopicDeadLetterPrefix(String kafkaTopicDeadLetterPrefix) {
+      this.kafkaTopicDeadLetterPrefix = kafkaTopicDeadLetterPrefix;
+   }
+
+   public int getKafkaDeadLetterLogsPerMinute() {
+      return kafkaDeadLetterLogsPerMinute;
+   }
+
+   public void setKafkaDeadLetterLogsPerMinute(int kafkaDeadLetterLogsPerMinute) {
+      this.kafkaDeadLetterLogsPerMinute = kafkaDeadLetterLogsPerMinute;
+   }
 }
@@ -5,6 +5,7 @@ import org.slf4j.LoggerFactory;
 
 import us.dot.its.jpo.ode.OdeProperties;
 import us.dot.its.jpo.ode.wrapper.MessageProducer;
+import us.dot.its.jpo.ode.wrapper.MessageProducerRegistry;
 
 public class ByteArrayPublisher extends MessagePublisher {
 
@@ -13,9 +14,7 @@ public class ByteArrayPublisher extends MessagePublisher {
 
    public ByteArrayPublisher(OdeProperties odeProps) {
       super(odeProps);
-      this.bytesProducer = MessageProducer.defaultByteArrayMessageProducer(
-         odeProperties.getKafkaBrokers(), odeProperties.getKafkaProducerType());
-
+      this.bytesProducer = MessageProducerRegistry.getInstance(odeProperties).getByteArrayProducer();
    }
 
    public void publish(byte[] msg, String topic) {
@@ -0,0 +1,278 @@
+package us.dot.its.jpo.ode.coder;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import us.dot.its.jpo.ode.OdeProperties;
+
+/**
+ * Time windowed duplicate suppression for messages entering the ODE.
+ * <p>
+ * Messages are reduced to a 64 bit key, typically a hash of the encoded
+ * payload. Keys are kept in sharded open addressing hash sets with two
+ * generations per shard: new keys go into the current generation, and when
+ * half the window has elapsed the previous generation is cleared and becomes
+ * the current one. A key is therefore remembered for between half and the
+ * whole window. Memory is fixed at construction; if a shard fills up before
+ * its rotation is due it is rotated early, shortening the window rather than
+ * growing.
+ */
+public class DuplicateMessageFilter implements DuplicateMessageFilterMBean {
+
+   private static final Logger logger = LoggerFactory.getLogger(DuplicateMessageFilter.class);
+
+   private static final int SHARD_COUNT = 16;
+   private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+   private static final long FNV_PRIME = 0x100000001b3L;
+
+   private static DuplicateMessageFilter instance;
+
+   private final Shard[] shards;
+   private final int capacity;
+   private final long windowMillis;
+
+   private final LongAdder checkedCount = new LongAdder();
+   private final LongAdder duplicateCount = new LongAdder();
+   private final LongAdder earlyRotationCount = new LongAdder();
+
+   /**
+    * @param capacity
+    *           number of keys remembered per generation across all shards
+    * @param windowMillis
+    *           how long a key is remembered for
+    */
+   public DuplicateMessageFilter(int capacity, long windowMillis) {
+      if (capacity < SHARD_COUNT || windowMillis < 2) {
+         throw new IllegalArgumentException(
+               "Invalid duplicate filter configuration, capacity: " + capacity + ", window: " + windowMillis);
+      }
+      this.windowMillis = windowMillis;
+
+      int maxKeysPerShard = (capacity + SHARD_COUNT - 1) / SHARD_COUNT;
+      // keep the tables at most half full so probe sequences stay short
+      int tableSize = Integer.highestOneBit(maxKeysPerShard * 2 - 1) << 1;
+      this.capacity = maxKeysPerShard * SHARD_COUNT;
+
+      this.shards = new Shard[SHARD_COUNT];
+      for (int i = 0; i < SHARD_COUNT; i++) {
+         shards[i] = new Shard(tableSize, maxKeysPerShard);
+      }
+   }
+
+   /**
+    * Returns the filter shared by all ingest paths, creating and registering
+    * it with the platform MBean server on first use.
+    *
+    * @return the shared filter, or null if duplicate suppression is disabled
+    */
+   public static synchronized DuplicateMessageFilter getInstance(OdeProperties odeProps) {
+      if (null == instance && null != odeProps && odeProps.isBsmDedupEnabled()) {
+         try {
+            instance = new DuplicateMessageFilter(odeProps.getBsmDedupCapacity(), odeProps.getBsmDedupWindowMillis());
+         } catch (IllegalArgumentException e) {
+            logger.error("Duplicate message suppression disabled", e);
+            return null;
+         }
+         try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(instance,
+                  new ObjectName("us.dot.its.jpo.ode:type=DuplicateMessageFilter"));
+         } catch (JMException e) {
+            logger.warn("Unable to register duplicate message filter MBean", e);
+         }
+         logger.info("Duplicate message suppression enabled with a {} ms window for {} messages", instance.windowMillis,
+               instance.capacity);
+      }
+      return instance;
+   }
+
+   /**
+    * Records the payload and reports whether it was already seen within the
+    * window.
+    *
+    * @param scope
+    *           keeps identical payloads from different sources apart, e.g. a
+    *           log file record type
+    * @param payload
+    *           encoded message
+    */
+   public boolean isDuplicate(long scope, byte[] payload) {
+      return isDuplicate(hash(scope, payload, 0, payload.length));
+   }
+
+   /**
+    * Records the key and reports whether it was already seen within the
+    * window.
+    */
+   public boolean isDuplicate(long key) {
+      // zero marks an empty slot
+      long k = key == 0 ? 1 : key;
+      checkedCount.increment();
+
+      Shard shard = shards[(int) (k >>> 60) & (SHARD_COUNT - 1)];
+      boolean duplicate;
+      synchronized (shard) {
+         duplicate = !shard.add(k, System.currentTimeMillis());
+      }
+      if (duplicate) {
+         duplicateCount.increment();
+      }
+      return duplicate;
+   }
+
+   /**
+    * 64 bit FNV-1a hash of the given bytes with a final avalanche step so
+    * that the high bits used for sharding are well mixed.
+    */
+   public static long hash(long seed, byte[] data, int offset, int length) {
+      long h = FNV_OFFSET_BASIS ^ seed;
+      for (int i = offset; i < offset + length; i++) {
+         h ^= data[i] & 0xFF;
+         h *= FNV_PRIME;
+      }
+      return mix(h);
+   }
+
+   /**
+    * Key for a decoded BSM, built from the fields that identify one
+    * transmission of one vehicle.
+    */
+   public static long hash(long seed, String tempId, int msgCnt, int secMark) {
+      byte[] id = null == tempId ? new byte[0] : tempId.getBytes(StandardCharsets.US_ASCII);
+      long h = hash(seed, id, 0, id.length);
+      h = (h ^ msgCnt) * FNV_PRIME;
+      h = (h ^ secMark) * FNV_PRIME;
+      return mix(h);
+   }
+
+   /*
+    * MurmurHash3 fmix64 finalizer
+    */
+   private static long mix(long h) {
+      h ^= h >>> 33;
+      h *= 0xff51afd7ed558ccdL;
+      h ^= h >>> 33;
+      h *= 0xc4ceb9fe1a85ec53L;
+      h ^= h >>> 33;
+      return h;
+   }
+
+   private final class Shard {
+      private final int maxKeys;
+      private long[] current;
+      private long[] previous;
+      private int currentSize;
+      private int previousSize;
+      private long rotateAt;
+
+      Shard(int tableSize, int maxKeys) {
+         this.maxKeys = maxKeys;
+         this.current = new long[tableSize];
+         this.previous = new long[tableSize];
+      }
+
+      /**
+       * @return true if the key was added, false if already present
+       */
+      boolean add(long key, long now) {
+         if (now >= rotateAt) {
+            rotate();
+            // an idle shard forgets both generations
+            if (now >= rotateAt + windowMillis / 2) {
+               rotate();
+            }
+            rotateAt = now + windowMillis / 2;
+         } else if (currentSize >= maxKeys) {
+            rotate();
+            earlyRotationCount.increment();
+         }
+
+         if (contains(previous, key)) {
+            return false;
+         }
+
+         int mask = current.length - 1;
+         int i = (int) key & mask;
+         while (current[i] != 0) {
+            if (current[i] == key) {
+               return false;
+            }
+            i = (i + 1) & mask;
+         }
+         current[i] = key;
+         currentSize++;
+         return true;
+      }
+
+      private void rotate() {
+         long[] recycled = previous;
+         Arrays.fill(recycled, 0L);
+         previous = current;
+         previousSize = currentSize;
+         current = recycled;
+         currentSize = 0;
+      }
+
+      private boolean contains(long[] table, long key) {
+         int mask = table.length - 1;
+         int i = (int) key & mask;
+         while (table[i] != 0) {
+            if (table[i] == key) {
+               return true;
+            }
+            i = (i + 1) & mask;
+         }
+         return false;
+      }
+
+      synchronized int size() {
+         return currentSize + previousSize;
+      }
+   }
+
+   @Override
+   public long getCheckedCount() {
+      return checkedCount.sum();
+   }
+
+   @Override
+   public long getDuplicateCount() {
+      return duplicateCount.sum();
+   }
+
+   @Override
+   public long getUniqueCount() {
+      return checkedCount.sum() - duplicateCount.sum();
+   }
+
+   @Override
+   public long getEarlyRotationCount() {
+      return earlyRotationCount.sum();
+   }
+
+   @Override
+   public int getSize() {
+      int size = 0;
+      for (Shard shard : shards) {
+         size += shard.size();
+      }
+      return size;
+   }
+
+   @Override
+   public int getCapacity() {
+      return capacity;
+   }
+
+   @Override
+   public long getWindowMillis() {
+      return windowMillis;
+   }
+}
@@ -0,0 +1,18 @@
+package us.dot.its.jpo.ode.coder;
+
+public interface DuplicateMessageFilterMBean {
+
+   public long getCheckedCount();
+
+   public long getDuplicateCount();
+
+   public long getUniqueCount();
+
+   public long getEarlyRotationCount();
+
+   public int getSize();
+
+   public int getCapacity();
+
+   public long getWindowMillis();
+}
@@ -0,0 +1,275 @@
+package us.dot.its.jpo.ode.coder;
+
+import java.util.List;
+
+import us.dot.its.jpo.ode.model.Asn1Encoding;
+import us.dot.its.jpo.ode.model.OdeAsn1Data;
+import us.dot.its.jpo.ode.model.OdeAsn1Metadata;
+import us.dot.its.jpo.ode.model.OdeAsn1Payload;
+import us.dot.its.jpo.ode.model.OdeAsn1WithBsmMetadata;
+import us.dot.its.jpo.ode.model.OdeHexByteArray;
+import us.dot.its.jpo.ode.model.OdeLogMsgMetadataLocation;
+import us.dot.its.jpo.ode.model.OdeMsgMetadata;
+import us.dot.its.jpo.ode.model.OdeMsgPayload;
+import us.dot.its.jpo.ode.model.ReceivedMessageDetails;
+import us.dot.its.jpo.ode.model.SerialId;
+import us.dot.its.jpo.ode.model.WsmpHeaderDetails;
+import us.dot.its.jpo.ode.util.XmlUtils;
+import us.dot.its.jpo.ode.util.XmlUtils.XmlUtilsException;
+
+/**
+ * Writes the {@link OdeAsn1Data} envelopes published to the ASN.1 codec
+ * without going through XmlMapper.
+ * <p>
+ * The envelope always has the same elements, so it is written as a fixed
+ * template: the elements in the order XmlMapper writes the properties of the
+ * model classes, parent class fields first, lists inside a wrapper element
+ * and null values as empty elements. Only the values are filled in, into a
+ * buffer kept per thread. The output is the same text
+ * {@link XmlUtils#toXmlS(Object)} writes.
+ * </p>
+ * <p>
+ * Values are written as they are, so a record with text that XmlMapper would
+ * escape or write differently, such as markup characters, control or non
+ * ASCII characters or empty strings, or a record with a class the template
+ * does not know, is written by {@link XmlUtils#toXmlS(Object)} instead.
+ * </p>
+ */
+public class OdeAsn1DataXmlWriter {
+
+   // a thread's buffer is let go after a record larger than this
+   private static final int MAX_KEPT_BUFFER = 1 << 16;
+
+   private static final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+   private OdeAsn1DataXmlWriter() {
+   }
+
+   public static String toXml(OdeAsn1Data data) throws XmlUtilsException {
+      StringBuilder xml = buffers.get();
+      xml.setLength(0);
+      try {
+         return write(xml, data) ? xml.toString() : XmlUtils.toXmlS(data);
+      } finally {
+         if (xml.capacity() > MAX_KEPT_BUFFER) {
+            buffers.remove();
+         }
+      }
+   }
+
+   /*
+    * @return false if the record is not one the template can write
+    */
+   private static boolean write(StringBuilder xml, OdeAsn1Data data) {
+      if (data.getClass() != OdeAsn1Data.class) {
+         return false;
+      }
+      OdeMsgMetadata metadata = data.getMetadata();
+      OdeMsgPayload payload = data.getPayload();
+      if (null == metadata || null == payload || payload.getClass() != OdeAsn1Payload.class
+            || null == payload.getData() || payload.getData().getClass() != OdeHexByteArray.class) {
+         return false;
+      }
+      boolean withBsm = metadata.getClass() == OdeAsn1WithBsmMetadata.class;
+      if (!withBsm && metadata.getClass() != OdeAsn1Metadata.class) {
+         return false;
+      }
+      OdeAsn1Metadata asn1Metadata = (OdeAsn1Metadata) metadata;
+
+      xml.append("<OdeAsn1Data><metadata>");
+      // OdeMsgMetadata
+      if (!text(xml, "payloadType", asn1Metadata.getPayloadType())
+            || !serialId(xml, asn1Metadata.getSerialId())
+            || !text(xml, "odeReceivedAt", asn1Metadata.getOdeReceivedAt())) {
+         return false;
+      }
+      number(xml, "schemaVersion", asn1Metadata.getSchemaVersion());
+      if (!text(xml, "recordGeneratedAt", asn1Metadata.getRecordGeneratedAt())) {
+         return false;
+      }
+      name(xml, "recordGeneratedBy", asn1Metadata.getRecordGeneratedBy());
+      open(xml, "sanitized").append(asn1Metadata.isSanitized());
+      close(xml, "sanitized");
+      // OdeLogMetadata
+      if (!text(xml, "logFileName", asn1Metadata.getLogFileName())) {
+         return false;
+      }
+      name(xml, "recordType", asn1Metadata.getRecordType());
+      name(xml, "securityResultCode", asn1Metadata.getSecurityResultCode());
+      // OdeLogMetadataReceived
+      if (!receivedMessageDetails(xml, asn1Metadata.getReceivedMessageDetails())
+            // OdeAsn1Metadata
+            || !encodings(xml, asn1Metadata.getEncodings())
+            || !wsmpHeader(xml, asn1Metadata.getWsmpHeader())
+            || !text(xml, "partitionKey", asn1Metadata.getPartitionKey())) {
+         return false;
+      }
+      if (withBsm) {
+         name(xml, "bsmSource", ((OdeAsn1WithBsmMetadata) asn1Metadata).getBsmSource());
+      }
+      xml.append("</metadata><payload>");
+      if (!text(xml, "dataType", payload.getDataType())) {
+         return false;
+      }
+      xml.append("<data>");
+      if (!text(xml, "bytes", ((OdeHexByteArray) payload.getData()).getBytes())) {
+         return false;
+      }
+      xml.append("</data></payload></OdeAsn1Data>");
+      return true;
+   }
+
+   private static boolean serialId(StringBuilder xml, SerialId serialId) {
+      if (null == serialId) {
+         empty(xml, "serialId");
+         return true;
+      }
+      if (serialId.getClass() != SerialId.class) {
+         return false;
+      }
+      open(xml, "serialId");
+      if (!text(xml, "streamId", serialId.getStreamId())) {
+         return false;
+      }
+      open(xml, "bundleSize").append(serialId.getBundleSize());
+      close(xml, "bundleSize");
+      open(xml, "bundleId").append(serialId.getBundleId());
+      close(xml, "bundleId");
+      open(xml, "recordId").append(serialId.getRecordId());
+      close(xml, "recordId");
+      open(xml, "serialNumber").append(serialId.getSerialNumber());
+      close(xml, "serialNumber");
+      close(xml, "serialId");
+      return true;
+   }
+
+   private static boolean receivedMessageDetails(StringBuilder xml, ReceivedMessageDetails details) {
+      if (null == details) {
+         empty(xml, "receivedMessageDetails");
+         return true;
+      }
+      if (details.getClass() != ReceivedMessageDetails.class) {
+         return false;
+      }
+      open(xml, "receivedMessageDetails");
+      OdeLogMsgMetadataLocation location = details.getLocationData();
+      if (null == location) {
+         empty(xml, "locationData");
+      } else {
+         if (location.getClass() != OdeLogMsgMetadataLocation.class) {
+            return false;
+         }
+         open(xml, "locationData");
+         if (!text(xml, "latitude", location.getLatitude())
+               || !text(xml, "longitude", location.getLongitude())
+               || !text(xml, "elevation", location.getElevation())
+               || !text(xml, "speed", location.getSpeed())
+               || !text(xml, "heading", location.getHeading())) {
+            return false;
+         }
+         close(xml, "locationData");
+      }
+      name(xml, "rxSource", details.getRxSource());
+      close(xml, "receivedMessageDetails");
+      return true;
+   }
+
+   private static boolean encodings(StringBuilder xml, List<Asn1Encoding> encodings) {
+      // XmlMapper's writing of a missing or empty list is left to it
+      if (null == encodings || encodings.isEmpty()) {
+         return false;
+      }
+      open(xml, "encodings");
+      for (Asn1Encoding encoding : encodings) {
+         if (null == encoding || encoding.getClass() != Asn1Encoding.class) {
+            return false;
+         }
+         open(xml, "encodings");
+         if (!text(xml, "elementName", encoding.getElementName())
+               || !text(xml, "elementType", encoding.getElementType())) {
+            return false;
+         }
+         name(xml, "encodingRule", encoding.getEncodingRule());
+         close(xml, "encodings");
+      }
+      close(xml, "encodings");
+      return true;
+   }
+
+   private static boolean wsmpHeader(StringBuilder xml, WsmpHeaderDetails wsmpHeader) {
+      if (null == wsmpHeader) {
+         empty(xml, "wsmpHeader");
+         return true;
+      }
+      if (wsmpHeader.getClass() != WsmpHeaderDetails.class) {
+         return false;
+      }
+      open(xml, "wsmpHeader");
+      number(xml, "wsmpVersion", wsmpHeader.getWsmpVersion());
+      number(xml, "psid", wsmpHeader.getPsid());
+      number(xml, "channel", wsmpHeader.getChannel());
+      number(xml, "dataRate", wsmpHeader.getDataRate());
+      close(xml, "wsmpHeader");
+      return true;
+   }
+
+   /*
+    * @return false if the value is not written as it is
+    */
+   private static boolean text(StringBuilder xml, String element, String value) {
+      if (null == value) {
+         empty(xml, element);
+         return true;
+      }
+      if (!isPlain(value)) {
+         return false;
+      }
+      open(xml, element).append(value);
+      close(xml, element);
+      return true;
+   }
+
+   private static void name(StringBuilder xml, String element, Enum<?> value) {
+      if (null == value) {
+         empty(xml, element);
+      } else {
+         open(xml, element).append(value.name());
+         close(xml, element);
+      }
+   }
+
+   private static void number(StringBuilder xml, String element, Number value) {
+      if (null == value) {
+         empty(xml, element);
+      } else {
+         open(xml, element).append(value.longValue());
+         close(xml, element);
+      }
+   }
+
+   private static boolean isPlain(String value) {
+      int length = value.length();
+      if (0 == length) {
+         return false;
+      }
+      for (int i = 0; i < length; i++) {
+         char c = value.charAt(i);
+         if (c < ' ' || c > '~' || c == '<' || c == '>' || c == '&') {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private static StringBuilder open(StringBuilder xml, String element) {
+      return xml.append('<').append(element).append('>');
+   }
+
+   private static void close(StringBuilder xml, String element) {
+      xml.append("</").append(element).append('>');
+   }
+
+   private static void empty(StringBuilder xml, String element) {
+      xml.append('<').append(element).append("/>");
+   }
+}
@@ -4,10 +4,13 @@ import java.io.IOException;
 import java.time.ZonedDateTime;
 import java.util.Date;
 
+import javax.xml.stream.XMLStreamException;
+
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 
 import gov.usdot.cv.security.msg.IEEE1609p2Message;
+import us.dot.its.jpo.ode.coder.OdeBsmDataXmlDecoder.OdeBsmDataXmlDecoderException;
 import us.dot.its.jpo.ode.context.AppContext;
 import us.dot.its.jpo.ode.importer.parser.BsmLogFileParser;
 import us.dot.its.jpo.ode.model.OdeBsmData;
@@ -67,7 +70,20 @@ public class OdeBsmDataCreatorHelper {
       return createOdeBsmData(rawBsm, null, bsmFileParser);
    }
 
-   public static OdeBsmData createOdeBsmData(String consumedData) 
+   /**
+    * Decodes a BSM record of the ASN.1 codec in one pass, see
+    * {@link OdeBsmDataXmlDecoder}.
+    */
+   public static OdeBsmData createOdeBsmData(String consumedData)
+         throws XMLStreamException, OdeBsmDataXmlDecoderException, BsmPart2ContentBuilderException {
+      return OdeBsmDataXmlDecoder.decode(consumedData);
+   }
+
+   /*
+    * Decodes a BSM record through a JSON tree of the whole record. Kept as the
+    * reference the streaming decoder is checked against.
+    */
+   static OdeBsmData createOdeBsmDataFromTree(String consumedData)
          throws JsonProcessingException, IOException, XmlUtilsException, BsmPart2ContentBuilderException  {
 //    JsonNode consumed = JsonUtils.toObjectNode(consumedData);
       JsonNode consumed = XmlUtils.toObjectNode(consumedData);
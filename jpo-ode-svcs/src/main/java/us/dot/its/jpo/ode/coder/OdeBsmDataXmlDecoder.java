@@ -0,0 +1,308 @@
+package us.dot.its.jpo.ode.coder;
+
+import java.io.StringReader;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import us.dot.its.jpo.ode.context.AppContext;
+import us.dot.its.jpo.ode.model.CompactBsmCoreData;
+import us.dot.its.jpo.ode.model.OdeBsmData;
+import us.dot.its.jpo.ode.model.OdeBsmMetadata;
+import us.dot.its.jpo.ode.model.OdeBsmMetadata.BsmSource;
+import us.dot.its.jpo.ode.model.OdeBsmPayload;
+import us.dot.its.jpo.ode.model.OdeLogMetadata.RecordType;
+import us.dot.its.jpo.ode.model.OdeLogMetadata.SecurityResultCode;
+import us.dot.its.jpo.ode.model.OdeMsgMetadata.GeneratedBy;
+import us.dot.its.jpo.ode.model.SerialId;
+import us.dot.its.jpo.ode.plugin.j2735.builders.BsmBuilder;
+import us.dot.its.jpo.ode.plugin.j2735.builders.BsmPart2ContentBuilder.BsmPart2ContentBuilderException;
+
+/**
+ * Decodes an ASN.1 codec BSM record into {@link OdeBsmData} in one forward
+ * pass of an {@link XMLStreamReader}.
+ * <p>
+ * The metadata is set on an {@link OdeBsmMetadata} as it is read, instead of
+ * through a JSON tree of the whole record, a string and Gson. Elements that
+ * are not metadata fields are skipped, as Gson ignores them. The
+ * BasicSafetyMessage is read into a tree of its own and handed to
+ * {@link BsmBuilder}, so the J2735 unit conversions stay in one place. That
+ * tree is typed the way org.json types XML text, so the builders see the same
+ * nodes as through {@link us.dot.its.jpo.ode.util.XmlUtils#toObjectNode}. The
+ * core data is kept as a {@link CompactBsmCoreData}, in J2735 units.
+ * </p>
+ */
+public class OdeBsmDataXmlDecoder {
+
+   public static class OdeBsmDataXmlDecoderException extends Exception {
+      private static final long serialVersionUID = 1L;
+
+      public OdeBsmDataXmlDecoderException(String message) {
+         super(message);
+      }
+   }
+
+   public static final String BSM_ELEMENT = "BasicSafetyMessage";
+
+   private static final String CONTENT = "content";
+
+   private static final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+   private static final JsonNodeFactory nodes = JsonNodeFactory.instance;
+
+   static {
+      inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+      inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+   }
+
+   private OdeBsmDataXmlDecoder() {
+   }
+
+   /**
+    * @return the BSM and the metadata of the first metadata and
+    *         BasicSafetyMessage elements of the record
+    */
+   public static OdeBsmData decode(String xml)
+         throws XMLStreamException, OdeBsmDataXmlDecoderException, BsmPart2ContentBuilderException {
+      OdeBsmMetadata metadata = null;
+      OdeBsmPayload payload = null;
+
+      XMLStreamReader reader = inputFactory.createXMLStreamReader(new StringReader(xml));
+      try {
+         while (reader.hasNext() && (null == metadata || null == payload)) {
+            if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+               continue;
+            }
+            String name = reader.getLocalName();
+            if (null == metadata && AppContext.METADATA_STRING.equals(name)) {
+               metadata = readMetadata(reader);
+            } else if (null == payload && BSM_ELEMENT.equals(name)) {
+               payload = new OdeBsmPayload(
+                     BsmBuilder.genericBsm(readElement(reader), CompactBsmCoreData::fromCoreData));
+            }
+         }
+      } finally {
+         reader.close();
+      }
+
+      if (null == metadata) {
+         throw new OdeBsmDataXmlDecoderException("Decoded record has no " + AppContext.METADATA_STRING);
+      }
+      if (null == payload) {
+         throw new OdeBsmDataXmlDecoderException("Decoded record has no " + BSM_ELEMENT);
+      }
+      return new OdeBsmData(metadata, payload);
+   }
+
+   /*
+    * Reads the metadata element the reader is on, up to its end tag.
+    */
+   private static OdeBsmMetadata readMetadata(XMLStreamReader reader) throws XMLStreamException {
+      OdeBsmMetadata metadata = new OdeBsmMetadata();
+      while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+         switch (reader.getLocalName()) {
+         case "payloadType":
+            metadata.setPayloadType(text(reader));
+            break;
+         case "serialId":
+            metadata.setSerialId(readSerialId(reader));
+            break;
+         case "odeReceivedAt":
+            metadata.setOdeReceivedAt(text(reader));
+            break;
+         case "schemaVersion":
+            metadata.setSchemaVersion(Integer.valueOf(text(reader)));
+            break;
+         case "recordGeneratedAt":
+            metadata.setRecordGeneratedAt(text(reader));
+            break;
+         case "recordGeneratedBy":
+            metadata.setRecordGeneratedBy(toEnum(GeneratedBy.class, text(reader)));
+            break;
+         case "sanitized":
+            metadata.setSanitized(Boolean.parseBoolean(text(reader)));
+            break;
+         case "logFileName":
+            metadata.setLogFileName(text(reader));
+            break;
+         case "recordType":
+            metadata.setRecordType(toEnum(RecordType.class, text(reader)));
+            break;
+         case "securityResultCode":
+            metadata.setSecurityResultCode(toEnum(SecurityResultCode.class, text(reader)));
+            break;
+         case "bsmSource":
+            metadata.setBsmSource(toEnum(BsmSource.class, text(reader)));
+            break;
+         default:
+            skipElement(reader);
+         }
+      }
+      return metadata;
+   }
+
+   private static SerialId readSerialId(XMLStreamReader reader) throws XMLStreamException {
+      SerialId serialId = new SerialId();
+      while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+         switch (reader.getLocalName()) {
+         case "streamId":
+            serialId.setStreamId(text(reader));
+            break;
+         case "bundleSize":
+            serialId.setBundleSize(Integer.parseInt(text(reader)));
+            break;
+         case "bundleId":
+            serialId.setBundleId(Long.parseLong(text(reader)));
+            break;
+         case "recordId":
+            serialId.setRecordId(Integer.parseInt(text(reader)));
+            break;
+         case "serialNumber":
+            serialId.setSerialNumber(Long.parseLong(text(reader)));
+            break;
+         default:
+            skipElement(reader);
+         }
+      }
+      return serialId;
+   }
+
+   /*
+    * Reads the element the reader is on, up to its end tag, into a node as
+    * org.json's XML.toJSONObject would: an empty element is "", an element
+    * with text only is the typed text, repeated child elements become an
+    * array and text next to child elements is a "content" field.
+    */
+   static JsonNode readElement(XMLStreamReader reader) throws XMLStreamException {
+      ObjectNode object = null;
+      for (int i = 0; i < reader.getAttributeCount(); i++) {
+         object = null == object ? nodes.objectNode() : object;
+         accumulate(object, reader.getAttributeLocalName(i), typedValue(reader.getAttributeValue(i).trim()));
+      }
+
+      StringBuilder text = null;
+      int event;
+      while ((event = reader.next()) != XMLStreamConstants.END_ELEMENT) {
+         if (event == XMLStreamConstants.START_ELEMENT) {
+            String name = reader.getLocalName();
+            object = null == object ? nodes.objectNode() : object;
+            accumulate(object, name, readElement(reader));
+         } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+            text = null == text ? new StringBuilder() : text;
+            text.append(reader.getText());
+         }
+      }
+
+      String content = null == text ? "" : text.toString().trim();
+      if (null == object) {
+         return typedValue(content);
+      }
+      if (!content.isEmpty()) {
+         accumulate(object, CONTENT, typedValue(content));
+      }
+      return object;
+   }
+
+   private static void accumulate(ObjectNode object, String name, JsonNode value) {
+      JsonNode existing = object.get(name);
+      if (null == existing) {
+         object.set(name, value);
+      } else if (existing.isArray()) {
+         ((ArrayNode) existing).add(value);
+      } else {
+         object.putArray(name).add(existing).add(value);
+      }
+   }
+
+   /*
+    * The node org.json's XML.stringToValue gives after the round trip through
+    * a JSON string into Jackson.
+    */
+   static JsonNode typedValue(String s) {
+      if (s.isEmpty()) {
+         return nodes.textNode(s);
+      }
+      if ("true".equalsIgnoreCase(s)) {
+         return nodes.booleanNode(true);
+      }
+      if ("false".equalsIgnoreCase(s)) {
+         return nodes.booleanNode(false);
+      }
+      if ("null".equalsIgnoreCase(s)) {
+         return nodes.nullNode();
+      }
+      if ("0".equals(s)) {
+         return nodes.numberNode(0);
+      }
+      try {
+         boolean negative = s.charAt(0) == '-';
+         char initial = s.charAt(negative ? 1 : 0);
+         if (initial == '0' && s.charAt(negative ? 2 : 1) == '0') {
+            return nodes.textNode(s);
+         }
+         if (initial >= '0' && initial <= '9') {
+            if (s.indexOf('.') >= 0) {
+               return doubleNode(Double.valueOf(s));
+            } else if (s.indexOf('e') < 0 && s.indexOf('E') < 0) {
+               return integralNode(Long.parseLong(s));
+            }
+         }
+      } catch (RuntimeException e) {
+         // not a number
+      }
+      return nodes.textNode(s);
+   }
+
+   private static JsonNode integralNode(long value) {
+      return value == (int) value ? nodes.numberNode((int) value) : nodes.numberNode(value);
+   }
+
+   /*
+    * org.json writes a double without trailing zeros, so a whole number comes
+    * back from the JSON string as an integer
+    */
+   private static JsonNode doubleNode(Double value) {
+      if (value.isInfinite() || value.isNaN()) {
+         return nodes.textNode(value.toString());
+      }
+      String s = value.toString();
+      if (s.indexOf('E') < 0 && s.endsWith(".0")) {
+         return integralNode(value.longValue());
+      }
+      return nodes.numberNode(value.doubleValue());
+   }
+
+   private static String text(XMLStreamReader reader) throws XMLStreamException {
+      return reader.getElementText().trim();
+   }
+
+   private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+      int depth = 1;
+      while (depth > 0) {
+         int event = reader.next();
+         if (event == XMLStreamConstants.START_ELEMENT) {
+            depth++;
+         } else if (event == XMLStreamConstants.END_ELEMENT) {
+            depth--;
+         }
+      }
+   }
+
+   /*
+    * Gson leaves a field null for a name that is not a constant of its enum
+    */
+   private static <E extends Enum<E>> E toEnum(Class<E> type, String name) {
+      for (E constant : type.getEnumConstants()) {
+         if (constant.name().equals(name)) {
+            return constant;
+         }
+      }
+      return null;
+   }
+}
@@ -6,17 +6,28 @@ import org.slf4j.LoggerFactory;
 import us.dot.its.jpo.ode.OdeProperties;
 import us.dot.its.jpo.ode.model.OdeData;
 import us.dot.its.jpo.ode.model.OdeObject;
+import us.dot.its.jpo.ode.services.json.BinaryJsonMirror;
+import us.dot.its.jpo.ode.util.OdeJsonCodec;
 import us.dot.its.jpo.ode.wrapper.MessageProducer;
+import us.dot.its.jpo.ode.wrapper.MessageProducerRegistry;
 
 public class OdeDataPublisher extends MessagePublisher {
 
    private static final Logger logger = LoggerFactory.getLogger(OdeDataPublisher.class);
    protected MessageProducer<String, OdeObject> objectProducer;
+   protected MessageProducer<String, String> bsmJsonProducer;
+   protected BinaryJsonMirror binaryMirror;
+   protected PartitionKeyStrategy partitionKeys;
 
    public OdeDataPublisher(OdeProperties odeProps, String serializer) {
       super(odeProps);
-      this.objectProducer = new MessageProducer<>(odeProperties.getKafkaBrokers(), odeProperties.getKafkaProducerType(),
-            null, serializer);
+      this.objectProducer = MessageProducerRegistry.getInstance(odeProperties).getProducer(serializer);
+      // no OdeBsmPojo converter runs alongside the decoded data topology
+      if (odeProps.isKafkaStreamsTopologyEnabled()) {
+         this.bsmJsonProducer = MessageProducerRegistry.getInstance(odeProperties).getStringProducer();
+      }
+      this.binaryMirror = new BinaryJsonMirror(odeProps);
+      this.partitionKeys = new PartitionKeyStrategy(odeProps);
    }
 
    public void publish(OdeData msg, String topic) {
@@ -30,7 +41,14 @@ public class OdeDataPublisher extends MessagePublisher {
 //         }
       
       logger.debug("Publishing to {}: {}", topic, msg);
-      objectProducer.send(topic, null, msg);
+      String key = partitionKeys.forData(msg, null);
+      objectProducer.send(topic, key, msg);
+
+      if (null != bsmJsonProducer && topic.equals(odeProperties.getKafkaTopicOdeBsmPojo())) {
+         String json = OdeJsonCodec.toJson(msg, false);
+         bsmJsonProducer.send(odeProperties.getKafkaTopicOdeBsmJson(), key, json);
+         binaryMirror.send(odeProperties.getKafkaTopicOdeBsmJson(), key, json);
+      }
    }
 
 }
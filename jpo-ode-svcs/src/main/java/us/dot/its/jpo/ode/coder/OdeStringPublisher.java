@@ -6,6 +6,7 @@ import org.slf4j.LoggerFactory;
 import us.dot.its.jpo.ode.OdeProperties;
 import us.dot.its.jpo.ode.model.OdeData;
 import us.dot.its.jpo.ode.wrapper.MessageProducer;
+import us.dot.its.jpo.ode.wrapper.MessageProducerRegistry;
 
 public class OdeStringPublisher extends MessagePublisher {
 
@@ -14,9 +15,7 @@ public class OdeStringPublisher extends MessagePublisher {
 
    public OdeStringPublisher(OdeProperties odeProps) {
       super(odeProps);
-      this.stringProducer = MessageProducer.defaultStringMessageProducer(odeProperties.getKafkaBrokers(),
-            odeProperties.getKafkaProducerType());
-
+      this.stringProducer = MessageProducerRegistry.getInstance(odeProperties).getStringProducer();
    }
 
    public void publish(OdeData msg, String topic) {
@@ -0,0 +1,114 @@
+package us.dot.its.jpo.ode.coder;
+
+import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.model.OdeAsn1Metadata;
+import us.dot.its.jpo.ode.model.OdeData;
+import us.dot.its.jpo.ode.plugin.j2735.J2735Bsm;
+import us.dot.its.jpo.ode.plugin.j2735.J2735BsmCoreData;
+
+/**
+ * Derives the Kafka record key of the ODE topics from the fields a record is
+ * known by, so the records of one vehicle or one source go to the same
+ * partition and are consumed in order.
+ * <p>
+ * With {@link Strategy#SOURCE} records are keyed by where they came from: the
+ * bundle of the log file they were read from or the IP address of the RSU
+ * that forwarded them. {@link Strategy#VEHICLE} also keys BSMs by their
+ * temporary id once they are decoded. {@link Strategy#NONE} leaves the key
+ * null, so records are spread round robin.
+ * </p>
+ * <p>
+ * NONE is the default, so records are spread as before unless keying is
+ * asked for. VEHICLE is the recommended setting when consumers need the
+ * records of a vehicle in order; keyed partitions carry more of the records
+ * of busy RSUs and large log files.
+ * </p>
+ * <p>
+ * The ASN.1 codec does not keep record keys, so the source key is also
+ * written to the {@link OdeAsn1Metadata} of the encoded record and read back
+ * from the metadata of the decoded one.
+ * </p>
+ */
+public class PartitionKeyStrategy {
+
+   public enum Strategy {
+      NONE, SOURCE, VEHICLE;
+
+      /**
+       * @return the named strategy, NONE if the name is empty
+       */
+      public static Strategy of(String name) {
+         if (null == name || name.trim().isEmpty()) {
+            return NONE;
+         }
+         return valueOf(name.trim().toUpperCase());
+      }
+   }
+
+   public static final String METADATA_KEY_FIELD = "partitionKey";
+
+   private final Strategy strategy;
+
+   public PartitionKeyStrategy(OdeProperties odeProps) {
+      this(Strategy.of(odeProps.getKafkaPartitionKeyStrategy()));
+   }
+
+   public PartitionKeyStrategy(Strategy strategy) {
+      this.strategy = null == strategy ? Strategy.NONE : strategy;
+   }
+
+   /**
+    * @return the key of the records read from one log file, null if records
+    *         are not keyed
+    */
+   public String forLogFile(int bundleId) {
+      return strategy == Strategy.NONE ? null : "bundle-" + bundleId;
+   }
+
+   /**
+    * @return the key of the records forwarded by an RSU, null if records are
+    *         not keyed or the address is unknown
+    */
+   public String forRsu(String sourceIp) {
+      return strategy == Strategy.NONE ? null : emptyToNull(sourceIp);
+   }
+
+   /**
+    * @param sourceKey
+    *           key of the record the data was created from, may be null
+    * @return the temporary id of a BSM with {@link Strategy#VEHICLE}, else the
+    *         source key
+    */
+   public String forData(OdeData data, String sourceKey) {
+      if (strategy == Strategy.NONE) {
+         return null;
+      }
+      if (strategy == Strategy.VEHICLE && null != data && null != data.getPayload()
+            && data.getPayload().getData() instanceof J2735Bsm) {
+         J2735BsmCoreData coreData = ((J2735Bsm) data.getPayload().getData()).getCoreData();
+         if (null != coreData && null != emptyToNull(coreData.getId())) {
+            return coreData.getId();
+         }
+      }
+      return emptyToNull(sourceKey);
+   }
+
+   /**
+    * @param metadataKey
+    *           the {@link #METADATA_KEY_FIELD} of a record's metadata
+    * @return the source key written to the metadata of a record, null if
+    *         records are not keyed or it has none
+    */
+   public String fromMetadata(String metadataKey) {
+      // an empty XML element comes back as an empty string
+      return strategy == Strategy.NONE ? null : emptyToNull(metadataKey);
+   }
+
+   public Strategy getStrategy() {
+      return strategy;
+   }
+
+   private static String emptyToNull(String s) {
+      return null == s || s.isEmpty() ? null : s;
+   }
+}
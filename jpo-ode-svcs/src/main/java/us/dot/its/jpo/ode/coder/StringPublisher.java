@@ -5,6 +5,7 @@ import org.slf4j.LoggerFactory;
 
 import us.dot.its.jpo.ode.OdeProperties;
 import us.dot.its.jpo.ode.wrapper.MessageProducer;
+import us.dot.its.jpo.ode.wrapper.MessageProducerRegistry;
 
 public class StringPublisher extends MessagePublisher {
 
@@ -13,14 +14,16 @@ public class StringPublisher extends MessagePublisher {
 
    public StringPublisher(OdeProperties odeProps) {
       super(odeProps);
-      this.stringProducer = MessageProducer.defaultStringMessageProducer(
-         odeProperties.getKafkaBrokers(), odeProperties.getKafkaProducerType());
-
+      this.stringProducer = MessageProducerRegistry.getInstance(odeProperties).getStringProducer();
    }
 
    public void publish(String msg, String topic) {
+      publish(msg, topic, null);
+   }
+
+   public void publish(String msg, String topic, String key) {
     logger.debug("Publishing String data to {}", topic);
-    stringProducer.send(topic, null, msg);
+    stringProducer.send(topic, key, msg);
    }
 
 }
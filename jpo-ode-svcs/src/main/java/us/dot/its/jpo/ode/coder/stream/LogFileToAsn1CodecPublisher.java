@@ -6,9 +6,10 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-
+import us.dot.its.jpo.ode.coder.DuplicateMessageFilter;
+import us.dot.its.jpo.ode.coder.OdeAsn1DataXmlWriter;
 import us.dot.its.jpo.ode.coder.OdeLogMetadataCreatorHelper;
+import us.dot.its.jpo.ode.coder.PartitionKeyStrategy;
 import us.dot.its.jpo.ode.coder.StringPublisher;
 import us.dot.its.jpo.ode.importer.ImporterDirectoryWatcher.ImporterFileType;
 import us.dot.its.jpo.ode.importer.parser.BsmLogFileParser;
@@ -27,8 +28,10 @@ import us.dot.its.jpo.ode.model.OdeDriverAlertPayload;
 import us.dot.its.jpo.ode.model.OdeLogMetadata;
 import us.dot.its.jpo.ode.model.OdeLogMetadataReceived;
 import us.dot.its.jpo.ode.model.OdeMsgPayload;
+import us.dot.its.jpo.ode.model.WsmpHeaderDetails;
+import us.dot.its.jpo.ode.udp.WsmpDecoder;
 import us.dot.its.jpo.ode.util.JsonUtils;
-import us.dot.its.jpo.ode.util.XmlUtils;
+import us.dot.its.jpo.ode.util.XmlUtils.XmlUtilsException;
 
 public class LogFileToAsn1CodecPublisher implements Asn1CodecPublisher {
 
@@ -44,18 +47,24 @@ public class LogFileToAsn1CodecPublisher implements Asn1CodecPublisher {
 
    protected static final Logger logger = LoggerFactory.getLogger(LogFileToAsn1CodecPublisher.class);
 
+   // scope for payloads received over UDP, record types use their ordinal
+   private static final long UDP_SCOPE = -1L;
+
    protected StringPublisher publisher;
    protected LogFileParser fileParser;
+   protected DuplicateMessageFilter duplicateFilter;
+   protected PartitionKeyStrategy partitionKeys;
 
    protected static AtomicInteger bundleId = new AtomicInteger(1);
 
    public LogFileToAsn1CodecPublisher(StringPublisher dataPub) {
       this.publisher = dataPub;
+      this.duplicateFilter = DuplicateMessageFilter.getInstance(dataPub.getOdeProperties());
+      this.partitionKeys = new PartitionKeyStrategy(dataPub.getOdeProperties());
    }
 
    public void publish(BufferedInputStream bis, String fileName, ImporterFileType fileType) 
          throws LogFileToAsn1CodecPublisherException {
-      XmlUtils xmlUtils = new XmlUtils();
       ParserStatus status = ParserStatus.UNKNOWN;
 
       if (fileType == ImporterFileType.OBU_LOG_FILE) {
@@ -68,7 +77,7 @@ public class LogFileToAsn1CodecPublisher implements Asn1CodecPublisher {
          try {
             status = fileParser.parseFile(bis, fileName);
             if (status == ParserStatus.COMPLETE) {
-               publish(xmlUtils);
+               publish();
             } else if (status == ParserStatus.EOF) {
                // if parser returns PARTIAL record, we will go back and continue
                // parsing
@@ -86,11 +95,12 @@ public class LogFileToAsn1CodecPublisher implements Asn1CodecPublisher {
       } while (status == ParserStatus.COMPLETE);
    }
 
-   private void publish(XmlUtils xmlUtils) throws JsonProcessingException {
+   private void publish() throws XmlUtilsException {
 
       OdeMsgPayload msgPayload;
       OdeLogMetadata msgMetadata;
       OdeData msgData;
+      String key = partitionKeys.forLogFile(bundleId.get());
       
       if (fileParser instanceof DriverAlertFileParser){
          logger.debug("Publishing a driverAlert.");
@@ -102,8 +112,12 @@ public class LogFileToAsn1CodecPublisher implements Asn1CodecPublisher {
          
          msgData = new OdeDriverAlertData(msgMetadata, msgPayload);
          publisher.publish(JsonUtils.toJson(msgData, false),
-            publisher.getOdeProperties().getKafkaTopicDriverAlertJson());
+            publisher.getOdeProperties().getKafkaTopicDriverAlertJson(), key);
       } else {
+         if (isDuplicate()) {
+            logger.debug("Suppressed duplicate {} record", fileParser.getRecordType());
+            return;
+         }
          msgPayload = new OdeAsn1Payload(fileParser.getPayload());
          OdeAsn1Metadata asn1Metadata;
          if (fileParser instanceof BsmLogFileParser) {
@@ -117,22 +131,52 @@ public class LogFileToAsn1CodecPublisher implements Asn1CodecPublisher {
          Asn1Encoding unsecuredDataEncoding = new Asn1Encoding("unsecuredData", "MessageFrame",
                  EncodingRule.UPER);
          asn1Metadata.addEncoding(msgEncoding).addEncoding(unsecuredDataEncoding);
+         asn1Metadata.setPartitionKey(key);
          msgMetadata = asn1Metadata;
 
          msgMetadata.getSerialId().setBundleId(bundleId.get()).addRecordId(1);
          OdeLogMetadataCreatorHelper.updateLogMetadata(msgMetadata, fileParser);
          
-         msgData = new OdeAsn1Data(msgMetadata, msgPayload);
-         publisher.publish(xmlUtils.toXml(msgData),
-            publisher.getOdeProperties().getKafkaTopicAsn1DecoderInput());
+         OdeAsn1Data asn1Data = new OdeAsn1Data(msgMetadata, msgPayload);
+         publisher.publish(OdeAsn1DataXmlWriter.toXml(asn1Data),
+            publisher.getOdeProperties().getKafkaTopicAsn1DecoderInput(), key);
       }
    }
 
+   /*
+    * Only BSM log records are filtered here. An rxMsg record may hold a BSM or
+    * a TIM, and which one is only known once it is decoded, so its BSMs are
+    * left to the decoded data routes.
+    */
+   private boolean isDuplicate() {
+      return null != duplicateFilter && fileParser instanceof BsmLogFileParser
+            && duplicateFilter.isDuplicate(fileParser.getRecordType().ordinal(), fileParser.getPayload());
+   }
+
    @Override
    public void publish(byte[] payloadBytes) throws Exception {
+      publish(payloadBytes, null, null);
+   }
+
+   /**
+    * @param wsmp
+    *           decoder holding the WSMP header the payload was received
+    *           with, may be null
+    * @param sourceIp
+    *           address of the RSU the payload was received from, may be null
+    */
+   public void publish(byte[] payloadBytes, WsmpDecoder wsmp, String sourceIp) throws Exception {
+      if (null != duplicateFilter && duplicateFilter.isDuplicate(UDP_SCOPE, payloadBytes)) {
+         logger.debug("Suppressed duplicate UDP message");
+         return;
+      }
+
       OdeAsn1Payload payload = new OdeAsn1Payload(payloadBytes);
       OdeAsn1Metadata metadata = new OdeAsn1Metadata(payload);
       metadata.getSerialId().setBundleId(bundleId.get()).addRecordId(1);
+      metadata.setWsmpHeader(wsmpHeader(wsmp));
+      String key = partitionKeys.forRsu(sourceIp);
+      metadata.setPartitionKey(key);
 
       Asn1Encoding msgEncoding = new Asn1Encoding("root", "MessageFrame", EncodingRule.UPER);
       metadata.addEncoding(msgEncoding);
@@ -140,6 +184,16 @@ public class LogFileToAsn1CodecPublisher implements Asn1CodecPublisher {
 
       // publisher.publish(asn1Data.toJson(false),
       // publisher.getOdeProperties().getKafkaTopicAsn1EncodedBsm());
-      publisher.publish(XmlUtils.toXmlS(asn1Data), publisher.getOdeProperties().getKafkaTopicAsn1DecoderInput());
+      publisher.publish(OdeAsn1DataXmlWriter.toXml(asn1Data), publisher.getOdeProperties().getKafkaTopicAsn1DecoderInput(),
+            key);
+   }
+
+   private static WsmpHeaderDetails wsmpHeader(WsmpDecoder wsmp) {
+      if (null == wsmp || !wsmp.isHeaderPresent()) {
+         return null;
+      }
+      return new WsmpHeaderDetails(wsmp.getWsmpVersion(), wsmp.getPsid(),
+            wsmp.getChannel() == WsmpDecoder.UNKNOWN ? null : wsmp.getChannel(),
+            wsmp.getDataRate() == WsmpDecoder.UNKNOWN ? null : wsmp.getDataRate());
    }
 }
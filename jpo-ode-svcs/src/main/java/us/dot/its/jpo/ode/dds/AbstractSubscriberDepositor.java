@@ -18,6 +18,7 @@ import us.dot.its.jpo.ode.udp.UdpUtil.UdpUtilException;
 import us.dot.its.jpo.ode.udp.trust.TrustManager;
 import us.dot.its.jpo.ode.wrapper.AbstractSubscriberProcessor;
 import us.dot.its.jpo.ode.wrapper.MessageConsumer;
+import us.dot.its.jpo.ode.wrapper.MessageConsumerSettings;
 
 /**
  * @author 572682
@@ -40,6 +41,7 @@ public abstract class AbstractSubscriberDepositor extends AbstractSubscriberProc
       this.consumer = MessageConsumer.defaultByteArrayMessageConsumer(odeProps.getKafkaBrokers(),
          odeProps.getHostId() + this.getClass().getSimpleName(), this);
       this.consumer.setName(this.getClass().getSimpleName());
+      MessageConsumerSettings.apply(odeProps, this.consumer);
 
       this.coder = J2735.getPERUnalignedCoder();
 
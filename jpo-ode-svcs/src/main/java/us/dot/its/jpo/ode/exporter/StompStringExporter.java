@@ -3,6 +3,7 @@ package us.dot.its.jpo.ode.exporter;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import us.dot.its.jpo.ode.OdeProperties;
 import us.dot.its.jpo.ode.wrapper.MessageConsumer;
+import us.dot.its.jpo.ode.wrapper.MessageConsumerSettings;
 
 /**
  * Created by anthonychen on 10/16/17.
@@ -31,6 +32,7 @@ public class StompStringExporter extends Exporter{
                 new StompStringMessageDistributor(template, getTopic())));
 
         getConsumer().setName(this.getClass().getSimpleName());
+        MessageConsumerSettings.apply(odeProperties, getConsumer());
         getConsumer().subscribe(odeTopic);
     }
 }
@@ -1,97 +1,74 @@
 package us.dot.its.jpo.ode.services.asn1;
 
-import org.json.JSONObject;
+import java.util.List;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import us.dot.its.jpo.ode.OdeProperties;
-import us.dot.its.jpo.ode.coder.OdeBsmDataCreatorHelper;
-import us.dot.its.jpo.ode.coder.OdeTimDataCreatorHelper;
-import us.dot.its.jpo.ode.context.AppContext;
-import us.dot.its.jpo.ode.model.OdeAsn1Data;
 import us.dot.its.jpo.ode.model.OdeBsmData;
-import us.dot.its.jpo.ode.model.OdeBsmMetadata;
-import us.dot.its.jpo.ode.model.OdeBsmMetadata.BsmSource;
-import us.dot.its.jpo.ode.model.OdeLogMetadata.RecordType;
-import us.dot.its.jpo.ode.plugin.j2735.J2735DSRCmsgID;
-import us.dot.its.jpo.ode.util.XmlUtils;
+import us.dot.its.jpo.ode.services.asn1.Asn1DecodedDataRoutes.Route;
+import us.dot.its.jpo.ode.services.json.BinaryJsonMirror;
 import us.dot.its.jpo.ode.wrapper.AbstractSubscriberProcessor;
+import us.dot.its.jpo.ode.wrapper.DeadLetterPublisher;
+import us.dot.its.jpo.ode.wrapper.DeadLetterSettings;
 import us.dot.its.jpo.ode.wrapper.MessageProducer;
+import us.dot.its.jpo.ode.wrapper.MessageProducerRegistry;
 import us.dot.its.jpo.ode.wrapper.serdes.OdeBsmSerializer;
 
 public class Asn1DecodedDataRouter extends AbstractSubscriberProcessor<String, String> {
 
     private Logger logger = LoggerFactory.getLogger(this.getClass());
 
-    private OdeProperties odeProperties;
     private MessageProducer<String, OdeBsmData> bsmProducer;
     private MessageProducer<String, String> timProducer;
+    private Asn1DecodedDataRoutes routes;
+    private BinaryJsonMirror binaryMirror;
+    private DeadLetterPublisher<String> deadLetters;
     
     public Asn1DecodedDataRouter(OdeProperties odeProps) {
       super();
-      this.odeProperties = odeProps;
-      this.bsmProducer = new MessageProducer<String, OdeBsmData>(
-            odeProps.getKafkaBrokers(), odeProps.getKafkaProducerType(), 
-            null, OdeBsmSerializer.class.getName());
-      this.timProducer = MessageProducer.defaultStringMessageProducer(
-            odeProps.getKafkaBrokers(), odeProps.getKafkaProducerType());
+      MessageProducerRegistry producers = MessageProducerRegistry.getInstance(odeProps);
+      this.bsmProducer = producers.getProducer(OdeBsmSerializer.class.getName());
+      this.timProducer = producers.getStringProducer();
+      this.routes = new Asn1DecodedDataRoutes(odeProps);
+      this.binaryMirror = new BinaryJsonMirror(odeProps);
+      this.deadLetters = DeadLetterSettings.publisher(odeProps, Asn1DecodedDataRouter.class, new StringSerializer());
     }
 
     @Override
     public Object process(String consumedData) {
         try {
-           JSONObject consumed = XmlUtils.toJSONObject(consumedData).getJSONObject(
-              OdeAsn1Data.class.getSimpleName());
-           int messageId = consumed.getJSONObject(AppContext.PAYLOAD_STRING)
-                 .getJSONObject(AppContext.DATA_STRING)
-                 .getJSONObject("MessageFrame")
-                 .getInt("messageId");
-           
-           RecordType recordType = RecordType.valueOf(consumed.getJSONObject(AppContext.METADATA_STRING)
-                 .getString("recordType"));
-           
-           if (messageId == J2735DSRCmsgID.BasicSafetyMessage.getMsgID()) {
-         	  //ODE-518/ODE-604 Demultiplex the messages to appropriate topics based on the "recordType"
-              OdeBsmData odeBsmData = OdeBsmDataCreatorHelper.createOdeBsmData(consumedData);
-              if (recordType == RecordType.bsmLogDuringEvent) {
-                 bsmProducer.send(odeProperties.getKafkaTopicOdeBsmDuringEventPojo(), getRecord().key(),
-                    odeBsmData);
-              } else if (recordType == RecordType.rxMsg) {
-                 /* 
-                  * ODE-685 If we are handling a rxMsg BSM record, there wouldn't be a bsmSource
-                  * element in the metadata because there is no information in the log record to
-                  * indicate whether the message is BSM or TIM. So we need to infer that since it 
-                  * is an BSM rxMsg, bsmSource can only be RV. 
-                  */
-                 if (odeBsmData.getMetadata() instanceof OdeBsmMetadata) {
-                    OdeBsmMetadata bsmMetadata = (OdeBsmMetadata) odeBsmData.getMetadata();
-                    bsmMetadata.setBsmSource(BsmSource.RV);
-                 }
-                 bsmProducer.send(odeProperties.getKafkaTopicOdeBsmRxPojo(), getRecord().key(),
-                    odeBsmData);
-              } else if (recordType == RecordType.bsmTx) {
-                 bsmProducer.send(odeProperties.getKafkaTopicOdeBsmTxPojo(), getRecord().key(),
-                    odeBsmData);
-              }
-              // Send all BSMs also to OdeBsmPojo
-              bsmProducer.send(odeProperties.getKafkaTopicOdeBsmPojo(), getRecord().key(),
-                 odeBsmData);
-           } else if (messageId == J2735DSRCmsgID.TravelerInformation.getMsgID()) {
-              String odeTimData = OdeTimDataCreatorHelper.createOdeTimData(consumed).toString();
-              if (recordType == RecordType.dnMsg) {
-                 timProducer.send(odeProperties.getKafkaTopicOdeDNMsgJson(), getRecord().key(), 
-                    odeTimData);
-              } else if (recordType == RecordType.rxMsg){
-                 timProducer.send(odeProperties.getKafkaTopicOdeTimRxJson(), getRecord().key(), 
-                    odeTimData);
+           Route route = routes.route(consumedData);
+           if (null == route) {
+              logger.debug("Suppressed decoded record that is not a new BSM or TIM");
+           } else {
+              String key = null != route.getKey() ? route.getKey() : getRecord().key();
+              // serialized once for all of the route's topics
+              if (route.isBsm()) {
+                 bsmProducer.send(route.getTopics(), key, route.getBsm());
+              } else {
+                 timProducer.send(route.getTopics(), key, route.getTim());
+                 binaryMirror.send(route.getTopics(), key, route.getTim());
               }
-              // Send all TIMs also to OdeTimJson
-              timProducer.send(odeProperties.getKafkaTopicOdeTimJson(), getRecord().key(), 
-                 odeTimData);
            }
         } catch (Exception e) {
-           logger.error("Failed to route received data: " + consumedData, e);
+           deadLetters.publish(getRecord(), e);
         }
         return null;
     }
+
+    /*
+     * Records are routed as they are processed; waiting for them once per
+     * batch keeps the producers batching instead of flushing per record.
+     */
+    @Override
+    protected void batchProcessed(List<ConsumerRecord<String, String>> records, List<Object> results) {
+       bsmProducer.flush();
+       timProducer.flush();
+       binaryMirror.flush();
+       deadLetters.flush();
+    }
 }
@@ -0,0 +1,210 @@
+package us.dot.its.jpo.ode.services.asn1;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.json.JSONObject;
+
+import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.coder.DuplicateMessageFilter;
+import us.dot.its.jpo.ode.coder.OdeBsmDataCreatorHelper;
+import us.dot.its.jpo.ode.coder.OdeTimDataCreatorHelper;
+import us.dot.its.jpo.ode.coder.PartitionKeyStrategy;
+import us.dot.its.jpo.ode.model.OdeAsn1Data;
+import us.dot.its.jpo.ode.model.OdeBsmData;
+import us.dot.its.jpo.ode.model.OdeBsmMetadata;
+import us.dot.its.jpo.ode.model.OdeBsmMetadata.BsmSource;
+import us.dot.its.jpo.ode.model.OdeLogMetadata.RecordType;
+import us.dot.its.jpo.ode.plugin.j2735.J2735Bsm;
+import us.dot.its.jpo.ode.plugin.j2735.J2735BsmCoreData;
+import us.dot.its.jpo.ode.plugin.j2735.J2735DSRCmsgID;
+import us.dot.its.jpo.ode.util.XmlUtils;
+
+/**
+ * Decides which topics a record decoded by the ASN.1 decoder goes to. Shared
+ * by the {@link Asn1DecodedDataRouter} consumer and the
+ * {@link Asn1DecodedDataTopology} streams topology so both keep the same topic
+ * contract.
+ */
+public class Asn1DecodedDataRoutes {
+
+   /**
+    * A decoded BSM or TIM, the topics to send it to, in order, and the record
+    * key to send it with.
+    */
+   public static class Route {
+      private final List<String> topics;
+      private final OdeBsmData bsm;
+      private final String tim;
+      private final String key;
+
+      private Route(List<String> topics, OdeBsmData bsm, String tim, String key) {
+         this.topics = Collections.unmodifiableList(topics);
+         this.bsm = bsm;
+         this.tim = tim;
+         this.key = key;
+      }
+
+      public static Route bsm(OdeBsmData bsm, List<String> topics) {
+         return bsm(bsm, topics, null);
+      }
+
+      public static Route bsm(OdeBsmData bsm, List<String> topics, String key) {
+         return new Route(topics, bsm, null, key);
+      }
+
+      public static Route tim(String tim, List<String> topics) {
+         return tim(tim, topics, null);
+      }
+
+      public static Route tim(String tim, List<String> topics, String key) {
+         return new Route(topics, null, tim, key);
+      }
+
+      public boolean isBsm() {
+         return null != bsm;
+      }
+
+      public List<String> getTopics() {
+         return topics;
+      }
+
+      public OdeBsmData getBsm() {
+         return bsm;
+      }
+
+      /**
+       * @return the TIM as ODE JSON
+       */
+      public String getTim() {
+         return tim;
+      }
+
+      /**
+       * @return the partition key, null to keep the key of the consumed
+       *         record
+       */
+      public String getKey() {
+         return key;
+      }
+   }
+
+   // scopes of decoded BSM keys count down from here by record type, apart
+   // from the payload scopes of the publishers
+   private static final long DECODED_BSM_SCOPE = -2L;
+
+   private OdeProperties odeProperties;
+   private DuplicateMessageFilter duplicateFilter;
+   private PartitionKeyStrategy partitionKeys;
+
+   public Asn1DecodedDataRoutes(OdeProperties odeProps) {
+      this.odeProperties = odeProps;
+      this.partitionKeys = new PartitionKeyStrategy(odeProps);
+      if (odeProps.isBsmDedupDecodedKeyEnabled()) {
+         this.duplicateFilter = DuplicateMessageFilter.getInstance(odeProps);
+      }
+   }
+
+   /**
+    * @return the route of the decoded record, null if it is neither a BSM nor
+    *         a TIM or is a duplicate BSM
+    */
+   public Route route(String consumedData) throws Exception {
+      // the body is only parsed for the records that are sent on
+      RoutingHeaders headers = RoutingHeaders.fromXml(consumedData);
+      Integer messageId = headers.getMessageId();
+      if (null == messageId) {
+         throw new IllegalArgumentException("Decoded record has no messageId");
+      }
+      if (messageId != J2735DSRCmsgID.BasicSafetyMessage.getMsgID()
+            && messageId != J2735DSRCmsgID.TravelerInformation.getMsgID()) {
+         return null;
+      }
+
+      RecordType recordType = RecordType.valueOf(headers.getRecordType());
+      String sourceKey = partitionKeys.fromMetadata(headers.getPartitionKey());
+
+      List<String> topics = new ArrayList<>();
+      if (messageId == J2735DSRCmsgID.BasicSafetyMessage.getMsgID()) {
+         //ODE-518/ODE-604 Demultiplex the messages to appropriate topics based on the "recordType"
+         OdeBsmData odeBsmData = OdeBsmDataCreatorHelper.createOdeBsmData(consumedData);
+         if (isDuplicate(recordType, odeBsmData)) {
+            return null;
+         }
+         if (recordType == RecordType.bsmLogDuringEvent) {
+            topics.add(odeProperties.getKafkaTopicOdeBsmDuringEventPojo());
+         } else if (recordType == RecordType.rxMsg) {
+            /* 
+             * ODE-685 If we are handling a rxMsg BSM record, there wouldn't be a bsmSource
+             * element in the metadata because there is no information in the log record to
+             * indicate whether the message is BSM or TIM. So we need to infer that since it 
+             * is an BSM rxMsg, bsmSource can only be RV. 
+             */
+            if (odeBsmData.getMetadata() instanceof OdeBsmMetadata) {
+               OdeBsmMetadata bsmMetadata = (OdeBsmMetadata) odeBsmData.getMetadata();
+               bsmMetadata.setBsmSource(BsmSource.RV);
+            }
+            topics.add(odeProperties.getKafkaTopicOdeBsmRxPojo());
+         } else if (recordType == RecordType.bsmTx) {
+            topics.add(odeProperties.getKafkaTopicOdeBsmTxPojo());
+         }
+         // Send all BSMs also to OdeBsmPojo
+         topics.add(odeProperties.getKafkaTopicOdeBsmPojo());
+         return Route.bsm(odeBsmData, topics, partitionKeys.forData(odeBsmData, sourceKey));
+      } else {
+         JSONObject consumed = XmlUtils.toJSONObject(consumedData).getJSONObject(
+            OdeAsn1Data.class.getSimpleName());
+         String odeTimData = OdeTimDataCreatorHelper.createOdeTimData(consumed).toString();
+         if (recordType == RecordType.dnMsg) {
+            topics.add(odeProperties.getKafkaTopicOdeDNMsgJson());
+         } else if (recordType == RecordType.rxMsg) {
+            topics.add(odeProperties.getKafkaTopicOdeTimRxJson());
+         }
+         // Send all TIMs also to OdeTimJson
+         topics.add(odeProperties.getKafkaTopicOdeTimJson());
+         return Route.tim(odeTimData, topics, sourceKey);
+      }
+   }
+
+   /**
+    * @return every topic a BSM route can name
+    */
+   public List<String> getBsmTopics() {
+      List<String> topics = new ArrayList<>();
+      topics.add(odeProperties.getKafkaTopicOdeBsmDuringEventPojo());
+      topics.add(odeProperties.getKafkaTopicOdeBsmRxPojo());
+      topics.add(odeProperties.getKafkaTopicOdeBsmTxPojo());
+      topics.add(odeProperties.getKafkaTopicOdeBsmPojo());
+      return topics;
+   }
+
+   /**
+    * @return every topic a TIM route can name
+    */
+   public List<String> getTimTopics() {
+      List<String> topics = new ArrayList<>();
+      topics.add(odeProperties.getKafkaTopicOdeDNMsgJson());
+      topics.add(odeProperties.getKafkaTopicOdeTimRxJson());
+      topics.add(odeProperties.getKafkaTopicOdeTimJson());
+      return topics;
+   }
+
+   /*
+    * Catches copies that differ in their encoding, e.g. the same BSM logged
+    * signed and unsigned, by keying on the decoded tempId, msgCnt and secMark.
+    * The record type is part of the key so a BSM routed under one record type
+    * still reaches the topics of the others.
+    */
+   private boolean isDuplicate(RecordType recordType, OdeBsmData odeBsmData) {
+      if (null == duplicateFilter || !(odeBsmData.getPayload().getData() instanceof J2735Bsm)) {
+         return false;
+      }
+      J2735BsmCoreData coreData = ((J2735Bsm) odeBsmData.getPayload().getData()).getCoreData();
+      if (null == coreData || null == coreData.getMsgCnt() || null == coreData.getSecMark()) {
+         return false;
+      }
+      return duplicateFilter.isDuplicate(DuplicateMessageFilter.hash(DECODED_BSM_SCOPE - recordType.ordinal(),
+            coreData.getId(), coreData.getMsgCnt(), coreData.getSecMark()));
+   }
+}
@@ -0,0 +1,193 @@
+package us.dot.its.jpo.ode.services.asn1;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.KStreamBuilder;
+import org.apache.kafka.streams.kstream.ValueTransformer;
+import org.apache.kafka.streams.processor.ProcessorContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.model.OdeBsmData;
+import us.dot.its.jpo.ode.services.asn1.Asn1DecodedDataRoutes.Route;
+import us.dot.its.jpo.ode.services.json.BinaryJsonMirror;
+import us.dot.its.jpo.ode.util.BinaryJsonUtils;
+import us.dot.its.jpo.ode.util.BinaryJsonUtils.BinaryJsonUtilsException;
+import us.dot.its.jpo.ode.util.BinaryJsonUtils.Format;
+import us.dot.its.jpo.ode.util.OdeJsonCodec;
+import us.dot.its.jpo.ode.wrapper.DeadLetterEnvelope;
+import us.dot.its.jpo.ode.wrapper.DeadLetterPublisher;
+import us.dot.its.jpo.ode.wrapper.RateLimitedLogger;
+import us.dot.its.jpo.ode.wrapper.serdes.OdeBsmDeserializer;
+import us.dot.its.jpo.ode.wrapper.serdes.OdeBsmSerializer;
+
+/**
+ * Kafka Streams replacement for the {@link Asn1DecodedDataRouter} consumer and
+ * the OdeBsmPojo to OdeBsmJson {@link us.dot.its.jpo.ode.services.json.ToJsonConverter}.
+ * <p>
+ * Each record of the ASN.1 decoder output is read once, routed by
+ * {@link Asn1DecodedDataRoutes} and written to the same POJO and JSON topics
+ * as the two stages it replaces. The JSON of a BSM is built in the same pass
+ * instead of after another round trip through OdeBsmPojo. With a binary JSON
+ * format configured, each JSON sink has a binary sink next to it, as
+ * {@link BinaryJsonMirror} adds to the two stages.
+ * </p>
+ * <p>
+ * Records that fail to route go to the topology's dead letter topic in a
+ * {@link DeadLetterEnvelope}, as the {@link DeadLetterPublisher} of the two
+ * stages would send them.
+ * </p>
+ */
+public class Asn1DecodedDataTopology {
+
+   public static final String APPLICATION_ID = "Asn1DecodedDataTopology";
+
+   private static final Logger logger = LoggerFactory.getLogger(Asn1DecodedDataTopology.class);
+
+   private OdeProperties odeProperties;
+   private Asn1DecodedDataRoutes routes;
+   private RateLimitedLogger errorLogger;
+   private KafkaStreams streams;
+
+   public Asn1DecodedDataTopology(OdeProperties odeProps) {
+      this(odeProps, new Asn1DecodedDataRoutes(odeProps));
+   }
+
+   public Asn1DecodedDataTopology(OdeProperties odeProps, Asn1DecodedDataRoutes routes) {
+      this.odeProperties = odeProps;
+      this.routes = routes;
+      this.errorLogger = new RateLimitedLogger(logger, odeProps.getKafkaDeadLetterLogsPerMinute(),
+            TimeUnit.MINUTES.toMillis(1));
+   }
+
+   public KStreamBuilder build() {
+      Serde<String> strings = Serdes.String();
+      Serde<OdeBsmData> bsms = Serdes.serdeFrom(new OdeBsmSerializer(), new OdeBsmDeserializer());
+
+      KStreamBuilder builder = new KStreamBuilder();
+      KStream<String, Object> attempted = builder
+            .stream(strings, strings, odeProperties.getKafkaTopicAsn1DecoderOutput())
+            .transformValues(RouteAttempt::new);
+      KStream<String, Route> routed = attempted
+            .filter((key, attempt) -> attempt instanceof Route)
+            .mapValues(attempt -> (Route) attempt)
+            .selectKey((key, route) -> null != route.getKey() ? route.getKey() : key);
+
+      if (odeProperties.isKafkaDeadLetterEnabled()) {
+         attempted.filter((key, attempt) -> attempt instanceof DeadLetterEnvelope)
+               .mapValues(attempt -> ((DeadLetterEnvelope) attempt).toJson())
+               .to(strings, strings,
+                     DeadLetterPublisher.topicFor(odeProperties.getKafkaTopicDeadLetterPrefix(), APPLICATION_ID));
+      }
+
+      // sinks are visited in the order they are added, the same order the
+      // router sends in
+      for (String topic : routes.getBsmTopics()) {
+         routed.filter((key, route) -> route.isBsm() && route.getTopics().contains(topic))
+               .mapValues(Route::getBsm)
+               .to(strings, bsms, topic);
+      }
+      String bsmPojoTopic = odeProperties.getKafkaTopicOdeBsmPojo();
+      toJsonTopic(routed.filter((key, route) -> route.isBsm() && route.getTopics().contains(bsmPojoTopic))
+            .mapValues(route -> OdeJsonCodec.toJson(route.getBsm(), false)), odeProperties.getKafkaTopicOdeBsmJson());
+
+      for (String topic : routes.getTimTopics()) {
+         toJsonTopic(routed.filter((key, route) -> !route.isBsm() && route.getTopics().contains(topic))
+               .mapValues(Route::getTim), topic);
+      }
+      return builder;
+   }
+
+   private void toJsonTopic(KStream<String, String> json, String topic) {
+      json.to(Serdes.String(), Serdes.String(), topic);
+
+      Format format = Format.of(odeProperties.getBinaryJsonFormat());
+      if (null != format) {
+         json.map((key, value) -> KeyValue.pair(key, toBinary(key, value, topic, format)))
+               .filter((key, value) -> null != value)
+               .to(Serdes.String(), Serdes.ByteArray(), BinaryJsonMirror.topicFor(topic, format));
+      }
+   }
+
+   private byte[] toBinary(String key, String json, String topic, Format format) {
+      try {
+         return BinaryJsonUtils.fromJson(json, format);
+      } catch (BinaryJsonUtilsException e) {
+         errorLogger.error(APPLICATION_ID + " failed to convert record " + key + " of " + topic + " to " + format, e);
+         return null;
+      }
+   }
+
+   /*
+    * Routes a record, or wraps it in a dead letter envelope if it fails. The
+    * processor context gives where the record was consumed from.
+    */
+   private class RouteAttempt implements ValueTransformer<String, Object> {
+      private ProcessorContext context;
+
+      @Override
+      public void init(ProcessorContext context) {
+         this.context = context;
+      }
+
+      @Override
+      public Object transform(String consumedData) {
+         try {
+            return routes.route(consumedData);
+         } catch (Exception e) {
+            errorLogger.error(APPLICATION_ID + " failed to route record " + context.topic() + "-"
+                  + context.partition() + "@" + context.offset(), e);
+            return new DeadLetterEnvelope(APPLICATION_ID, context.topic(), context.partition(), context.offset(), null,
+                  null == consumedData ? null : consumedData.getBytes(StandardCharsets.UTF_8), e,
+                  DeadLetterPublisher.DEFAULT_MAX_MESSAGE_LENGTH);
+         }
+      }
+
+      @Override
+      public Object punctuate(long timestamp) {
+         return null;
+      }
+
+      @Override
+      public void close() {
+         // nothing to release
+      }
+   }
+
+   public Properties getStreamsProperties() {
+      int threads = odeProperties.getKafkaConsumerWorkerThreads() > 0 ? odeProperties.getKafkaConsumerWorkerThreads()
+            : Runtime.getRuntime().availableProcessors();
+      Properties props = new Properties();
+      props.put(StreamsConfig.APPLICATION_ID_CONFIG, APPLICATION_ID);
+      props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, odeProperties.getKafkaBrokers());
+      props.put(StreamsConfig.NUM_STREAM_THREADS_CONFIG, threads);
+      props.put(StreamsConfig.KEY_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
+      props.put(StreamsConfig.VALUE_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
+      return props;
+   }
+
+   public synchronized void start() {
+      if (null == streams) {
+         streams = new KafkaStreams(build(), new StreamsConfig(getStreamsProperties()));
+         streams.setUncaughtExceptionHandler((thread, e) -> logger.error("{} failed", thread.getName(), e));
+         streams.start();
+         logger.info("Started {} on {}", APPLICATION_ID, odeProperties.getKafkaTopicAsn1DecoderOutput());
+      }
+   }
+
+   public synchronized void close() {
+      if (null != streams) {
+         streams.close();
+         streams = null;
+      }
+   }
+}
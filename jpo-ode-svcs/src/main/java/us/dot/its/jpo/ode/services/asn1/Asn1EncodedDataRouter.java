@@ -3,7 +3,10 @@ package us.dot.its.jpo.ode.services.asn1;
 import java.io.IOException;
 import java.text.ParseException;
 import java.util.HashMap;
+import java.util.List;
 
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.slf4j.Logger;
@@ -29,6 +32,8 @@ import us.dot.its.jpo.ode.traveler.TimPduCreator.TimPduCreatorException;
 import us.dot.its.jpo.ode.util.JsonUtils;
 import us.dot.its.jpo.ode.util.XmlUtils;
 import us.dot.its.jpo.ode.wrapper.AbstractSubscriberProcessor;
+import us.dot.its.jpo.ode.wrapper.DeadLetterPublisher;
+import us.dot.its.jpo.ode.wrapper.DeadLetterSettings;
 import us.dot.its.jpo.ode.wrapper.WebSocketEndpoint.WebSocketException;
 
 public class Asn1EncodedDataRouter extends AbstractSubscriberProcessor<String, String> {
@@ -47,10 +52,12 @@ public class Asn1EncodedDataRouter extends AbstractSubscriberProcessor<String, S
 
     private OdeProperties odeProperties;
     private DdsDepositor<DdsStatusMessage> depositor;
+    private DeadLetterPublisher<String> deadLetters;
 
     public Asn1EncodedDataRouter(OdeProperties odeProps) {
       super();
       this.odeProperties = odeProps;
+      this.deadLetters = DeadLetterSettings.publisher(odeProps, Asn1EncodedDataRouter.class, new StringSerializer());
 
       try {
          depositor = new DdsDepositor<>(this.odeProperties);
@@ -97,13 +104,16 @@ public class Asn1EncodedDataRouter extends AbstractSubscriberProcessor<String, S
             throw new Asn1EncodedDataRouterException("Encoder response missing 'request'");
          }
       } catch (Exception e) {
-         String msg = "Error in processing received message from ASN.1 Encoder module: " + consumedData;
-         EventLogger.logger.error(msg, e);
-         logger.error(msg, e);
+         deadLetters.publish(getRecord(), e);
       }
       return null;
    }
 
+   @Override
+   protected void batchProcessed(List<ConsumerRecord<String, String>> records, List<Object> results) {
+      deadLetters.flush();
+   }
+
     public OdeTravelerInputData buildTravelerInputData(JSONObject consumedObj) {
        String request = consumedObj
              .getJSONObject(AppContext.METADATA_STRING)
@@ -7,6 +7,9 @@ import org.springframework.stereotype.Controller;
 
 import us.dot.its.jpo.ode.OdeProperties;
 import us.dot.its.jpo.ode.wrapper.MessageConsumer;
+import us.dot.its.jpo.ode.wrapper.MessageConsumerSettings;
+import us.dot.its.jpo.ode.wrapper.ParallelMessageConsumer;
+import us.dot.its.jpo.ode.wrapper.ParallelMessageConsumer.Ordering;
 
 /**
  * Launches ToJsonConverter service
@@ -26,13 +29,22 @@ public class AsnCodecRouterServiceController {
       // asn1_codec Decoder Routing
       logger.info("Routing DECODED data received ASN.1 Decoder");
 
-      Asn1DecodedDataRouter decoderRouter = new Asn1DecodedDataRouter(odeProps);
+      if (odeProps.isKafkaStreamsTopologyEnabled()) {
+         // also replaces the OdeBsmPojo to OdeBsmJson converter
+         Asn1DecodedDataTopology topology = new Asn1DecodedDataTopology(odeProps);
+         topology.start();
+         Runtime.getRuntime().addShutdownHook(new Thread(topology::close, "Asn1DecodedDataTopology-shutdown"));
+      } else {
+         Asn1DecodedDataRouter decoderRouter = new Asn1DecodedDataRouter(odeProps);
 
-      MessageConsumer<String, String> asn1DecoderConsumer = MessageConsumer.defaultStringMessageConsumer(
-         odeProps.getKafkaBrokers(), this.getClass().getSimpleName(), decoderRouter);
+         MessageConsumer<String, String> asn1DecoderConsumer = ParallelMessageConsumer.defaultStringMessageConsumer(
+            odeProps.getKafkaBrokers(), this.getClass().getSimpleName(), decoderRouter,
+            odeProps.getKafkaConsumerWorkerThreads(), Ordering.of(odeProps.getKafkaConsumerOrdering()));
 
-      asn1DecoderConsumer.setName("Asn1DecoderConsumer");
-      decoderRouter.start(asn1DecoderConsumer, odeProps.getKafkaTopicAsn1DecoderOutput());
+         asn1DecoderConsumer.setName("Asn1DecoderConsumer");
+         MessageConsumerSettings.apply(odeProps, asn1DecoderConsumer);
+         decoderRouter.start(asn1DecoderConsumer, odeProps.getKafkaTopicAsn1DecoderOutput());
+      }
 
       // asn1_codec Encoder Routing
       logger.info("Routing ENCODED data received ASN.1 Encoder");
@@ -43,6 +55,7 @@ public class AsnCodecRouterServiceController {
          odeProps.getKafkaBrokers(), this.getClass().getSimpleName(), enocderRouter);
 
       encoderConsumer.setName("Asn1EncoderConsumer");
+      MessageConsumerSettings.apply(odeProps, encoderConsumer);
       enocderRouter.start(encoderConsumer, odeProps.getKafkaTopicAsn1EncoderOutput());
    }
 }
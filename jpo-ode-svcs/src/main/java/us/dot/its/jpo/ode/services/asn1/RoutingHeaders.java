@@ -0,0 +1,114 @@
+package us.dot.its.jpo.ode.services.asn1;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import us.dot.its.jpo.ode.coder.PartitionKeyStrategy;
+
+/**
+ * The fields a decoded record is routed by: the metadata payloadType,
+ * schemaVersion, odeReceivedAt, recordType and partition key, and the
+ * messageId of the MessageFrame.
+ * <p>
+ * The Kafka version in use has no record headers, so the fields are read from
+ * the record itself with a streaming scan. The metadata comes before the
+ * payload and the messageId is the first element of the MessageFrame, so the
+ * scan stops at the messageId and never reads the message body.
+ * </p>
+ */
+public class RoutingHeaders {
+
+   public static final String PAYLOAD_TYPE = "payloadType";
+   public static final String SCHEMA_VERSION = "schemaVersion";
+   public static final String ODE_RECEIVED_AT = "odeReceivedAt";
+   public static final String RECORD_TYPE = "recordType";
+   public static final String PARTITION_KEY = PartitionKeyStrategy.METADATA_KEY_FIELD;
+   public static final String MESSAGE_ID = "messageId";
+
+   private static final Set<String> FIELDS = Collections.unmodifiableSet(new HashSet<>(
+         Arrays.asList(PAYLOAD_TYPE, SCHEMA_VERSION, ODE_RECEIVED_AT, RECORD_TYPE, PARTITION_KEY, MESSAGE_ID)));
+
+   private static final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+
+   static {
+      inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+      inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+   }
+
+   private final Map<String, String> values = new HashMap<>();
+
+   private RoutingHeaders() {
+   }
+
+   /**
+    * @return the first value of each field in the document, up to the
+    *         messageId
+    */
+   public static RoutingHeaders fromXml(String xml) throws XMLStreamException {
+      RoutingHeaders headers = new RoutingHeaders();
+      XMLStreamReader reader = inputFactory.createXMLStreamReader(new StringReader(xml));
+      try {
+         while (reader.hasNext() && !headers.values.containsKey(MESSAGE_ID)) {
+            if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+               String name = reader.getLocalName();
+               if (FIELDS.contains(name) && !headers.values.containsKey(name)) {
+                  headers.values.put(name, reader.getElementText().trim());
+               }
+            }
+         }
+      } finally {
+         reader.close();
+      }
+      return headers;
+   }
+
+   /**
+    * @return the field's value, null if the record has none
+    */
+   public String get(String field) {
+      return values.get(field);
+   }
+
+   public Integer getMessageId() {
+      return toInteger(values.get(MESSAGE_ID));
+   }
+
+   public String getRecordType() {
+      return values.get(RECORD_TYPE);
+   }
+
+   public String getPayloadType() {
+      return values.get(PAYLOAD_TYPE);
+   }
+
+   public Integer getSchemaVersion() {
+      return toInteger(values.get(SCHEMA_VERSION));
+   }
+
+   public String getOdeReceivedAt() {
+      return values.get(ODE_RECEIVED_AT);
+   }
+
+   public String getPartitionKey() {
+      return values.get(PARTITION_KEY);
+   }
+
+   private static Integer toInteger(String s) {
+      return null == s || s.isEmpty() ? null : Integer.valueOf(s);
+   }
+
+   @Override
+   public String toString() {
+      return values.toString();
+   }
+}
@@ -0,0 +1,105 @@
+package us.dot.its.jpo.ode.services.json;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.util.BinaryJsonUtils;
+import us.dot.its.jpo.ode.util.BinaryJsonUtils.BinaryJsonUtilsException;
+import us.dot.its.jpo.ode.util.BinaryJsonUtils.Format;
+import us.dot.its.jpo.ode.wrapper.MessageProducer;
+import us.dot.its.jpo.ode.wrapper.MessageProducerRegistry;
+
+/**
+ * Copies records of the JSON topics to a parallel topic in the binary JSON
+ * format set by {@link OdeProperties#getBinaryJsonFormat()}. The copy has the
+ * same fields as the JSON record; see {@link #topicFor(String, Format)} for
+ * the topic names. Does nothing when no format is set.
+ */
+public class BinaryJsonMirror {
+
+   private static final Logger logger = LoggerFactory.getLogger(BinaryJsonMirror.class);
+
+   private final Format format;
+   private final MessageProducer<String, byte[]> producer;
+
+   public BinaryJsonMirror(OdeProperties odeProps) {
+      this.format = Format.of(odeProps.getBinaryJsonFormat());
+      this.producer = null == format ? null : MessageProducerRegistry.getInstance(odeProps).getByteArrayProducer();
+   }
+
+   public BinaryJsonMirror(Format format, MessageProducer<String, byte[]> producer) {
+      this.format = format;
+      this.producer = producer;
+   }
+
+   /**
+    * @return the binary topic paired with a JSON topic: a trailing "Json" is
+    *         replaced by "Smile" or "Cbor", e.g. topic.OdeBsmJson becomes
+    *         topic.OdeBsmSmile, any other name gets the suffix appended
+    */
+   public static String topicFor(String jsonTopic, Format format) {
+      String suffix = format == Format.SMILE ? "Smile" : "Cbor";
+      if (jsonTopic.endsWith("Json")) {
+         return jsonTopic.substring(0, jsonTopic.length() - "Json".length()) + suffix;
+      }
+      return jsonTopic + suffix;
+   }
+
+   public String topicFor(String jsonTopic) {
+      return topicFor(jsonTopic, format);
+   }
+
+   public boolean isEnabled() {
+      return null != format;
+   }
+
+   public Format getFormat() {
+      return format;
+   }
+
+   /**
+    * Sends the binary copy of a record sent to a JSON topic. A record that
+    * cannot be converted is logged and skipped; the JSON record is not
+    * affected.
+    */
+   public void send(String jsonTopic, String key, String json) {
+      if (!isEnabled() || null == json) {
+         return;
+      }
+      try {
+         producer.send(topicFor(jsonTopic), key, BinaryJsonUtils.fromJson(json, format));
+      } catch (BinaryJsonUtilsException e) {
+         logger.error("Failed to convert {} record to {}", jsonTopic, format, e);
+      }
+   }
+
+   /**
+    * Sends one binary copy of a record sent to several JSON topics to each of
+    * their binary topics, converting it once.
+    */
+   public void send(Collection<String> jsonTopics, String key, String json) {
+      if (!isEnabled() || null == json) {
+         return;
+      }
+      List<String> topics = new ArrayList<>(jsonTopics.size());
+      for (String jsonTopic : jsonTopics) {
+         topics.add(topicFor(jsonTopic));
+      }
+      try {
+         producer.send(topics, key, BinaryJsonUtils.fromJson(json, format));
+      } catch (BinaryJsonUtilsException e) {
+         logger.error("Failed to convert {} record to {}", jsonTopics, format, e);
+      }
+   }
+
+   public void flush() {
+      if (isEnabled()) {
+         producer.flush();
+      }
+   }
+}
@@ -1,9 +1,16 @@
 package us.dot.its.jpo.ode.services.json;
 
+import java.util.List;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.Serializer;
+
 import us.dot.its.jpo.ode.OdeProperties;
-import us.dot.its.jpo.ode.util.JsonUtils;
+import us.dot.its.jpo.ode.util.OdeJsonCodec;
 import us.dot.its.jpo.ode.wrapper.AbstractSubPubTransformer;
-import us.dot.its.jpo.ode.wrapper.MessageProducer;
+import us.dot.its.jpo.ode.wrapper.DeadLetterPublisher;
+import us.dot.its.jpo.ode.wrapper.DeadLetterSettings;
+import us.dot.its.jpo.ode.wrapper.MessageProducerRegistry;
 
 /* 
  * The MessageProcessor value type is String 
@@ -11,15 +18,68 @@ import us.dot.its.jpo.ode.wrapper.MessageProducer;
 public class ToJsonConverter<V> extends AbstractSubPubTransformer<String, V, String> {
 
     private boolean verbose;
+    private BinaryJsonMirror binaryMirror;
+    private DeadLetterPublisher<V> deadLetters;
 
     public ToJsonConverter(OdeProperties odeProps, boolean verbose, String outTopic) {
-        super(MessageProducer.defaultStringMessageProducer(odeProps.getKafkaBrokers(),
-                odeProps.getKafkaProducerType()), outTopic);
+        this(odeProps, verbose, outTopic, null);
+    }
+
+    /**
+     * @param valueSerializer
+     *           serializer of the consumed topic, gives the dead letters of
+     *           records that fail to convert their payload; null to send
+     *           them without one
+     */
+    public ToJsonConverter(OdeProperties odeProps, boolean verbose, String outTopic, Serializer<V> valueSerializer) {
+        super(MessageProducerRegistry.getInstance(odeProps).getStringProducer(), outTopic);
         this.verbose = verbose;
+        this.binaryMirror = new BinaryJsonMirror(odeProps);
+        this.deadLetters = DeadLetterSettings.publisher(odeProps, ToJsonConverter.class, valueSerializer);
     }
 
     @Override
     protected String process(V consumedData) {
-        return JsonUtils.toJson(consumedData, verbose);
+        try {
+           return OdeJsonCodec.toJson(consumedData, verbose);
+        } catch (Exception e) {
+           deadLetters.publish(getRecord(), e);
+           return null;
+        }
+    }
+
+    @Override
+    public Object call() {
+       Object json = super.call();
+       binaryMirror.send(outputTopic, getRecord().key(), (String) json);
+       return json;
+    }
+
+    @Override
+    protected void batchProcessed(List<ConsumerRecord<String, V>> records, List<Object> results) {
+       super.batchProcessed(records, results);
+       if (binaryMirror.isEnabled()) {
+          for (int i = 0; i < results.size(); i++) {
+             binaryMirror.send(outputTopic, records.get(i).key(), (String) results.get(i));
+          }
+          binaryMirror.flush();
+       }
+       deadLetters.flush();
+    }
+
+    public BinaryJsonMirror getBinaryMirror() {
+       return binaryMirror;
+    }
+
+    public void setBinaryMirror(BinaryJsonMirror binaryMirror) {
+       this.binaryMirror = binaryMirror;
+    }
+
+    public DeadLetterPublisher<V> getDeadLetters() {
+       return deadLetters;
+    }
+
+    public void setDeadLetters(DeadLetterPublisher<V> deadLetters) {
+       this.deadLetters = deadLetters;
     }
 }
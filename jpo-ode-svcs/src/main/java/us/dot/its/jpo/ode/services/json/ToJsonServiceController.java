@@ -7,8 +7,13 @@ import org.springframework.stereotype.Controller;
 
 import us.dot.its.jpo.ode.OdeProperties;
 import us.dot.its.jpo.ode.wrapper.MessageConsumer;
+import us.dot.its.jpo.ode.wrapper.MessageConsumerSettings;
+import us.dot.its.jpo.ode.wrapper.ParallelMessageConsumer;
+import us.dot.its.jpo.ode.wrapper.ParallelMessageConsumer.Ordering;
 import us.dot.its.jpo.ode.wrapper.serdes.OdeBsmDeserializer;
+import us.dot.its.jpo.ode.wrapper.serdes.OdeBsmSerializer;
 import us.dot.its.jpo.ode.wrapper.serdes.OdeTimDeserializer;
+import us.dot.its.jpo.ode.wrapper.serdes.OdeTimSerializer;
 
 /**
  * Launches ToJsonConverter service
@@ -28,17 +33,22 @@ public class ToJsonServiceController {
 
       logger.info("Starting {}", this.getClass().getSimpleName());
 
-      // BSM POJO --> JSON converter
-      launchConverter(odeProps.getKafkaTopicOdeBsmPojo(), OdeBsmDeserializer.class.getName(),
-         new ToJsonConverter<>(odeProps, false, odeProps.getKafkaTopicOdeBsmJson()));
+      // BSM POJO --> JSON converter, done in the decoded data topology when
+      // enabled, see Asn1DecodedDataTopology
+      if (!odeProps.isKafkaStreamsTopologyEnabled()) {
+         launchConverter(odeProps.getKafkaTopicOdeBsmPojo(), OdeBsmDeserializer.class.getName(),
+            new ToJsonConverter<>(odeProps, false, odeProps.getKafkaTopicOdeBsmJson(),
+               new OdeBsmSerializer()));
+      }
 
       // TIM POJO --> JSON converter
       launchConverter(odeProps.getKafkaTopicOdeTimPojo(), OdeTimDeserializer.class.getName(),
-         new ToJsonConverter<>(odeProps, false, odeProps.getKafkaTopicOdeTimJson()));
+         new ToJsonConverter<>(odeProps, false, odeProps.getKafkaTopicOdeTimJson(), new OdeTimSerializer()));
 
       // Broadcast TIM POJO --> Broadcast TIM JSON converter
       launchConverter(odeProps.getKafkaTopicOdeTimBroadcastPojo(), OdeTimDeserializer.class.getName(),
-         new ToJsonConverter<>(odeProps, false, odeProps.getKafkaTopicOdeTimBroadcastJson()));
+         new ToJsonConverter<>(odeProps, false, odeProps.getKafkaTopicOdeTimBroadcastJson(),
+            new OdeTimSerializer()));
    }
 
    private <V> void launchConverter(String fromTopic, String serializerFQN, 
@@ -46,11 +56,13 @@ public class ToJsonServiceController {
       logger.info("Converting records from topic {} and publishing to topic {} ", 
          fromTopic, jsonConverter.getOutputTopic());
 
-      MessageConsumer<String, V> consumer = new MessageConsumer<String, V>(
+      MessageConsumer<String, V> consumer = new ParallelMessageConsumer<String, V>(
             odeProperties.getKafkaBrokers(), this.getClass().getSimpleName(), 
-            jsonConverter, serializerFQN);
+            jsonConverter, serializerFQN, odeProperties.getKafkaConsumerWorkerThreads(),
+            Ordering.of(odeProperties.getKafkaConsumerOrdering()));
 
       consumer.setName(this.getClass().getName() + fromTopic + "Consumer");
+      MessageConsumerSettings.apply(odeProperties, consumer);
       jsonConverter.start(consumer, fromTopic);
    }
 }
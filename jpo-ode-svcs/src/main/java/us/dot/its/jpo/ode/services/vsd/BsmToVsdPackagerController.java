@@ -8,7 +8,8 @@ import org.springframework.stereotype.Controller;
 import us.dot.its.jpo.ode.OdeProperties;
 import us.dot.its.jpo.ode.model.OdeBsmData;
 import us.dot.its.jpo.ode.wrapper.MessageConsumer;
-import us.dot.its.jpo.ode.wrapper.MessageProducer;
+import us.dot.its.jpo.ode.wrapper.MessageConsumerSettings;
+import us.dot.its.jpo.ode.wrapper.MessageProducerRegistry;
 
 @Controller
 public class BsmToVsdPackagerController {
@@ -28,13 +29,14 @@ public class BsmToVsdPackagerController {
          logger.info("Converting {} records from topic {} and publishing to topic {} ",
                OdeBsmData.class.getSimpleName(), inputTopic, outputTopic);
 
-         BsmToVsdPackager converter = new BsmToVsdPackager(MessageProducer.defaultByteArrayMessageProducer(
-               odeProps.getKafkaBrokers(), odeProps.getKafkaProducerType()), outputTopic);
+         BsmToVsdPackager converter = new BsmToVsdPackager(
+               MessageProducerRegistry.getInstance(odeProps).getByteArrayProducer(), outputTopic);
 
          MessageConsumer<String, String> consumer = new MessageConsumer<String, String>(odeProps.getKafkaBrokers(),
                this.getClass().getSimpleName(), converter, MessageConsumer.SERIALIZATION_STRING_DESERIALIZER);
 
          consumer.setName(BsmToVsdPackager.class.getSimpleName());
+         MessageConsumerSettings.apply(odeProps, consumer);
          converter.start(consumer, inputTopic);
       } else {
          logger.warn("WARNING - VSD Kafka topic disabled, BSM-to-VSD packager not started.");
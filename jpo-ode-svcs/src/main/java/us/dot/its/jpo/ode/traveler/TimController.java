@@ -55,9 +55,11 @@ import us.dot.its.jpo.ode.plugin.j2735.timstorage.TravelerInputData;
 import us.dot.its.jpo.ode.snmp.SnmpSession;
 import us.dot.its.jpo.ode.util.JsonUtils;
 import us.dot.its.jpo.ode.util.JsonUtils.JsonUtilsException;
+import us.dot.its.jpo.ode.util.OdeJsonCodec;
 import us.dot.its.jpo.ode.util.XmlUtils;
 import us.dot.its.jpo.ode.util.XmlUtils.XmlUtilsException;
 import us.dot.its.jpo.ode.wrapper.MessageProducer;
+import us.dot.its.jpo.ode.wrapper.MessageProducerRegistry;
 import us.dot.its.jpo.ode.wrapper.serdes.OdeTimSerializer;
 
 @Controller
@@ -86,10 +88,9 @@ public class TimController {
       super();
       this.odeProperties = odeProperties;
 
-      this.stringMsgProducer = MessageProducer.defaultStringMessageProducer(odeProperties.getKafkaBrokers(),
-            odeProperties.getKafkaProducerType());
-      this.timProducer = new MessageProducer<>(odeProperties.getKafkaBrokers(), odeProperties.getKafkaProducerType(),
-            null, OdeTimSerializer.class.getName());
+      MessageProducerRegistry producers = MessageProducerRegistry.getInstance(odeProperties);
+      this.stringMsgProducer = producers.getStringProducer();
+      this.timProducer = producers.getProducer(OdeTimSerializer.class.getName());
    }
 
    /**
@@ -287,7 +288,7 @@ public class TimController {
       ObjectNode encodableTid;
       try {
          encodableTid = TravelerMessageFromHumanToAsnConverter
-               .changeTravelerInformationToAsnValues(JsonUtils.toObjectNode(travelerInputData.toJson()));
+               .changeTravelerInformationToAsnValues(OdeJsonCodec.toObjectNode(travelerInputData));
 
          logger.debug("Encodable TravelerInputData: {}", encodableTid);
 
@@ -391,7 +392,7 @@ public class TimController {
 
       TravelerInputData inOrderTid = (TravelerInputData) JsonUtils.jacksonFromJson(encodableTidObj.toString(), TravelerInputData.class);
       logger.debug("In order tim: {}", inOrderTid);
-      ObjectNode inOrderTidObj = JsonUtils.toObjectNode(inOrderTid.toJson());
+      ObjectNode inOrderTidObj = OdeJsonCodec.toObjectNode(inOrderTid);
 
       JsonNode timObj = inOrderTidObj.remove("tim");
       ObjectNode requestObj = inOrderTidObj; // with 'tim' element removed, encodableTid becomes the 'request' element
@@ -401,7 +402,7 @@ public class TimController {
 
       ObjectNode dataBodyObj = JsonUtils.newNode();
       if (null != asd) {
-         ObjectNode asdObj = JsonUtils.toObjectNode(asd.toJson());
+         ObjectNode asdObj = OdeJsonCodec.toObjectNode(asd);
          ObjectNode mfBodyObj = (ObjectNode) asdObj.findValue("MessageFrame");
          mfBodyObj.put("messageId", J2735DSRCmsgID.TravelerInformation.getMsgID());
          mfBodyObj.set("value", (ObjectNode) JsonUtils.newNode().set(
@@ -420,12 +421,12 @@ public class TimController {
          payload.setDataType("MessageFrame");
       }
 
-      ObjectNode payloadObj = JsonUtils.toObjectNode(payload.toJson());
+      ObjectNode payloadObj = OdeJsonCodec.toObjectNode(payload);
       payloadObj.set(AppContext.DATA_STRING, dataBodyObj);
 
       // Create a valid metadata from scratch
       OdeMsgMetadata metadata = new OdeMsgMetadata(payload);
-      ObjectNode metaObject = JsonUtils.toObjectNode(metadata.toJson());
+      ObjectNode metaObject = OdeJsonCodec.toObjectNode(metadata);
       metaObject.set("request", requestObj);
       
       //Workaround for XML Array issue. Set a placeholder for the encodings to be added later as a string replacement
@@ -492,7 +493,7 @@ public class TimController {
 
    private JsonNode addEncoding(String name, String type, EncodingRule rule) throws JsonUtilsException {
       Asn1Encoding mfEnc = new Asn1Encoding(name, type, rule);
-      return JsonUtils.newNode().set("encodings", JsonUtils.toObjectNode(mfEnc.toJson()));
+      return JsonUtils.newNode().set("encodings", OdeJsonCodec.toObjectNode(mfEnc));
    }
    
 /// TODO - old publish method via GSON, results in unordered output
@@ -1,10 +1,7 @@
 package us.dot.its.jpo.ode.udp;
 
 import java.net.DatagramSocket;
-import java.net.SocketException;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import com.oss.asn1.AbstractData;
@@ -16,7 +13,11 @@ import us.dot.its.jpo.ode.OdeProperties;
 import us.dot.its.jpo.ode.asn1.j2735.J2735Util;
 import us.dot.its.jpo.ode.j2735.J2735;
 
-public abstract class AbstractUdpReceiverPublisher implements Runnable {
+/**
+ * Base class of the {@link PacketHandler}s that receive J2735 messages and
+ * publish them to Kafka. Receiving is done by the {@link UdpServiceRuntime}.
+ */
+public abstract class AbstractUdpReceiverPublisher implements PacketHandler {
 
    public class UdpReceiverException extends Exception {
       private static final long serialVersionUID = 1L;
@@ -26,40 +27,84 @@ public abstract class AbstractUdpReceiverPublisher implements Runnable {
       }
    }
 
-   private static Logger logger = LoggerFactory.getLogger(AbstractUdpReceiverPublisher.class);
    private static Coder coder = J2735.getPERUnalignedCoder();
 
    protected DatagramSocket socket;
 
-   protected String senderIp;
-   protected int senderPort;
-
    protected OdeProperties odeProperties;
    protected int port;
    protected int bufferSize;
 
-   private boolean stopped = false;
-
-   public boolean isStopped() {
-      return stopped;
-   }
-
-   public void setStopped(boolean stopped) {
-      this.stopped = stopped;
-   }
+   private int rateLimitPerSecond;
+   private int rateLimitBurst = 1;
+   private int socketReceiveBufferSize;
+   private int socketSendBufferSize;
 
    @Autowired
    public AbstractUdpReceiverPublisher(OdeProperties odeProps, int port, int bufferSize) {
       this.odeProperties = odeProps;
       this.port = port;
       this.bufferSize = bufferSize;
+   }
 
-      try {
-         socket = new DatagramSocket(this.port);
-         logger.info("Created UDP socket bound to port {}", this.port);
-      } catch (SocketException e) {
-         logger.error("Error creating socket with port " + this.port, e);
-      }
+   /**
+    * Keeps the bound socket for sending replies from the receiving port.
+    */
+   @Override
+   public void onStart(DatagramSocket socket) {
+      this.socket = socket;
+   }
+
+   /**
+    * @param packetsPerSecond
+    *           sustained rate allowed per sender IP, 0 for no limit
+    * @param burst
+    *           packets a sender may send back to back
+    */
+   protected void setRateLimit(int packetsPerSecond, int burst) {
+      this.rateLimitPerSecond = packetsPerSecond;
+      this.rateLimitBurst = burst;
+   }
+
+   /**
+    * @param receiveBufferSize
+    *           SO_RCVBUF bytes, 0 for the OS default
+    * @param sendBufferSize
+    *           SO_SNDBUF bytes, 0 for the OS default
+    */
+   protected void setSocketBufferSizes(int receiveBufferSize, int sendBufferSize) {
+      this.socketReceiveBufferSize = receiveBufferSize;
+      this.socketSendBufferSize = sendBufferSize;
+   }
+
+   @Override
+   public int getPort() {
+      return port;
+   }
+
+   @Override
+   public int getBufferSize() {
+      return bufferSize;
+   }
+
+   @Override
+   public int getRateLimitPerSecond() {
+      return rateLimitPerSecond;
+   }
+
+   @Override
+   public int getRateLimitBurst() {
+      return rateLimitBurst;
+   }
+
+   @Override
+   public int getSocketReceiveBufferSize() {
+      return socketReceiveBufferSize;
+   }
+
+   @Override
+   public int getSocketSendBufferSize() {
+      return socketSendBufferSize;
    }
 
    protected AbstractData decodeData(byte[] msg) throws UdpReceiverException {
@@ -71,4 +116,4 @@ public abstract class AbstractUdpReceiverPublisher implements Runnable {
       }
       return decoded;
    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,59 @@
+package us.dot.its.jpo.ode.udp;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free histogram over fixed bucket bounds. Bucket i counts the values
+ * up to and including bounds[i] that are above bounds[i - 1]; a last bucket
+ * counts the values above every bound.
+ */
+public class BucketHistogram {
+
+   private final long[] bounds;
+   private final AtomicLongArray counts;
+
+   /**
+    * @param bounds
+    *           inclusive upper bounds in ascending order
+    */
+   public BucketHistogram(long... bounds) {
+      this.bounds = bounds.clone();
+      this.counts = new AtomicLongArray(bounds.length + 1);
+   }
+
+   public void record(long value) {
+      int i = 0;
+      while (i < bounds.length && value > bounds[i]) {
+         i++;
+      }
+      counts.incrementAndGet(i);
+   }
+
+   public long[] getBounds() {
+      return bounds.clone();
+   }
+
+   /**
+    * @return a snapshot of the bucket counts, one more than the bounds
+    */
+   public long[] getCounts() {
+      long[] snapshot = new long[counts.length()];
+      for (int i = 0; i < snapshot.length; i++) {
+         snapshot[i] = counts.get(i);
+      }
+      return snapshot;
+   }
+
+   /**
+    * @return the counts labeled with their bounds, e.g. "<=64: 3, >64: 1"
+    */
+   public String summary() {
+      long[] snapshot = getCounts();
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < bounds.length; i++) {
+         sb.append("<=").append(bounds[i]).append(": ").append(snapshot[i]).append(", ");
+      }
+      return sb.append('>').append(bounds[bounds.length - 1]).append(": ").append(snapshot[bounds.length])
+            .toString();
+   }
+}
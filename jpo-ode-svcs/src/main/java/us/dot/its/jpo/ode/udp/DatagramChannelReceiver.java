@@ -0,0 +1,214 @@
+package us.dot.its.jpo.ode.udp;
+
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.SocketOption;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import us.dot.its.jpo.ode.udp.controller.UdpServiceThreadFactory;
+
+/**
+ * NIO based UDP receive engine. Binds the given port with one or more
+ * {@link DatagramChannel}s and runs a configurable number of reader threads,
+ * each receiving into its own reusable direct buffer that is handed to the
+ * {@link Listener} for every datagram.
+ * <p>
+ * When the platform supports SO_REUSEPORT, each reader gets its own channel
+ * bound to the same port so that the kernel spreads the load across the
+ * readers. Otherwise all readers share a single channel.
+ */
+public class DatagramChannelReceiver implements Runnable {
+
+   /**
+    * Callback invoked on the reader thread for every datagram received. The
+    * buffer is reused for the next datagram once the callback returns, so its
+    * contents must be copied out before then.
+    */
+   public interface Listener {
+      void onPacket(ByteBuffer payload, InetSocketAddress sender);
+   }
+
+   private static final Logger logger = LoggerFactory.getLogger(DatagramChannelReceiver.class);
+
+   /*
+    * StandardSocketOptions.SO_REUSEPORT is only available from Java 9 onward,
+    * so look it up reflectively to keep running on Java 8.
+    */
+   private static final SocketOption<Boolean> SO_REUSEPORT = lookupReusePortOption();
+
+   private final int port;
+   private final int bufferSize;
+   private final int readerCount;
+   private final Listener listener;
+   private final String name;
+
+   private final List<DatagramChannel> channels = new ArrayList<>();
+   private ExecutorService readers;
+
+   private volatile boolean stopped = false;
+
+   public DatagramChannelReceiver(int port, int bufferSize, int readerCount, Listener listener, String name)
+         throws IOException {
+      this.port = port;
+      this.bufferSize = bufferSize;
+      this.readerCount = Math.max(1, readerCount);
+      this.listener = listener;
+      this.name = name;
+
+      bind();
+   }
+
+   private void bind() throws IOException {
+      DatagramChannel first = openChannel(port);
+      channels.add(first);
+
+      // bind the rest to the port actually assigned, in case port 0 was given
+      int boundPort = getLocalPort();
+      if (readerCount > 1 && reusePortEnabled(first)) {
+         for (int i = 1; i < readerCount; i++) {
+            channels.add(openChannel(boundPort));
+         }
+      }
+
+      logger.info("{} bound {} channel(s) to port {} for {} reader(s)", name, channels.size(), port, readerCount);
+   }
+
+   private static DatagramChannel openChannel(int port) throws IOException {
+      DatagramChannel channel = DatagramChannel.open(StandardProtocolFamily.INET);
+      if (null != SO_REUSEPORT && channel.supportedOptions().contains(SO_REUSEPORT)) {
+         channel.setOption(SO_REUSEPORT, Boolean.TRUE);
+      }
+      channel.setOption(StandardSocketOptions.SO_REUSEADDR, Boolean.TRUE);
+      channel.configureBlocking(true);
+      channel.bind(new InetSocketAddress(port));
+      return channel;
+   }
+
+   private static boolean reusePortEnabled(DatagramChannel channel) throws IOException {
+      return null != SO_REUSEPORT && channel.supportedOptions().contains(SO_REUSEPORT)
+            && channel.getOption(SO_REUSEPORT);
+   }
+
+   @SuppressWarnings("unchecked")
+   private static SocketOption<Boolean> lookupReusePortOption() {
+      try {
+         return (SocketOption<Boolean>) StandardSocketOptions.class.getField("SO_REUSEPORT").get(null);
+      } catch (Exception e) { // NOSONAR
+         return null;
+      }
+   }
+
+   /**
+    * Sets SO_RCVBUF and SO_SNDBUF on every bound channel.
+    *
+    * @param receiveBufferSize
+    *           bytes, 0 to keep the OS default
+    * @param sendBufferSize
+    *           bytes, 0 to keep the OS default
+    */
+   public void setSocketBufferSizes(int receiveBufferSize, int sendBufferSize) throws IOException {
+      for (DatagramChannel channel : channels) {
+         if (receiveBufferSize > 0) {
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, receiveBufferSize);
+         }
+         if (sendBufferSize > 0) {
+            channel.setOption(StandardSocketOptions.SO_SNDBUF, sendBufferSize);
+         }
+      }
+   }
+
+   /**
+    * Starts the reader threads and blocks until all of them have exited.
+    */
+   @Override
+   public void run() {
+      readers = Executors.newFixedThreadPool(readerCount, new UdpServiceThreadFactory(name + "Reader"));
+      for (int i = 0; i < readerCount; i++) {
+         DatagramChannel channel = channels.get(i % channels.size());
+         readers.submit(() -> read(channel));
+      }
+      readers.shutdown();
+
+      try {
+         while (!readers.awaitTermination(1, TimeUnit.SECONDS)) {
+            logger.trace("{} readers still running", name);
+         }
+      } catch (InterruptedException e) {
+         logger.warn("{} interrupted while waiting for readers", name);
+         Thread.currentThread().interrupt();
+      }
+      logger.debug("{} stopped.", name);
+   }
+
+   private void read(DatagramChannel channel) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+
+      while (!stopped) {
+         try {
+            buffer.clear();
+            SocketAddress sender = channel.receive(buffer);
+            buffer.flip();
+            if (null != sender && buffer.hasRemaining()) {
+               listener.onPacket(buffer, (InetSocketAddress) sender);
+            }
+         } catch (ClosedChannelException e) {
+            logger.debug("{} channel closed", name);
+            return;
+         } catch (Exception e) {
+            logger.error("Error receiving packet", e);
+         }
+      }
+   }
+
+   /**
+    * Stops the readers by closing the underlying channels.
+    */
+   public void stop() {
+      stopped = true;
+      for (DatagramChannel channel : channels) {
+         try {
+            channel.close();
+         } catch (IOException e) {
+            logger.warn("Error closing channel on port " + port, e);
+         }
+      }
+   }
+
+   public boolean isStopped() {
+      return stopped;
+   }
+
+   /**
+    * @return a socket view of the first bound channel, usable for sending
+    *         replies from the receiving port
+    */
+   public DatagramSocket getSocket() {
+      return channels.get(0).socket();
+   }
+
+   public int getLocalPort() {
+      return channels.get(0).socket().getLocalPort();
+   }
+
+   public int getChannelCount() {
+      return channels.size();
+   }
+
+   public int getReaderCount() {
+      return readerCount;
+   }
+}
@@ -0,0 +1,75 @@
+package us.dot.its.jpo.ode.udp;
+
+import java.net.DatagramSocket;
+
+/**
+ * Message specific part of a UDP service. The {@link UdpServiceRuntime} binds
+ * the port, receives, rate limits and queues datagrams, and calls the handler
+ * for each one from its shared worker pool.
+ * <p>
+ * To serve a new message port, implement this interface, add a port property
+ * to OdeProperties and register the handler in UdpServicesController.
+ */
+public interface PacketHandler {
+
+   /**
+    * @return UDP port to listen on
+    */
+   int getPort();
+
+   /**
+    * @return receive buffer size, longer datagrams are truncated
+    */
+   int getBufferSize();
+
+   /**
+    * @return sustained packets/sec accepted per sender IP, 0 for no limit
+    */
+   default int getRateLimitPerSecond() {
+      return 0;
+   }
+
+   /**
+    * @return packets a sender may send back to back
+    */
+   default int getRateLimitBurst() {
+      return 1;
+   }
+
+   /**
+    * @return SO_RCVBUF size in bytes, 0 for the OS default
+    */
+   default int getSocketReceiveBufferSize() {
+      return 0;
+   }
+
+   /**
+    * @return SO_SNDBUF size in bytes, 0 for the OS default
+    */
+   default int getSocketSendBufferSize() {
+      return 0;
+   }
+
+   /**
+    * Called once the port is bound, before the first datagram is handled.
+    *
+    * @param socket
+    *           the bound socket, usable for sending replies from the service
+    *           port
+    */
+   default void onStart(DatagramSocket socket) {
+   }
+
+   /**
+    * Handles one datagram. Called concurrently from the worker pool. The
+    * packet is recycled when this method returns.
+    */
+   void handle(UdpPacket packet) throws Exception;
+
+   /**
+    * Called after the service has stopped and all its queued datagrams have
+    * been handled.
+    */
+   default void onStop() {
+   }
+}
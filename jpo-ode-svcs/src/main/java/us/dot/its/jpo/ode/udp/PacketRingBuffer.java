@@ -0,0 +1,377 @@
+package us.dot.its.jpo.ode.udp;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, lock-free ring buffer that hands received datagrams from the
+ * socket reader thread(s) to the encode and publish workers.
+ * <p>
+ * Slots are claimed with a compare-and-set on the head and tail counters and
+ * each slot carries a sequence number that tells producers and consumers
+ * whether it is free or filled, so any number of producers and consumers can
+ * share one buffer without locking. A lock is only used to park threads when
+ * the {@link WaitStrategy#BLOCKING} strategy is selected.
+ * <p>
+ * What happens when a producer finds the buffer full is decided by the
+ * {@link OverflowPolicy}. Occupancy and drops are counted for monitoring.
+ */
+public class PacketRingBuffer<E> {
+
+   /**
+    * How a thread waits for an element (consumers) or a free slot (producers
+    * under {@link OverflowPolicy#BLOCK}).
+    */
+   public enum WaitStrategy {
+      /** Spin without yielding. Lowest latency, burns a core per waiter. */
+      BUSY_SPIN,
+      /** Spin briefly, then yield the CPU between checks. */
+      YIELDING,
+      /** Spin, yield, then park for short intervals. */
+      SLEEPING,
+      /** Park until signaled. Lowest CPU use. */
+      BLOCKING
+   }
+
+   /**
+    * What a producer does when the buffer is full.
+    */
+   public enum OverflowPolicy {
+      /** Evict the oldest queued element to make room for the new one. */
+      DROP_OLDEST,
+      /** Discard the element being published. */
+      DROP_NEWEST,
+      /** Wait for a free slot using the configured {@link WaitStrategy}. */
+      BLOCK
+   }
+
+   private static final int SPIN_TRIES = 100;
+   private static final int YIELD_TRIES = 200;
+   private static final long SLEEP_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+   private static final long BLOCKING_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+   private final int capacity;
+   private final int mask;
+   private final AtomicReferenceArray<E> slots;
+   private final AtomicLongArray sequences;
+   private final AtomicLong head = new AtomicLong();
+   private final AtomicLong tail = new AtomicLong();
+
+   private final WaitStrategy waitStrategy;
+   private final OverflowPolicy overflowPolicy;
+
+   private final ReentrantLock lock = new ReentrantLock();
+   private final Condition notEmpty = lock.newCondition();
+   private final Condition notFull = lock.newCondition();
+   private final AtomicInteger waitingConsumers = new AtomicInteger();
+   private final AtomicInteger waitingProducers = new AtomicInteger();
+
+   private final AtomicLong publishedCount = new AtomicLong();
+   private final AtomicLong consumedCount = new AtomicLong();
+   private final AtomicLong droppedOldestCount = new AtomicLong();
+   private final AtomicLong droppedNewestCount = new AtomicLong();
+   private final AtomicLong peakOccupancy = new AtomicLong();
+
+   private volatile Consumer<E> evictionListener;
+   private volatile boolean closed = false;
+
+   /**
+    * @param requestedCapacity
+    *           minimum number of slots, rounded up to a power of two
+    * @param waitStrategy
+    * @param overflowPolicy
+    */
+   public PacketRingBuffer(int requestedCapacity, WaitStrategy waitStrategy, OverflowPolicy overflowPolicy) {
+      if (requestedCapacity < 1 || requestedCapacity > (1 << 30)) {
+         throw new IllegalArgumentException("Invalid ring buffer capacity: " + requestedCapacity);
+      }
+      this.capacity = requestedCapacity == 1 ? 1 : Integer.highestOneBit(requestedCapacity - 1) << 1;
+      this.mask = capacity - 1;
+      this.slots = new AtomicReferenceArray<>(capacity);
+      this.sequences = new AtomicLongArray(capacity);
+      for (int i = 0; i < capacity; i++) {
+         sequences.set(i, i);
+      }
+      this.waitStrategy = waitStrategy;
+      this.overflowPolicy = overflowPolicy;
+   }
+
+   /**
+    * Sets a callback for the elements evicted under
+    * {@link OverflowPolicy#DROP_OLDEST}, called on the publishing thread.
+    */
+   public void setEvictionListener(Consumer<E> listener) {
+      this.evictionListener = listener;
+   }
+
+   /**
+    * Publishes an element, applying the overflow policy if the buffer is
+    * full.
+    *
+    * @return true if the element was queued, false if it was dropped or the
+    *         buffer is closed
+    */
+   public boolean publish(E element) {
+      if (closed) {
+         return false;
+      }
+
+      int attempt = 0;
+      while (!offer(element)) {
+         switch (overflowPolicy) {
+         case DROP_NEWEST:
+            droppedNewestCount.incrementAndGet();
+            return false;
+         case DROP_OLDEST:
+            E evicted = poll();
+            if (null != evicted) {
+               droppedOldestCount.incrementAndGet();
+               Consumer<E> listener = evictionListener;
+               if (null != listener) {
+                  listener.accept(evicted);
+               }
+            }
+            break;
+         default:
+            if (closed) {
+               return false;
+            }
+            idle(attempt++, notFull, waitingProducers);
+            break;
+         }
+      }
+
+      publishedCount.incrementAndGet();
+      updatePeakOccupancy();
+      signal(notEmpty, waitingConsumers);
+      return true;
+   }
+
+   /**
+    * Waits for the next element.
+    *
+    * @return the next element, or null once the buffer has been closed and
+    *         drained
+    */
+   public E take() {
+      int attempt = 0;
+      E element;
+      while (null == (element = poll())) {
+         if (closed && isEmpty()) {
+            return null;
+         }
+         idle(attempt++, notEmpty, waitingConsumers);
+      }
+      consumedCount.incrementAndGet();
+      signal(notFull, waitingProducers);
+      return element;
+   }
+
+   /**
+    * Queues an element if there is a free slot, without applying the overflow
+    * policy or waiting.
+    *
+    * @return false if the buffer is full or closed
+    */
+   public boolean tryPublish(E element) {
+      if (closed || !offer(element)) {
+         return false;
+      }
+      publishedCount.incrementAndGet();
+      signal(notEmpty, waitingConsumers);
+      return true;
+   }
+
+   /**
+    * Removes the next element if there is one, without waiting.
+    *
+    * @return the next element, or null if the buffer is empty
+    */
+   public E tryTake() {
+      E element = poll();
+      if (null != element) {
+         consumedCount.incrementAndGet();
+         signal(notFull, waitingProducers);
+      }
+      return element;
+   }
+
+   /**
+    * Stops accepting new elements and wakes up all waiting threads. Consumers
+    * drain what is left before {@link #take()} returns null.
+    */
+   public void close() {
+      closed = true;
+      lock.lock();
+      try {
+         notEmpty.signalAll();
+         notFull.signalAll();
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   private boolean offer(E element) {
+      long pos = tail.get();
+      for (;;) {
+         int index = (int) (pos & mask);
+         long diff = sequences.get(index) - pos;
+         if (diff == 0) {
+            if (tail.compareAndSet(pos, pos + 1)) {
+               slots.lazySet(index, element);
+               sequences.set(index, pos + 1);
+               return true;
+            }
+            pos = tail.get();
+         } else if (diff < 0) {
+            return false; // full
+         } else {
+            pos = tail.get(); // another producer claimed the slot
+         }
+      }
+   }
+
+   private E poll() {
+      long pos = head.get();
+      for (;;) {
+         int index = (int) (pos & mask);
+         long diff = sequences.get(index) - (pos + 1);
+         if (diff == 0) {
+            if (head.compareAndSet(pos, pos + 1)) {
+               E element = slots.get(index);
+               slots.lazySet(index, null);
+               sequences.set(index, pos + capacity);
+               return element;
+            }
+            pos = head.get();
+         } else if (diff < 0) {
+            return null; // empty
+         } else {
+            pos = head.get(); // another consumer took the slot
+         }
+      }
+   }
+
+   private void idle(int attempt, Condition condition, AtomicInteger waiters) {
+      switch (waitStrategy) {
+      case BUSY_SPIN:
+         break;
+      case YIELDING:
+         if (attempt >= SPIN_TRIES) {
+            Thread.yield();
+         }
+         break;
+      case SLEEPING:
+         if (attempt >= SPIN_TRIES + YIELD_TRIES) {
+            LockSupport.parkNanos(SLEEP_NANOS);
+         } else if (attempt >= SPIN_TRIES) {
+            Thread.yield();
+         }
+         break;
+      default:
+         await(condition, waiters);
+         break;
+      }
+   }
+
+   private void await(Condition condition, AtomicInteger waiters) {
+      waiters.incrementAndGet();
+      lock.lock();
+      try {
+         // re-check under the lock so a signal sent before we parked is not
+         // missed; the timeout bounds the wait should one slip through anyway
+         if (!closed && (condition == notEmpty ? isEmpty() : isFull())) {
+            condition.awaitNanos(BLOCKING_WAIT_NANOS);
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      } finally {
+         lock.unlock();
+         waiters.decrementAndGet();
+      }
+   }
+
+   private void signal(Condition condition, AtomicInteger waiters) {
+      if (waiters.get() > 0) {
+         lock.lock();
+         try {
+            condition.signal();
+         } finally {
+            lock.unlock();
+         }
+      }
+   }
+
+   private void updatePeakOccupancy() {
+      long occupancy = getOccupancy();
+      long peak;
+      while (occupancy > (peak = peakOccupancy.get())) {
+         if (peakOccupancy.compareAndSet(peak, occupancy)) {
+            return;
+         }
+      }
+   }
+
+   public boolean isEmpty() {
+      return getOccupancy() == 0;
+   }
+
+   public boolean isFull() {
+      return getOccupancy() >= capacity;
+   }
+
+   public boolean isClosed() {
+      return closed;
+   }
+
+   public int getCapacity() {
+      return capacity;
+   }
+
+   /**
+    * @return number of elements currently queued
+    */
+   public int getOccupancy() {
+      long occupancy = tail.get() - head.get();
+      return (int) Math.max(0, Math.min(occupancy, capacity));
+   }
+
+   public long getPeakOccupancy() {
+      return peakOccupancy.get();
+   }
+
+   public long getPublishedCount() {
+      return publishedCount.get();
+   }
+
+   public long getConsumedCount() {
+      return consumedCount.get();
+   }
+
+   public long getDroppedOldestCount() {
+      return droppedOldestCount.get();
+   }
+
+   public long getDroppedNewestCount() {
+      return droppedNewestCount.get();
+   }
+
+   public long getDroppedCount() {
+      return droppedOldestCount.get() + droppedNewestCount.get();
+   }
+
+   public WaitStrategy getWaitStrategy() {
+      return waitStrategy;
+   }
+
+   public OverflowPolicy getOverflowPolicy() {
+      return overflowPolicy;
+   }
+}
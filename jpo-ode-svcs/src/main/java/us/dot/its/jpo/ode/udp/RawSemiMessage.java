@@ -0,0 +1,70 @@
+package us.dot.its.jpo.ode.udp;
+
+import java.util.Arrays;
+
+/**
+ * Kafka record format for SEMI messages published without decoding: a small
+ * typed header followed by the UPER bytes exactly as received.
+ *
+ * <pre>
+ * bytes 0-1  magic 'R' 'S'
+ * byte  2    format version
+ * byte  3    SemiMessageType ordinal
+ * bytes 4-7  requestID
+ * bytes 8-   UPER encoded message
+ * </pre>
+ *
+ * Consumers that only route or forward the message can use the header and
+ * hand on the payload; only stages that need the message fields decode it.
+ * The magic keeps these records apart from the Kryo serialized messages
+ * published when pass-through is disabled.
+ */
+public class RawSemiMessage {
+
+   private static final byte MAGIC_0 = 'R';
+   private static final byte MAGIC_1 = 'S';
+   private static final byte VERSION = 1;
+
+   public static final int HEADER_LENGTH = 4 + SemiMessageType.REQUEST_ID_LENGTH;
+
+   private RawSemiMessage() {
+      throw new UnsupportedOperationException("Cannot instantiate static class.");
+   }
+
+   /**
+    * Prefixes the UPER bytes with the typed header.
+    */
+   public static byte[] wrap(SemiMessageType type, byte[] data, int offset, int length) {
+      byte[] record = new byte[HEADER_LENGTH + length];
+      record[0] = MAGIC_0;
+      record[1] = MAGIC_1;
+      record[2] = VERSION;
+      record[3] = (byte) type.ordinal();
+      System.arraycopy(type.getRequestId(data, offset), 0, record, 4, SemiMessageType.REQUEST_ID_LENGTH);
+      System.arraycopy(data, offset, record, HEADER_LENGTH, length);
+      return record;
+   }
+
+   /**
+    * @return true if the record was written by {@link #wrap}
+    */
+   public static boolean isRaw(byte[] record) {
+      return null != record && record.length > HEADER_LENGTH && record[0] == MAGIC_0 && record[1] == MAGIC_1
+            && record[2] == VERSION && (record[3] & 0xFF) < SemiMessageType.values().length;
+   }
+
+   public static SemiMessageType getType(byte[] record) {
+      return SemiMessageType.values()[record[3] & 0xFF];
+   }
+
+   public static byte[] getRequestId(byte[] record) {
+      return Arrays.copyOfRange(record, 4, HEADER_LENGTH);
+   }
+
+   /**
+    * @return a copy of the UPER encoded message
+    */
+   public static byte[] getPayload(byte[] record) {
+      return Arrays.copyOfRange(record, HEADER_LENGTH, record.length);
+   }
+}
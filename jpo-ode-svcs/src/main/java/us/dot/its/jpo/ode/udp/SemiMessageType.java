@@ -0,0 +1,97 @@
+package us.dot.its.jpo.ode.udp;
+
+/**
+ * SEMI messages the UDP receivers can recognize from their first bytes,
+ * without decoding them.
+ * <p>
+ * The UPER encoding of each of these messages starts with the SEQUENCE
+ * preamble (one bit per OPTIONAL field), the dialogID and seqID, each an
+ * extensible enumeration encoded as an extension bit plus a 4 bit index, then
+ * the 4 byte groupID and requestID.
+ */
+public enum SemiMessageType {
+
+   // preamble bits, SemiDialogID and SemiSequenceID root indexes (-1 for any)
+   SERVICE_REQUEST(1, -1, 0), // any dialog, svcReq
+   INTERSECTION_SITUATION_DATA(1, 8, 4), // intersectionSitDataDep, data
+   VEH_SIT_DATA(0, 0, 4); // vehSitData, data
+
+   private static final int ANY_INDEX = -1;
+
+   private static final int ENUM_BITS = 5;
+   private static final int OCTET_STRING_4_BITS = 32;
+
+   /**
+    * Length in bytes of the requestID (TemporaryID)
+    */
+   public static final int REQUEST_ID_LENGTH = 4;
+
+   private final int preambleBits;
+   private final int dialogIndex;
+   private final int seqIndex;
+
+   private SemiMessageType(int preambleBits, int dialogIndex, int seqIndex) {
+      this.preambleBits = preambleBits;
+      this.dialogIndex = dialogIndex;
+      this.seqIndex = seqIndex;
+   }
+
+   /**
+    * Identifies a UPER encoded SEMI message from its dialogID and seqID.
+    *
+    * @return the message type, or null if it is not one of the known types or
+    *         too short to hold a requestID
+    */
+   public static SemiMessageType classify(byte[] data, int offset, int length) {
+      for (SemiMessageType type : values()) {
+         if (type.matches(data, offset, length)) {
+            return type;
+         }
+      }
+      return null;
+   }
+
+   public static SemiMessageType classify(byte[] data) {
+      return classify(data, 0, data.length);
+   }
+
+   private boolean matches(byte[] data, int offset, int length) {
+      if (length * 8 < requestIdBitOffset() + OCTET_STRING_4_BITS) {
+         return false;
+      }
+      int dialog = readBits(data, offset, preambleBits, ENUM_BITS);
+      int seq = readBits(data, offset, preambleBits + ENUM_BITS, ENUM_BITS);
+      // the extension bit is read as the high bit of the index, so values
+      // added by extension never match
+      return (dialogIndex == ANY_INDEX || dialog == dialogIndex) && seq == seqIndex;
+   }
+
+   /**
+    * Copies the requestID out of a message of this type.
+    */
+   public byte[] getRequestId(byte[] data, int offset) {
+      byte[] requestId = new byte[REQUEST_ID_LENGTH];
+      int bitOffset = requestIdBitOffset();
+      for (int i = 0; i < REQUEST_ID_LENGTH; i++) {
+         requestId[i] = (byte) readBits(data, offset, bitOffset + i * 8, 8);
+      }
+      return requestId;
+   }
+
+   private int requestIdBitOffset() {
+      return preambleBits + 2 * ENUM_BITS + OCTET_STRING_4_BITS;
+   }
+
+   /*
+    * Reads up to 8 bits, most significant bit first
+    */
+   private static int readBits(byte[] data, int offset, int bitOffset, int bitCount) {
+      int index = offset + (bitOffset >> 3);
+      int word = (data[index] & 0xFF) << 8;
+      if (index + 1 < data.length) {
+         word |= data[index + 1] & 0xFF;
+      }
+      int shift = 16 - (bitOffset & 7) - bitCount;
+      return (word >> shift) & ((1 << bitCount) - 1);
+   }
+}
@@ -0,0 +1,246 @@
+package us.dot.its.jpo.ode.udp;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Per sender IP rate limiting for UDP receivers.
+ * <p>
+ * Each source gets a token bucket holding up to <code>burst</code> packets and
+ * refilled at <code>packetsPerSecond</code>. The bucket is kept as a single
+ * theoretical arrival time (the generic cell rate algorithm), so a packet is
+ * admitted with one compare-and-set and no locking. Buckets live in a
+ * concurrent map and are evicted once their source has been idle for the
+ * configured time. Once the map holds <code>maxSources</code> buckets, new
+ * sources share a single overflow bucket so that spoofed floods cannot grow
+ * the map without bound.
+ * <p>
+ * If an allow-list is given, packets from any other source are rejected
+ * outright.
+ */
+public class SourceRateLimiter {
+
+   private static final Logger logger = LoggerFactory.getLogger(SourceRateLimiter.class);
+
+   private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+   /**
+    * Token bucket and counters of one source.
+    */
+   public static class SourceStats {
+      private final AtomicLong theoreticalArrival;
+      private final LongAdder acceptedCount = new LongAdder();
+      private final LongAdder droppedCount = new LongAdder();
+      private volatile long lastSeen;
+      private volatile boolean throttled;
+
+      SourceStats(long now) {
+         this.theoreticalArrival = new AtomicLong(now);
+         this.lastSeen = now;
+      }
+
+      public long getAcceptedCount() {
+         return acceptedCount.sum();
+      }
+
+      public long getDroppedCount() {
+         return droppedCount.sum();
+      }
+
+      public boolean isThrottled() {
+         return throttled;
+      }
+   }
+
+   private final String name;
+   private final long emissionIntervalNanos;
+   private final long burstToleranceNanos;
+   private final long idleTimeoutNanos;
+   private final int maxSources;
+   private final Set<InetAddress> allowList;
+
+   private final ConcurrentHashMap<InetAddress, SourceStats> sources = new ConcurrentHashMap<>();
+   private final SourceStats overflow;
+   private final AtomicLong nextSweep;
+
+   private final LongAdder acceptedCount = new LongAdder();
+   private final LongAdder droppedCount = new LongAdder();
+   private final LongAdder rejectedCount = new LongAdder();
+
+   /**
+    * @param name
+    *           receiver name used in log messages
+    * @param packetsPerSecond
+    *           sustained rate allowed per source, 0 for no rate limit
+    * @param burst
+    *           packets a source may send back to back
+    * @param idleTimeoutMillis
+    *           how long a source is remembered after its last packet
+    * @param maxSources
+    *           number of sources tracked individually
+    * @param allowList
+    *           sources allowed to send, empty to allow any
+    */
+   public SourceRateLimiter(String name, int packetsPerSecond, int burst, long idleTimeoutMillis, int maxSources,
+         Set<InetAddress> allowList) {
+      this.name = name;
+      this.emissionIntervalNanos = packetsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / packetsPerSecond : 0;
+      this.burstToleranceNanos = emissionIntervalNanos * Math.max(0, burst - 1);
+      this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+      this.maxSources = maxSources;
+      this.allowList = null == allowList ? Collections.<InetAddress>emptySet() : allowList;
+
+      long now = System.nanoTime();
+      this.overflow = new SourceStats(now);
+      this.nextSweep = new AtomicLong(now + SWEEP_INTERVAL_NANOS);
+   }
+
+   /**
+    * Creates a rate limiter from receiver properties.
+    *
+    * @param allowList
+    *           comma separated IP addresses, may be null or empty
+    * @return the rate limiter, or null if neither a rate nor an allow-list is
+    *         configured
+    */
+   public static SourceRateLimiter create(String name, int packetsPerSecond, int burst, long idleTimeoutMillis,
+         int maxSources, String allowList) {
+      Set<InetAddress> allowed = parseAllowList(allowList);
+      if (packetsPerSecond <= 0 && allowed.isEmpty()) {
+         return null;
+      }
+      logger.info("{} limiting sources to {} packets/sec with a burst of {}{}", name, packetsPerSecond, burst,
+            allowed.isEmpty() ? "" : ", allowed sources: " + allowed);
+      return new SourceRateLimiter(name, packetsPerSecond, burst, idleTimeoutMillis, maxSources, allowed);
+   }
+
+   private static Set<InetAddress> parseAllowList(String allowList) {
+      Set<InetAddress> allowed = new HashSet<>();
+      if (null != allowList) {
+         for (String address : allowList.split(",")) {
+            if (!address.trim().isEmpty()) {
+               try {
+                  allowed.add(InetAddress.getByName(address.trim()));
+               } catch (UnknownHostException e) {
+                  logger.error("Ignoring invalid allow-list address {}", address, e);
+               }
+            }
+         }
+      }
+      return allowed;
+   }
+
+   /**
+    * Takes a token from the sender's bucket.
+    *
+    * @return true if the packet should be processed, false if it should be
+    *         dropped
+    */
+   public boolean tryAcquire(InetAddress sender) {
+      if (!allowList.isEmpty() && !allowList.contains(sender)) {
+         rejectedCount.increment();
+         return false;
+      }
+
+      long now = System.nanoTime();
+      SourceStats source = sources.get(sender);
+      if (null == source) {
+         source = newSource(sender, now);
+      }
+      source.lastSeen = now;
+
+      if (now - nextSweep.get() > 0) {
+         sweep(now);
+      }
+
+      if (emissionIntervalNanos == 0 || conforms(source, now)) {
+         source.acceptedCount.increment();
+         acceptedCount.increment();
+         if (source.throttled) {
+            source.throttled = false;
+            logger.info("{} no longer throttling {}", name, sender);
+         }
+         return true;
+      }
+
+      source.droppedCount.increment();
+      droppedCount.increment();
+      if (!source.throttled) {
+         source.throttled = true;
+         logger.warn("{} throttling {}, source exceeds its packet rate", name, sender);
+      }
+      return false;
+   }
+
+   private boolean conforms(SourceStats source, long now) {
+      for (;;) {
+         long tat = source.theoreticalArrival.get();
+         long start = tat - now > 0 ? tat : now;
+         if (start - now > burstToleranceNanos) {
+            return false;
+         }
+         if (source.theoreticalArrival.compareAndSet(tat, start + emissionIntervalNanos)) {
+            return true;
+         }
+      }
+   }
+
+   private SourceStats newSource(InetAddress sender, long now) {
+      if (sources.size() >= maxSources) {
+         return overflow;
+      }
+      SourceStats source = new SourceStats(now);
+      SourceStats existing = sources.putIfAbsent(sender, source);
+      return null == existing ? source : existing;
+   }
+
+   private void sweep(long now) {
+      long scheduled = nextSweep.get();
+      if (!nextSweep.compareAndSet(scheduled, now + SWEEP_INTERVAL_NANOS)) {
+         return; // another thread is sweeping
+      }
+      int before = sources.size();
+      sources.values().removeIf(source -> now - source.lastSeen > idleTimeoutNanos);
+      if (sources.size() < before) {
+         logger.debug("{} evicted {} idle source(s)", name, before - sources.size());
+      }
+   }
+
+   /**
+    * @return counters of each tracked source
+    */
+   public Map<InetAddress, SourceStats> getSources() {
+      return Collections.unmodifiableMap(sources);
+   }
+
+   public SourceStats getOverflow() {
+      return overflow;
+   }
+
+   public long getAcceptedCount() {
+      return acceptedCount.sum();
+   }
+
+   public long getDroppedCount() {
+      return droppedCount.sum();
+   }
+
+   public long getRejectedCount() {
+      return rejectedCount.sum();
+   }
+
+   public int getSourceCount() {
+      return sources.size();
+   }
+}
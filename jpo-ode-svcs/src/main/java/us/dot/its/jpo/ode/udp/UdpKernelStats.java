@@ -0,0 +1,114 @@
+package us.dot.its.jpo.ode.udp;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Kernel side counters of the UDP sockets bound to a local port, read from
+ * /proc/net/udp and /proc/net/udp6 on Linux. Datagrams the kernel dropped
+ * because the socket receive buffer was full never reach the receivers, so
+ * these counters are the only record of them.
+ */
+public class UdpKernelStats {
+
+   private static final Logger logger = LoggerFactory.getLogger(UdpKernelStats.class);
+
+   private static final Path[] PROC_FILES = { Paths.get("/proc/net/udp"), Paths.get("/proc/net/udp6") };
+
+   // columns of a socket line
+   private static final int LOCAL_ADDRESS = 1;
+   private static final int TX_RX_QUEUE = 4;
+   private static final int MIN_COLUMNS = 13;
+
+   private final int socketCount;
+   private final long drops;
+   private final long receiveQueueBytes;
+
+   UdpKernelStats(int socketCount, long drops, long receiveQueueBytes) {
+      this.socketCount = socketCount;
+      this.drops = drops;
+      this.receiveQueueBytes = receiveQueueBytes;
+   }
+
+   /**
+    * @return the counters summed over every socket bound to the port, or null
+    *         where /proc/net/udp is not available
+    */
+   public static UdpKernelStats read(int port) {
+      int sockets = 0;
+      long drops = 0;
+      long queued = 0;
+      boolean available = false;
+      for (Path file : PROC_FILES) {
+         if (!Files.isReadable(file)) {
+            continue;
+         }
+         try {
+            UdpKernelStats stats = parse(Files.readAllLines(file, StandardCharsets.US_ASCII), port);
+            sockets += stats.socketCount;
+            drops += stats.drops;
+            queued += stats.receiveQueueBytes;
+            available = true;
+         } catch (IOException e) {
+            logger.debug("Unable to read {}", file, e);
+         }
+      }
+      return available ? new UdpKernelStats(sockets, drops, queued) : null;
+   }
+
+   /**
+    * Sums the lines of a /proc/net/udp table whose local port matches. A
+    * socket bound through SO_REUSEPORT has one line per channel.
+    */
+   static UdpKernelStats parse(List<String> lines, int port) {
+      int sockets = 0;
+      long drops = 0;
+      long queued = 0;
+      for (String line : lines) {
+         String[] columns = line.trim().split("\\s+");
+         if (columns.length < MIN_COLUMNS || !columns[0].endsWith(":")) {
+            // header
+            continue;
+         }
+         String localAddress = columns[LOCAL_ADDRESS];
+         int portIndex = localAddress.lastIndexOf(':');
+         try {
+            if (Integer.parseInt(localAddress.substring(portIndex + 1), 16) != port) {
+               continue;
+            }
+            String txRx = columns[TX_RX_QUEUE];
+            queued += Long.parseLong(txRx.substring(txRx.indexOf(':') + 1), 16);
+            drops += Long.parseLong(columns[columns.length - 1]);
+            sockets++;
+         } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            logger.debug("Unexpected /proc/net/udp line: {}", line);
+         }
+      }
+      return new UdpKernelStats(sockets, drops, queued);
+   }
+
+   public int getSocketCount() {
+      return socketCount;
+   }
+
+   /**
+    * @return datagrams dropped by the kernel since the sockets were created
+    */
+   public long getDrops() {
+      return drops;
+   }
+
+   /**
+    * @return bytes waiting in the socket receive buffers
+    */
+   public long getReceiveQueueBytes() {
+      return receiveQueueBytes;
+   }
+}
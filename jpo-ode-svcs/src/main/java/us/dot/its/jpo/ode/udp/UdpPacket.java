@@ -0,0 +1,67 @@
+package us.dot.its.jpo.ode.udp;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+
+/**
+ * A received datagram in a pooled receive buffer. Instances are recycled by
+ * the {@link UdpService} once its {@link PacketHandler} returns, so handlers
+ * must copy anything they keep.
+ */
+public class UdpPacket {
+
+   private final UdpService service;
+   private final byte[] buffer;
+   private int length;
+   private InetSocketAddress sender;
+
+   public UdpPacket(UdpService service, int bufferSize) {
+      this.service = service;
+      this.buffer = new byte[bufferSize];
+   }
+
+   void set(int length, InetSocketAddress sender) {
+      this.length = length;
+      this.sender = sender;
+   }
+
+   void clear() {
+      this.length = 0;
+      this.sender = null;
+   }
+
+   /**
+    * @return the receive buffer; only the first {@link #getLength()} bytes
+    *         belong to this datagram
+    */
+   public byte[] getBuffer() {
+      return buffer;
+   }
+
+   public int getLength() {
+      return length;
+   }
+
+   /**
+    * @return a copy of the datagram
+    */
+   public byte[] getPayload() {
+      return Arrays.copyOf(buffer, length);
+   }
+
+   public InetSocketAddress getSender() {
+      return sender;
+   }
+
+   public String getSenderIp() {
+      return sender.getAddress().getHostAddress();
+   }
+
+   public int getSenderPort() {
+      return sender.getPort();
+   }
+
+   public UdpService getService() {
+      return service;
+   }
+}
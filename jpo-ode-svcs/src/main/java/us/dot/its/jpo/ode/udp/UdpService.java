@@ -0,0 +1,258 @@
+package us.dot.its.jpo.ode.udp;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.udp.PacketRingBuffer.OverflowPolicy;
+import us.dot.its.jpo.ode.udp.PacketRingBuffer.WaitStrategy;
+import us.dot.its.jpo.ode.udp.controller.UdpServiceThreadFactory;
+
+/**
+ * One UDP port served by a {@link PacketHandler}. Receives datagrams into
+ * pooled buffers, either with a blocking DatagramSocket or with the NIO
+ * {@link DatagramChannelReceiver}, applies the per source rate limit and
+ * passes them to the {@link UdpServiceRuntime} for handling.
+ */
+public class UdpService {
+
+   private static final Logger logger = LoggerFactory.getLogger(UdpService.class);
+
+   private final PacketHandler handler;
+   private final UdpServiceRuntime runtime;
+   private final OdeProperties odeProperties;
+   private final String name;
+   private final int bufferSize;
+
+   private final PacketRingBuffer<UdpPacket> bufferPool;
+   private final UdpServiceMetrics metrics;
+   private SourceRateLimiter rateLimiter;
+
+   private DatagramSocket socket;
+   private DatagramChannelReceiver channelReceiver;
+   private ExecutorService reader;
+
+   private volatile boolean stopped = true;
+
+   UdpService(PacketHandler handler, UdpServiceRuntime runtime, OdeProperties odeProps) {
+      this.handler = handler;
+      this.runtime = runtime;
+      this.odeProperties = odeProps;
+      this.name = handler.getClass().getSimpleName();
+      this.bufferSize = handler.getBufferSize();
+      this.bufferPool = new PacketRingBuffer<>(Math.max(1, odeProps.getUdpBufferPoolSize()), WaitStrategy.BUSY_SPIN,
+            OverflowPolicy.DROP_NEWEST);
+      this.metrics = new UdpServiceMetrics(this, odeProps.getUdpKernelStatsRefreshMillis());
+   }
+
+   /**
+    * Binds the port and starts receiving.
+    */
+   void start() throws IOException {
+      if (odeProperties.isUdpNioReceiverEnabled()) {
+         channelReceiver = new DatagramChannelReceiver(handler.getPort(), bufferSize,
+               odeProperties.getUdpReceiverThreads(), this::onPacket, name);
+         channelReceiver.setSocketBufferSizes(handler.getSocketReceiveBufferSize(),
+               handler.getSocketSendBufferSize());
+         socket = channelReceiver.getSocket();
+      } else {
+         socket = new DatagramSocket(handler.getPort());
+         setSocketBufferSizes(socket, handler.getSocketReceiveBufferSize(), handler.getSocketSendBufferSize());
+         logger.info("Created UDP socket bound to port {}", handler.getPort());
+      }
+      logSocketBufferSizes();
+
+      rateLimiter = SourceRateLimiter.create(name, handler.getRateLimitPerSecond(), handler.getRateLimitBurst(),
+            odeProperties.getUdpRateLimitIdleTimeoutMillis(), odeProperties.getUdpRateLimitMaxSources(),
+            odeProperties.getUdpSourceAllowList());
+
+      handler.onStart(socket);
+      metrics.register();
+      stopped = false;
+
+      reader = Executors.newSingleThreadExecutor(new UdpServiceThreadFactory(name));
+      if (null != channelReceiver) {
+         logger.debug("Starting {} with {} NIO reader(s)...", name, channelReceiver.getReaderCount());
+         reader.submit(channelReceiver);
+      } else {
+         logger.debug("Starting {}...", name);
+         reader.submit(this::receive);
+      }
+      reader.shutdown();
+   }
+
+   /**
+    * Stops receiving and waits for the reader threads to exit. Datagrams
+    * already queued are still handled.
+    */
+   void stop() {
+      stopped = true;
+      if (null != channelReceiver) {
+         channelReceiver.stop();
+      } else if (null != socket) {
+         socket.close();
+      }
+
+      if (null != reader) {
+         try {
+            if (!reader.awaitTermination(5, TimeUnit.SECONDS)) {
+               logger.warn("{} reader did not stop in time", name);
+            }
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+      }
+      metrics.unregister();
+      logger.info("{} stopped.", name);
+   }
+
+   private static void setSocketBufferSizes(DatagramSocket socket, int receiveBufferSize, int sendBufferSize)
+         throws IOException {
+      if (receiveBufferSize > 0) {
+         socket.setReceiveBufferSize(receiveBufferSize);
+      }
+      if (sendBufferSize > 0) {
+         socket.setSendBufferSize(sendBufferSize);
+      }
+   }
+
+   /*
+    * The kernel silently caps the sizes at net.core.rmem_max/wmem_max
+    */
+   private void logSocketBufferSizes() throws IOException {
+      int requested = handler.getSocketReceiveBufferSize();
+      int granted = socket.getReceiveBufferSize();
+      if (requested > granted) {
+         logger.warn("{} SO_RCVBUF capped at {} bytes instead of {}, raise net.core.rmem_max", name, granted,
+               requested);
+      } else {
+         logger.info("{} SO_RCVBUF {} bytes, SO_SNDBUF {} bytes", name, granted, socket.getSendBufferSize());
+      }
+   }
+
+   /*
+    * Blocking receive loop used when the NIO engine is disabled
+    */
+   private void receive() {
+      DatagramPacket datagram = new DatagramPacket(new byte[bufferSize], bufferSize);
+
+      while (!stopped) {
+         UdpPacket packet = acquire();
+         try {
+            datagram.setData(packet.getBuffer());
+            socket.receive(datagram);
+            if (datagram.getLength() > 0) {
+               packet.set(datagram.getLength(), (InetSocketAddress) datagram.getSocketAddress());
+               submit(packet);
+               continue;
+            }
+         } catch (IOException e) {
+            if (!stopped) {
+               logger.error("Error receiving packet", e);
+            }
+         } catch (Exception e) {
+            logger.error("Error receiving packet", e);
+         }
+         release(packet);
+      }
+   }
+
+   private void onPacket(ByteBuffer payload, InetSocketAddress sender) {
+      UdpPacket packet = acquire();
+      int length = Math.min(payload.remaining(), bufferSize);
+      payload.get(packet.getBuffer(), 0, length);
+      packet.set(length, sender);
+      submit(packet);
+   }
+
+   private void submit(UdpPacket packet) {
+      if (logger.isDebugEnabled()) {
+         logger.debug("Packet received from {}:{}", packet.getSenderIp(), packet.getSenderPort());
+      }
+      metrics.received(packet.getLength());
+      if (null != rateLimiter && !rateLimiter.tryAcquire(packet.getSender().getAddress())) {
+         metrics.rateLimited();
+         release(packet);
+         return;
+      }
+      metrics.dispatched();
+      runtime.dispatch(packet);
+   }
+
+   /**
+    * Passes the packet to the handler and recycles it.
+    */
+   void handle(UdpPacket packet) {
+      long start = System.nanoTime();
+      boolean failed = false;
+      try {
+         handler.handle(packet);
+      } catch (Exception e) {
+         failed = true;
+         logger.error("Error handling packet", e);
+      } finally {
+         metrics.handled(System.nanoTime() - start, failed);
+         release(packet);
+      }
+   }
+
+   /**
+    * Recycles a dispatched packet that will not be handled.
+    */
+   void drop(UdpPacket packet) {
+      metrics.dropped();
+      release(packet);
+   }
+
+   private UdpPacket acquire() {
+      UdpPacket packet = bufferPool.tryTake();
+      return null == packet ? new UdpPacket(this, bufferSize) : packet;
+   }
+
+   void release(UdpPacket packet) {
+      packet.clear();
+      // a full pool lets the packet be garbage collected
+      bufferPool.tryPublish(packet);
+   }
+
+   public PacketHandler getHandler() {
+      return handler;
+   }
+
+   public String getName() {
+      return name;
+   }
+
+   public boolean isStopped() {
+      return stopped;
+   }
+
+   public DatagramSocket getSocket() {
+      return socket;
+   }
+
+   public SourceRateLimiter getRateLimiter() {
+      return rateLimiter;
+   }
+
+   public PacketRingBuffer<UdpPacket> getBufferPool() {
+      return bufferPool;
+   }
+
+   public UdpServiceMetrics getMetrics() {
+      return metrics;
+   }
+
+   UdpServiceRuntime getRuntime() {
+      return runtime;
+   }
+}
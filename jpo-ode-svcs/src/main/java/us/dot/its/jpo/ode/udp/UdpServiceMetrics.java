@@ -0,0 +1,253 @@
+package us.dot.its.jpo.ode.udp;
+
+import java.lang.management.ManagementFactory;
+import java.net.DatagramSocket;
+import java.net.SocketException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Ingest metrics of one {@link UdpService}, exported as an MBean next to
+ * SystemConfig under "us.dot.its.jpo.ode:type=UdpService,name=...,port=...".
+ * <p>
+ * Counts what the service sees (packets, bytes, payload sizes, rate limited
+ * and dropped packets, handler time) and what only the kernel sees: the
+ * datagrams dropped because the socket receive buffer was full, read from
+ * /proc/net/udp on Linux and reported as -1 elsewhere.
+ * </p>
+ */
+public class UdpServiceMetrics implements UdpServiceMetricsMBean {
+
+   private static final Logger logger = LoggerFactory.getLogger(UdpServiceMetrics.class);
+
+   private static final long[] PAYLOAD_SIZE_BOUNDS = { 64, 128, 256, 512, 1024, 1500, 4096 };
+   private static final long[] PROCESSING_TIME_BOUNDS_MICROS = { 10, 50, 100, 500, 1000, 5000, 10000, 50000 };
+
+   private final UdpService service;
+   private final long kernelStatsRefreshMillis;
+
+   private final LongAdder packetsReceived = new LongAdder();
+   private final LongAdder bytesReceived = new LongAdder();
+   private final LongAdder packetsRateLimited = new LongAdder();
+   private final LongAdder packetsDropped = new LongAdder();
+   private final LongAdder packetsDispatched = new LongAdder();
+   private final LongAdder packetsHandled = new LongAdder();
+   private final LongAdder handlerErrors = new LongAdder();
+   private final LongAdder processingNanos = new LongAdder();
+   private final AtomicLong processingMaxNanos = new AtomicLong();
+   private final BucketHistogram payloadSizes = new BucketHistogram(PAYLOAD_SIZE_BOUNDS);
+   private final BucketHistogram processingTimes = new BucketHistogram(PROCESSING_TIME_BOUNDS_MICROS);
+
+   private volatile UdpKernelStats kernelStats;
+   private volatile long kernelStatsReadAt;
+
+   private ObjectName objectName;
+
+   UdpServiceMetrics(UdpService service, long kernelStatsRefreshMillis) {
+      this.service = service;
+      this.kernelStatsRefreshMillis = kernelStatsRefreshMillis;
+   }
+
+   void register() {
+      try {
+         objectName = new ObjectName(
+               "us.dot.its.jpo.ode:type=UdpService,name=" + service.getName() + ",port=" + getPort());
+         ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+      } catch (JMException e) {
+         logger.warn("Unable to register {} metrics MBean", service.getName(), e);
+         objectName = null;
+      }
+   }
+
+   void unregister() {
+      if (null != objectName) {
+         try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+         } catch (JMException e) {
+            logger.debug("Unable to unregister {} metrics MBean", service.getName(), e);
+         }
+         objectName = null;
+      }
+   }
+
+   void received(int length) {
+      packetsReceived.increment();
+      bytesReceived.add(length);
+      payloadSizes.record(length);
+   }
+
+   void rateLimited() {
+      packetsRateLimited.increment();
+   }
+
+   void dispatched() {
+      packetsDispatched.increment();
+   }
+
+   /**
+    * A dispatched packet dropped before it was handled
+    */
+   void dropped() {
+      packetsDropped.increment();
+   }
+
+   void handled(long nanos, boolean failed) {
+      packetsHandled.increment();
+      if (failed) {
+         handlerErrors.increment();
+      }
+      processingNanos.add(nanos);
+      processingTimes.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+      long max;
+      while (nanos > (max = processingMaxNanos.get()) && !processingMaxNanos.compareAndSet(max, nanos)) {
+         // retry
+      }
+   }
+
+   private UdpKernelStats getKernelStats() {
+      long now = System.currentTimeMillis();
+      if (now - kernelStatsReadAt >= kernelStatsRefreshMillis) {
+         kernelStats = UdpKernelStats.read(getPort());
+         kernelStatsReadAt = now;
+      }
+      return kernelStats;
+   }
+
+   @Override
+   public int getPort() {
+      DatagramSocket socket = service.getSocket();
+      return null != socket ? socket.getLocalPort() : service.getHandler().getPort();
+   }
+
+   @Override
+   public long getPacketsReceived() {
+      return packetsReceived.sum();
+   }
+
+   @Override
+   public long getBytesReceived() {
+      return bytesReceived.sum();
+   }
+
+   @Override
+   public long getPacketsRateLimited() {
+      return packetsRateLimited.sum();
+   }
+
+   @Override
+   public long getPacketsDropped() {
+      return packetsDropped.sum();
+   }
+
+   @Override
+   public long getPacketsHandled() {
+      return packetsHandled.sum();
+   }
+
+   @Override
+   public long getHandlerErrors() {
+      return handlerErrors.sum();
+   }
+
+   /**
+    * @return packets of this service dispatched and not yet handled or
+    *         dropped
+    */
+   @Override
+   public long getQueueDepth() {
+      return Math.max(0, packetsDispatched.sum() - packetsHandled.sum() - packetsDropped.sum());
+   }
+
+   /**
+    * @return packets of all services in the shared ring buffer, -1 if the
+    *         ring buffer is disabled
+    */
+   @Override
+   public int getRingBufferOccupancy() {
+      PacketRingBuffer<UdpPacket> ringBuffer = service.getRuntime().getRingBuffer();
+      return null != ringBuffer ? ringBuffer.getOccupancy() : -1;
+   }
+
+   @Override
+   public long[] getPayloadSizeBounds() {
+      return payloadSizes.getBounds();
+   }
+
+   @Override
+   public long[] getPayloadSizeHistogram() {
+      return payloadSizes.getCounts();
+   }
+
+   @Override
+   public String getPayloadSizeSummary() {
+      return payloadSizes.summary();
+   }
+
+   @Override
+   public double getProcessingTimeMeanMicros() {
+      long handled = packetsHandled.sum();
+      return handled > 0 ? processingNanos.sum() / 1000.0 / handled : 0.0;
+   }
+
+   @Override
+   public long getProcessingTimeMaxMicros() {
+      return TimeUnit.NANOSECONDS.toMicros(processingMaxNanos.get());
+   }
+
+   @Override
+   public long[] getProcessingTimeBoundsMicros() {
+      return processingTimes.getBounds();
+   }
+
+   @Override
+   public long[] getProcessingTimeHistogram() {
+      return processingTimes.getCounts();
+   }
+
+   @Override
+   public String getProcessingTimeSummary() {
+      return processingTimes.summary();
+   }
+
+   @Override
+   public long getKernelDrops() {
+      UdpKernelStats stats = getKernelStats();
+      return null != stats ? stats.getDrops() : -1;
+   }
+
+   @Override
+   public long getKernelReceiveQueueBytes() {
+      UdpKernelStats stats = getKernelStats();
+      return null != stats ? stats.getReceiveQueueBytes() : -1;
+   }
+
+   /**
+    * @return the SO_RCVBUF size granted by the kernel, -1 if not bound
+    */
+   @Override
+   public int getSocketReceiveBufferSize() {
+      try {
+         DatagramSocket socket = service.getSocket();
+         return null != socket ? socket.getReceiveBufferSize() : -1;
+      } catch (SocketException e) {
+         return -1;
+      }
+   }
+
+   @Override
+   public int getSocketSendBufferSize() {
+      try {
+         DatagramSocket socket = service.getSocket();
+         return null != socket ? socket.getSendBufferSize() : -1;
+      } catch (SocketException e) {
+         return -1;
+      }
+   }
+}
@@ -0,0 +1,46 @@
+package us.dot.its.jpo.ode.udp;
+
+public interface UdpServiceMetricsMBean {
+
+   public int getPort();
+
+   public long getPacketsReceived();
+
+   public long getBytesReceived();
+
+   public long getPacketsRateLimited();
+
+   public long getPacketsDropped();
+
+   public long getPacketsHandled();
+
+   public long getHandlerErrors();
+
+   public long getQueueDepth();
+
+   public int getRingBufferOccupancy();
+
+   public long[] getPayloadSizeBounds();
+
+   public long[] getPayloadSizeHistogram();
+
+   public String getPayloadSizeSummary();
+
+   public double getProcessingTimeMeanMicros();
+
+   public long getProcessingTimeMaxMicros();
+
+   public long[] getProcessingTimeBoundsMicros();
+
+   public long[] getProcessingTimeHistogram();
+
+   public String getProcessingTimeSummary();
+
+   public long getKernelDrops();
+
+   public long getKernelReceiveQueueBytes();
+
+   public int getSocketReceiveBufferSize();
+
+   public int getSocketSendBufferSize();
+}
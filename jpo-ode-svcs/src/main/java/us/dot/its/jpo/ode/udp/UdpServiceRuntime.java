@@ -0,0 +1,168 @@
+package us.dot.its.jpo.ode.udp;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.udp.PacketRingBuffer.OverflowPolicy;
+import us.dot.its.jpo.ode.udp.PacketRingBuffer.WaitStrategy;
+import us.dot.its.jpo.ode.udp.controller.UdpServiceThreadFactory;
+
+/**
+ * Runs all UDP services of the ODE. Each registered {@link PacketHandler}
+ * gets a {@link UdpService} that binds its port and receives into pooled
+ * buffers; the received datagrams of all services go through one bounded
+ * {@link PacketRingBuffer} to a shared, fixed size worker pool that calls the
+ * handlers.
+ * <p>
+ * {@link #stop()} stops the receivers first, then lets the workers drain what
+ * is already queued before they exit.
+ */
+public class UdpServiceRuntime {
+
+   private static final Logger logger = LoggerFactory.getLogger(UdpServiceRuntime.class);
+
+   private static final long DRAIN_TIMEOUT_SECONDS = 10;
+
+   private final OdeProperties odeProperties;
+   private final List<UdpService> services = new ArrayList<>();
+   private PacketRingBuffer<UdpPacket> ringBuffer;
+   private ExecutorService workers;
+
+   private volatile boolean running = false;
+
+   public UdpServiceRuntime(OdeProperties odeProps) {
+      this.odeProperties = odeProps;
+
+      if (odeProps.isUdpRingBufferEnabled()) {
+         try {
+            ringBuffer = new PacketRingBuffer<>(odeProps.getUdpRingBufferSize(),
+                  WaitStrategy.valueOf(odeProps.getUdpRingBufferWaitStrategy()),
+                  OverflowPolicy.valueOf(odeProps.getUdpRingBufferOverflowPolicy()));
+            ringBuffer.setEvictionListener(packet -> packet.getService().drop(packet));
+         } catch (IllegalArgumentException | NullPointerException e) {
+            logger.error("Invalid UDP ring buffer configuration, handling packets on the receive threads", e);
+         }
+      }
+   }
+
+   /**
+    * Adds a handler. Handlers registered after {@link #start()} are started
+    * right away.
+    */
+   public synchronized UdpService register(PacketHandler handler) {
+      UdpService service = new UdpService(handler, this, odeProperties);
+      services.add(service);
+      if (running) {
+         start(service);
+      }
+      return service;
+   }
+
+   /**
+    * Starts the worker pool and all registered services.
+    */
+   public synchronized void start() {
+      if (running) {
+         return;
+      }
+      running = true;
+
+      if (null != ringBuffer) {
+         int workerCount = Math.max(1, odeProperties.getUdpPublisherThreads());
+         logger.debug("Starting {} UDP worker(s) on a {} slot ring buffer...", workerCount, ringBuffer.getCapacity());
+         workers = Executors.newFixedThreadPool(workerCount, new UdpServiceThreadFactory("UdpServiceWorker"));
+         for (int i = 0; i < workerCount; i++) {
+            workers.submit(this::work);
+         }
+         workers.shutdown();
+      }
+
+      for (UdpService service : services) {
+         start(service);
+      }
+   }
+
+   private void start(UdpService service) {
+      try {
+         service.start();
+      } catch (IOException e) {
+         logger.error("Error starting " + service.getName() + " on port " + service.getHandler().getPort(), e);
+      }
+   }
+
+   /**
+    * Stops all services, then waits for the workers to drain the datagrams
+    * already received.
+    */
+   public synchronized void stop() {
+      if (!running) {
+         return;
+      }
+      running = false;
+
+      for (UdpService service : services) {
+         service.stop();
+      }
+
+      if (null != ringBuffer) {
+         ringBuffer.close();
+         try {
+            if (!workers.awaitTermination(DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+               logger.warn("UDP workers did not drain {} queued packet(s) in time", ringBuffer.getOccupancy());
+               workers.shutdownNow();
+            }
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+         logger.info("UDP ring buffer published: {}, dropped oldest: {}, dropped newest: {}, peak occupancy: {}",
+               ringBuffer.getPublishedCount(), ringBuffer.getDroppedOldestCount(), ringBuffer.getDroppedNewestCount(),
+               ringBuffer.getPeakOccupancy());
+      }
+
+      for (UdpService service : services) {
+         service.getHandler().onStop();
+      }
+   }
+
+   /**
+    * Queues a received packet for the workers, or handles it on the calling
+    * thread when the ring buffer is disabled.
+    */
+   void dispatch(UdpPacket packet) {
+      if (null == ringBuffer) {
+         packet.getService().handle(packet);
+      } else if (!ringBuffer.publish(packet)) {
+         logger.debug("UDP ring buffer full, dropped packet from {}", packet.getSender());
+         packet.getService().drop(packet);
+      }
+   }
+
+   private void work() {
+      UdpPacket packet;
+      while (null != (packet = ringBuffer.take())) {
+         packet.getService().handle(packet);
+      }
+      logger.debug("UDP worker stopped.");
+   }
+
+   public boolean isRunning() {
+      return running;
+   }
+
+   public List<UdpService> getServices() {
+      return Collections.unmodifiableList(services);
+   }
+
+   public PacketRingBuffer<UdpPacket> getRingBuffer() {
+      return ringBuffer;
+   }
+}
@@ -0,0 +1,327 @@
+package us.dot.its.jpo.ode.udp;
+
+/**
+ * Byte level decoder for IEEE 1609.3 WAVE Short Message Protocol (WSMP)
+ * headers. Locates the J2735 MessageFrame inside a received datagram without
+ * copying or converting the packet.
+ * <p>
+ * Both the 1609.3-2016 (version 3) and 1609.3-2010 (version 2) header formats
+ * are understood. Datagrams that carry no recognizable WSMP header, such as
+ * raw MessageFrames or vendor specific forwarding headers, are scanned for the
+ * MessageFrame start flag instead.
+ * <p>
+ * Instances hold the result of the last {@link #decode(byte[], int, int)} and
+ * are reused from one packet to the next, so they are not thread safe. Use one
+ * instance per receiving thread. Header fields are read through the primitive
+ * getters, {@link #UNKNOWN} when the header did not carry them, so decoding a
+ * packet allocates nothing.
+ */
+public class WsmpDecoder {
+
+   public static final int UNKNOWN = -1;
+
+   // MessageFrame messageId bytes that indicate start of the J2735 payload
+   private static final byte MSG_FRAME_START_0 = 0x00;
+   private static final byte MSG_FRAME_START_1 = 0x14;
+
+   // Non-WSMP headers are at least 10 bytes long
+   private static final int HEADER_MINIMUM_SIZE = 10;
+
+   private static final int WSMP_VERSION_2 = 2;
+   private static final int WSMP_VERSION_3 = 3;
+
+   // WAVE element IDs
+   private static final int ELEMENT_ID_TX_POWER = 4;
+   private static final int ELEMENT_ID_CHANNEL = 15;
+   private static final int ELEMENT_ID_DATA_RATE = 16;
+   private static final int ELEMENT_ID_WSM = 128;
+
+   private int payloadOffset;
+   private int payloadLength;
+   private boolean headerPresent;
+   private int wsmpVersion;
+   private long psid;
+   private int channel;
+   private int dataRate;
+   private int txPower;
+
+   // read position while decoding
+   private int pos;
+   private int end;
+
+   /**
+    * Decodes the WSMP header, if any, of the given datagram and locates the
+    * MessageFrame.
+    *
+    * @param packet
+    *           receive buffer
+    * @param offset
+    *           start of the datagram in the buffer
+    * @param length
+    *           length of the datagram
+    * @return true if the MessageFrame start flag was found, false if the
+    *         payload view was set to the whole WSM data or datagram
+    */
+   public boolean decode(byte[] packet, int offset, int length) {
+      reset();
+      if (length <= 0) {
+         payloadOffset = offset;
+         return false;
+      }
+
+      int dataStart = offset;
+      int dataEnd = offset + length;
+
+      if (!startsWithMessageFrame(packet, offset, dataEnd)) {
+         end = dataEnd;
+         pos = offset;
+         int version = packet[offset] & 0x07;
+         if ((version == WSMP_VERSION_3 && decodeVersion3(packet))
+               || (packet[offset] == WSMP_VERSION_2 && decodeVersion2(packet))) {
+            headerPresent = true;
+            dataStart = payloadOffset;
+            dataEnd = payloadOffset + payloadLength;
+         } else {
+            reset();
+            dataStart = offset + HEADER_MINIMUM_SIZE;
+         }
+      }
+
+      int start = findMessageFrame(packet, dataStart, dataEnd);
+      if (start < 0) {
+         if (!headerPresent) {
+            payloadOffset = offset;
+            payloadLength = length;
+         }
+         return false;
+      }
+
+      payloadOffset = start;
+      payloadLength = dataEnd - start;
+      return true;
+   }
+
+   private void reset() {
+      payloadOffset = 0;
+      payloadLength = 0;
+      headerPresent = false;
+      wsmpVersion = UNKNOWN;
+      psid = UNKNOWN;
+      channel = UNKNOWN;
+      dataRate = UNKNOWN;
+      txPower = UNKNOWN;
+   }
+
+   /*
+    * 1609.3-2016: N-Header [subtype|option|version] [extensions] [TPID]
+    *              T-Header [PSID] [extensions] [WSM length]
+    */
+   private boolean decodeVersion3(byte[] packet) {
+      int first = readByte(packet);
+      boolean extensions = (first & 0x08) != 0;
+      if (extensions && !readExtensions(packet)) {
+         return false;
+      }
+
+      int tpid = readByte(packet);
+      if (tpid != 0 && tpid != 1) {
+         // LSI and port addressing are not used by the RSUs feeding the ODE
+         return false;
+      }
+
+      psid = readPsid(packet);
+      if (psid < 0) {
+         return false;
+      }
+
+      if (tpid == 1 && !readExtensions(packet)) {
+         return false;
+      }
+
+      int wsmLength = readCount(packet);
+      if (wsmLength < 0 || pos + wsmLength > end) {
+         return false;
+      }
+
+      wsmpVersion = WSMP_VERSION_3;
+      payloadOffset = pos;
+      payloadLength = wsmLength;
+      return true;
+   }
+
+   /*
+    * 1609.3-2010: [version] [PSID] [elementId length value]* [WSM element ID]
+    *              [2 byte WSM length]
+    */
+   private boolean decodeVersion2(byte[] packet) {
+      pos++;
+      psid = readPsid(packet);
+      if (psid < 0) {
+         return false;
+      }
+
+      while (pos < end && (packet[pos] & 0xFF) != ELEMENT_ID_WSM) {
+         int id = readByte(packet);
+         int len = readByte(packet);
+         if (len < 0 || !readElement(packet, id, len)) {
+            return false;
+         }
+      }
+
+      if (readByte(packet) != ELEMENT_ID_WSM || pos + 2 > end) {
+         return false;
+      }
+      int wsmLength = ((packet[pos] & 0xFF) << 8) | (packet[pos + 1] & 0xFF);
+      pos += 2;
+      if (pos + wsmLength > end) {
+         return false;
+      }
+
+      wsmpVersion = WSMP_VERSION_2;
+      payloadOffset = pos;
+      payloadLength = wsmLength;
+      return true;
+   }
+
+   private boolean readExtensions(byte[] packet) {
+      int count = readCount(packet);
+      if (count < 0) {
+         return false;
+      }
+      for (int i = 0; i < count; i++) {
+         int id = readByte(packet);
+         int len = readCount(packet);
+         if (id < 0 || len < 0 || !readElement(packet, id, len)) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private boolean readElement(byte[] packet, int id, int len) {
+      if (pos + len > end) {
+         return false;
+      }
+      if (len == 1) {
+         int value = packet[pos] & 0xFF;
+         if (id == ELEMENT_ID_CHANNEL) {
+            channel = value;
+         } else if (id == ELEMENT_ID_DATA_RATE) {
+            dataRate = value;
+         } else if (id == ELEMENT_ID_TX_POWER) {
+            txPower = value;
+         }
+      }
+      pos += len;
+      return true;
+   }
+
+   private int readByte(byte[] packet) {
+      if (pos >= end) {
+         return -1;
+      }
+      return packet[pos++] & 0xFF;
+   }
+
+   /*
+    * 1609.3 Count encoding: 0xxxxxxx for 0..127, 10xxxxxx xxxxxxxx for
+    * 128..16383
+    */
+   private int readCount(byte[] packet) {
+      int first = readByte(packet);
+      if (first < 0x80) {
+         return first;
+      }
+      if ((first & 0xC0) != 0x80) {
+         return -1;
+      }
+      int second = readByte(packet);
+      if (second < 0) {
+         return -1;
+      }
+      return ((first & 0x3F) << 8) | second;
+   }
+
+   /*
+    * 1609.12 p-encoded PSID, 1 to 4 bytes
+    */
+   private long readPsid(byte[] packet) {
+      int first = readByte(packet);
+      if (first < 0x80) {
+         return first;
+      }
+
+      int extraBytes;
+      long value;
+      long base;
+      if ((first & 0xC0) == 0x80) {
+         extraBytes = 1;
+         value = first & 0x3F;
+         base = 0x80L;
+      } else if ((first & 0xE0) == 0xC0) {
+         extraBytes = 2;
+         value = first & 0x1F;
+         base = 0x4080L;
+      } else if ((first & 0xF0) == 0xE0) {
+         extraBytes = 3;
+         value = first & 0x0F;
+         base = 0x204080L;
+      } else {
+         return -1;
+      }
+
+      for (int i = 0; i < extraBytes; i++) {
+         int next = readByte(packet);
+         if (next < 0) {
+            return -1;
+         }
+         value = (value << 8) | next;
+      }
+      return value + base;
+   }
+
+   private static boolean startsWithMessageFrame(byte[] packet, int from, int to) {
+      return from + 1 < to && packet[from] == MSG_FRAME_START_0 && packet[from + 1] == MSG_FRAME_START_1;
+   }
+
+   private static int findMessageFrame(byte[] packet, int from, int to) {
+      for (int i = from; i + 1 < to; i++) {
+         if (packet[i] == MSG_FRAME_START_0 && packet[i + 1] == MSG_FRAME_START_1) {
+            return i;
+         }
+      }
+      return -1;
+   }
+
+   public int getPayloadOffset() {
+      return payloadOffset;
+   }
+
+   public int getPayloadLength() {
+      return payloadLength;
+   }
+
+   public boolean isHeaderPresent() {
+      return headerPresent;
+   }
+
+   public int getWsmpVersion() {
+      return wsmpVersion;
+   }
+
+   public long getPsid() {
+      return psid;
+   }
+
+   public int getChannel() {
+      return channel;
+   }
+
+   public int getDataRate() {
+      return dataRate;
+   }
+
+   public int getTxPower() {
+      return txPower;
+   }
+}
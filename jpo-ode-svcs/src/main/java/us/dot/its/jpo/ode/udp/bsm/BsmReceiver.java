@@ -1,6 +1,6 @@
 package us.dot.its.jpo.ode.udp.bsm;
 
-import java.net.DatagramPacket;
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.tomcat.util.buf.HexUtils;
@@ -13,15 +13,15 @@ import us.dot.its.jpo.ode.coder.StringPublisher;
 import us.dot.its.jpo.ode.coder.stream.LogFileToAsn1CodecPublisher;
 import us.dot.its.jpo.ode.model.SerialId;
 import us.dot.its.jpo.ode.udp.AbstractUdpReceiverPublisher;
+import us.dot.its.jpo.ode.udp.UdpPacket;
+import us.dot.its.jpo.ode.udp.WsmpDecoder;
 
 public class BsmReceiver extends AbstractUdpReceiverPublisher {
 
    private static Logger logger = LoggerFactory.getLogger(BsmReceiver.class);
 
-   private static final String BSM_START_FLAG = "0014"; // these bytes indicate
-                                                        // start of BSM payload
-   private static final int HEADER_MINIMUM_SIZE = 20; // WSMP headers are at
-                                                      // least 20 bytes long
+   // one reusable header decoder per UDP worker thread
+   private static final ThreadLocal<WsmpDecoder> wsmpDecoder = ThreadLocal.withInitial(WsmpDecoder::new);
 
 //ODE-581   private OssJ2735Coder j2735coder;
 
@@ -35,6 +35,8 @@ public class BsmReceiver extends AbstractUdpReceiverPublisher {
    @Autowired
    public BsmReceiver(OdeProperties odeProps) {
       this(odeProps, odeProps.getBsmReceiverPort(), odeProps.getBsmBufferSize());
+      setRateLimit(odeProps.getBsmRateLimitPerSecond(), odeProps.getBsmRateLimitBurst());
+      setSocketBufferSizes(odeProps.getBsmSocketReceiveBufferSize(), odeProps.getBsmSocketSendBufferSize());
    }
 
    public BsmReceiver(OdeProperties odeProps, int port, int bufferSize) {
@@ -49,78 +51,59 @@ public class BsmReceiver extends AbstractUdpReceiverPublisher {
    }
 
    @Override
-   public void run() {
-
-      logger.debug("UDP Receiver Service started.");
-
-      byte[] buffer = new byte[bufferSize];
-
-      DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
-
-      do {
-         try {
-            logger.debug("Waiting for UDP packets...");
-            socket.receive(packet);
-            if (packet.getLength() > 0) {
-               senderIp = packet.getAddress().getHostAddress();
-               senderPort = packet.getPort();
-               logger.debug("Packet received from {}:{}", senderIp, senderPort);
-
-               // extract the actualPacket from the buffer
-               byte[] payload = removeHeader(packet.getData());
-               String payloadHexString = HexUtils.toHexString(payload);
-               logger.debug("Packet: {}", payloadHexString);
-
-               //ODE-581 removed decoding and replaced with sending the ASN encoding to asn1_codec
-//               // try decoding as a message frame
-//               J2735Bsm decodedBsm = null;
-//               J2735MessageFrame decodedMf = (J2735MessageFrame) j2735coder.decodeUPERMessageFrameBytes(payload);
-//               if (decodedMf != null) {
-//                  decodedBsm = decodedMf.getValue();
-//               } else {
-//                  // if that failed, try decoding as a bsm
-//                  decodedBsm = (J2735Bsm) j2735coder.decodeUPERBsmBytes(payload);
-//               }
+   public void handle(UdpPacket packet) throws Exception {
+
+      //ODE-581 removed decoding and replaced with sending the ASN encoding to asn1_codec
+//      // try decoding as a message frame
+//      J2735Bsm decodedBsm = null;
+//      J2735MessageFrame decodedMf = (J2735MessageFrame) j2735coder.decodeUPERMessageFrameBytes(payload);
+//      if (decodedMf != null) {
+//         decodedBsm = decodedMf.getValue();
+//      } else {
+//         // if that failed, try decoding as a bsm
+//         decodedBsm = (J2735Bsm) j2735coder.decodeUPERBsmBytes(payload);
+//      }
 //
-//               // if that failed, throw an io exception
-//               if (decodedBsm == null) {
-//                  throw new IOException("Failed to decode message received via UDP.");
-//               }
-
-               codecPublisher.publish(payload);
-            }
-         } catch (Exception e) {
-            logger.error("Error receiving packet", e);
-         }
-      } while (!isStopped());
+//      // if that failed, throw an io exception
+//      if (decodedBsm == null) {
+//         throw new IOException("Failed to decode message received via UDP.");
+//      }
+
+      publish(packet.getBuffer(), 0, packet.getLength(), packet.getSenderIp());
    }
 
    /**
-    * Attempts to strip WSMP header bytes. If message starts with "0014",
-    * message is raw BSM. Otherwise, headers are >= 20 bytes, so look past that
-    * for start of payload BSM.
+    * Strips the WSMP header, if any, and returns a copy of the MessageFrame
+    * bytes.
     * 
     * @param packet
     */
    public byte[] removeHeader(byte[] packet) {
-      String hexPacket = HexUtils.toHexString(packet);
-
-      // logger.debug("BSM packet length: {}, start index: {}",
-      // hexPacket.length(), startIndex);
+      WsmpDecoder wsmp = wsmpDecoder.get();
+      decodeHeader(wsmp, packet, 0, packet.length);
+      return Arrays.copyOfRange(packet, wsmp.getPayloadOffset(),
+            wsmp.getPayloadOffset() + wsmp.getPayloadLength());
+   }
 
-      int startIndex = hexPacket.indexOf(BSM_START_FLAG);
-      if (startIndex == 0) {
-         logger.info("Message is raw BSM with no headers.");
-      } else if (startIndex == -1) {
+   private void decodeHeader(WsmpDecoder wsmp, byte[] packet, int offset, int length) {
+      if (!wsmp.decode(packet, offset, length)) {
          logger.error("Message contains no BSM start flag.");
-      } else {
-         // We likely found a message with a header, look past the first 20
-         // bytes for the start of the BSM
-         int trueStartIndex = HEADER_MINIMUM_SIZE
-               + hexPacket.substring(HEADER_MINIMUM_SIZE, hexPacket.length()).indexOf(BSM_START_FLAG);
-         hexPacket = hexPacket.substring(trueStartIndex, hexPacket.length());
+      } else if (!wsmp.isHeaderPresent() && wsmp.getPayloadOffset() == offset) {
+         logger.debug("Message is raw BSM with no headers.");
+      }
+   }
+
+   private void publish(byte[] packet, int offset, int length, String senderIp) throws Exception {
+      WsmpDecoder wsmp = wsmpDecoder.get();
+      decodeHeader(wsmp, packet, offset, length);
+
+      // extract the actual payload from the buffer
+      byte[] payload = Arrays.copyOfRange(packet, wsmp.getPayloadOffset(),
+            wsmp.getPayloadOffset() + wsmp.getPayloadLength());
+      if (logger.isDebugEnabled()) {
+         logger.debug("Packet: {}", HexUtils.toHexString(payload));
       }
 
-      return HexUtils.fromHexString(hexPacket);
+      codecPublisher.publish(payload, wsmp, senderIp);
    }
-}
\ No newline at end of file
+}
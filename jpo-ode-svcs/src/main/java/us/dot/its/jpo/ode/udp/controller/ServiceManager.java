@@ -1,10 +1,8 @@
 package us.dot.its.jpo.ode.udp.controller;
 
-import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
 
 import us.dot.its.jpo.ode.dds.AbstractSubscriberDepositor;
-import us.dot.its.jpo.ode.udp.AbstractUdpReceiverPublisher;
 
 public class ServiceManager implements UdpManager{
 
@@ -14,11 +12,11 @@ public class ServiceManager implements UdpManager{
       this.threadFactory = tf;
    }
 
-   public void submit(AbstractUdpReceiverPublisher rec) {
-      Executors.newSingleThreadExecutor(threadFactory).submit(rec);
-   }
-   
    public void submit(AbstractSubscriberDepositor dep, String... topics) {
       dep.start(topics);
    }
+
+   public ThreadFactory getThreadFactory() {
+      return threadFactory;
+   }
 }
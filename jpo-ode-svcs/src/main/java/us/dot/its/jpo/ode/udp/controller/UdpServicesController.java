@@ -1,11 +1,14 @@
 package us.dot.its.jpo.ode.udp.controller;
 
+import javax.annotation.PreDestroy;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 
 import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.udp.UdpServiceRuntime;
 import us.dot.its.jpo.ode.udp.bsm.BsmReceiver;
 import us.dot.its.jpo.ode.udp.isd.IsdDepositor;
 import us.dot.its.jpo.ode.udp.isd.IsdReceiver;
@@ -21,20 +24,24 @@ public class UdpServicesController {
 
    private Logger logger = LoggerFactory.getLogger(UdpServicesController.class);
 
+   private UdpServiceRuntime udpServiceRuntime;
+
    @Autowired
    public UdpServicesController(OdeProperties odeProps) {
       super();
 
       // Start the UDP receivers
-      ServiceManager rm = new ServiceManager(new UdpServiceThreadFactory("UdpReceiverManager"));
+      udpServiceRuntime = new UdpServiceRuntime(odeProps);
 
       logger.debug("Starting UDP receiver services...");
-      rm.submit(new BsmReceiver(odeProps));
-      rm.submit(new IsdReceiver(odeProps));
-      rm.submit(new VsdReceiver(odeProps));
+      udpServiceRuntime.register(new BsmReceiver(odeProps));
+      udpServiceRuntime.register(new IsdReceiver(odeProps));
+      udpServiceRuntime.register(new VsdReceiver(odeProps));
+      udpServiceRuntime.start();
       logger.debug("UDP receiver services started.");
 
       logger.debug("Starting UDP depositor services...");
+      ServiceManager rm = new ServiceManager(new UdpServiceThreadFactory("UdpReceiverManager"));
       rm.submit(new IsdDepositor(odeProps), odeProps.getKafkaTopicIsdPojo());
       if (odeProps.getDepositSanitizedBsmToSdc()) {
          rm.submit(new VsdDepositor(odeProps), odeProps.getKafkaTopicVsdPojo());
@@ -43,4 +50,14 @@ public class UdpServicesController {
       }
       logger.debug("UDP depositor services started.");
    }
+
+   @PreDestroy
+   public void stop() {
+      logger.debug("Stopping UDP receiver services...");
+      udpServiceRuntime.stop();
+   }
+
+   public UdpServiceRuntime getUdpServiceRuntime() {
+      return udpServiceRuntime;
+   }
 }
@@ -27,6 +27,7 @@ import us.dot.its.jpo.ode.j2735.semi.IntersectionSituationData;
 import us.dot.its.jpo.ode.j2735.semi.IntersectionSituationDataAcceptance;
 import us.dot.its.jpo.ode.j2735.semi.SemiDialogID;
 import us.dot.its.jpo.ode.j2735.semi.SemiSequenceID;
+import us.dot.its.jpo.ode.udp.RawSemiMessage;
 import us.dot.its.jpo.ode.wrapper.serdes.IntersectionSituationDataDeserializer;
 
 public class IsdDepositor extends AbstractSubscriberDepositor {
@@ -105,12 +106,20 @@ public class IsdDepositor extends AbstractSubscriberDepositor {
 
    @Override
    public TemporaryID getRequestId(byte[] serializedMsg) {
+      if (RawSemiMessage.isRaw(serializedMsg)) {
+         return new TemporaryID(RawSemiMessage.getRequestId(serializedMsg));
+      }
       IntersectionSituationData msg = deserializer.deserialize(null, serializedMsg);
       return msg.getRequestID();
    }
    
    @Override
    public byte[] encodeMessage(byte[] serializedMsg) {
+      // published in pass-through mode, already UPER encoded
+      if (RawSemiMessage.isRaw(serializedMsg)) {
+         return RawSemiMessage.getPayload(serializedMsg);
+      }
+
       IntersectionSituationData msg = deserializer.deserialize(null, serializedMsg);
       
       byte[] encodedMsg = null;
@@ -1,8 +1,7 @@
 package us.dot.its.jpo.ode.udp.isd;
 
-import java.io.IOException;
-import java.net.DatagramPacket;
-import java.util.Arrays;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
 
 import org.apache.tomcat.util.buf.HexUtils;
 import org.slf4j.Logger;
@@ -13,11 +12,14 @@ import com.oss.asn1.AbstractData;
 
 import us.dot.its.jpo.ode.OdeProperties;
 import us.dot.its.jpo.ode.coder.ByteArrayPublisher;
-import us.dot.its.jpo.ode.j2735.semi.ConnectionPoint;
+import us.dot.its.jpo.ode.j2735.dsrc.TemporaryID;
 import us.dot.its.jpo.ode.j2735.semi.IntersectionSituationData;
 import us.dot.its.jpo.ode.j2735.semi.ServiceRequest;
 import us.dot.its.jpo.ode.udp.AbstractUdpReceiverPublisher;
-import us.dot.its.jpo.ode.udp.UdpUtil;
+import us.dot.its.jpo.ode.udp.RawSemiMessage;
+import us.dot.its.jpo.ode.udp.SemiMessageType;
+import us.dot.its.jpo.ode.udp.UdpPacket;
+import us.dot.its.jpo.ode.udp.trust.SemiDialogManager;
 import us.dot.its.jpo.ode.wrapper.serdes.IntersectionSituationDataSerializer;
 
 public class IsdReceiver extends AbstractUdpReceiverPublisher {
@@ -25,72 +27,66 @@ public class IsdReceiver extends AbstractUdpReceiverPublisher {
    private static Logger logger = LoggerFactory.getLogger(IsdReceiver.class);
    protected ByteArrayPublisher publisher;
    private IntersectionSituationDataSerializer serializer;
+   private SemiDialogManager dialogManager;
+   private boolean passThrough;
 
    @Autowired
    public IsdReceiver(OdeProperties odeProps) {
       super(odeProps, odeProps.getIsdReceiverPort(), odeProps.getIsdBufferSize());
       this.publisher = new ByteArrayPublisher(odeProps);
       this.serializer = new IntersectionSituationDataSerializer();
+      this.dialogManager = new SemiDialogManager(IsdReceiver.class.getSimpleName(), odeProps);
+      this.passThrough = odeProps.isIsdPassThroughEnabled();
+      setRateLimit(odeProps.getIsdRateLimitPerSecond(), odeProps.getIsdRateLimitBurst());
+      setSocketBufferSizes(odeProps.getIsdSocketReceiveBufferSize(), odeProps.getIsdSocketSendBufferSize());
    }
 
    @Override
-   public void run() {
-
-      logger.debug("Starting {}...", this.getClass().getSimpleName());
-
-      byte[] buffer = new byte[odeProperties.getIsdBufferSize()];
+   public void onStart(DatagramSocket socket) {
+      super.onStart(socket);
+      dialogManager.start(socket);
+   }
 
-      DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+   @Override
+   public void onStop() {
+      dialogManager.stop();
+   }
 
-      while (!isStopped()) {
-         getPacket(packet);
+   @Override
+   public void handle(UdpPacket packet) throws UdpReceiverException {
+      if (passThrough && SemiMessageType.INTERSECTION_SITUATION_DATA == SemiMessageType.classify(packet.getBuffer(),
+            0, packet.getLength())) {
+         publishRaw(packet.getBuffer(), packet.getLength());
+      } else {
+         processPacket(packet.getPayload(), packet.getSenderIp(), packet.getSenderPort());
       }
-
    }
 
-   public void getPacket(DatagramPacket packet) {
-      try {
-         logger.debug("Listening on port: {}", port);
-         socket.receive(packet);
-         if (packet.getLength() > 0) {
-            senderIp = packet.getAddress().getHostAddress();
-            senderPort = packet.getPort();
-            logger.debug("Packet received from {}:{}", senderIp, senderPort);
-
-            // extract the actual packet from the buffer
-            processPacket(Arrays.copyOf(packet.getData(), packet.getLength()));
-         }
-      } catch (IOException | UdpReceiverException e) {
-         logger.error("Error receiving packet", e);
+   /**
+    * Publishes an ISD as received, prefixed with a {@link RawSemiMessage}
+    * header, leaving decoding to the consumers that need its fields.
+    */
+   public void publishRaw(byte[] data, int length) {
+      byte[] record = RawSemiMessage.wrap(SemiMessageType.INTERSECTION_SITUATION_DATA, data, 0, length);
+      if (logger.isDebugEnabled()) {
+         logger.debug("Received ISD: {}", HexUtils.toHexString(RawSemiMessage.getPayload(record)));
       }
+      dialogManager.onData(new TemporaryID(RawSemiMessage.getRequestId(record)));
+      publisher.publish(record, odeProperties.getKafkaTopicIsdPojo());
    }
 
-   public void processPacket(byte[] data) throws UdpReceiverException {
+   public void processPacket(byte[] data, String replyIp, int replyPort) throws UdpReceiverException {
       AbstractData decoded = super.decodeData(data);
       try {
          if (decoded instanceof ServiceRequest) {
 
             String hexMsg = HexUtils.toHexString(data);
             logger.debug("Received ServiceRequest: {}", hexMsg);
-
-            if (null != ((ServiceRequest) decoded).getDestination()) {
-               ConnectionPoint cp = ((ServiceRequest) decoded).getDestination();
-
-               // Change return address, if specified
-               if (null != cp.getAddress()) {
-                  senderIp = ((ServiceRequest) decoded).getDestination().getAddress().toString();
-               }
-
-               // Change return port, if specified
-               if (null != cp.getPort()) {
-                  senderPort = ((ServiceRequest) decoded).getDestination().getPort().intValue();
-               }
-               logger.debug("ServiceResponse destination overriden: {}:{}", senderIp, senderPort);
-            }
-            UdpUtil.send(socket, decoded, senderIp, senderPort);
+            dialogManager.onServiceRequest((ServiceRequest) decoded, new InetSocketAddress(replyIp, replyPort));
          } else if (decoded instanceof IntersectionSituationData) {
             String hexMsg = HexUtils.toHexString(data);
             logger.debug("Received ISD: {}", hexMsg);
+            dialogManager.onData(((IntersectionSituationData) decoded).getRequestID());
             publisher.publish(serializer.serialize(null, (IntersectionSituationData) decoded), odeProperties.getKafkaTopicIsdPojo());
          } else {
             String hexMsg = HexUtils.toHexString(data);
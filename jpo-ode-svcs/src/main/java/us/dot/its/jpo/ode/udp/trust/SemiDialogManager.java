@@ -0,0 +1,389 @@
+package us.dot.its.jpo.ode.udp.trust;
+
+import java.lang.management.ManagementFactory;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.tomcat.util.buf.HexUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.oss.asn1.EncodeFailedException;
+import com.oss.asn1.EncodeNotSupportedException;
+
+import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.j2735.J2735;
+import us.dot.its.jpo.ode.j2735.dsrc.TemporaryID;
+import us.dot.its.jpo.ode.j2735.semi.ConnectionPoint;
+import us.dot.its.jpo.ode.j2735.semi.IpAddress;
+import us.dot.its.jpo.ode.j2735.semi.ServiceRequest;
+import us.dot.its.jpo.ode.udp.UdpUtil;
+import us.dot.its.jpo.ode.udp.UdpUtil.UdpUtilException;
+import us.dot.its.jpo.ode.udp.controller.UdpServiceThreadFactory;
+
+/**
+ * SEMI Dialog Manager
+ * <p>
+ * Answers the ServiceRequests received by a UDP service without blocking the
+ * threads that receive its data. Each request opens a dialog, kept in a table
+ * keyed by requestID until the expiration promised in its ServiceResponse
+ * (serviceRespExpirationSeconds) has passed. Requests are queued and answered
+ * by a single responder thread through one long-lived reply socket; a
+ * retransmitted request for a live dialog is answered with the response
+ * already encoded for it.
+ * </p>
+ */
+public class SemiDialogManager implements SemiDialogManagerMBean {
+
+   private static final Logger logger = LoggerFactory.getLogger(SemiDialogManager.class);
+
+   private static final int MAX_PENDING_RESPONSES = 1024;
+   private static final long SWEEP_INTERVAL_MILLIS = 1000;
+
+   /**
+    * One ServiceRequest/ServiceResponse handshake and the data that follows
+    * it.
+    */
+   static class Dialog {
+      private final ServiceRequest request;
+      private final long expiresAt;
+      private volatile InetSocketAddress replyTo;
+      private volatile byte[] encodedResponse;
+
+      Dialog(ServiceRequest request, InetSocketAddress replyTo, long expiresAt) {
+         this.request = request;
+         this.replyTo = replyTo;
+         this.expiresAt = expiresAt;
+      }
+
+      boolean isExpired(long now) {
+         return now >= expiresAt;
+      }
+
+      ServiceRequest getRequest() {
+         return request;
+      }
+
+      InetSocketAddress getReplyTo() {
+         return replyTo;
+      }
+   }
+
+   private final String name;
+   private final OdeProperties odeProperties;
+   private final ConcurrentHashMap<TemporaryID, Dialog> dialogs = new ConcurrentHashMap<>();
+   private final BlockingQueue<Dialog> pendingResponses = new ArrayBlockingQueue<>(MAX_PENDING_RESPONSES);
+
+   private final LongAdder requestCount = new LongAdder();
+   private final LongAdder handshakeCount = new LongAdder();
+   private final LongAdder retransmitCount = new LongAdder();
+   private final LongAdder expiredCount = new LongAdder();
+   private final LongAdder droppedCount = new LongAdder();
+   private final LongAdder sendFailureCount = new LongAdder();
+   private final LongAdder dataCount = new LongAdder();
+   private final LongAdder dataWithoutDialogCount = new LongAdder();
+
+   private volatile double handshakesPerSecond;
+   private long lastSweepTime;
+   private long lastHandshakeCount;
+
+   private DatagramSocket replySocket;
+   private ExecutorService responder;
+   private ObjectName objectName;
+   private volatile boolean stopped = true;
+
+   /**
+    * @param name
+    *           name of the UDP service, used for the responder thread and
+    *           the MBean
+    * @param odeProps
+    */
+   public SemiDialogManager(String name, OdeProperties odeProps) {
+      this.name = name;
+      this.odeProperties = odeProps;
+   }
+
+   /**
+    * Starts answering queued requests and registers the metrics MBean.
+    *
+    * @param socket
+    *           long-lived socket the responses are sent from
+    */
+   public synchronized void start(DatagramSocket socket) {
+      if (!stopped) {
+         return;
+      }
+      this.replySocket = socket;
+      this.stopped = false;
+      this.lastSweepTime = System.currentTimeMillis();
+
+      responder = Executors.newSingleThreadExecutor(new UdpServiceThreadFactory(name + "Dialogs"));
+      responder.submit(this::respond);
+      responder.shutdown();
+
+      try {
+         objectName = new ObjectName("us.dot.its.jpo.ode:type=SemiDialogManager,name=" + name);
+         ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+      } catch (JMException e) {
+         logger.warn("Unable to register {} dialog manager MBean", name, e);
+         objectName = null;
+      }
+   }
+
+   /**
+    * Stops the responder thread. Responses still queued are discarded.
+    */
+   public synchronized void stop() {
+      if (stopped) {
+         return;
+      }
+      stopped = true;
+      if (null != responder) {
+         responder.shutdownNow();
+         try {
+            responder.awaitTermination(5, TimeUnit.SECONDS);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+      }
+      if (null != objectName) {
+         try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+         } catch (JMException e) {
+            logger.debug("Unable to unregister {} dialog manager MBean", name, e);
+         }
+      }
+      logger.info("{} dialogs stopped, handshakes: {}, retransmits: {}, dropped: {}", name, getHandshakeCount(),
+            getRetransmitCount(), getDroppedCount());
+   }
+
+   /**
+    * Opens or refreshes the dialog of a ServiceRequest and queues its
+    * response. Never blocks.
+    *
+    * @param request
+    *           the decoded request
+    * @param sender
+    *           where the request came from, used unless the request names a
+    *           destination
+    * @return false if the request was dropped
+    */
+   public boolean onServiceRequest(ServiceRequest request, InetSocketAddress sender) {
+      requestCount.increment();
+      TemporaryID requestId = request.getRequestID();
+      if (null == requestId) {
+         logger.error("Dropping ServiceRequest without a requestID");
+         droppedCount.increment();
+         return false;
+      }
+
+      InetSocketAddress replyTo = getReplyAddress(request, sender);
+      long now = System.currentTimeMillis();
+      long expiresAt = now + TimeUnit.SECONDS.toMillis(odeProperties.getServiceRespExpirationSeconds());
+
+      Dialog dialog = dialogs.compute(requestId, (id, existing) -> {
+         if (null == existing || existing.isExpired(now)) {
+            return new Dialog(request, replyTo, expiresAt);
+         }
+         retransmitCount.increment();
+         existing.replyTo = replyTo;
+         return existing;
+      });
+
+      if (stopped || !pendingResponses.offer(dialog)) {
+         logger.warn("{} dropped ServiceRequest {}, {} response(s) pending", name,
+               HexUtils.toHexString(requestId.byteArrayValue()), pendingResponses.size());
+         droppedCount.increment();
+         return false;
+      }
+      return true;
+   }
+
+   /**
+    * Records a data message of a dialog.
+    *
+    * @return true if the requestID belongs to a live dialog
+    */
+   public boolean onData(TemporaryID requestId) {
+      dataCount.increment();
+      Dialog dialog = null == requestId ? null : dialogs.get(requestId);
+      if (null == dialog || dialog.isExpired(System.currentTimeMillis())) {
+         dataWithoutDialogCount.increment();
+         return false;
+      }
+      return true;
+   }
+
+   public boolean isActive(TemporaryID requestId) {
+      Dialog dialog = dialogs.get(requestId);
+      return null != dialog && !dialog.isExpired(System.currentTimeMillis());
+   }
+
+   private void respond() {
+      while (!stopped) {
+         try {
+            Dialog dialog = pendingResponses.poll(SWEEP_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            if (null != dialog) {
+               send(dialog);
+            }
+            long now = System.currentTimeMillis();
+            if (now - lastSweepTime >= SWEEP_INTERVAL_MILLIS) {
+               sweep(now);
+            }
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            break;
+         } catch (Exception e) {
+            logger.error("Error answering ServiceRequest", e);
+         }
+      }
+      logger.debug("{} dialog responder stopped.", name);
+   }
+
+   void send(Dialog dialog) {
+      boolean firstResponse = null == dialog.encodedResponse;
+      try {
+         if (firstResponse) {
+            dialog.encodedResponse = encodeResponse(dialog.getRequest());
+         }
+         InetSocketAddress replyTo = dialog.getReplyTo();
+         UdpUtil.send(replySocket, dialog.encodedResponse, replyTo.getHostString(), replyTo.getPort());
+         if (firstResponse) {
+            handshakeCount.increment();
+         }
+         logger.debug("Sent ServiceResponse to {}", replyTo);
+      } catch (UdpUtilException | EncodeFailedException | EncodeNotSupportedException e) {
+         sendFailureCount.increment();
+         logger.error("Failed to send ServiceResponse", e);
+      }
+   }
+
+   byte[] encodeResponse(ServiceRequest request) throws EncodeFailedException, EncodeNotSupportedException {
+      return J2735.getPERUnalignedCoder()
+            .encode(UdpUtil.createServiceResponse(request, odeProperties.getServiceRespExpirationSeconds())).array();
+   }
+
+   /**
+    * Removes expired dialogs and updates the handshake rate.
+    */
+   void sweep(long now) {
+      dialogs.entrySet().removeIf(entry -> {
+         if (entry.getValue().isExpired(now)) {
+            expiredCount.increment();
+            return true;
+         }
+         return false;
+      });
+
+      long handshakes = handshakeCount.sum();
+      long elapsed = now - lastSweepTime;
+      if (elapsed > 0) {
+         handshakesPerSecond = (handshakes - lastHandshakeCount) * 1000.0 / elapsed;
+      }
+      lastHandshakeCount = handshakes;
+      lastSweepTime = now;
+   }
+
+   /*
+    * The request may ask for the response to go elsewhere than its source
+    */
+   private InetSocketAddress getReplyAddress(ServiceRequest request, InetSocketAddress sender) {
+      ConnectionPoint cp = request.getDestination();
+      if (null == cp) {
+         return sender;
+      }
+
+      InetAddress address = sender.getAddress();
+      IpAddress ip = cp.getAddress();
+      if (null != ip) {
+         try {
+            if (null != ip.getIpv4Address()) {
+               address = InetAddress.getByAddress(ip.getIpv4Address().byteArrayValue());
+            } else if (null != ip.getIpv6Address()) {
+               address = InetAddress.getByAddress(ip.getIpv6Address().byteArrayValue());
+            }
+         } catch (UnknownHostException e) {
+            logger.error("Invalid ServiceRequest destination address, replying to {}", sender, e);
+         }
+      }
+      int port = null != cp.getPort() ? cp.getPort().intValue() : sender.getPort();
+
+      logger.debug("ServiceResponse destination overriden: {}:{}", address.getHostAddress(), port);
+      return new InetSocketAddress(address, port);
+   }
+
+   public String getName() {
+      return name;
+   }
+
+   public boolean isStopped() {
+      return stopped;
+   }
+
+   @Override
+   public int getActiveDialogs() {
+      return dialogs.size();
+   }
+
+   @Override
+   public int getPendingResponses() {
+      return pendingResponses.size();
+   }
+
+   @Override
+   public long getRequestCount() {
+      return requestCount.sum();
+   }
+
+   @Override
+   public long getHandshakeCount() {
+      return handshakeCount.sum();
+   }
+
+   @Override
+   public long getRetransmitCount() {
+      return retransmitCount.sum();
+   }
+
+   @Override
+   public long getExpiredCount() {
+      return expiredCount.sum();
+   }
+
+   @Override
+   public long getDroppedCount() {
+      return droppedCount.sum();
+   }
+
+   @Override
+   public long getSendFailureCount() {
+      return sendFailureCount.sum();
+   }
+
+   @Override
+   public long getDataCount() {
+      return dataCount.sum();
+   }
+
+   @Override
+   public long getDataWithoutDialogCount() {
+      return dataWithoutDialogCount.sum();
+   }
+
+   @Override
+   public double getHandshakesPerSecond() {
+      return handshakesPerSecond;
+   }
+}
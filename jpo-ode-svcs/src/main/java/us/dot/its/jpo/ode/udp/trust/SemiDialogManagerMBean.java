@@ -0,0 +1,26 @@
+package us.dot.its.jpo.ode.udp.trust;
+
+public interface SemiDialogManagerMBean {
+
+   public int getActiveDialogs();
+
+   public int getPendingResponses();
+
+   public long getRequestCount();
+
+   public long getHandshakeCount();
+
+   public long getRetransmitCount();
+
+   public long getExpiredCount();
+
+   public long getDroppedCount();
+
+   public long getSendFailureCount();
+
+   public long getDataCount();
+
+   public long getDataWithoutDialogCount();
+
+   public double getHandshakesPerSecond();
+}
@@ -1,9 +1,8 @@
 package us.dot.its.jpo.ode.udp.vsd;
 
-import java.io.IOException;
-import java.net.DatagramPacket;
 import java.net.DatagramSocket;
-import java.util.Arrays;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -15,8 +14,8 @@ import com.oss.asn1.AbstractData;
 import gov.usdot.cv.security.msg.IEEE1609p2Message;
 import us.dot.its.jpo.ode.OdeProperties;
 import us.dot.its.jpo.ode.coder.OdeBsmDataCreatorHelper;
+import us.dot.its.jpo.ode.coder.PartitionKeyStrategy;
 import us.dot.its.jpo.ode.j2735.dsrc.BasicSafetyMessage;
-import us.dot.its.jpo.ode.j2735.semi.ConnectionPoint;
 import us.dot.its.jpo.ode.j2735.semi.ServiceRequest;
 import us.dot.its.jpo.ode.j2735.semi.VehSitDataMessage;
 import us.dot.its.jpo.ode.model.OdeBsmData;
@@ -24,82 +23,78 @@ import us.dot.its.jpo.ode.model.SerialId;
 import us.dot.its.jpo.ode.plugin.j2735.J2735Bsm;
 import us.dot.its.jpo.ode.plugin.j2735.oss.OssBsm;
 import us.dot.its.jpo.ode.plugin.j2735.oss.OssBsmPart2Content.OssBsmPart2Exception;
-import us.dot.its.jpo.ode.udp.UdpUtil;
+import us.dot.its.jpo.ode.services.json.BinaryJsonMirror;
+import us.dot.its.jpo.ode.udp.UdpPacket;
 import us.dot.its.jpo.ode.udp.bsm.BsmReceiver;
+import us.dot.its.jpo.ode.udp.trust.SemiDialogManager;
+import us.dot.its.jpo.ode.util.OdeJsonCodec;
 import us.dot.its.jpo.ode.wrapper.MessageProducer;
+import us.dot.its.jpo.ode.wrapper.MessageProducerRegistry;
 import us.dot.its.jpo.ode.wrapper.serdes.OdeBsmSerializer;
 
 public class VsdReceiver extends BsmReceiver {
 
    private static final Logger logger = LoggerFactory.getLogger(VsdReceiver.class);
    protected MessageProducer<String, OdeBsmData> odeBsmDataProducer;
+   // set when the decoded data topology replaces the OdeBsmPojo converter
+   protected MessageProducer<String, String> odeBsmJsonProducer;
+   protected BinaryJsonMirror binaryMirror;
+   protected PartitionKeyStrategy partitionKeys;
    private SerialId serialId = new SerialId();
+   private SemiDialogManager dialogManager;
+   private DatagramSocket trustSocket;
    
    @Autowired
    public VsdReceiver(OdeProperties odeProps) {
       super(odeProps, odeProps.getVsdReceiverPort(), odeProps.getVsdBufferSize());
-      odeBsmDataProducer = new MessageProducer<String, OdeBsmData>(
-              odeProperties.getKafkaBrokers(),
-              odeProperties.getKafkaProducerType(), 
-              null, 
-              OdeBsmSerializer.class.getName());
+      odeBsmDataProducer = MessageProducerRegistry.getInstance(odeProps).getProducer(OdeBsmSerializer.class.getName());
+      if (odeProps.isKafkaStreamsTopologyEnabled()) {
+         odeBsmJsonProducer = MessageProducerRegistry.getInstance(odeProps).getStringProducer();
+         binaryMirror = new BinaryJsonMirror(odeProps);
+      }
+      partitionKeys = new PartitionKeyStrategy(odeProps);
+      dialogManager = new SemiDialogManager(VsdReceiver.class.getSimpleName(), odeProps);
+      setRateLimit(odeProps.getVsdRateLimitPerSecond(), odeProps.getVsdRateLimitBurst());
+      setSocketBufferSizes(odeProps.getVsdSocketReceiveBufferSize(), odeProps.getVsdSocketSendBufferSize());
    }
 
+   /**
+    * Opens the trust port once; all ServiceResponses are sent from it.
+    */
    @Override
-   public void run() {
-
-      logger.debug("Starting {}...", this.getClass().getSimpleName());
-
-      byte[] buffer = new byte[odeProperties.getVsdBufferSize()];
-
-      DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
-
-      while (!isStopped()) {
-         getPacket(packet);
+   public void onStart(DatagramSocket socket) {
+      super.onStart(socket);
+      try {
+         trustSocket = new DatagramSocket(odeProperties.getVsdTrustport());
+         dialogManager.start(trustSocket);
+      } catch (SocketException e) {
+         logger.error("Unable to bind VSD trust port {}, replying from the receive port",
+               odeProperties.getVsdTrustport(), e);
+         dialogManager.start(socket);
       }
    }
 
-   public void getPacket(DatagramPacket packet) {
-      try {
-         logger.debug("Waiting for UDP packets...");
-         socket.receive(packet);
-         if (packet.getLength() > 0) {
-            senderIp = packet.getAddress().getHostAddress();
-            senderPort = packet.getPort();
-            logger.debug("Packet received from {}:{}", senderIp, senderPort);
-
-            // extract the actualPacket from the buffer
-            byte[] payload = Arrays.copyOf(packet.getData(), packet.getLength());
-            processPacket(payload);
-         }
-      } catch (IOException | UdpReceiverException e) {
-         logger.error("Error receiving packet", e);
+   @Override
+   public void onStop() {
+      dialogManager.stop();
+      if (null != trustSocket) {
+         trustSocket.close();
       }
    }
 
-   public void processPacket(byte[] data) throws UdpReceiverException {
+   @Override
+   public void handle(UdpPacket packet) throws UdpReceiverException {
+      processPacket(packet.getPayload(), packet.getSenderIp(), packet.getSenderPort());
+   }
+
+   public void processPacket(byte[] data, String replyIp, int replyPort) throws UdpReceiverException {
       AbstractData decoded = super.decodeData(data);
       try {
          if (decoded instanceof ServiceRequest) {
-
-            if (null != ((ServiceRequest) decoded).getDestination()) {
-               ConnectionPoint cp = ((ServiceRequest) decoded).getDestination();
-
-               // Change return address, if specified
-               if (null != cp.getAddress()) {
-                  senderIp = ((ServiceRequest) decoded).getDestination().getAddress().toString();
-               }
-
-               // Change return port, if specified
-               if (null != cp.getPort()) {
-                  senderPort = ((ServiceRequest) decoded).getDestination().getPort().intValue();
-               }
-               logger.error("Service request response destination specified {}:{}", senderIp, senderPort);
-            }
-
-            UdpUtil.send(new DatagramSocket(odeProperties.getVsdTrustport()), decoded, senderIp, senderPort);
+            dialogManager.onServiceRequest((ServiceRequest) decoded, new InetSocketAddress(replyIp, replyPort));
          } else if (decoded instanceof VehSitDataMessage) {
             logger.debug("Received VSD");
+            dialogManager.onData(((VehSitDataMessage) decoded).getRequestID());
             extractAndPublishBsms((VehSitDataMessage) decoded);
          } else {
             logger.error("Unknown message type received {}", decoded.getClass().getName());
@@ -129,7 +124,13 @@ public class VsdReceiver extends BsmReceiver {
          OdeBsmData odeBsmData = OdeBsmDataCreatorHelper.createOdeBsmData(
             (J2735Bsm) j2735Bsm, new IEEE1609p2Message(), null);
         
-         odeBsmDataProducer.send(odeProperties.getKafkaTopicOdeBsmPojo(), null, odeBsmData);
+         String key = partitionKeys.forData(odeBsmData, null);
+         odeBsmDataProducer.send(odeProperties.getKafkaTopicOdeBsmPojo(), key, odeBsmData);
+         if (null != odeBsmJsonProducer) {
+            String json = OdeJsonCodec.toJson(odeBsmData, false);
+            odeBsmJsonProducer.send(odeProperties.getKafkaTopicOdeBsmJson(), key, json);
+            binaryMirror.send(odeProperties.getKafkaTopicOdeBsmJson(), key, json);
+         }
       }
    }
    
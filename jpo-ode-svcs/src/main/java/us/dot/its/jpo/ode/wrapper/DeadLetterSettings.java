@@ -0,0 +1,41 @@
+package us.dot.its.jpo.ode.wrapper;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.serialization.Serializer;
+import org.slf4j.LoggerFactory;
+
+import us.dot.its.jpo.ode.OdeProperties;
+
+/**
+ * Creates the {@link DeadLetterPublisher} of a pipeline stage from the
+ * ode.kafkaDeadLetter* properties.
+ */
+public class DeadLetterSettings {
+
+   private DeadLetterSettings() {
+   }
+
+   /**
+    * @param stage
+    *           class of the stage, its simple name is the suffix of the dead
+    *           letter topic
+    * @param valueSerializer
+    *           serializer matching the deserializer of the stage's input
+    * @return a publisher that writes to the stage's dead letter topic through
+    *         the shared string producer, or only logs when dead letters are
+    *         disabled
+    */
+   public static <V> DeadLetterPublisher<V> publisher(OdeProperties odeProps, Class<?> stage,
+         Serializer<V> valueSerializer) {
+      String stageName = stage.getSimpleName();
+      RateLimitedLogger errorLogger = new RateLimitedLogger(LoggerFactory.getLogger(stage),
+            odeProps.getKafkaDeadLetterLogsPerMinute(), TimeUnit.MINUTES.toMillis(1));
+      if (!odeProps.isKafkaDeadLetterEnabled()) {
+         return new DeadLetterPublisher<>(stageName, null, null, valueSerializer, errorLogger);
+      }
+      return new DeadLetterPublisher<>(stageName,
+            DeadLetterPublisher.topicFor(odeProps.getKafkaTopicDeadLetterPrefix(), stageName),
+            MessageProducerRegistry.getInstance(odeProps).getStringProducer(), valueSerializer, errorLogger);
+   }
+}
@@ -0,0 +1,37 @@
+package us.dot.its.jpo.ode.wrapper;
+
+import us.dot.its.jpo.ode.OdeProperties;
+
+/**
+ * Applies the ode.kafkaConsumer* properties to a {@link MessageConsumer}
+ * before it subscribes.
+ */
+public class MessageConsumerSettings {
+
+   private MessageConsumerSettings() {
+   }
+
+   /**
+    * Sets the poll timeout, max.poll.records and lag refresh interval, and
+    * gives a {@link ParallelMessageConsumer} an
+    * {@link AdaptiveWorkerController} when adaptive workers are enabled.
+    * 
+    * @return the consumer
+    */
+   public static <K, V, C extends MessageConsumer<K, V>> C apply(OdeProperties odeProps, C consumer) {
+      consumer.setPollTimeoutMillis(odeProps.getKafkaConsumerPollTimeoutMillis());
+      consumer.setMaxPollRecords(odeProps.getKafkaConsumerMaxPollRecords());
+      consumer.setLagRefreshMillis(odeProps.getKafkaConsumerLagRefreshMillis());
+
+      if (odeProps.isKafkaConsumerAdaptiveWorkers() && consumer instanceof ParallelMessageConsumer) {
+         ParallelMessageConsumer<K, V> parallelConsumer = (ParallelMessageConsumer<K, V>) consumer;
+         int maxWorkers = odeProps.getKafkaConsumerMaxWorkerThreads() > 0 ? odeProps.getKafkaConsumerMaxWorkerThreads()
+               : Runtime.getRuntime().availableProcessors();
+         int minWorkers = Math.max(1, Math.min(odeProps.getKafkaConsumerMinWorkerThreads(), maxWorkers));
+         parallelConsumer.setWorkerController(new AdaptiveWorkerController(minWorkers, maxWorkers,
+               parallelConsumer.getWorkers(), odeProps.getKafkaConsumerScaleUpLag(),
+               odeProps.getKafkaConsumerScaleSamples()));
+      }
+      return consumer;
+   }
+}
@@ -0,0 +1,455 @@
+package us.dot.its.jpo.ode.wrapper;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.serialization.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import us.dot.its.jpo.ode.OdeProperties;
+
+/**
+ * Hands out {@link MessageProducer}s that share one Kafka producer per value
+ * serializer and producer profile instead of each publisher opening its own
+ * connections, buffer memory and sender thread.
+ * <p>
+ * A profile is a named set of producer settings (acks, compression.type,
+ * linger.ms, batch.size, retries, ...) layered over the {@value #DEFAULT_PROFILE}
+ * profile. Topics are mapped to profiles by name; records to any other topic
+ * use the default profile. Profiles are written as
+ * </p>
+ *
+ * <pre>
+ * bulk:compression.type=lz4,linger.ms=20,batch.size=262144;lowLatency:acks=1,linger.ms=0
+ * </pre>
+ * <p>
+ * and topic mappings as
+ * </p>
+ *
+ * <pre>
+ * topic.OdeBsmJson:bulk,topic.Asn1DecoderInput:lowLatency
+ * </pre>
+ * <p>
+ * The pseudo setting {@value #IDEMPOTENCE} asks for acks=all, unlimited
+ * retries and one request in flight per connection, so a retried batch can
+ * neither be lost nor reordered. The broker does not deduplicate retries with
+ * this client version, so a record may still be written twice.
+ * </p>
+ * <p>
+ * Closing a handed out producer only releases its share; the Kafka producer is
+ * closed when its last user has closed. Flushing a handed out producer waits
+ * for its own records only, so one publisher's flush does not wait for the
+ * records of every other publisher sharing the Kafka producer.
+ * </p>
+ * <p>
+ * Producers of any value type other than byte arrays are set up for fan-out:
+ * a value sent to several topics at once is serialized once and the bytes go
+ * out through the byte array producer of each topic's profile.
+ * </p>
+ */
+public class MessageProducerRegistry {
+
+   public static final String DEFAULT_PROFILE = "default";
+   public static final String IDEMPOTENCE = "idempotence";
+
+   private static final Logger logger = LoggerFactory.getLogger(MessageProducerRegistry.class);
+
+   private static final String PROFILE_SEPARATOR = ";";
+   private static final String ENTRY_SEPARATOR = ",";
+   private static final String NAME_SEPARATOR = ":";
+   private static final String VALUE_SEPARATOR = "=";
+
+   // set by the registry, not by a profile
+   private static final String[] RESERVED_SETTINGS = { "bootstrap.servers", "key.serializer", "value.serializer",
+         "partitioner.class" };
+
+   private static MessageProducerRegistry instance;
+
+   private final String brokers;
+   private final String partitionerClass;
+   private final Map<String, Properties> profiles;
+   private final Map<String, String> topicProfiles;
+   private final Map<String, SharedProducer> producers = new HashMap<>();
+
+   public static class ProducerProfileException extends IllegalArgumentException {
+      private static final long serialVersionUID = 1L;
+
+      public ProducerProfileException(String message) {
+         super(message);
+      }
+   }
+
+   /**
+    * Returns the registry shared by all publishers, creating it on first use.
+    * Shared producers still open at shutdown are flushed and closed.
+    */
+   public static synchronized MessageProducerRegistry getInstance(OdeProperties odeProps) {
+      if (null == instance) {
+         instance = new MessageProducerRegistry(odeProps.getKafkaBrokers(),
+               odeProps.getProperty("kafka.partitionerClass"), parseProfiles(odeProps.getKafkaProducerProfiles()),
+               parseTopicProfiles(odeProps.getKafkaTopicProducerProfiles()));
+         final MessageProducerRegistry registry = instance;
+         Runtime.getRuntime().addShutdownHook(new Thread(registry::close, "MessageProducerRegistryShutdown"));
+         logger.info("Kafka producer profiles {}, topic profiles {}", registry.profiles.keySet(),
+               registry.topicProfiles);
+      }
+      return instance;
+   }
+
+   /**
+    * @param profiles
+    *           settings of each named profile, see {@link #parseProfiles(String)}
+    * @param topicProfiles
+    *           profile name by topic
+    */
+   public MessageProducerRegistry(String brokers, String partitionerClass, Map<String, Properties> profiles,
+         Map<String, String> topicProfiles) {
+      this.brokers = brokers;
+      this.partitionerClass = partitionerClass;
+
+      Properties defaults = defaultProperties();
+      if (profiles.containsKey(DEFAULT_PROFILE)) {
+         defaults.putAll(profiles.get(DEFAULT_PROFILE));
+      }
+      Map<String, Properties> resolved = new LinkedHashMap<>();
+      resolved.put(DEFAULT_PROFILE, defaults);
+      for (Map.Entry<String, Properties> profile : profiles.entrySet()) {
+         if (!DEFAULT_PROFILE.equals(profile.getKey())) {
+            Properties props = new Properties();
+            props.putAll(defaults);
+            props.putAll(profile.getValue());
+            resolved.put(profile.getKey(), props);
+         }
+      }
+      for (Map.Entry<String, String> topicProfile : topicProfiles.entrySet()) {
+         if (!resolved.containsKey(topicProfile.getValue())) {
+            throw new ProducerProfileException(
+                  "Topic " + topicProfile.getKey() + " uses undefined producer profile " + topicProfile.getValue());
+         }
+      }
+      this.profiles = Collections.unmodifiableMap(resolved);
+      this.topicProfiles = Collections.unmodifiableMap(new HashMap<>(topicProfiles));
+   }
+
+   public MessageProducer<String, String> getStringProducer() {
+      return getProducer(MessageProducer.SERIALIZATION_STRING_SERIALIZER);
+   }
+
+   public MessageProducer<String, byte[]> getByteArrayProducer() {
+      return getProducer(MessageProducer.SERIALIZATION_BYTE_ARRAY_SERIALIZER);
+   }
+
+   /**
+    * @param valueSerializer
+    *           fully qualified class name of the value serializer
+    * @return a producer sending each record with the Kafka producer of its
+    *         topic's profile
+    */
+   public <V> MessageProducer<String, V> getProducer(String valueSerializer) {
+      SharedMessageProducer<V> producer = new SharedMessageProducer<>(this, valueSerializer);
+      if (!MessageProducer.SERIALIZATION_BYTE_ARRAY_SERIALIZER.equals(valueSerializer)) {
+         Serializer<V> serializer = newSerializer(valueSerializer);
+         if (null != serializer) {
+            producer.setFanOut(serializer, getByteArrayProducer());
+         }
+      }
+      return producer;
+   }
+
+   /**
+    * @return a configured instance of the value serializer, null if it cannot
+    *         be created, in which case multi-topic sends serialize per topic
+    */
+   private static <V> Serializer<V> newSerializer(String valueSerializer) {
+      try {
+         @SuppressWarnings("unchecked")
+         Serializer<V> serializer = (Serializer<V>) Class.forName(valueSerializer).newInstance();
+         serializer.configure(Collections.<String, Object> emptyMap(), false);
+         return serializer;
+      } catch (Exception e) {
+         logger.warn("Cannot create value serializer {} for fan-out", valueSerializer, e);
+         return null;
+      }
+   }
+
+   public String getProfileName(String topic) {
+      String profile = topicProfiles.get(topic);
+      return null == profile ? DEFAULT_PROFILE : profile;
+   }
+
+   /**
+    * @return the complete Kafka producer configuration of a profile
+    */
+   public Properties getProducerProperties(String profile, String valueSerializer) {
+      Properties settings = profiles.get(profile);
+      if (null == settings) {
+         throw new ProducerProfileException("Undefined producer profile " + profile);
+      }
+      Properties props = new Properties();
+      props.putAll(settings);
+      props.put("bootstrap.servers", brokers);
+      props.put("key.serializer", MessageProducer.SERIALIZATION_STRING_SERIALIZER);
+      props.put("value.serializer", valueSerializer);
+      if (null != partitionerClass) {
+         props.put("partitioner.class", partitionerClass);
+      }
+      return props;
+   }
+
+   synchronized <V> Producer<String, V> acquire(String valueSerializer, String profile) {
+      String key = valueSerializer + NAME_SEPARATOR + profile;
+      SharedProducer shared = producers.get(key);
+      if (null == shared) {
+         shared = new SharedProducer(createProducer(getProducerProperties(profile, valueSerializer)));
+         producers.put(key, shared);
+         logger.info("Created {} producer for {}", profile, valueSerializer);
+      }
+      shared.references++;
+      @SuppressWarnings("unchecked")
+      Producer<String, V> producer = (Producer<String, V>) shared.producer;
+      return producer;
+   }
+
+   synchronized void release(String valueSerializer, String profile) {
+      String key = valueSerializer + NAME_SEPARATOR + profile;
+      SharedProducer shared = producers.get(key);
+      if (null != shared && --shared.references <= 0) {
+         producers.remove(key);
+         shared.producer.close();
+         logger.info("Closed {} producer for {}", profile, valueSerializer);
+      }
+   }
+
+   protected <V> Producer<String, V> createProducer(Properties props) {
+      return new KafkaProducer<>(props);
+   }
+
+   /**
+    * Closes all shared producers, whether or not their users have released
+    * them.
+    */
+   public synchronized void close() {
+      for (Iterator<SharedProducer> it = producers.values().iterator(); it.hasNext();) {
+         SharedProducer shared = it.next();
+         it.remove();
+         try {
+            shared.producer.close();
+         } catch (Exception e) {
+            logger.warn("Error closing producer", e);
+         }
+      }
+   }
+
+   synchronized int getOpenProducerCount() {
+      return producers.size();
+   }
+
+   private static Properties defaultProperties() {
+      Properties props = new Properties();
+      props.put("acks", MessageProducer.DEFAULT_PRODUCER_ACKS);
+      props.put("retries", MessageProducer.DEFAULT_PRODUCER_RETRIES);
+      props.put("batch.size", MessageProducer.DEFAULT_PRODUCER_BATCH_SIZE_BYTES);
+      props.put("linger.ms", MessageProducer.DEFAULT_PRODUCER_LINGER_MS);
+      props.put("buffer.memory", MessageProducer.DEFAULT_PRODUCER_BUFFER_MEMORY_BYTES);
+      return props;
+   }
+
+   /**
+    * Parses "name:setting=value,setting=value;name:..." into the settings of
+    * each profile.
+    */
+   public static Map<String, Properties> parseProfiles(String spec) {
+      Map<String, Properties> profiles = new LinkedHashMap<>();
+      if (null == spec || spec.trim().isEmpty()) {
+         return profiles;
+      }
+      for (String profileSpec : spec.split(PROFILE_SEPARATOR)) {
+         if (profileSpec.trim().isEmpty()) {
+            continue;
+         }
+         String[] nameAndSettings = profileSpec.split(NAME_SEPARATOR, 2);
+         String name = nameAndSettings[0].trim();
+         if (name.isEmpty() || nameAndSettings.length < 2) {
+            throw new ProducerProfileException("Invalid producer profile: " + profileSpec);
+         }
+         Properties props = new Properties();
+         for (String setting : nameAndSettings[1].split(ENTRY_SEPARATOR)) {
+            if (!setting.trim().isEmpty()) {
+               putSetting(props, name, setting);
+            }
+         }
+         profiles.put(name, props);
+      }
+      return profiles;
+   }
+
+   private static void putSetting(Properties props, String profile, String setting) {
+      String[] keyAndValue = setting.split(VALUE_SEPARATOR, 2);
+      String key = keyAndValue[0].trim();
+      if (keyAndValue.length < 2 || key.isEmpty()) {
+         throw new ProducerProfileException("Invalid setting " + setting + " in producer profile " + profile);
+      }
+      for (String reserved : RESERVED_SETTINGS) {
+         if (reserved.equals(key)) {
+            throw new ProducerProfileException(key + " cannot be set by producer profile " + profile);
+         }
+      }
+      String value = keyAndValue[1].trim();
+      if (IDEMPOTENCE.equals(key)) {
+         if (Boolean.parseBoolean(value)) {
+            props.put("acks", "all");
+            props.put("retries", String.valueOf(Integer.MAX_VALUE));
+            props.put("max.in.flight.requests.per.connection", "1");
+         }
+      } else {
+         props.put(key, value);
+      }
+   }
+
+   /**
+    * Parses "topic:profile,topic:profile" into the profile of each topic.
+    */
+   public static Map<String, String> parseTopicProfiles(String spec) {
+      Map<String, String> topicProfiles = new HashMap<>();
+      if (null == spec || spec.trim().isEmpty()) {
+         return topicProfiles;
+      }
+      for (String entry : spec.split(ENTRY_SEPARATOR)) {
+         if (entry.trim().isEmpty()) {
+            continue;
+         }
+         String[] topicAndProfile = entry.split(NAME_SEPARATOR, 2);
+         if (topicAndProfile.length < 2 || topicAndProfile[0].trim().isEmpty()
+               || topicAndProfile[1].trim().isEmpty()) {
+            throw new ProducerProfileException("Invalid topic producer profile: " + entry);
+         }
+         topicProfiles.put(topicAndProfile[0].trim(), topicAndProfile[1].trim());
+      }
+      return topicProfiles;
+   }
+
+   private static class SharedProducer {
+      private final Producer<?, ?> producer;
+      private int references;
+
+      private SharedProducer(Producer<?, ?> producer) {
+         this.producer = producer;
+      }
+   }
+
+   /**
+    * A publisher's view of the shared producers of one value serializer. The
+    * producer of a profile is acquired on the first record sent to a topic of
+    * that profile.
+    */
+   static class SharedMessageProducer<V> extends MessageProducer<String, V> {
+
+      private final MessageProducerRegistry registry;
+      private final String valueSerializer;
+      private final Map<String, Producer<String, V>> topicProducers = new ConcurrentHashMap<>();
+      private final Map<String, Producer<String, V>> profileProducers = new HashMap<>();
+      // results of the records sent through this view, oldest first
+      private final Queue<Future<RecordMetadata>> pending = new ConcurrentLinkedQueue<>();
+      private boolean closed;
+
+      SharedMessageProducer(MessageProducerRegistry registry, String valueSerializer) {
+         super();
+         this.registry = registry;
+         this.valueSerializer = valueSerializer;
+      }
+
+      @Override
+      protected Producer<String, V> producerFor(String topic) {
+         Producer<String, V> topicProducer = topicProducers.get(topic);
+         if (null == topicProducer) {
+            topicProducer = acquire(registry.getProfileName(topic));
+            topicProducers.put(topic, topicProducer);
+         }
+         return topicProducer;
+      }
+
+      private synchronized Producer<String, V> acquire(String profile) {
+         if (closed) {
+            throw new IllegalStateException("Producer closed");
+         }
+         Producer<String, V> profileProducer = profileProducers.get(profile);
+         if (null == profileProducer) {
+            profileProducer = registry.acquire(valueSerializer, profile);
+            profileProducers.put(profile, profileProducer);
+         }
+         return profileProducer;
+      }
+
+      /**
+       * @return the producer of the default profile
+       */
+      @Override
+      public Producer<String, V> getProducer() {
+         return acquire(DEFAULT_PROFILE);
+      }
+
+      @Override
+      protected void sent(Future<RecordMetadata> result) {
+         // completed results are let go as records are sent, so a view that
+         // is never flushed does not keep them
+         Future<RecordMetadata> oldest;
+         while (null != (oldest = pending.peek()) && oldest.isDone()) {
+            pending.remove(oldest);
+         }
+         pending.add(result);
+      }
+
+      /**
+       * Blocks until the records sent through this producer are acknowledged
+       * or have failed. The shared Kafka producers are not flushed, so records
+       * of other publishers are neither waited for nor sent early; a record
+       * still lingering is sent when the linger.ms of its profile expires.
+       */
+      @Override
+      public void flush() {
+         Future<RecordMetadata> result;
+         while (null != (result = pending.poll())) {
+            try {
+               result.get();
+            } catch (ExecutionException e) {
+               // reported by the send callback
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+               return;
+            }
+         }
+         flushFanOut();
+      }
+
+      @Override
+      public MessageProducer<String, V> setProducer(Producer<String, V> producer) {
+         throw new UnsupportedOperationException("Shared producers are created by the registry");
+      }
+
+      @Override
+      public synchronized void close() {
+         if (!closed) {
+            closed = true;
+            topicProducers.clear();
+            for (String profile : profileProducers.keySet()) {
+               registry.release(valueSerializer, profile);
+            }
+            profileProducers.clear();
+            closeFanOut();
+         }
+      }
+   }
+}
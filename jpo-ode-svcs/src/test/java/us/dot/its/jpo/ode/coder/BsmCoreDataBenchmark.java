@@ -0,0 +1,67 @@
+package us.dot.its.jpo.ode.coder;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import us.dot.its.jpo.ode.model.CompactBsmCoreData;
+import us.dot.its.jpo.ode.plugin.j2735.J2735BsmCoreData;
+import us.dot.its.jpo.ode.plugin.j2735.builders.BsmCoreDataBuilder;
+import us.dot.its.jpo.ode.util.OdeJsonCodec;
+import us.dot.its.jpo.ode.util.XmlUtils;
+import us.dot.its.jpo.ode.wrapper.serdes.OdeKryoCodec;
+
+/*
+ * Simple benchmark app that compares building the BSM core data of a decoded
+ * record as a BigDecimal J2735BsmCoreData with CompactBsmCoreData, then
+ * writing it the way the decoded data topology does: as JSON and with Kryo.
+ *
+ * Usage: BsmCoreDataBenchmark [decoderOutputXmlFile] [iterations]
+ */
+public class BsmCoreDataBenchmark {
+
+   private interface Building {
+      J2735BsmCoreData run(JsonNode coreData);
+   }
+
+   public static void main(String[] args) throws Exception {
+      String xml = new String(Files.readAllBytes(Paths.get(args.length > 0 ? args[0]
+            : "../data/bsmLogDuringEvent_Asn1DecoderOutput.xml")), "UTF-8");
+      int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 200000;
+
+      JsonNode coreData = XmlUtils.toObjectNode(xml).findValue("coreData");
+      Building bigDecimal = BsmCoreDataBuilder::genericBsmCoreData;
+      Building compact = CompactBsmCoreData::fromCoreData;
+
+      // warm up both paths before measuring
+      measure(null, 50000, coreData, bigDecimal);
+      measure(null, 50000, coreData, compact);
+
+      System.out.println("method, ns/BSM, bytes allocated/BSM");
+      measure("J2735BsmCoreData", iterations, coreData, bigDecimal);
+      measure("CompactBsmCoreData", iterations, coreData, compact);
+   }
+
+   private static void measure(String method, int iterations, JsonNode coreData, Building task) {
+      com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory
+            .getThreadMXBean();
+      long threadId = Thread.currentThread().getId();
+
+      long written = 0;
+      long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+      long start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+         J2735BsmCoreData built = task.run(coreData);
+         written += OdeJsonCodec.toJson(built, false).length() + OdeKryoCodec.encode(built).length;
+      }
+      long elapsed = System.nanoTime() - start;
+      long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+      if (null != method) {
+         System.out.println(method + ", " + elapsed / iterations + ", " + allocated / iterations + " ("
+               + written / iterations + " bytes written)");
+      }
+   }
+}
@@ -0,0 +1,85 @@
+package us.dot.its.jpo.ode.coder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class DuplicateMessageFilterTest {
+
+   private static final byte[] BSM = new byte[] { 0x00, 0x14, 0x25, 0x03, (byte) 0x81, 0x00, 0x40, 0x03, (byte) 0x80 };
+
+   @Test
+   public void shouldFlagRepeatedPayload() {
+      DuplicateMessageFilter filter = new DuplicateMessageFilter(1024, 60000);
+
+      assertFalse(filter.isDuplicate(1, BSM));
+      assertTrue(filter.isDuplicate(1, BSM.clone()));
+      assertTrue(filter.isDuplicate(1, BSM));
+
+      assertEquals(3, filter.getCheckedCount());
+      assertEquals(2, filter.getDuplicateCount());
+      assertEquals(1, filter.getUniqueCount());
+      assertEquals(1, filter.getSize());
+   }
+
+   @Test
+   public void scopesShouldBeIndependent() {
+      DuplicateMessageFilter filter = new DuplicateMessageFilter(1024, 60000);
+
+      assertFalse(filter.isDuplicate(1, BSM));
+      assertFalse(filter.isDuplicate(2, BSM));
+   }
+
+   @Test
+   public void differentPayloadsShouldNotCollide() {
+      DuplicateMessageFilter filter = new DuplicateMessageFilter(1 << 16, 60000);
+
+      byte[] payload = BSM.clone();
+      for (int i = 0; i < 20000; i++) {
+         payload[2] = (byte) i;
+         payload[3] = (byte) (i >> 8);
+         assertFalse(filter.isDuplicate(0, payload));
+      }
+      assertEquals(0, filter.getDuplicateCount());
+      assertEquals(0, filter.getEarlyRotationCount());
+   }
+
+   @Test
+   public void shouldForgetAfterWindow() throws InterruptedException {
+      DuplicateMessageFilter filter = new DuplicateMessageFilter(1024, 20);
+
+      assertFalse(filter.isDuplicate(1, BSM));
+      Thread.sleep(50);
+      assertFalse(filter.isDuplicate(1, BSM));
+   }
+
+   @Test
+   public void shouldRotateEarlyWhenFull() {
+      DuplicateMessageFilter filter = new DuplicateMessageFilter(16, 60000);
+
+      for (long key = 1; key <= 1000; key++) {
+         filter.isDuplicate(key << 60 | key);
+      }
+      assertTrue(filter.getEarlyRotationCount() > 0);
+      assertTrue(filter.getSize() <= 2 * filter.getCapacity());
+   }
+
+   @Test
+   public void decodedKeyShouldDependOnAllFields() {
+      long key = DuplicateMessageFilter.hash(0, "3B2C1A00", 12, 34000);
+
+      assertEquals(key, DuplicateMessageFilter.hash(0, "3B2C1A00", 12, 34000));
+      assertNotEquals(key, DuplicateMessageFilter.hash(0, "3B2C1A01", 12, 34000));
+      assertNotEquals(key, DuplicateMessageFilter.hash(0, "3B2C1A00", 13, 34000));
+      assertNotEquals(key, DuplicateMessageFilter.hash(0, "3B2C1A00", 12, 34100));
+      assertNotEquals(key, DuplicateMessageFilter.hash(1, "3B2C1A00", 12, 34000));
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void shouldRejectTinyCapacity() {
+      new DuplicateMessageFilter(1, 1000);
+   }
+}
@@ -0,0 +1,81 @@
+package us.dot.its.jpo.ode.coder;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import us.dot.its.jpo.ode.model.Asn1Encoding;
+import us.dot.its.jpo.ode.model.Asn1Encoding.EncodingRule;
+import us.dot.its.jpo.ode.model.OdeAsn1Data;
+import us.dot.its.jpo.ode.model.OdeAsn1Payload;
+import us.dot.its.jpo.ode.model.OdeAsn1WithBsmMetadata;
+import us.dot.its.jpo.ode.model.OdeBsmMetadata.BsmSource;
+import us.dot.its.jpo.ode.model.OdeLogMetadata.RecordType;
+import us.dot.its.jpo.ode.model.OdeLogMetadata.SecurityResultCode;
+import us.dot.its.jpo.ode.model.OdeMsgMetadata.GeneratedBy;
+import us.dot.its.jpo.ode.util.CodecUtils;
+import us.dot.its.jpo.ode.util.XmlUtils;
+
+/*
+ * Simple benchmark app that compares writing the Asn1DecoderInput envelope of
+ * a BSM log record with XmlMapper, as XmlUtils does, with the template of
+ * OdeAsn1DataXmlWriter.
+ *
+ * Usage: OdeAsn1DataXmlWriterBenchmark [decoderInputXmlFile] [iterations]
+ */
+public class OdeAsn1DataXmlWriterBenchmark {
+
+   private interface Encoding {
+      Object run() throws Exception;
+   }
+
+   public static void main(String[] args) throws Exception {
+      String xml = new String(Files.readAllBytes(Paths.get(args.length > 0 ? args[0]
+            : "../data/bsmLogDuringEvent_Asn1DecoderInput.xml")), "UTF-8");
+      int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+
+      String hex = xml.substring(xml.indexOf("<bytes>") + "<bytes>".length(), xml.indexOf("</bytes>"));
+      OdeAsn1Payload payload = new OdeAsn1Payload(CodecUtils.fromHex(hex));
+      OdeAsn1WithBsmMetadata metadata = new OdeAsn1WithBsmMetadata(payload);
+      metadata.addEncoding(new Asn1Encoding("root", "Ieee1609Dot2Data", EncodingRule.COER))
+            .addEncoding(new Asn1Encoding("unsecuredData", "MessageFrame", EncodingRule.UPER));
+      metadata.getSerialId().setBundleId(2).addRecordId(1);
+      metadata.setLogFileName("bsmLogDuringEvent.gz");
+      metadata.setRecordType(RecordType.bsmLogDuringEvent);
+      metadata.setRecordGeneratedAt("2017-09-11T22:59:23.525Z[UTC]");
+      metadata.setRecordGeneratedBy(GeneratedBy.OBU);
+      metadata.setSecurityResultCode(SecurityResultCode.success);
+      metadata.setBsmSource(BsmSource.EV);
+      metadata.setPartitionKey("bundle-2");
+      OdeAsn1Data data = new OdeAsn1Data(metadata, payload);
+
+      Encoding xmlMapper = () -> XmlUtils.toXmlS(data);
+      Encoding template = () -> OdeAsn1DataXmlWriter.toXml(data);
+
+      // warm up both paths before measuring
+      for (int i = 0; i < 20000; i++) {
+         xmlMapper.run();
+         template.run();
+      }
+
+      System.out.println("method, ns/record, bytes allocated/record");
+      measure("XmlUtils.toXmlS", iterations, xmlMapper);
+      measure("OdeAsn1DataXmlWriter", iterations, template);
+   }
+
+   private static void measure(String method, int iterations, Encoding task) throws Exception {
+      com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory
+            .getThreadMXBean();
+      long threadId = Thread.currentThread().getId();
+
+      long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+      long start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+         task.run();
+      }
+      long elapsed = System.nanoTime() - start;
+      long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+      System.out.println(method + ", " + elapsed / iterations + ", " + allocated / iterations);
+   }
+}
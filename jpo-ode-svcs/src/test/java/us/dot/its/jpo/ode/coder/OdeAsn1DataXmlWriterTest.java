@@ -0,0 +1,103 @@
+package us.dot.its.jpo.ode.coder;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import us.dot.its.jpo.ode.model.Asn1Encoding;
+import us.dot.its.jpo.ode.model.Asn1Encoding.EncodingRule;
+import us.dot.its.jpo.ode.model.OdeAsn1Data;
+import us.dot.its.jpo.ode.model.OdeAsn1Metadata;
+import us.dot.its.jpo.ode.model.OdeAsn1Payload;
+import us.dot.its.jpo.ode.model.OdeAsn1WithBsmMetadata;
+import us.dot.its.jpo.ode.model.OdeBsmMetadata.BsmSource;
+import us.dot.its.jpo.ode.model.OdeLogMetadata.RecordType;
+import us.dot.its.jpo.ode.model.OdeLogMetadata.SecurityResultCode;
+import us.dot.its.jpo.ode.model.OdeLogMsgMetadataLocation;
+import us.dot.its.jpo.ode.model.OdeMsgMetadata.GeneratedBy;
+import us.dot.its.jpo.ode.model.ReceivedMessageDetails;
+import us.dot.its.jpo.ode.model.RxSource;
+import us.dot.its.jpo.ode.model.SerialId;
+import us.dot.its.jpo.ode.model.WsmpHeaderDetails;
+import us.dot.its.jpo.ode.util.CodecUtils;
+import us.dot.its.jpo.ode.util.XmlUtils;
+
+public class OdeAsn1DataXmlWriterTest {
+
+   private static final String PAYLOAD = "03804B001F4820100000000003616371F082729B8B24A2597293664001FFFE2FC2AF8AE9D8";
+
+   private static OdeAsn1Data logRecord(OdeAsn1Metadata metadata) {
+      metadata.addEncoding(new Asn1Encoding("root", "Ieee1609Dot2Data", EncodingRule.COER))
+            .addEncoding(new Asn1Encoding("unsecuredData", "MessageFrame", EncodingRule.UPER));
+      metadata.setSerialId(
+            new SerialId().setStreamId("4e7ac616-31d2-4fdf-ac7d-bf24aff3b6bb").setBundleId(4).setRecordId(2));
+      metadata.setOdeReceivedAt("2017-11-09T13:33:34.252Z[UTC]");
+      metadata.setRecordGeneratedAt("2017-09-11T22:59:23.525Z[UTC]");
+      metadata.setRecordGeneratedBy(GeneratedBy.OBU);
+      metadata.setLogFileName("rxMsg_TIM.bin");
+      metadata.setRecordType(RecordType.rxMsg);
+      metadata.setSecurityResultCode(SecurityResultCode.success);
+      metadata.setPartitionKey("bundle-4");
+      return new OdeAsn1Data(metadata, new OdeAsn1Payload(CodecUtils.fromHex(PAYLOAD)));
+   }
+
+   private static void assertSameXmlAsXmlUtils(OdeAsn1Data data) throws Exception {
+      assertEquals(XmlUtils.toXmlS(data), OdeAsn1DataXmlWriter.toXml(data));
+   }
+
+   @Test
+   public void shouldWriteSameXmlAsXmlUtilsForTim() throws Exception {
+      OdeAsn1Data data = logRecord(new OdeAsn1Metadata());
+      ((OdeAsn1Metadata) data.getMetadata()).setReceivedMessageDetails(new ReceivedMessageDetails(
+            new OdeLogMsgMetadataLocation("40.4740245", "-104.9692776", "1501.0", "0.20", "0.0000"), RxSource.RSU));
+      assertSameXmlAsXmlUtils(data);
+   }
+
+   @Test
+   public void shouldWriteSameXmlAsXmlUtilsForBsm() throws Exception {
+      OdeAsn1WithBsmMetadata metadata = new OdeAsn1WithBsmMetadata();
+      metadata.setBsmSource(BsmSource.EV);
+      assertSameXmlAsXmlUtils(logRecord(metadata));
+   }
+
+   @Test
+   public void shouldWriteSameXmlAsXmlUtilsForUdp() throws Exception {
+      OdeAsn1Payload payload = new OdeAsn1Payload(CodecUtils.fromHex(PAYLOAD));
+      OdeAsn1Metadata metadata = new OdeAsn1Metadata(payload);
+      metadata.getSerialId().setBundleId(3).addRecordId(1);
+      metadata.setWsmpHeader(new WsmpHeaderDetails(2, 0x20L, 172, null));
+      metadata.addEncoding(new Asn1Encoding("root", "MessageFrame", EncodingRule.UPER));
+      assertSameXmlAsXmlUtils(new OdeAsn1Data(metadata, payload));
+   }
+
+   @Test
+   public void shouldLeaveTextToEscapeToXmlUtils() throws Exception {
+      OdeAsn1Data data = logRecord(new OdeAsn1Metadata());
+      ((OdeAsn1Metadata) data.getMetadata()).setLogFileName("rxMsg <1> & 'more'.bin");
+      assertSameXmlAsXmlUtils(data);
+      ((OdeAsn1Metadata) data.getMetadata()).setLogFileName("");
+      assertSameXmlAsXmlUtils(data);
+   }
+
+   @Test
+   public void shouldWriteTemplate() throws Exception {
+      OdeAsn1Data data = logRecord(new OdeAsn1Metadata());
+      String xml = OdeAsn1DataXmlWriter.toXml(data);
+      assertEquals("<OdeAsn1Data><metadata><payloadType>us.dot.its.jpo.ode.model.OdeAsn1Payload</payloadType>"
+            + "<serialId><streamId>4e7ac616-31d2-4fdf-ac7d-bf24aff3b6bb</streamId><bundleSize>1</bundleSize>"
+            + "<bundleId>4</bundleId><recordId>2</recordId><serialNumber>0</serialNumber></serialId>"
+            + "<odeReceivedAt>2017-11-09T13:33:34.252Z[UTC]</odeReceivedAt><schemaVersion>4</schemaVersion>"
+            + "<recordGeneratedAt>2017-09-11T22:59:23.525Z[UTC]</recordGeneratedAt>"
+            + "<recordGeneratedBy>OBU</recordGeneratedBy><sanitized>false</sanitized>"
+            + "<logFileName>rxMsg_TIM.bin</logFileName><recordType>rxMsg</recordType>"
+            + "<securityResultCode>success</securityResultCode><receivedMessageDetails/>"
+            + "<encodings><encodings><elementName>root</elementName><elementType>Ieee1609Dot2Data</elementType>"
+            + "<encodingRule>COER</encodingRule></encodings><encodings><elementName>unsecuredData</elementName>"
+            + "<elementType>MessageFrame</elementType><encodingRule>UPER</encodingRule></encodings></encodings>"
+            + "<wsmpHeader/><partitionKey>bundle-4</partitionKey></metadata>"
+            + "<payload><dataType>us.dot.its.jpo.ode.model.OdeHexByteArray</dataType>"
+            + "<data><bytes>" + PAYLOAD + "</bytes></data></payload></OdeAsn1Data>", xml);
+      // the thread's buffer is reused
+      assertEquals(xml, OdeAsn1DataXmlWriter.toXml(data));
+   }
+}
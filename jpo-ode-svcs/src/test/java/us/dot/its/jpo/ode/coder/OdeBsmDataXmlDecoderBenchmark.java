@@ -0,0 +1,51 @@
+package us.dot.its.jpo.ode.coder;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/*
+ * Simple benchmark app that compares decoding an ASN.1 codec BSM record
+ * through a JSON tree of the whole record with the one pass
+ * OdeBsmDataXmlDecoder.
+ *
+ * Usage: OdeBsmDataXmlDecoderBenchmark [decoderOutputXmlFile] [iterations]
+ */
+public class OdeBsmDataXmlDecoderBenchmark {
+
+   private interface Decoding {
+      Object run() throws Exception;
+   }
+
+   public static void main(String[] args) throws Exception {
+      String xml = new String(Files.readAllBytes(Paths.get(args.length > 0 ? args[0]
+            : "../data/bsmLogDuringEvent_Asn1DecoderOutput.xml")), "UTF-8");
+      int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+
+      // warm up both paths before measuring
+      for (int i = 0; i < 20000; i++) {
+         OdeBsmDataCreatorHelper.createOdeBsmDataFromTree(xml);
+         OdeBsmDataXmlDecoder.decode(xml);
+      }
+
+      System.out.println("method, ns/record, bytes allocated/record");
+      measure("XML to JSON tree", iterations, () -> OdeBsmDataCreatorHelper.createOdeBsmDataFromTree(xml));
+      measure("OdeBsmDataXmlDecoder", iterations, () -> OdeBsmDataXmlDecoder.decode(xml));
+   }
+
+   private static void measure(String method, int iterations, Decoding task) throws Exception {
+      com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory
+            .getThreadMXBean();
+      long threadId = Thread.currentThread().getId();
+
+      long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+      long start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+         task.run();
+      }
+      long elapsed = System.nanoTime() - start;
+      long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+      System.out.println(method + ", " + elapsed / iterations + ", " + allocated / iterations);
+   }
+}
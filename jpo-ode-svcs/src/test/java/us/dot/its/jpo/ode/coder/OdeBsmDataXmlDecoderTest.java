@@ -0,0 +1,80 @@
+package us.dot.its.jpo.ode.coder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+import us.dot.its.jpo.ode.coder.OdeBsmDataXmlDecoder.OdeBsmDataXmlDecoderException;
+import us.dot.its.jpo.ode.model.OdeBsmData;
+import us.dot.its.jpo.ode.model.OdeBsmMetadata;
+import us.dot.its.jpo.ode.model.OdeLogMetadata.RecordType;
+import us.dot.its.jpo.ode.plugin.j2735.J2735Bsm;
+import us.dot.its.jpo.ode.util.JsonUtils;
+
+public class OdeBsmDataXmlDecoderTest {
+
+   private static String fixture(String name) throws IOException {
+      return new String(Files.readAllBytes(Paths.get("../data/" + name + "_Asn1DecoderOutput.xml")), "UTF-8");
+   }
+
+   private static void assertSameAsTreeDecoding(String xml) throws Exception {
+      OdeBsmData expected = OdeBsmDataCreatorHelper.createOdeBsmDataFromTree(xml);
+      OdeBsmData actual = OdeBsmDataXmlDecoder.decode(xml);
+      assertEquals(JsonUtils.toJson(expected, true), JsonUtils.toJson(actual, true));
+   }
+
+   @Test
+   public void shouldMatchTreeDecodingOfBsmLogDuringEvent() throws Exception {
+      assertSameAsTreeDecoding(fixture("bsmLogDuringEvent"));
+   }
+
+   @Test
+   public void shouldMatchTreeDecodingOfBsmTx() throws Exception {
+      assertSameAsTreeDecoding(fixture("bsmTx"));
+   }
+
+   @Test
+   public void shouldDecodeMetadataAndBsm() throws Exception {
+      OdeBsmData bsm = OdeBsmDataXmlDecoder.decode(fixture("bsmLogDuringEvent"));
+
+      OdeBsmMetadata metadata = (OdeBsmMetadata) bsm.getMetadata();
+      assertEquals(RecordType.bsmLogDuringEvent, metadata.getRecordType());
+      assertEquals("e0e4b631-ccd1-47ac-9ff6-243dcee2f0e6", metadata.getSerialId().getStreamId());
+      assertEquals(3, metadata.getSerialId().getBundleId());
+      assertEquals(Integer.valueOf(3), metadata.getSchemaVersion());
+
+      J2735Bsm j2735Bsm = (J2735Bsm) bsm.getPayload().getData();
+      assertEquals("14030000", j2735Bsm.getCoreData().getId());
+      assertEquals(2, j2735Bsm.getPartII().size());
+   }
+
+   @Test
+   public void shouldMatchTreeDecodingOfRepeatedAndTypedElements() throws Exception {
+      String xml = fixture("bsmTx").replace("<id>24EF0000</id>", "<id>00120000</id>").replace("<msgCnt>95</msgCnt>",
+            "<msgCnt>095</msgCnt>");
+      assertSameAsTreeDecoding(xml);
+   }
+
+   @Test
+   public void shouldTypeTextAsOrgJson() {
+      assertTrue(OdeBsmDataXmlDecoder.typedValue("14030000").isInt());
+      assertTrue(OdeBsmDataXmlDecoder.typedValue("-1049692161").isInt());
+      assertTrue(OdeBsmDataXmlDecoder.typedValue("4294967296").isLong());
+      assertTrue(OdeBsmDataXmlDecoder.typedValue("0012").isTextual());
+      assertTrue(OdeBsmDataXmlDecoder.typedValue("24EF0000").isTextual());
+      assertTrue(OdeBsmDataXmlDecoder.typedValue("2.0").isInt());
+      assertTrue(OdeBsmDataXmlDecoder.typedValue("1.50").isDouble());
+      assertTrue(OdeBsmDataXmlDecoder.typedValue("False").isBoolean());
+      assertEquals("", OdeBsmDataXmlDecoder.typedValue("").asText());
+   }
+
+   @Test(expected = OdeBsmDataXmlDecoderException.class)
+   public void shouldRejectRecordWithoutBsm() throws Exception {
+      OdeBsmDataXmlDecoder.decode(fixture("rxMsg_TIM"));
+   }
+}
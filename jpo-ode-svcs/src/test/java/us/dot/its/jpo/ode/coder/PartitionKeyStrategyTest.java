@@ -0,0 +1,58 @@
+package us.dot.its.jpo.ode.coder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import us.dot.its.jpo.ode.coder.PartitionKeyStrategy.Strategy;
+import us.dot.its.jpo.ode.model.OdeBsmData;
+import us.dot.its.jpo.ode.model.OdeBsmMetadata;
+import us.dot.its.jpo.ode.model.OdeBsmPayload;
+import us.dot.its.jpo.ode.plugin.j2735.J2735Bsm;
+import us.dot.its.jpo.ode.plugin.j2735.J2735BsmCoreData;
+
+public class PartitionKeyStrategyTest {
+
+   private static OdeBsmData bsm(String tempId) {
+      J2735BsmCoreData coreData = new J2735BsmCoreData();
+      coreData.setId(tempId);
+      J2735Bsm j2735Bsm = new J2735Bsm();
+      j2735Bsm.setCoreData(coreData);
+      OdeBsmPayload payload = new OdeBsmPayload(j2735Bsm);
+      return new OdeBsmData(new OdeBsmMetadata(payload), payload);
+   }
+
+   @Test
+   public void vehicleShouldKeyBsmsByTempId() {
+      PartitionKeyStrategy keys = new PartitionKeyStrategy(Strategy.VEHICLE);
+      assertEquals("BEA10000", keys.forData(bsm("BEA10000"), "bundle-7"));
+      assertEquals("bundle-7", keys.forData(bsm(""), "bundle-7"));
+      assertEquals("bundle-7", keys.forLogFile(7));
+      assertEquals("10.1.1.12", keys.forRsu("10.1.1.12"));
+   }
+
+   @Test
+   public void sourceShouldKeepSourceKey() {
+      PartitionKeyStrategy keys = new PartitionKeyStrategy(Strategy.SOURCE);
+      assertEquals("10.1.1.12", keys.forData(bsm("BEA10000"), "10.1.1.12"));
+      assertNull(keys.forData(bsm("BEA10000"), null));
+   }
+
+   @Test
+   public void noneShouldNotKey() {
+      PartitionKeyStrategy keys = new PartitionKeyStrategy(Strategy.of(null));
+      assertNull(keys.forLogFile(7));
+      assertNull(keys.forRsu("10.1.1.12"));
+      assertNull(keys.forData(bsm("BEA10000"), "bundle-7"));
+      assertNull(keys.fromMetadata("bundle-7"));
+   }
+
+   @Test
+   public void shouldReadKeyFromMetadata() {
+      PartitionKeyStrategy keys = new PartitionKeyStrategy(Strategy.of(" vehicle"));
+      assertEquals("bundle-7", keys.fromMetadata("bundle-7"));
+      assertNull(keys.fromMetadata(""));
+      assertNull(keys.fromMetadata(null));
+   }
+}
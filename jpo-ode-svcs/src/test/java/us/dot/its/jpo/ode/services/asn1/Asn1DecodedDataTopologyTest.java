@@ -0,0 +1,182 @@
+package us.dot.its.jpo.ode.services.asn1;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Properties;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.test.ProcessorTopologyTestDriver;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.model.OdeBsmData;
+import us.dot.its.jpo.ode.model.OdeBsmMetadata;
+import us.dot.its.jpo.ode.model.OdeBsmPayload;
+import us.dot.its.jpo.ode.plugin.j2735.J2735Bsm;
+import us.dot.its.jpo.ode.services.asn1.Asn1DecodedDataRoutes.Route;
+import us.dot.its.jpo.ode.util.BinaryJsonUtils;
+import us.dot.its.jpo.ode.util.BinaryJsonUtils.Format;
+import us.dot.its.jpo.ode.util.JsonUtils;
+import us.dot.its.jpo.ode.wrapper.DeadLetterEnvelope;
+import us.dot.its.jpo.ode.wrapper.serdes.OdeBsmDeserializer;
+
+public class Asn1DecodedDataTopologyTest {
+
+   private static final String TIM = "{\"metadata\":{},\"payload\":{}}";
+
+   private OdeProperties odeProperties;
+   private OdeBsmData bsm;
+   private ProcessorTopologyTestDriver driver;
+
+   /*
+    * Routes by the consumed value instead of decoding XML, so the test covers
+    * the topology rather than the decoding.
+    */
+   private class FixedRoutes extends Asn1DecodedDataRoutes {
+      FixedRoutes(OdeProperties odeProps) {
+         super(odeProps);
+      }
+
+      @Override
+      public Route route(String consumedData) throws Exception {
+         switch (consumedData) {
+         case "bsmRx":
+            return Route.bsm(bsm,
+                  Arrays.asList(odeProperties.getKafkaTopicOdeBsmRxPojo(), odeProperties.getKafkaTopicOdeBsmPojo()));
+         case "tim":
+            return Route.tim(TIM, Arrays.asList(odeProperties.getKafkaTopicOdeTimJson()));
+         case "keyedTim":
+            return Route.tim(TIM, Arrays.asList(odeProperties.getKafkaTopicOdeTimJson()), "10.1.1.12");
+         case "duplicate":
+            return null;
+         default:
+            throw new IllegalArgumentException(consumedData);
+         }
+      }
+   }
+
+   @Before
+   public void setUp() throws IOException {
+      odeProperties = new OdeProperties();
+      bsm = new OdeBsmData(new OdeBsmMetadata(new OdeBsmPayload(new J2735Bsm())), new OdeBsmPayload(new J2735Bsm()));
+      startDriver();
+   }
+
+   private void startDriver() throws IOException {
+      Asn1DecodedDataTopology topology = new Asn1DecodedDataTopology(odeProperties, new FixedRoutes(odeProperties));
+      Properties props = topology.getStreamsProperties();
+      props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+      props.put(StreamsConfig.STATE_DIR_CONFIG, Files.createTempDirectory("topology").toString());
+      driver = new ProcessorTopologyTestDriver(new StreamsConfig(props), topology.build());
+   }
+
+   @After
+   public void tearDown() {
+      driver.close();
+   }
+
+   private void send(String value) {
+      driver.process(odeProperties.getKafkaTopicAsn1DecoderOutput(), "key", value, new StringSerializer(),
+            new StringSerializer());
+   }
+
+   private ProducerRecord<String, String> readString(String topic) {
+      return driver.readOutput(topic, new StringDeserializer(), new StringDeserializer());
+   }
+
+   private ProducerRecord<String, OdeBsmData> readBsm(String topic) {
+      return driver.readOutput(topic, new StringDeserializer(), new OdeBsmDeserializer());
+   }
+
+   @Test
+   public void shouldWriteBsmPojoAndJsonInOnePass() {
+      send("bsmRx");
+
+      ProducerRecord<String, OdeBsmData> rx = readBsm(odeProperties.getKafkaTopicOdeBsmRxPojo());
+      assertEquals("key", rx.key());
+      assertTrue(rx.value() instanceof OdeBsmData);
+      assertEquals("key", readBsm(odeProperties.getKafkaTopicOdeBsmPojo()).key());
+
+      ProducerRecord<String, String> json = readString(odeProperties.getKafkaTopicOdeBsmJson());
+      assertEquals("key", json.key());
+      assertEquals(JsonUtils.toJson(bsm, false), json.value());
+
+      assertNull(readBsm(odeProperties.getKafkaTopicOdeBsmTxPojo()));
+      assertNull(readBsm(odeProperties.getKafkaTopicOdeBsmDuringEventPojo()));
+      assertNull(readString(odeProperties.getKafkaTopicOdeTimJson()));
+   }
+
+   @Test
+   public void shouldWriteTimJson() {
+      send("tim");
+
+      assertEquals(TIM, readString(odeProperties.getKafkaTopicOdeTimJson()).value());
+      assertNull(readString(odeProperties.getKafkaTopicOdeTimRxJson()));
+      assertNull(readString(odeProperties.getKafkaTopicOdeBsmJson()));
+   }
+
+   @Test
+   public void shouldSendWithRouteKey() {
+      send("keyedTim");
+
+      ProducerRecord<String, String> tim = readString(odeProperties.getKafkaTopicOdeTimJson());
+      assertEquals("10.1.1.12", tim.key());
+      assertEquals(TIM, tim.value());
+   }
+
+   @Test
+   public void shouldDropUnroutedAndFailedRecords() {
+      send("duplicate");
+      send("garbage");
+
+      assertNull(readBsm(odeProperties.getKafkaTopicOdeBsmPojo()));
+      assertNull(readString(odeProperties.getKafkaTopicOdeBsmJson()));
+      assertNull(readString(odeProperties.getKafkaTopicOdeTimJson()));
+   }
+
+   @Test
+   public void shouldDeadLetterFailedRecords() {
+      send("garbage");
+
+      ProducerRecord<String, String> deadLetter = readString("topic.OdeDeadLetterAsn1DecodedDataTopology");
+      assertEquals("key", deadLetter.key());
+      DeadLetterEnvelope envelope = DeadLetterEnvelope.fromJson(deadLetter.value());
+      assertEquals(Asn1DecodedDataTopology.APPLICATION_ID, envelope.getStage());
+      assertEquals(odeProperties.getKafkaTopicAsn1DecoderOutput(), envelope.getTopic());
+      assertEquals(IllegalArgumentException.class.getName(), envelope.getExceptionClass());
+      assertEquals("garbage", new String(envelope.getPayloadBytes(), StandardCharsets.UTF_8));
+      assertNull(readString("topic.OdeDeadLetterAsn1DecodedDataTopology"));
+   }
+
+   @Test
+   public void shouldWriteBinaryJsonNextToJson() throws Exception {
+      odeProperties.setBinaryJsonFormat("SMILE");
+      driver.close();
+      startDriver();
+      send("bsmRx");
+      send("tim");
+
+      String bsmJson = readString(odeProperties.getKafkaTopicOdeBsmJson()).value();
+      ProducerRecord<String, byte[]> bsmSmile = driver.readOutput("topic.OdeBsmSmile", new StringDeserializer(),
+            new ByteArrayDeserializer());
+      assertEquals("key", bsmSmile.key());
+      assertEquals(bsmJson, BinaryJsonUtils.toJson(bsmSmile.value(), Format.SMILE));
+
+      assertEquals(TIM, readString(odeProperties.getKafkaTopicOdeTimJson()).value());
+      ProducerRecord<String, byte[]> timSmile = driver.readOutput("topic.OdeTimSmile", new StringDeserializer(),
+            new ByteArrayDeserializer());
+      assertEquals(TIM, BinaryJsonUtils.toJson(timSmile.value(), Format.SMILE));
+   }
+}
@@ -9,6 +9,8 @@ import mockit.Expectations;
 import mockit.Injectable;
 import us.dot.its.jpo.ode.OdeProperties;
 import us.dot.its.jpo.ode.wrapper.MessageConsumer;
+import us.dot.its.jpo.ode.wrapper.ParallelMessageConsumer;
+import us.dot.its.jpo.ode.wrapper.ParallelMessageConsumer.Ordering;
 
 public class AsnCodecRouterServiceControllerTest {
 
@@ -26,8 +28,35 @@ public class AsnCodecRouterServiceControllerTest {
 
       new Expectations() {
          {
-            MessageConsumer.defaultStringMessageConsumer(anyString, anyString, (Asn1DecodedDataRouter) any);
-            times = 2;
+            ParallelMessageConsumer.defaultStringMessageConsumer(anyString, anyString, (Asn1DecodedDataRouter) any,
+                  anyInt, (Ordering) any);
+            times = 1;
+
+            MessageConsumer.defaultStringMessageConsumer(anyString, anyString, (Asn1EncodedDataRouter) any);
+            times = 1;
+         }
+      };
+
+      assertNotNull(new AsnCodecRouterServiceController(injectableOdeProperties));
+   }
+
+   @Test
+   public void shouldStartTopologyInsteadOfDecoderConsumer(@Capturing Asn1DecodedDataTopology capturingTopology) {
+
+      new Expectations() {
+         {
+            injectableOdeProperties.isKafkaStreamsTopologyEnabled();
+            result = true;
+
+            capturingTopology.start();
+            times = 1;
+
+            ParallelMessageConsumer.defaultStringMessageConsumer(anyString, anyString, (Asn1DecodedDataRouter) any,
+                  anyInt, (Ordering) any);
+            times = 0;
+
+            MessageConsumer.defaultStringMessageConsumer(anyString, anyString, (Asn1EncodedDataRouter) any);
+            times = 1;
          }
       };
 
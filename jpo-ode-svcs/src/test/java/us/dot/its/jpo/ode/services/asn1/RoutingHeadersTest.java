@@ -0,0 +1,50 @@
+package us.dot.its.jpo.ode.services.asn1;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.Test;
+
+public class RoutingHeadersTest {
+
+   private static final String DECODED = "<?xml version=\"1.0\"?><OdeAsn1Data><metadata>"
+         + "<payloadType>us.dot.its.jpo.ode.model.OdeAsn1Payload</payloadType>"
+         + "<serialId><streamId>2930f298-bdf7-4798-8c4a-1d58091412d4</streamId><bundleId>2</bundleId></serialId>"
+         + "<odeReceivedAt>2017-11-09T12:58:27.92Z[UTC]</odeReceivedAt><schemaVersion>3</schemaVersion>"
+         + "<recordType>bsmTx</recordType><partitionKey>bundle-2</partitionKey></metadata>"
+         + "<payload><dataType>MessageFrame</dataType><data><MessageFrame><messageId>20</messageId>"
+         + "<value><BasicSafetyMessage><coreData><msgCnt>95</msgCnt><id>24EF0000</id></coreData>"
+         + "</BasicSafetyMessage></value></MessageFrame></data></payload></OdeAsn1Data>";
+
+   @Test
+   public void shouldReadRoutingFields() throws XMLStreamException {
+      RoutingHeaders headers = RoutingHeaders.fromXml(DECODED);
+      assertEquals(Integer.valueOf(20), headers.getMessageId());
+      assertEquals("bsmTx", headers.getRecordType());
+      assertEquals("us.dot.its.jpo.ode.model.OdeAsn1Payload", headers.getPayloadType());
+      assertEquals(Integer.valueOf(3), headers.getSchemaVersion());
+      assertEquals("2017-11-09T12:58:27.92Z[UTC]", headers.getOdeReceivedAt());
+      assertEquals("bundle-2", headers.getPartitionKey());
+   }
+
+   @Test
+   public void shouldStopAtMessageId() throws XMLStreamException {
+      // a malformed body is never reached
+      RoutingHeaders headers = RoutingHeaders.fromXml(
+            "<OdeAsn1Data><metadata><recordType>rxMsg</recordType></metadata><payload><data><MessageFrame>"
+                  + "<messageId>31</messageId><value><TravelerInformation></value>");
+      assertEquals(Integer.valueOf(31), headers.getMessageId());
+      assertEquals("rxMsg", headers.getRecordType());
+      assertNull(headers.getPartitionKey());
+   }
+
+   @Test
+   public void shouldReturnEmptyHeadersWithoutMessageFrame() throws XMLStreamException {
+      RoutingHeaders headers = RoutingHeaders.fromXml(
+            "<OdeAsn1Data><metadata><recordType/></metadata><payload/></OdeAsn1Data>");
+      assertNull(headers.getMessageId());
+      assertEquals("", headers.getRecordType());
+   }
+}
@@ -0,0 +1,72 @@
+package us.dot.its.jpo.ode.services.json;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import us.dot.its.jpo.ode.util.BinaryJsonUtils;
+import us.dot.its.jpo.ode.util.BinaryJsonUtils.Format;
+
+/*
+ * Simple benchmark app that compares a record of a JSON topic with its Smile
+ * and CBOR mirror records: the bytes each puts on the wire and the CPU a
+ * consumer spends reading it into a tree.
+ *
+ * Usage: BinaryJsonBenchmark [odeOutputJsonFile] [iterations]
+ */
+public class BinaryJsonBenchmark {
+
+   public static void main(String[] args) throws Exception {
+      String pretty = new String(Files.readAllBytes(Paths.get(args.length > 0 ? args[0]
+            : "../data/bsmLogDuringEvent_OdeOutput.json")), "UTF-8");
+      int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 200000;
+
+      // the JSON topics carry compact JSON
+      ObjectMapper jsonMapper = new ObjectMapper();
+      String json = jsonMapper.writeValueAsString(jsonMapper.readTree(pretty));
+
+      String[] formats = { "JSON", "Smile", "CBOR" };
+      byte[][] records = {
+            json.getBytes(StandardCharsets.UTF_8),
+            BinaryJsonUtils.fromJson(json, Format.SMILE),
+            BinaryJsonUtils.fromJson(json, Format.CBOR) };
+      ObjectMapper[] mappers = {
+            jsonMapper,
+            new ObjectMapper(new SmileFactory()),
+            new ObjectMapper(new CBORFactory()) };
+
+      // warm up all readers before measuring
+      for (int i = 0; i < 50000; i++) {
+         for (int f = 0; f < formats.length; f++) {
+            mappers[f].readTree(records[f]);
+         }
+      }
+
+      System.out.println("format, bytes/record, CPU ns/record, bytes allocated/record");
+      for (int f = 0; f < formats.length; f++) {
+         measure(formats[f], iterations, records[f], mappers[f]);
+      }
+   }
+
+   private static void measure(String format, int iterations, byte[] record, ObjectMapper mapper)
+         throws Exception {
+      com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory
+            .getThreadMXBean();
+      long threadId = Thread.currentThread().getId();
+
+      long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+      long cpuBefore = threadBean.getCurrentThreadCpuTime();
+      for (int i = 0; i < iterations; i++) {
+         mapper.readTree(record);
+      }
+      long cpu = threadBean.getCurrentThreadCpuTime() - cpuBefore;
+      long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+      System.out.println(format + ", " + record.length + ", " + cpu / iterations + ", " + allocated / iterations);
+   }
+}
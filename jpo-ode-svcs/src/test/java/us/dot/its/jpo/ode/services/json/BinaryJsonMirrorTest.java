@@ -0,0 +1,54 @@
+package us.dot.its.jpo.ode.services.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+import mockit.Mocked;
+import mockit.Verifications;
+import us.dot.its.jpo.ode.util.BinaryJsonUtils;
+import us.dot.its.jpo.ode.util.BinaryJsonUtils.Format;
+import us.dot.its.jpo.ode.wrapper.MessageProducer;
+
+public class BinaryJsonMirrorTest {
+
+   private static final String JSON = "{\"metadata\":{\"schemaVersion\":1},\"payload\":{\"speed\":0.00}}";
+
+   @Mocked
+   MessageProducer<String, byte[]> mockProducer;
+
+   @Test
+   public void shouldNameBinaryTopics() {
+      assertEquals("topic.OdeBsmSmile", BinaryJsonMirror.topicFor("topic.OdeBsmJson", Format.SMILE));
+      assertEquals("topic.OdeTimBroadcastCbor", BinaryJsonMirror.topicFor("topic.OdeTimBroadcastJson", Format.CBOR));
+      assertEquals("topic.OdeDNMsgCbor", BinaryJsonMirror.topicFor("topic.OdeDNMsg", Format.CBOR));
+   }
+
+   @Test
+   public void disabledMirrorShouldNotSend() {
+      BinaryJsonMirror mirror = new BinaryJsonMirror(null, mockProducer);
+      assertFalse(mirror.isEnabled());
+      mirror.send("topic.OdeBsmJson", "key", JSON);
+      mirror.flush();
+
+      new Verifications() {{
+         mockProducer.send(anyString, anyString, (byte[]) any);
+         times = 0;
+         mockProducer.flush();
+         times = 0;
+      }};
+   }
+
+   @Test
+   public void shouldSendBinaryCopy() throws Exception {
+      BinaryJsonMirror mirror = new BinaryJsonMirror(Format.SMILE, mockProducer);
+      mirror.send("topic.OdeTimJson", "key", JSON);
+
+      new Verifications() {{
+         byte[] smile;
+         mockProducer.send("topic.OdeTimSmile", "key", smile = withCapture());
+         assertEquals(JSON, BinaryJsonUtils.toJson(smile, Format.SMILE));
+      }};
+   }
+}
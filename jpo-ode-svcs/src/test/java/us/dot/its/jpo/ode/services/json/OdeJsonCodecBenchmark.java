@@ -0,0 +1,77 @@
+package us.dot.its.jpo.ode.services.json;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import us.dot.its.jpo.ode.coder.OdeBsmDataXmlDecoder;
+import us.dot.its.jpo.ode.model.OdeBsmData;
+import us.dot.its.jpo.ode.util.OdeJsonCodec;
+
+/*
+ * Simple benchmark app that compares writing an OdeBsmData as JSON the way
+ * JsonUtils did, with a Gson instance per call path, with OdeJsonCodec.
+ *
+ * Usage: OdeJsonCodecBenchmark [decoderOutputXmlFile] [iterations]
+ */
+public class OdeJsonCodecBenchmark {
+
+   private interface Encoding {
+      Object run() throws Exception;
+   }
+
+   public static void main(String[] args) throws Exception {
+      String xml = new String(Files.readAllBytes(Paths.get(args.length > 0 ? args[0]
+            : "../data/bsmLogDuringEvent_Asn1DecoderOutput.xml")), "UTF-8");
+      int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+
+      OdeBsmData bsm = OdeBsmDataXmlDecoder.decode(xml);
+      Gson gson = new GsonBuilder().create();
+      ObjectMapper mapper = new ObjectMapper();
+
+      Encoding[] encodings = {
+            () -> gson.toJson(bsm),
+            () -> OdeJsonCodec.toJson(bsm, false),
+            () -> gson.toJson(bsm).getBytes(StandardCharsets.UTF_8),
+            () -> OdeJsonCodec.toJsonBytes(bsm, false),
+            () -> mapper.readTree(gson.toJson(bsm)),
+            () -> OdeJsonCodec.toObjectNode(bsm) };
+      String[] methods = {
+            "Gson.toJson", "OdeJsonCodec.toJson",
+            "Gson.toJson to UTF-8", "OdeJsonCodec.toJsonBytes",
+            "JSON string to tree", "OdeJsonCodec.toObjectNode" };
+
+      // warm up all paths before measuring
+      for (int i = 0; i < 20000; i++) {
+         for (Encoding encoding : encodings) {
+            encoding.run();
+         }
+      }
+
+      System.out.println("method, ns/record, bytes allocated/record");
+      for (int i = 0; i < encodings.length; i++) {
+         measure(methods[i], iterations, encodings[i]);
+      }
+   }
+
+   private static void measure(String method, int iterations, Encoding task) throws Exception {
+      com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory
+            .getThreadMXBean();
+      long threadId = Thread.currentThread().getId();
+
+      long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+      long start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+         task.run();
+      }
+      long elapsed = System.nanoTime() - start;
+      long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+      System.out.println(method + ", " + elapsed / iterations + ", " + allocated / iterations);
+   }
+}
@@ -7,7 +7,7 @@ import mockit.Injectable;
 import mockit.Mocked;
 import mockit.Tested;
 import us.dot.its.jpo.ode.OdeProperties;
-import us.dot.its.jpo.ode.util.JsonUtils;
+import us.dot.its.jpo.ode.util.OdeJsonCodec;
 import us.dot.its.jpo.ode.wrapper.MessageProducer;
 
 public class ToJsonConverterTest {
@@ -25,7 +25,7 @@ public class ToJsonConverterTest {
    @Test
    public void shouldCalltoJson(@Mocked final MessageProducer<String, String> mockMessageProducer) {
       new Expectations() {{
-         JsonUtils.toJson(any, anyBoolean);
+         OdeJsonCodec.toJson(any, anyBoolean);
       }};
       testToJsonConverter.process(new String());
    }
@@ -0,0 +1,25 @@
+package us.dot.its.jpo.ode.udp;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class BucketHistogramTest {
+
+   @Test
+   public void shouldCountValuesUpToEachBound() {
+      BucketHistogram testHistogram = new BucketHistogram(64, 128, 256);
+
+      testHistogram.record(0);
+      testHistogram.record(64);
+      testHistogram.record(65);
+      testHistogram.record(200);
+      testHistogram.record(256);
+      testHistogram.record(1500);
+
+      assertArrayEquals(new long[] { 2, 1, 2, 1 }, testHistogram.getCounts());
+      assertArrayEquals(new long[] { 64, 128, 256 }, testHistogram.getBounds());
+      assertEquals("<=64: 2, <=128: 1, <=256: 2, >256: 1", testHistogram.summary());
+   }
+}
@@ -0,0 +1,72 @@
+package us.dot.its.jpo.ode.udp;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Simple benchmark app that floods a DatagramChannelReceiver on the loopback
+ * interface and prints the packets/sec received for each reader count.
+ * 
+ * Usage: DatagramChannelReceiverBenchmark [payloadFile] [seconds] [senderThreads]
+ */
+public class DatagramChannelReceiverBenchmark {
+
+   private static final int[] READER_COUNTS = { 1, 2, 4, 8 };
+
+   public static void main(String[] args) throws Exception {
+      byte[] payload = args.length > 0 ? Files.readAllBytes(Paths.get(args[0]))
+            : Files.readAllBytes(Paths.get("../data/bsm.uper"));
+      int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+      int senderThreads = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+
+      System.out.println("readers, channels, sent/sec, received/sec");
+      for (int readers : READER_COUNTS) {
+         run(payload, readers, seconds, senderThreads);
+      }
+   }
+
+   private static void run(byte[] payload, int readers, int seconds, int senderThreads)
+         throws IOException, InterruptedException {
+      AtomicLong received = new AtomicLong();
+      AtomicLong sent = new AtomicLong();
+
+      DatagramChannelReceiver receiver = new DatagramChannelReceiver(0, 500, readers,
+            (p, sender) -> received.incrementAndGet(), "benchmark");
+      ExecutorService receiverExec = Executors.newSingleThreadExecutor();
+      receiverExec.submit(receiver);
+
+      long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(seconds);
+      ExecutorService senders = Executors.newFixedThreadPool(senderThreads);
+      for (int i = 0; i < senderThreads; i++) {
+         senders.submit(() -> {
+            try (DatagramSocket socket = new DatagramSocket()) {
+               DatagramPacket packet = new DatagramPacket(payload, payload.length,
+                     InetAddress.getLoopbackAddress(), receiver.getLocalPort());
+               while (System.currentTimeMillis() < deadline) {
+                  socket.send(packet);
+                  sent.incrementAndGet();
+               }
+            }
+            return null;
+         });
+      }
+      senders.shutdown();
+      senders.awaitTermination(seconds + 5L, TimeUnit.SECONDS);
+
+      // let the readers drain the socket buffers
+      Thread.sleep(500);
+      receiver.stop();
+      receiverExec.shutdown();
+
+      System.out.println(readers + ", " + receiver.getChannelCount() + ", " + sent.get() / seconds + ", "
+            + received.get() / seconds);
+   }
+}
@@ -0,0 +1,56 @@
+package us.dot.its.jpo.ode.udp;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class DatagramChannelReceiverTest {
+
+   @Test(timeout = 5000)
+   public void shouldDeliverPacketToListener() throws Exception {
+      CountDownLatch received = new CountDownLatch(1);
+      AtomicReference<byte[]> payload = new AtomicReference<>();
+
+      DatagramChannelReceiver testReceiver = new DatagramChannelReceiver(0, 500, 2, (p, sender) -> {
+         byte[] copy = new byte[p.remaining()];
+         p.get(copy);
+         payload.set(copy);
+         received.countDown();
+      }, "testReceiver");
+      ExecutorService exec = Executors.newSingleThreadExecutor();
+      exec.submit(testReceiver);
+
+      byte[] expected = new byte[] { 0x00, 0x14, 0x25, 0x7f };
+      try (DatagramSocket sender = new DatagramSocket()) {
+         sender.send(new DatagramPacket(expected, expected.length, InetAddress.getLoopbackAddress(),
+               testReceiver.getLocalPort()));
+      }
+
+      assertTrue(received.await(4, TimeUnit.SECONDS));
+      assertArrayEquals(expected, payload.get());
+      testReceiver.stop();
+      exec.shutdown();
+      assertTrue(exec.awaitTermination(4, TimeUnit.SECONDS));
+   }
+
+   @Test
+   public void readerCountShouldBeAtLeastOne() throws Exception {
+      DatagramChannelReceiver testReceiver = new DatagramChannelReceiver(0, 500, 0, (p, sender) -> {
+      }, "testReceiver");
+      assertEquals(1, testReceiver.getReaderCount());
+      assertEquals(1, testReceiver.getChannelCount());
+      testReceiver.stop();
+      assertTrue(testReceiver.isStopped());
+   }
+}
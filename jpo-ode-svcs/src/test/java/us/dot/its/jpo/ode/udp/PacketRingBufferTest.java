@@ -0,0 +1,155 @@
+package us.dot.its.jpo.ode.udp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import us.dot.its.jpo.ode.udp.PacketRingBuffer.OverflowPolicy;
+import us.dot.its.jpo.ode.udp.PacketRingBuffer.WaitStrategy;
+
+public class PacketRingBufferTest {
+
+   @Test
+   public void capacityShouldRoundUpToPowerOfTwo() {
+      assertEquals(8, new PacketRingBuffer<Integer>(5, WaitStrategy.BUSY_SPIN, OverflowPolicy.DROP_NEWEST).getCapacity());
+      assertEquals(8, new PacketRingBuffer<Integer>(8, WaitStrategy.BUSY_SPIN, OverflowPolicy.DROP_NEWEST).getCapacity());
+      assertEquals(1, new PacketRingBuffer<Integer>(1, WaitStrategy.BUSY_SPIN, OverflowPolicy.DROP_NEWEST).getCapacity());
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void shouldRejectZeroCapacity() {
+      new PacketRingBuffer<Integer>(0, WaitStrategy.BUSY_SPIN, OverflowPolicy.DROP_NEWEST);
+   }
+
+   @Test
+   public void shouldDeliverInOrder() {
+      PacketRingBuffer<Integer> ring = new PacketRingBuffer<>(4, WaitStrategy.BUSY_SPIN, OverflowPolicy.BLOCK);
+      for (int i = 0; i < 3; i++) {
+         assertTrue(ring.publish(i));
+      }
+      assertEquals(3, ring.getOccupancy());
+      for (int i = 0; i < 3; i++) {
+         assertEquals(Integer.valueOf(i), ring.take());
+      }
+      assertTrue(ring.isEmpty());
+      assertEquals(3, ring.getPublishedCount());
+      assertEquals(3, ring.getConsumedCount());
+      assertEquals(3, ring.getPeakOccupancy());
+   }
+
+   @Test
+   public void dropNewestShouldDiscardPublishedElement() {
+      PacketRingBuffer<Integer> ring = new PacketRingBuffer<>(2, WaitStrategy.BUSY_SPIN, OverflowPolicy.DROP_NEWEST);
+      assertTrue(ring.publish(1));
+      assertTrue(ring.publish(2));
+      assertFalse(ring.publish(3));
+
+      assertEquals(1, ring.getDroppedNewestCount());
+      assertEquals(1, ring.getDroppedCount());
+      assertEquals(Integer.valueOf(1), ring.take());
+      assertEquals(Integer.valueOf(2), ring.take());
+   }
+
+   @Test
+   public void dropOldestShouldEvictHead() {
+      PacketRingBuffer<Integer> ring = new PacketRingBuffer<>(2, WaitStrategy.BUSY_SPIN, OverflowPolicy.DROP_OLDEST);
+      assertTrue(ring.publish(1));
+      assertTrue(ring.publish(2));
+      assertTrue(ring.publish(3));
+
+      assertEquals(1, ring.getDroppedOldestCount());
+      assertEquals(Integer.valueOf(2), ring.take());
+      assertEquals(Integer.valueOf(3), ring.take());
+   }
+
+   @Test
+   public void evictedElementsShouldBePassedToListener() {
+      PacketRingBuffer<Integer> ring = new PacketRingBuffer<>(2, WaitStrategy.BUSY_SPIN, OverflowPolicy.DROP_OLDEST);
+      List<Integer> evicted = new ArrayList<>();
+      ring.setEvictionListener(evicted::add);
+      ring.publish(1);
+      ring.publish(2);
+      ring.publish(3);
+      ring.publish(4);
+
+      assertEquals(Arrays.asList(1, 2), evicted);
+   }
+
+   @Test
+   public void closeShouldDrainThenReturnNull() {
+      PacketRingBuffer<Integer> ring = new PacketRingBuffer<>(4, WaitStrategy.BLOCKING, OverflowPolicy.BLOCK);
+      ring.publish(1);
+      ring.close();
+
+      assertFalse(ring.publish(2));
+      assertEquals(Integer.valueOf(1), ring.take());
+      assertNull(ring.take());
+   }
+
+   @Test(timeout = 5000)
+   public void closeShouldWakeBlockedConsumer() throws Exception {
+      PacketRingBuffer<Integer> ring = new PacketRingBuffer<>(4, WaitStrategy.BLOCKING, OverflowPolicy.BLOCK);
+      ExecutorService exec = Executors.newSingleThreadExecutor();
+      Future<Integer> taken = exec.submit(ring::take);
+
+      Thread.sleep(50);
+      ring.close();
+
+      assertNull(taken.get(4, TimeUnit.SECONDS));
+      exec.shutdown();
+   }
+
+   @Test(timeout = 10000)
+   public void shouldNotLoseElementsAcrossProducersAndConsumers() throws Exception {
+      for (WaitStrategy strategy : WaitStrategy.values()) {
+         PacketRingBuffer<Long> ring = new PacketRingBuffer<>(16, strategy, OverflowPolicy.BLOCK);
+         int producers = 3;
+         int consumers = 2;
+         int perProducer = 20000;
+         AtomicLong sum = new AtomicLong();
+         AtomicLong count = new AtomicLong();
+
+         ExecutorService exec = Executors.newFixedThreadPool(producers + consumers);
+         for (int c = 0; c < consumers; c++) {
+            exec.submit(() -> {
+               Long value;
+               while (null != (value = ring.take())) {
+                  sum.addAndGet(value);
+                  count.incrementAndGet();
+               }
+            });
+         }
+         Future<?>[] sent = new Future<?>[producers];
+         for (int p = 0; p < producers; p++) {
+            sent[p] = exec.submit(() -> {
+               for (long i = 1; i <= perProducer; i++) {
+                  ring.publish(i);
+               }
+            });
+         }
+         for (Future<?> f : sent) {
+            f.get();
+         }
+         ring.close();
+         exec.shutdown();
+         assertTrue(exec.awaitTermination(5, TimeUnit.SECONDS));
+
+         long expectedSum = (long) producers * perProducer * (perProducer + 1) / 2;
+         assertEquals(strategy.name(), (long) producers * perProducer, count.get());
+         assertEquals(strategy.name(), expectedSum, sum.get());
+         assertEquals(0, ring.getDroppedCount());
+      }
+   }
+}
@@ -0,0 +1,75 @@
+package us.dot.its.jpo.ode.udp;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import us.dot.its.jpo.ode.util.CodecUtils;
+
+public class RawSemiMessageTest {
+
+   // samples from the ISD and VSD emulators
+   private static final String ISD_REQUEST_HEX = "20000000000020202020";
+   private static final String ISD_HEX = "2088260186b49c479c0010c3853981e64aace3f0e05dbfa994558774e000c0008061a804e0c4e78d93760e4c63780b7029";
+   private static final String VSD_REQUEST_HEX = "80000000000020202033477d77398108";
+   private static final String VSD_HEX = "01000000000040404040a008004f85bfbeee252f000f21c53e0981e0aca0813c4d20bffe01a1f9f45f46a9ffffe002081d";
+
+   private static final byte[] REQUEST_ID = new byte[] { 1, 1, 1, 1 };
+
+   @Test
+   public void shouldClassifyServiceRequests() {
+      byte[] isdRequest = CodecUtils.fromHex(ISD_REQUEST_HEX);
+      byte[] vsdRequest = CodecUtils.fromHex(VSD_REQUEST_HEX);
+
+      assertEquals(SemiMessageType.SERVICE_REQUEST, SemiMessageType.classify(isdRequest));
+      assertEquals(SemiMessageType.SERVICE_REQUEST, SemiMessageType.classify(vsdRequest));
+      assertArrayEquals(REQUEST_ID, SemiMessageType.SERVICE_REQUEST.getRequestId(isdRequest, 0));
+      assertArrayEquals(REQUEST_ID, SemiMessageType.SERVICE_REQUEST.getRequestId(vsdRequest, 0));
+   }
+
+   @Test
+   public void shouldClassifyDataMessages() {
+      byte[] vsd = CodecUtils.fromHex(VSD_HEX);
+
+      assertEquals(SemiMessageType.INTERSECTION_SITUATION_DATA, SemiMessageType.classify(CodecUtils.fromHex(ISD_HEX)));
+      assertEquals(SemiMessageType.VEH_SIT_DATA, SemiMessageType.classify(vsd));
+      assertArrayEquals(REQUEST_ID, SemiMessageType.VEH_SIT_DATA.getRequestId(vsd, 0));
+   }
+
+   @Test
+   public void shouldNotClassifyOtherMessages() {
+      assertNull(SemiMessageType.classify(CodecUtils.fromHex("ffffffffffffffffffff")));
+      assertFalse(SemiMessageType.INTERSECTION_SITUATION_DATA == SemiMessageType
+            .classify(CodecUtils.fromHex("001480ad59afa8400023efe717087d96")));
+      assertNull(SemiMessageType.classify(CodecUtils.fromHex("2088")));
+      assertNull(SemiMessageType.classify(new byte[0]));
+   }
+
+   @Test
+   public void wrappedMessageShouldKeepPayloadAndHeader() {
+      byte[] isd = CodecUtils.fromHex(ISD_HEX);
+      byte[] packet = new byte[500];
+      System.arraycopy(isd, 0, packet, 0, isd.length);
+
+      byte[] record = RawSemiMessage.wrap(SemiMessageType.INTERSECTION_SITUATION_DATA, packet, 0, isd.length);
+
+      assertTrue(RawSemiMessage.isRaw(record));
+      assertEquals(RawSemiMessage.HEADER_LENGTH + isd.length, record.length);
+      assertEquals(SemiMessageType.INTERSECTION_SITUATION_DATA, RawSemiMessage.getType(record));
+      assertArrayEquals(SemiMessageType.INTERSECTION_SITUATION_DATA.getRequestId(isd, 0),
+            RawSemiMessage.getRequestId(record));
+      assertArrayEquals(isd, RawSemiMessage.getPayload(record));
+   }
+
+   @Test
+   public void serializedMessagesShouldNotBeRaw() {
+      assertFalse(RawSemiMessage.isRaw(null));
+      assertFalse(RawSemiMessage.isRaw(CodecUtils.fromHex(ISD_HEX)));
+      // Kryo writeClassAndObject output for an unregistered class
+      assertFalse(RawSemiMessage.isRaw(CodecUtils.fromHex("01007573")));
+   }
+}
@@ -0,0 +1,88 @@
+package us.dot.its.jpo.ode.udp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.net.InetAddress;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class SourceRateLimiterTest {
+
+   private static InetAddress address(String ip) throws Exception {
+      return InetAddress.getByName(ip);
+   }
+
+   @Test
+   public void createShouldReturnNullWhenNotConfigured() {
+      assertNull(SourceRateLimiter.create("test", 0, 10, 1000, 10, null));
+      assertNull(SourceRateLimiter.create("test", 0, 10, 1000, 10, " "));
+      assertNotNull(SourceRateLimiter.create("test", 10, 10, 1000, 10, null));
+      assertNotNull(SourceRateLimiter.create("test", 0, 10, 1000, 10, "10.0.0.1"));
+   }
+
+   @Test
+   public void shouldAllowBurstThenDrop() throws Exception {
+      SourceRateLimiter limiter = new SourceRateLimiter("test", 1, 5, 60000, 10, null);
+      InetAddress rsu = address("10.0.0.1");
+
+      for (int i = 0; i < 5; i++) {
+         assertTrue(limiter.tryAcquire(rsu));
+      }
+      assertFalse(limiter.tryAcquire(rsu));
+
+      assertEquals(5, limiter.getAcceptedCount());
+      assertEquals(1, limiter.getDroppedCount());
+      assertEquals(5, limiter.getSources().get(rsu).getAcceptedCount());
+      assertEquals(1, limiter.getSources().get(rsu).getDroppedCount());
+      assertTrue(limiter.getSources().get(rsu).isThrottled());
+   }
+
+   @Test
+   public void sourcesShouldHaveIndependentBuckets() throws Exception {
+      SourceRateLimiter limiter = new SourceRateLimiter("test", 1, 1, 60000, 10, null);
+
+      assertTrue(limiter.tryAcquire(address("10.0.0.1")));
+      assertFalse(limiter.tryAcquire(address("10.0.0.1")));
+      assertTrue(limiter.tryAcquire(address("10.0.0.2")));
+      assertEquals(2, limiter.getSourceCount());
+   }
+
+   @Test
+   public void shouldRefillOverTime() throws Exception {
+      SourceRateLimiter limiter = new SourceRateLimiter("test", 100, 1, 60000, 10, null);
+      InetAddress rsu = address("10.0.0.1");
+
+      assertTrue(limiter.tryAcquire(rsu));
+      assertFalse(limiter.tryAcquire(rsu));
+      Thread.sleep(30);
+      assertTrue(limiter.tryAcquire(rsu));
+      assertFalse(limiter.getSources().get(rsu).isThrottled());
+   }
+
+   @Test
+   public void shouldRejectSourcesNotOnAllowList() throws Exception {
+      SourceRateLimiter limiter = new SourceRateLimiter("test", 0, 1, 60000, 10,
+            Collections.singleton(address("10.0.0.1")));
+
+      assertTrue(limiter.tryAcquire(address("10.0.0.1")));
+      assertTrue(limiter.tryAcquire(address("10.0.0.1")));
+      assertFalse(limiter.tryAcquire(address("10.0.0.2")));
+      assertEquals(1, limiter.getRejectedCount());
+   }
+
+   @Test
+   public void newSourcesShouldShareOverflowBucketWhenFull() throws Exception {
+      SourceRateLimiter limiter = new SourceRateLimiter("test", 1, 1, 60000, 1, null);
+
+      assertTrue(limiter.tryAcquire(address("10.0.0.1")));
+      assertTrue(limiter.tryAcquire(address("10.0.0.2")));
+      assertFalse(limiter.tryAcquire(address("10.0.0.3")));
+      assertEquals(1, limiter.getSourceCount());
+      assertEquals(1, limiter.getOverflow().getDroppedCount());
+   }
+}
@@ -0,0 +1,43 @@
+package us.dot.its.jpo.ode.udp;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class UdpKernelStatsTest {
+
+   private static final List<String> PROC_NET_UDP = Arrays.asList(
+         "   sl  local_address rem_address   st tx_queue rx_queue tr tm->when retrnsmt   uid  timeout inode ref pointer drops",
+         "  123: 00000000:B6D0 00000000:0000 07 00000000:00000A00 00:00000000 00000000     0        0 41231 2 ffff8b2a5c0e4000 17",
+         "  124: 00000000:B6D0 00000000:0000 07 00000000:00000100 00:00000000 00000000     0        0 41232 2 ffff8b2a5c0e4400 3",
+         "  310: 0100007F:B6D1 00000000:0000 07 00000000:00000000 00:00000000 00000000     0        0 41233 2 ffff8b2a5c0e4800 99");
+
+   @Test
+   public void shouldSumSocketsBoundToPort() {
+      // 0xB6D0 = 46800
+      UdpKernelStats stats = UdpKernelStats.parse(PROC_NET_UDP, 46800);
+
+      assertEquals(2, stats.getSocketCount());
+      assertEquals(20, stats.getDrops());
+      assertEquals(0xA00 + 0x100, stats.getReceiveQueueBytes());
+   }
+
+   @Test
+   public void otherPortsShouldNotMatch() {
+      UdpKernelStats stats = UdpKernelStats.parse(PROC_NET_UDP, 46753);
+
+      assertEquals(0, stats.getSocketCount());
+      assertEquals(0, stats.getDrops());
+   }
+
+   @Test
+   public void malformedLinesShouldBeSkipped() {
+      UdpKernelStats stats = UdpKernelStats.parse(Arrays.asList("", "  1: garbage",
+            "  2: 00000000:B6D0 00000000:0000 07 00000000:zz 00:00000000 00000000 0 0 1 2 0 x"), 46800);
+
+      assertEquals(0, stats.getSocketCount());
+   }
+}
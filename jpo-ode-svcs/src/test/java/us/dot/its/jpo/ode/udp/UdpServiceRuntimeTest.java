@@ -0,0 +1,164 @@
+package us.dot.its.jpo.ode.udp;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import mockit.Expectations;
+import mockit.Mocked;
+import us.dot.its.jpo.ode.OdeProperties;
+
+public class UdpServiceRuntimeTest {
+
+   @Mocked
+   OdeProperties mockOdeProperties;
+
+   private static class TestHandler implements PacketHandler {
+      private final List<byte[]> payloads = new CopyOnWriteArrayList<>();
+      private final CountDownLatch received;
+      private final CountDownLatch started = new CountDownLatch(1);
+      private final CountDownLatch stopped = new CountDownLatch(1);
+
+      TestHandler(int expected) {
+         received = new CountDownLatch(expected);
+      }
+
+      @Override
+      public int getPort() {
+         return 0;
+      }
+
+      @Override
+      public int getBufferSize() {
+         return 500;
+      }
+
+      @Override
+      public int getSocketReceiveBufferSize() {
+         return 65536;
+      }
+
+      @Override
+      public void onStart(DatagramSocket socket) {
+         started.countDown();
+      }
+
+      @Override
+      public void handle(UdpPacket packet) throws Exception {
+         payloads.add(packet.getPayload());
+         received.countDown();
+      }
+
+      @Override
+      public void onStop() {
+         stopped.countDown();
+      }
+   }
+
+   private void sendAndReceive() throws Exception {
+      TestHandler testHandler = new TestHandler(3);
+      UdpServiceRuntime testRuntime = new UdpServiceRuntime(mockOdeProperties);
+      UdpService testService = testRuntime.register(testHandler);
+      testRuntime.start();
+      assertTrue(testRuntime.isRunning());
+      assertEquals(0, testHandler.started.getCount());
+
+      byte[] expected = new byte[] { 0x00, 0x14, 0x25, 0x7f };
+      try (DatagramSocket sender = new DatagramSocket()) {
+         for (int i = 0; i < 3; i++) {
+            sender.send(new DatagramPacket(expected, expected.length, InetAddress.getLoopbackAddress(),
+                  testService.getSocket().getLocalPort()));
+         }
+      }
+
+      assertTrue(testHandler.received.await(4, TimeUnit.SECONDS));
+      for (byte[] payload : testHandler.payloads) {
+         assertArrayEquals(expected, payload);
+      }
+
+      UdpServiceMetrics metrics = testService.getMetrics();
+      assertEquals(3, metrics.getPacketsReceived());
+      assertEquals(3 * expected.length, metrics.getBytesReceived());
+      assertEquals(3, metrics.getPayloadSizeHistogram()[0]);
+      assertTrue(metrics.getSocketReceiveBufferSize() >= 65536);
+      assertEquals(testService.getSocket().getLocalPort(), metrics.getPort());
+
+      testRuntime.stop();
+      assertEquals(3, metrics.getPacketsHandled());
+      assertEquals(0, metrics.getQueueDepth());
+      assertFalse(testRuntime.isRunning());
+      assertTrue(testService.isStopped());
+      assertEquals(0, testHandler.stopped.getCount());
+   }
+
+   @Test(timeout = 10000)
+   public void shouldHandlePacketsThroughRingBuffer() throws Exception {
+      new Expectations() {
+         {
+            mockOdeProperties.isUdpRingBufferEnabled();
+            result = true;
+            mockOdeProperties.getUdpRingBufferSize();
+            result = 16;
+            mockOdeProperties.getUdpRingBufferWaitStrategy();
+            result = "BLOCKING";
+            mockOdeProperties.getUdpRingBufferOverflowPolicy();
+            result = "DROP_OLDEST";
+            mockOdeProperties.getUdpPublisherThreads();
+            result = 2;
+         }
+      };
+      sendAndReceive();
+   }
+
+   @Test(timeout = 10000)
+   public void shouldHandlePacketsOnReceiveThread() throws Exception {
+      new Expectations() {
+         {
+            mockOdeProperties.isUdpRingBufferEnabled();
+            result = false;
+         }
+      };
+      sendAndReceive();
+   }
+
+   @Test(timeout = 10000)
+   public void shouldHandlePacketsWithNioReceiver() throws Exception {
+      new Expectations() {
+         {
+            mockOdeProperties.isUdpNioReceiverEnabled();
+            result = true;
+            mockOdeProperties.getUdpReceiverThreads();
+            result = 2;
+         }
+      };
+      sendAndReceive();
+   }
+
+   @Test
+   public void releasedPacketsShouldBeReused() throws Exception {
+      new Expectations() {
+         {
+            mockOdeProperties.getUdpBufferPoolSize();
+            result = 4;
+         }
+      };
+      UdpServiceRuntime testRuntime = new UdpServiceRuntime(mockOdeProperties);
+      UdpService testService = testRuntime.register(new TestHandler(1));
+
+      UdpPacket testPacket = new UdpPacket(testService, 500);
+      testService.release(testPacket);
+      assertEquals(1, testService.getBufferPool().getOccupancy());
+      assertEquals(0, testPacket.getLength());
+   }
+}
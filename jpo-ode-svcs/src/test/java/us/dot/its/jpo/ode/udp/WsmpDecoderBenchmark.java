@@ -0,0 +1,115 @@
+package us.dot.its.jpo.ode.udp;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.tomcat.util.buf.HexUtils;
+
+/*
+ * Simple benchmark app that compares the legacy hex string based WSMP header
+ * stripping with WsmpDecoder. The capture is split into its MessageFrames and
+ * each one is copied into a 500 byte receive buffer, the way packets arrive at
+ * the BsmReceiver; the packets are then decoded in turn.
+ *
+ * Usage: WsmpDecoderBenchmark [captureFile] [iterations]
+ */
+public class WsmpDecoderBenchmark {
+
+   private static final int BUFFER_SIZE = 500;
+
+   private interface Decoding {
+      byte[] run(byte[] packet, int length);
+   }
+
+   public static void main(String[] args) throws Exception {
+      byte[] capture = Files.readAllBytes(Paths.get(args.length > 0 ? args[0]
+            : "../data/wsmp_20170505_1120_i80_shane.uper"));
+      int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+
+      List<byte[]> packets = new ArrayList<>();
+      List<Integer> lengths = new ArrayList<>();
+      int offset = 0;
+      int frameLength;
+      while ((frameLength = frameLength(capture, offset)) > 0 && offset + frameLength <= capture.length) {
+         byte[] packet = new byte[BUFFER_SIZE];
+         System.arraycopy(capture, offset, packet, 0, frameLength);
+         packets.add(packet);
+         lengths.add(frameLength);
+         offset += frameLength;
+      }
+      if (packets.isEmpty()) {
+         throw new IllegalArgumentException("No MessageFrames found in the capture");
+      }
+      System.out.println(packets.size() + " packets");
+
+      WsmpDecoder decoder = new WsmpDecoder();
+      Decoding hexString = (packet, length) -> legacyRemoveHeader(packet);
+      Decoding wsmpDecoder = (packet, length) -> decode(decoder, packet, length);
+
+      // warm up both paths before measuring
+      measure(null, 100000, packets, lengths, hexString);
+      measure(null, 100000, packets, lengths, wsmpDecoder);
+
+      System.out.println("method, ns/packet, bytes allocated/packet");
+      measure("hex string", iterations, packets, lengths, hexString);
+      measure("WsmpDecoder", iterations, packets, lengths, wsmpDecoder);
+   }
+
+   /*
+    * messageId (2 bytes), then the 1 or 2 byte length determinant of the value
+    */
+   private static int frameLength(byte[] data, int offset) {
+      if (offset + 3 > data.length || data[offset] != 0) {
+         return 0;
+      }
+      int first = data[offset + 2] & 0xFF;
+      if ((first & 0x80) == 0) {
+         return 3 + first;
+      }
+      if ((first & 0xC0) == 0x80 && offset + 4 <= data.length) {
+         return 4 + (((first & 0x3F) << 8) | (data[offset + 3] & 0xFF));
+      }
+      return 0;
+   }
+
+   private static byte[] decode(WsmpDecoder decoder, byte[] packet, int length) {
+      decoder.decode(packet, 0, length);
+      return Arrays.copyOfRange(packet, decoder.getPayloadOffset(),
+            decoder.getPayloadOffset() + decoder.getPayloadLength());
+   }
+
+   // BsmReceiver.removeHeader prior to WsmpDecoder
+   private static byte[] legacyRemoveHeader(byte[] packet) {
+      String hexPacket = HexUtils.toHexString(packet);
+      int startIndex = hexPacket.indexOf("0014");
+      if (startIndex > 0) {
+         int trueStartIndex = 20 + hexPacket.substring(20, hexPacket.length()).indexOf("0014");
+         hexPacket = hexPacket.substring(trueStartIndex, hexPacket.length());
+      }
+      return HexUtils.fromHexString(hexPacket);
+   }
+
+   private static void measure(String method, int iterations, List<byte[]> packets, List<Integer> lengths,
+         Decoding task) {
+      com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory
+            .getThreadMXBean();
+      long threadId = Thread.currentThread().getId();
+      int count = packets.size();
+
+      long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+      long start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+         task.run(packets.get(i % count), lengths.get(i % count));
+      }
+      long elapsed = System.nanoTime() - start;
+      long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+      if (null != method) {
+         System.out.println(method + ", " + elapsed / iterations + ", " + allocated / iterations);
+      }
+   }
+}
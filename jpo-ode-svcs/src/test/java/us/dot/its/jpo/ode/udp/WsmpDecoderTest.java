@@ -0,0 +1,103 @@
+package us.dot.its.jpo.ode.udp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import us.dot.its.jpo.ode.util.CodecUtils;
+
+public class WsmpDecoderTest {
+
+   private static final String MSG_FRAME_HEX = "00140b0102030405060708090a0b";
+
+   private WsmpDecoder testWsmpDecoder = new WsmpDecoder();
+
+   @Test
+   public void shouldDecodeRawMessageFrame() {
+      byte[] packet = CodecUtils.fromHex(MSG_FRAME_HEX);
+
+      assertTrue(testWsmpDecoder.decode(packet, 0, packet.length));
+      assertFalse(testWsmpDecoder.isHeaderPresent());
+      assertEquals(0, testWsmpDecoder.getPayloadOffset());
+      assertEquals(packet.length, testWsmpDecoder.getPayloadLength());
+      assertEquals(WsmpDecoder.UNKNOWN, testWsmpDecoder.getWsmpVersion());
+      assertEquals(WsmpDecoder.UNKNOWN, testWsmpDecoder.getPsid());
+   }
+
+   @Test
+   public void shouldDecodeVersion3Header() {
+      // version 3 with extensions: channel 172, data rate 12, tx power 30;
+      // TPID 0, PSID 0x20, WSM length 14
+      byte[] packet = CodecUtils.fromHex("0b030f01ac10010c04011e00200e" + MSG_FRAME_HEX);
+
+      assertTrue(testWsmpDecoder.decode(packet, 0, packet.length));
+      assertTrue(testWsmpDecoder.isHeaderPresent());
+      assertEquals(14, testWsmpDecoder.getPayloadOffset());
+      assertEquals(14, testWsmpDecoder.getPayloadLength());
+
+      assertEquals(3, testWsmpDecoder.getWsmpVersion());
+      assertEquals(0x20, testWsmpDecoder.getPsid());
+      assertEquals(172, testWsmpDecoder.getChannel());
+      assertEquals(12, testWsmpDecoder.getDataRate());
+      assertEquals(30, testWsmpDecoder.getTxPower());
+   }
+
+   @Test
+   public void shouldDecodeVersion2Header() {
+      // version 2, PSID 0x8002 (p-encoded), channel 172, data rate 12, WSM
+      // element and 2 byte length
+      byte[] packet = CodecUtils.fromHex("0280020f01ac10010c80000e" + MSG_FRAME_HEX);
+
+      assertTrue(testWsmpDecoder.decode(packet, 0, packet.length));
+      assertTrue(testWsmpDecoder.isHeaderPresent());
+      assertEquals(12, testWsmpDecoder.getPayloadOffset());
+      assertEquals(14, testWsmpDecoder.getPayloadLength());
+      assertEquals(2, testWsmpDecoder.getWsmpVersion());
+      assertEquals(0x82, testWsmpDecoder.getPsid());
+      assertEquals(172, testWsmpDecoder.getChannel());
+      assertEquals(12, testWsmpDecoder.getDataRate());
+   }
+
+   @Test
+   public void shouldScanPastVendorHeader() {
+      byte[] packet = CodecUtils
+            .fromHex("030000ac000c001700000000000000200026ad01f13c00b1" + MSG_FRAME_HEX + "0000");
+
+      assertTrue(testWsmpDecoder.decode(packet, 0, packet.length));
+      assertFalse(testWsmpDecoder.isHeaderPresent());
+      assertEquals(24, testWsmpDecoder.getPayloadOffset());
+      assertEquals(16, testWsmpDecoder.getPayloadLength());
+   }
+
+   @Test
+   public void shouldHonorOffsetAndLength() {
+      byte[] buffer = new byte[500];
+      byte[] packet = CodecUtils.fromHex("0b030f01ac10010c04011e00200e" + MSG_FRAME_HEX);
+      System.arraycopy(packet, 0, buffer, 100, packet.length);
+
+      assertTrue(testWsmpDecoder.decode(buffer, 100, packet.length));
+      assertEquals(114, testWsmpDecoder.getPayloadOffset());
+      assertEquals(14, testWsmpDecoder.getPayloadLength());
+   }
+
+   @Test
+   public void shouldReturnWholePacketWithoutStartFlag() {
+      byte[] packet = CodecUtils.fromHex("ffffffffffffffffffffffffffff");
+
+      assertFalse(testWsmpDecoder.decode(packet, 0, packet.length));
+      assertEquals(0, testWsmpDecoder.getPayloadOffset());
+      assertEquals(packet.length, testWsmpDecoder.getPayloadLength());
+   }
+
+   @Test
+   public void shouldRejectTruncatedHeader() {
+      // WSM length claims more bytes than received
+      byte[] packet = CodecUtils.fromHex("030020ff" + MSG_FRAME_HEX);
+
+      testWsmpDecoder.decode(packet, 0, packet.length);
+      assertFalse(testWsmpDecoder.isHeaderPresent());
+      assertEquals(WsmpDecoder.UNKNOWN, testWsmpDecoder.getWsmpVersion());
+   }
+}
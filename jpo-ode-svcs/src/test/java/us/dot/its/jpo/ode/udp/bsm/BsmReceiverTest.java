@@ -2,8 +2,6 @@ package us.dot.its.jpo.ode.udp.bsm;
 
 import static org.junit.Assert.fail;
 
-import java.io.IOException;
-import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.SocketException;
 
@@ -28,6 +26,7 @@ import us.dot.its.jpo.ode.plugin.j2735.J2735Bsm;
 import us.dot.its.jpo.ode.plugin.j2735.J2735MessageFrame;
 import us.dot.its.jpo.ode.plugin.j2735.oss.Oss1609dot2Coder;
 import us.dot.its.jpo.ode.plugin.j2735.oss.OssJ2735Coder;
+import us.dot.its.jpo.ode.udp.UdpPacket;
 
 public class BsmReceiverTest {
 
@@ -68,31 +67,21 @@ public class BsmReceiverTest {
          }
       };
       testBsmReceiver = new BsmReceiver(mockOdeProperties);
-      testBsmReceiver.setStopped(true);
    }
 
    @Ignore
    @Test
-   public void testRunMessageFrame(@Mocked DatagramPacket mockedDatagramPacket, @Mocked J2735Bsm mockedJ2735Bsm) {
+   public void testRunMessageFrame(@Mocked UdpPacket mockedUdpPacket, @Mocked J2735Bsm mockedJ2735Bsm) {
       try {
          new Expectations() {
             {
-               new DatagramPacket((byte[]) any, anyInt);
-               result = mockedDatagramPacket;
-               
-               capturingDatagramSocket.receive((DatagramPacket) any);
-               result = null;
-
                String sampleBsmPacketStr = "030000ac000c001700000000000000200026ad01f13c00b1001480ad5f7bf1400014ff277c5e951cc867008d1d7ffffffff0017080fdfa1fa1007fff8000000000020214c1c0ffc7bffc2f963d160ffab401cef8261ba0ffedc0142fca96c61002dbff6efaeb3d61001ebff4afb8d6860ffe3bffc2fc4ec8e0ff7fc00e0fb50bce0ffe2bffe4fe347e20ffc5c0048fa5887e0ffb5c00dcfbdc87a0ffdb3feccfbe11ae0ffe03fe9cfde5e520ffc23ff90fd078060ffff3ff38fdea88a0ffe83ff84fb8f5a6fffe00000000";
                byte[] sampleBsmPacketByte = Hex.decodeHex(sampleBsmPacketStr.toCharArray());
 
-               mockedDatagramPacket.getLength();
-               result = sampleBsmPacketByte.length;
-
-               mockedDatagramPacket.getData();
+               mockedUdpPacket.getBuffer();
                result = sampleBsmPacketByte;
 
-               mockedDatagramPacket.getLength();
+               mockedUdpPacket.getLength();
                result = sampleBsmPacketByte.length;
                
                capturingOssJ2735Coder.decodeUPERMessageFrameBytes((byte[]) any);
@@ -108,35 +97,26 @@ public class BsmReceiverTest {
                times = 1;
             }
          };
+
+         testBsmReceiver.handle(mockedUdpPacket);
       } catch (Exception e) {
          fail("Unexpected exception: " + e);
       }
-
-      testBsmReceiver.run();
    }
    
    @Ignore
    @Test
-   public void testRunDetectBsm(@Mocked DatagramPacket mockedDatagramPacket, @Mocked J2735Bsm mockedJ2735Bsm) {
+   public void testRunDetectBsm(@Mocked UdpPacket mockedUdpPacket, @Mocked J2735Bsm mockedJ2735Bsm) {
       try {
          new Expectations() {
             {
-               new DatagramPacket((byte[]) any, anyInt);
-               result = mockedDatagramPacket;
-               
-               capturingDatagramSocket.receive((DatagramPacket) any);
-               result = null;
-
                String sampleBsmPacketStr = "030000ac000c001700000000000000200026ad01f13c00b1001480ad5f7bf1400014ff277c5e951cc867008d1d7ffffffff0017080fdfa1fa1007fff8000000000020214c1c0ffc7bffc2f963d160ffab401cef8261ba0ffedc0142fca96c61002dbff6efaeb3d61001ebff4afb8d6860ffe3bffc2fc4ec8e0ff7fc00e0fb50bce0ffe2bffe4fe347e20ffc5c0048fa5887e0ffb5c00dcfbdc87a0ffdb3feccfbe11ae0ffe03fe9cfde5e520ffc23ff90fd078060ffff3ff38fdea88a0ffe83ff84fb8f5a6fffe00000000";
                byte[] sampleBsmPacketByte = Hex.decodeHex(sampleBsmPacketStr.toCharArray());
 
-               mockedDatagramPacket.getLength();
-               result = sampleBsmPacketByte.length;
-
-               mockedDatagramPacket.getData();
+               mockedUdpPacket.getBuffer();
                result = sampleBsmPacketByte;
 
-               mockedDatagramPacket.getLength();
+               mockedUdpPacket.getLength();
                result = sampleBsmPacketByte.length;
                
                capturingOssJ2735Coder.decodeUPERMessageFrameBytes((byte[]) any);
@@ -152,28 +132,30 @@ public class BsmReceiverTest {
                times = 1;
             }
          };
+
+         testBsmReceiver.handle(mockedUdpPacket);
       } catch (Exception e) {
          fail("Unexpected exception: " + e);
       }
-
-      testBsmReceiver.run();
    }
 
    @Ignore
    @Test
-   public void testRunException(@Mocked DatagramPacket mockedDatagramPacket, @Mocked J2735Bsm mockedJ2735Bsm)
-         throws IOException {
+   public void testRunException(@Mocked UdpPacket mockedUdpPacket, @Mocked J2735Bsm mockedJ2735Bsm)
+         throws Exception {
       new Expectations() {
          {
-            new DatagramPacket((byte[]) any, anyInt);
-            result = mockedDatagramPacket;
-
-            capturingDatagramSocket.receive(mockedDatagramPacket);
-            result = new SocketException();
+            mockedUdpPacket.getBuffer();
+            result = new IllegalStateException("testException123");
          }
       };
 
-      testBsmReceiver.run();
+      try {
+         testBsmReceiver.handle(mockedUdpPacket);
+         fail("Expected IllegalStateException");
+      } catch (IllegalStateException e) {
+         // expected
+      }
    }
 
 }
\ No newline at end of file
@@ -11,7 +11,8 @@ import mockit.Expectations;
 import mockit.Mocked;
 import us.dot.its.jpo.ode.OdeProperties;
 import us.dot.its.jpo.ode.dds.AbstractSubscriberDepositor;
-import us.dot.its.jpo.ode.udp.AbstractUdpReceiverPublisher;
+import us.dot.its.jpo.ode.udp.PacketHandler;
+import us.dot.its.jpo.ode.udp.UdpServiceRuntime;
 import us.dot.its.jpo.ode.udp.vsd.VsdDepositor;
 
 public class UdpServicesControllerTest {
@@ -23,8 +24,10 @@ public class UdpServicesControllerTest {
    ServiceManager capturingServiceManager;
    @Mocked
    ServiceManager mockServiceManager;
+   @Mocked
+   UdpServiceRuntime mockUdpServiceRuntime;
    @Capturing
-   AbstractUdpReceiverPublisher capturingAbstractUdpReceiverPublisher;
+   PacketHandler capturingPacketHandler;
    @Capturing
    AbstractSubscriberDepositor capturingAbstractSubscriberDepositor;
    @Capturing
@@ -41,9 +44,12 @@ public class UdpServicesControllerTest {
             new ServiceManager((ThreadFactory) any);
             result = mockServiceManager;
 
-            mockServiceManager.submit((AbstractUdpReceiverPublisher) any);
+            mockUdpServiceRuntime.register((PacketHandler) any);
             times = 3;
 
+            mockUdpServiceRuntime.start();
+            times = 1;
+
             mockServiceManager.submit((AbstractSubscriberDepositor) any, anyString);
             times = 2;
          }
@@ -63,9 +69,12 @@ public class UdpServicesControllerTest {
             new ServiceManager((ThreadFactory) any);
             result = mockServiceManager;
 
-            mockServiceManager.submit((AbstractUdpReceiverPublisher) any);
+            mockUdpServiceRuntime.register((PacketHandler) any);
             times = 3;
 
+            mockUdpServiceRuntime.start();
+            times = 1;
+
             mockServiceManager.submit((AbstractSubscriberDepositor) any, anyString);
             times = 1;
 
@@ -77,4 +86,19 @@ public class UdpServicesControllerTest {
       assertNotNull(new UdpServicesController(mockOdeProperties));
    }
 
+   @Test
+   public void stopShouldStopRuntime() {
+
+      UdpServicesController testController = new UdpServicesController(mockOdeProperties);
+
+      new Expectations() {
+         {
+            mockUdpServiceRuntime.stop();
+            times = 1;
+         }
+      };
+
+      testController.stop();
+   }
+
 }
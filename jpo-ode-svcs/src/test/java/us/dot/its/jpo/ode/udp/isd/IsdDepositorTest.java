@@ -1,5 +1,6 @@
 package us.dot.its.jpo.ode.udp.isd;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
@@ -34,6 +35,8 @@ import us.dot.its.jpo.ode.j2735.dsrc.TemporaryID;
 import us.dot.its.jpo.ode.j2735.semi.DataReceipt;
 import us.dot.its.jpo.ode.j2735.semi.IntersectionSituationData;
 import us.dot.its.jpo.ode.j2735.semi.SemiDialogID;
+import us.dot.its.jpo.ode.udp.RawSemiMessage;
+import us.dot.its.jpo.ode.udp.SemiMessageType;
 import us.dot.its.jpo.ode.udp.trust.TrustManager;
 import us.dot.its.jpo.ode.wrapper.MessageConsumer;
 import us.dot.its.jpo.ode.wrapper.serdes.IntersectionSituationDataDeserializer;
@@ -243,5 +246,19 @@ public class IsdDepositorTest {
       assertNotNull(testIsdDepositor.encodeMessage(new byte[0]));
    }
 
+   @Test
+   public void testEncodeMessageRawPassesPayloadThrough() {
+      byte[] isd = new byte[] { 0x20, (byte) 0x88, 0x26, 0x01, (byte) 0x86, (byte) 0xb4, (byte) 0x9c, 0x47,
+            (byte) 0x9c, 0x00, 0x10 };
+      byte[] record = RawSemiMessage.wrap(SemiMessageType.INTERSECTION_SITUATION_DATA, isd, 0, isd.length);
+
+      new Expectations() {
+         {
+            capturingIntersectionSituationDataDeserializer.deserialize(null, (byte[]) any);
+            times = 0;
+         }
+      };
 
+      assertArrayEquals(isd, testIsdDepositor.encodeMessage(record));
+   }
 }
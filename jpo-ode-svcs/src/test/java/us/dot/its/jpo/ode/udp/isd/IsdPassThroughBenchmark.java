@@ -0,0 +1,87 @@
+package us.dot.its.jpo.ode.udp.isd;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.apache.tomcat.util.buf.HexUtils;
+
+import com.oss.asn1.Coder;
+
+import us.dot.its.jpo.ode.asn1.j2735.J2735Util;
+import us.dot.its.jpo.ode.j2735.J2735;
+import us.dot.its.jpo.ode.j2735.semi.IntersectionSituationData;
+import us.dot.its.jpo.ode.udp.RawSemiMessage;
+import us.dot.its.jpo.ode.udp.SemiMessageType;
+import us.dot.its.jpo.ode.wrapper.serdes.IntersectionSituationDataDeserializer;
+import us.dot.its.jpo.ode.wrapper.serdes.IntersectionSituationDataSerializer;
+
+/*
+ * Simple benchmark app that compares the CPU time spent per ISD between the
+ * receiver and the depositor with and without pass-through. The decode path
+ * decodes the UPER bytes, serializes the ISD for Kafka, deserializes it in
+ * the depositor and encodes it again for the SDC. The pass-through path
+ * classifies the message, adds the RawSemiMessage header and strips it again.
+ *
+ * Usage: IsdPassThroughBenchmark [isdHex] [iterations]
+ */
+public class IsdPassThroughBenchmark {
+
+   // sample ISD from the IsdDepositorToOde emulator
+   private static final String ISD_HEX = "2088260186b49c479c0010c3853981e64aace3f0e05dbfa994558774e000c0008061a804e0c4e78d93760e4c63780b70296008a10010090006639a567649df90bbc639a56a539df90af6639a56b5f9df9067c639a56bb09df9009c639a56c369df8dc500800042c021420020120010c734acec93bf22248c734ad5e93bf22158c734ad9e33bf21a8cc734adb253bf20fc0c734adb5b3bf20138c734adc9d3bf1b940100008580648400404000018e695924277e462d18e6958ee677e4ff20200008b01090800808000031cd2b1644efc8c5a31cd2b1064efca00c04000116029210010100000639a560e59df9188e639a560299df93ff00800022c062420020080000c734abe713bf23168c734abd653bf26904100005f9f8584e4a32800030d40800000802022a00368036800810d0016401640";
+
+   private interface Task {
+      Object run() throws Exception;
+   }
+
+   public static void main(String[] args) throws Exception {
+      byte[] isd = HexUtils.fromHexString(args.length > 0 ? args[0] : ISD_HEX);
+      int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+
+      Coder coder = J2735.getPERUnalignedCoder();
+      IntersectionSituationDataSerializer serializer = new IntersectionSituationDataSerializer();
+      IntersectionSituationDataDeserializer deserializer = new IntersectionSituationDataDeserializer();
+
+      Task decodePath = () -> {
+         IntersectionSituationData decoded = (IntersectionSituationData) J2735Util.decode(coder, isd);
+         byte[] record = serializer.serialize(null, decoded);
+         IntersectionSituationData deposited = deserializer.deserialize(null, record);
+         deposited.getRequestID();
+         return coder.encode(deposited).array();
+      };
+
+      Task passThroughPath = () -> {
+         if (SemiMessageType.INTERSECTION_SITUATION_DATA != SemiMessageType.classify(isd)) {
+            throw new IllegalArgumentException("Not an ISD");
+         }
+         byte[] record = RawSemiMessage.wrap(SemiMessageType.INTERSECTION_SITUATION_DATA, isd, 0, isd.length);
+         RawSemiMessage.getRequestId(record);
+         return RawSemiMessage.getPayload(record);
+      };
+
+      // warm up both paths before measuring
+      for (int i = 0; i < iterations / 10; i++) {
+         decodePath.run();
+         passThroughPath.run();
+      }
+
+      System.out.println("path, CPU ns/ISD, bytes allocated/ISD");
+      measure("decode", iterations, decodePath);
+      measure("pass-through", iterations, passThroughPath);
+   }
+
+   private static void measure(String path, int iterations, Task task) throws Exception {
+      ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+      com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+      long threadId = Thread.currentThread().getId();
+
+      long allocatedBefore = allocationBean.getThreadAllocatedBytes(threadId);
+      long cpuBefore = threadBean.getCurrentThreadCpuTime();
+      for (int i = 0; i < iterations; i++) {
+         task.run();
+      }
+      long cpu = threadBean.getCurrentThreadCpuTime() - cpuBefore;
+      long allocated = allocationBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+      System.out.println(path + ", " + cpu / iterations + ", " + allocated / iterations);
+   }
+}
@@ -5,9 +5,9 @@ package us.dot.its.jpo.ode.udp.isd;
 
 import static org.junit.Assert.fail;
 
-import java.io.IOException;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -27,6 +27,8 @@ import us.dot.its.jpo.ode.asn1.j2735.J2735Util;
 import us.dot.its.jpo.ode.j2735.semi.IntersectionSituationData;
 import us.dot.its.jpo.ode.j2735.semi.ServiceRequest;
 import us.dot.its.jpo.ode.udp.AbstractUdpReceiverPublisher.UdpReceiverException;
+import us.dot.its.jpo.ode.udp.UdpPacket;
+import us.dot.its.jpo.ode.udp.trust.SemiDialogManager;
 import us.dot.its.jpo.ode.wrapper.MessageProducer;
 
 @RunWith(JMockit.class)
@@ -38,35 +40,22 @@ public class IsdReceiverTest {
    @Injectable
    OdeProperties mockOdeProps;
 
-   @Test(timeout = 2000) // catch runaway while loop
-   public void shouldNotRunWhenStopped(@Capturing DatagramPacket capturingDatagramPacket,
-         @Capturing DatagramSocket capturingDatagramSocket, @Capturing MessageProducer<?, ?> capturingMessageProducer) {
-      new Expectations() {
-         {
-            new DatagramPacket((byte[]) any, anyInt);
-            times = 1;
-         }
-      };
-      testIsdReceiver.setStopped(true);
-      testIsdReceiver.run();
-   }
-
    @Test
-   public void testGetPacket(@Capturing DatagramPacket capturingDatagramPacket,
-         @Capturing DatagramSocket capturingDatagramSocket, @Capturing MessageProducer<?, ?> capturingMessageProducer,
-         @Mocked DatagramPacket mockDatagramPacket, @Capturing J2735Util capturingJ2735Util) {
+   public void handleShouldProcessPayloadAndSender(@Capturing DatagramSocket capturingDatagramSocket,
+         @Capturing MessageProducer<?, ?> capturingMessageProducer, @Mocked UdpPacket mockUdpPacket,
+         @Capturing J2735Util capturingJ2735Util) {
       try {
          new Expectations() {
             {
-               mockDatagramPacket.getLength();
-               returns(1,0);
-               
-               mockDatagramPacket.getAddress().getHostAddress();
-               
-               mockDatagramPacket.getPort();
-               
-               mockDatagramPacket.getData();
-               
+               mockUdpPacket.getPayload();
+               result = new byte[] { 1 };
+
+               mockUdpPacket.getSenderIp();
+               result = "127.0.0.1";
+
+               mockUdpPacket.getSenderPort();
+               result = 12345;
+
                J2735Util.decode((Coder) any, (byte[]) any);
                result = null;
             }
@@ -74,55 +63,33 @@ public class IsdReceiverTest {
       } catch (DecodeFailedException | DecodeNotSupportedException e) {
          fail("Unexpected exception in expectations block: " + e);
       }
-      testIsdReceiver.getPacket(mockDatagramPacket);
-   }
-   
-   @Test
-   public void testGetPacketException(@Capturing DatagramPacket capturingDatagramPacket,
-         @Capturing DatagramSocket capturingDatagramSocket, @Capturing MessageProducer<?, ?> capturingMessageProducer,
-         @Mocked DatagramPacket mockDatagramPacket) {
 
-         new Expectations() {
-            {
-               mockDatagramPacket.getLength();
-               result = 1;
-               
-               mockDatagramPacket.getAddress();
-               result = new IOException("testException123");
-            }
-         };
-      testIsdReceiver.getPacket(mockDatagramPacket);
+      try {
+         testIsdReceiver.handle(mockUdpPacket);
+      } catch (UdpReceiverException e) {
+         fail("Unexpected exception: " + e);
+      }
    }
-   
-   @Test
-   public void testGetPacketZeroLength(@Capturing DatagramPacket capturingDatagramPacket,
-         @Capturing DatagramSocket capturingDatagramSocket, @Capturing MessageProducer<?, ?> capturingMessageProducer,
-         @Mocked DatagramPacket mockDatagramPacket) {
 
-         new Expectations() {
-            {
-               mockDatagramPacket.getLength();
-               result = 0;
-            }
-         };
-      testIsdReceiver.getPacket(mockDatagramPacket);
-   }
-   
    @Test
    public void testProcessPacketServiceRequest(@Capturing DatagramPacket capturingDatagramPacket,
          @Capturing DatagramSocket capturingDatagramSocket, @Capturing MessageProducer<?, ?> capturingMessageProducer,
-         @Mocked DatagramPacket mockDatagramPacket, @Capturing J2735Util capturingJ2735Util, @Mocked ServiceRequest mockServiceRequest) {
+         @Mocked DatagramPacket mockDatagramPacket, @Capturing J2735Util capturingJ2735Util, @Mocked ServiceRequest mockServiceRequest,
+         @Capturing SemiDialogManager capturingSemiDialogManager) {
       try {
          new Expectations() {{
             J2735Util.decode((Coder) any, (byte[]) any);
             result = mockServiceRequest;
+
+            capturingSemiDialogManager.onServiceRequest(mockServiceRequest, (InetSocketAddress) any);
+            times = 1;
          }};
       } catch (DecodeFailedException | DecodeNotSupportedException e) {
          fail("Unexpected exception in expectations block: " + e);
       }
       
       try {
-         testIsdReceiver.processPacket(new byte[]{0});
+         testIsdReceiver.processPacket(new byte[]{0}, "127.0.0.1", 12345);
       } catch (UdpReceiverException e) {
          fail("Unexpected exception: " + e);
       }
@@ -142,7 +109,7 @@ public class IsdReceiverTest {
       }
       
       try {
-         testIsdReceiver.processPacket(new byte[]{0});
+         testIsdReceiver.processPacket(new byte[]{0}, "127.0.0.1", 12345);
       } catch (UdpReceiverException e) {
          fail("Unexpected exception: " + e);
       }
@@ -0,0 +1,184 @@
+package us.dot.its.jpo.ode.udp.trust;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oss.asn1.AbstractData;
+
+import mockit.Expectations;
+import mockit.Injectable;
+import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.asn1.j2735.J2735Util;
+import us.dot.its.jpo.ode.j2735.J2735;
+import us.dot.its.jpo.ode.j2735.dsrc.TemporaryID;
+import us.dot.its.jpo.ode.j2735.semi.ConnectionPoint;
+import us.dot.its.jpo.ode.j2735.semi.GroupID;
+import us.dot.its.jpo.ode.j2735.semi.IPv4Address;
+import us.dot.its.jpo.ode.j2735.semi.IpAddress;
+import us.dot.its.jpo.ode.j2735.semi.PortNumber;
+import us.dot.its.jpo.ode.j2735.semi.SemiDialogID;
+import us.dot.its.jpo.ode.j2735.semi.SemiSequenceID;
+import us.dot.its.jpo.ode.j2735.semi.ServiceRequest;
+import us.dot.its.jpo.ode.j2735.semi.ServiceResponse;
+
+public class SemiDialogManagerTest {
+
+   private static final byte[] ENCODED_RESPONSE = new byte[] { 0x30, 0x14, 0x25 };
+
+   @Injectable
+   OdeProperties injectableOdeProperties;
+
+   private SemiDialogManager testDialogManager;
+   private DatagramSocket replySocket;
+   private DatagramSocket requester;
+
+   @Before
+   public void setUp() throws Exception {
+      replySocket = new DatagramSocket();
+      requester = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+      requester.setSoTimeout(2000);
+   }
+
+   @After
+   public void tearDown() {
+      testDialogManager.stop();
+      replySocket.close();
+      requester.close();
+   }
+
+   private void expectExpirationSeconds(int expirationSeconds) {
+      new Expectations() {
+         {
+            injectableOdeProperties.getServiceRespExpirationSeconds();
+            result = expirationSeconds;
+            minTimes = 0;
+         }
+      };
+   }
+
+   private void startDialogManager(int expirationSeconds) {
+      expectExpirationSeconds(expirationSeconds);
+      testDialogManager = new SemiDialogManager("testReceiver", injectableOdeProperties) {
+         @Override
+         byte[] encodeResponse(ServiceRequest request) {
+            return ENCODED_RESPONSE;
+         }
+      };
+      testDialogManager.start(replySocket);
+   }
+
+   private ServiceRequest createRequest(byte[] requestId) {
+      return new ServiceRequest(SemiDialogID.vehSitData, SemiSequenceID.svcReq,
+            new GroupID(OdeProperties.getJpoOdeGroupId()), new TemporaryID(requestId));
+   }
+
+   private byte[] receiveResponse() throws Exception {
+      DatagramPacket response = new DatagramPacket(new byte[100], 100);
+      requester.receive(response);
+      return Arrays.copyOf(response.getData(), response.getLength());
+   }
+
+   @Test(timeout = 5000)
+   public void shouldAnswerServiceRequestAndOpenDialog() throws Exception {
+      startDialogManager(10);
+      ServiceRequest request = createRequest(new byte[] { 1, 2, 3, 4 });
+
+      assertTrue(testDialogManager.onServiceRequest(request,
+            (InetSocketAddress) requester.getLocalSocketAddress()));
+
+      assertArrayEquals(ENCODED_RESPONSE, receiveResponse());
+      assertTrue(testDialogManager.isActive(request.getRequestID()));
+      assertTrue(testDialogManager.onData(new TemporaryID(new byte[] { 1, 2, 3, 4 })));
+      assertEquals(1, testDialogManager.getActiveDialogs());
+      assertEquals(1, testDialogManager.getHandshakeCount());
+   }
+
+   @Test(timeout = 5000)
+   public void retransmittedRequestShouldReuseDialog() throws Exception {
+      startDialogManager(10);
+      ServiceRequest request = createRequest(new byte[] { 1, 2, 3, 4 });
+      InetSocketAddress sender = (InetSocketAddress) requester.getLocalSocketAddress();
+
+      testDialogManager.onServiceRequest(request, sender);
+      receiveResponse();
+      testDialogManager.onServiceRequest(createRequest(new byte[] { 1, 2, 3, 4 }), sender);
+
+      assertArrayEquals(ENCODED_RESPONSE, receiveResponse());
+      assertEquals(2, testDialogManager.getRequestCount());
+      assertEquals(1, testDialogManager.getRetransmitCount());
+      assertEquals(1, testDialogManager.getHandshakeCount());
+      assertEquals(1, testDialogManager.getActiveDialogs());
+   }
+
+   @Test(timeout = 5000)
+   public void shouldReplyToRequestedDestination() throws Exception {
+      startDialogManager(10);
+      ServiceRequest request = createRequest(new byte[] { 5, 6, 7, 8 });
+      IpAddress destinationIp = new IpAddress();
+      destinationIp.setIpv4Address(new IPv4Address(InetAddress.getLoopbackAddress().getAddress()));
+      request.setDestination(new ConnectionPoint(destinationIp, new PortNumber(requester.getLocalPort())));
+
+      testDialogManager.onServiceRequest(request, new InetSocketAddress(InetAddress.getLoopbackAddress(), 9));
+
+      assertArrayEquals(ENCODED_RESPONSE, receiveResponse());
+   }
+
+   @Test(timeout = 5000)
+   public void shouldSendEncodedServiceResponseToRequestedDestination() throws Exception {
+      expectExpirationSeconds(10);
+      testDialogManager = new SemiDialogManager("testReceiver", injectableOdeProperties);
+      testDialogManager.start(replySocket);
+      ServiceRequest request = createRequest(new byte[] { 9, 10, 11, 12 });
+      IpAddress destinationIp = new IpAddress();
+      destinationIp.setIpv4Address(new IPv4Address(InetAddress.getLoopbackAddress().getAddress()));
+      request.setDestination(new ConnectionPoint(destinationIp, new PortNumber(requester.getLocalPort())));
+
+      testDialogManager.onServiceRequest(request, new InetSocketAddress(InetAddress.getLoopbackAddress(), 9));
+
+      AbstractData decoded = J2735Util.decode(J2735.getPERUnalignedCoder(), receiveResponse());
+      assertTrue(decoded instanceof ServiceResponse);
+      ServiceResponse response = (ServiceResponse) decoded;
+      assertEquals(request.getRequestID(), response.getRequestID());
+      assertEquals(request.getDialogID(), response.getDialogID());
+      assertEquals(SemiSequenceID.svcResp, response.getSeqID());
+      assertEquals(1, testDialogManager.getHandshakeCount());
+   }
+
+   @Test
+   public void expiredDialogsShouldBeRemoved() {
+      startDialogManager(0);
+      ServiceRequest request = createRequest(new byte[] { 1, 2, 3, 4 });
+      testDialogManager.onServiceRequest(request, new InetSocketAddress(InetAddress.getLoopbackAddress(), 9));
+
+      assertFalse(testDialogManager.isActive(request.getRequestID()));
+      assertFalse(testDialogManager.onData(request.getRequestID()));
+
+      testDialogManager.sweep(System.currentTimeMillis());
+      assertEquals(0, testDialogManager.getActiveDialogs());
+      assertEquals(1, testDialogManager.getExpiredCount());
+      assertEquals(1, testDialogManager.getDataWithoutDialogCount());
+   }
+
+   @Test
+   public void requestWithoutIdShouldBeDropped() {
+      startDialogManager(10);
+      ServiceRequest request = new ServiceRequest();
+
+      assertFalse(testDialogManager.onServiceRequest(request,
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), 9)));
+      assertEquals(1, testDialogManager.getDroppedCount());
+      assertEquals(0, testDialogManager.getActiveDialogs());
+   }
+}
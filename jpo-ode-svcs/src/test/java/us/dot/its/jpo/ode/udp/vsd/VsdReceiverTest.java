@@ -1,18 +1,16 @@
 package us.dot.its.jpo.ode.udp.vsd;
 
-import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
-import java.io.IOException;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
 import java.util.ArrayList;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
-import com.oss.asn1.AbstractData;
 import com.oss.asn1.Coder;
 import com.oss.asn1.DecodeFailedException;
 import com.oss.asn1.DecodeNotSupportedException;
@@ -36,8 +34,9 @@ import us.dot.its.jpo.ode.j2735.semi.VehSitDataMessage;
 import us.dot.its.jpo.ode.plugin.j2735.oss.OssBsmPart2Content.OssBsmPart2Exception;
 import us.dot.its.jpo.ode.plugin.j2735.oss.OssJ2735Coder;
 import us.dot.its.jpo.ode.udp.AbstractUdpReceiverPublisher.UdpReceiverException;
+import us.dot.its.jpo.ode.udp.UdpPacket;
 import us.dot.its.jpo.ode.udp.UdpUtil;
-import us.dot.its.jpo.ode.udp.UdpUtil.UdpUtilException;
+import us.dot.its.jpo.ode.udp.trust.SemiDialogManager;
 import us.dot.its.jpo.ode.wrapper.MessageProducer;
 
 @RunWith(JMockit.class)
@@ -59,6 +58,8 @@ public class VsdReceiverTest {
    @Capturing
    UdpUtil capturingUdpUtil;
    @Capturing
+   SemiDialogManager capturingSemiDialogManager;
+   @Capturing
    VsdToBsmConverter capturingVsdToBsmConverter;
    @Capturing
    BsmDecoderHelper capturingBinaryDecoderHelper;
@@ -81,41 +82,35 @@ public class VsdReceiverTest {
    public void createTestObject() {
 
       testVsdReceiver = new VsdReceiver(injectableOdeProperties);
-      testVsdReceiver.setStopped(true);
-      assertTrue(testVsdReceiver.isStopped());
-   }
-
-   @Test(timeout = 4000) // catch runaway while loop
-   public void shouldNotRunWhenStopped() {
-      new Expectations() {
-         {
-            new DatagramPacket((byte[]) any, anyInt);
-            times = 1;
-         }
-      };
-      testVsdReceiver.run();
    }
 
    @Test
-   public void testGetPacketThrowsError() {
+   public void handleShouldProcessPayloadAndSender(@Mocked UdpPacket mockUdpPacket) {
       try {
          new Expectations() {
             {
-               new DatagramSocket(anyInt);
-               result = mockDatagramSocket;
-               mockDatagramSocket.receive((DatagramPacket) any);
-               mockDatagramPacket.getLength();
-               returns(1, 0);
-
-               mockDatagramPacket.getData();
-               result = new IOException("testException123");
+               mockUdpPacket.getPayload();
+               result = new byte[] { 1 };
+
+               mockUdpPacket.getSenderIp();
+               result = "127.0.0.1";
+
+               mockUdpPacket.getSenderPort();
+               result = 12345;
+
+               J2735Util.decode((Coder) any, (byte[]) any);
+               result = new ServiceResponse();
             }
          };
-      } catch (IOException e) {
+      } catch (DecodeFailedException | DecodeNotSupportedException e) {
          fail("Unexpected exception in expectations block: " + e);
       }
-      VsdReceiver testVsdReceiver = new VsdReceiver(injectableOdeProperties);
-      testVsdReceiver.getPacket(mockDatagramPacket);
+
+      try {
+         testVsdReceiver.handle(mockUdpPacket);
+      } catch (UdpReceiverException e) {
+         fail("Unexpected exception: " + e);
+      }
    }
 
    @Test
@@ -132,7 +127,7 @@ public class VsdReceiverTest {
       }
 
       try {
-         testVsdReceiver.processPacket(new byte[] { 0 });
+         testVsdReceiver.processPacket(new byte[] { 0 }, "127.0.0.1", 12345);
       } catch (UdpReceiverException e) {
          fail("Unexpected exception: " + e);
       }
@@ -154,7 +149,7 @@ public class VsdReceiverTest {
       }
 
       try {
-         testVsdReceiver.processPacket(new byte[] { 0 });
+         testVsdReceiver.processPacket(new byte[] { 0 }, "127.0.0.1", 12345);
       } catch (UdpReceiverException e) {
          fail("Unexpected exception: " + e);
       }
@@ -175,16 +170,16 @@ public class VsdReceiverTest {
                mockConnectionPoint.getPort();
                result = new PortNumber();
 
-               UdpUtil.send((DatagramSocket) any, (AbstractData) any, anyString, anyInt);
+               capturingSemiDialogManager.onServiceRequest((ServiceRequest) any, (InetSocketAddress) any);
                times = 1;
             }
          };
-      } catch (DecodeFailedException | DecodeNotSupportedException | UdpUtilException e) {
+      } catch (DecodeFailedException | DecodeNotSupportedException e) {
          fail("Unexpected exception in expectations block: " + e);
       }
       VsdReceiver testVsdReceiver = new VsdReceiver(injectableOdeProperties);
       try {
-         testVsdReceiver.processPacket(new byte[] { 0 });
+         testVsdReceiver.processPacket(new byte[] { 0 }, "127.0.0.1", 12345);
       } catch (UdpReceiverException e) {
          fail("Unexpected exception: " + e);
       }
@@ -204,7 +199,7 @@ public class VsdReceiverTest {
       }
       VsdReceiver testVsdReceiver = new VsdReceiver(injectableOdeProperties);
       try {
-         testVsdReceiver.processPacket(new byte[] { 0 });
+         testVsdReceiver.processPacket(new byte[] { 0 }, "127.0.0.1", 12345);
       } catch (UdpReceiverException e) {
          fail("Unexpected exception: " + e);
       }
@@ -224,7 +219,7 @@ public class VsdReceiverTest {
       }
       VsdReceiver testVsdReceiver = new VsdReceiver(injectableOdeProperties);
       try {
-         testVsdReceiver.processPacket(new byte[] { 0 });
+         testVsdReceiver.processPacket(new byte[] { 0 }, "127.0.0.1", 12345);
       } catch (UdpReceiverException e) {
          fail("Unexpected exception: " + e);
       }
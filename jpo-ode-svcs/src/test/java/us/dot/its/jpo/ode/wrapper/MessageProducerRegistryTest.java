@@ -0,0 +1,201 @@
+package us.dot.its.jpo.ode.wrapper;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.Before;
+import org.junit.Test;
+
+import us.dot.its.jpo.ode.wrapper.MessageProducerRegistry.ProducerProfileException;
+
+public class MessageProducerRegistryTest {
+
+   private static final String PROFILES = "default:linger.ms=5;bulk:compression.type=lz4,batch.size=262144;"
+         + "reliable:idempotence=true";
+   private static final String TOPIC_PROFILES = "topic.OdeBsmJson:bulk, topic.OdeTimJson:reliable";
+
+   private static class TrackingProducer extends MockProducer<String, Object> {
+      private boolean closed;
+
+      TrackingProducer(boolean autoComplete, Serializer<Object> valueSerializer) {
+         super(autoComplete, new StringSerializer(), valueSerializer);
+      }
+
+      @Override
+      public void close() {
+         closed = true;
+      }
+   }
+
+   private List<TrackingProducer> created;
+   private boolean autoComplete;
+   private MessageProducerRegistry registry;
+
+   @Before
+   public void setUp() {
+      created = new ArrayList<>();
+      autoComplete = true;
+      registry = new MessageProducerRegistry("localhost:9092", null,
+            MessageProducerRegistry.parseProfiles(PROFILES),
+            MessageProducerRegistry.parseTopicProfiles(TOPIC_PROFILES)) {
+         @SuppressWarnings("unchecked")
+         @Override
+         protected <V> Producer<String, V> createProducer(Properties props) {
+            TrackingProducer producer;
+            try {
+               producer = new TrackingProducer(autoComplete,
+                     (Serializer<Object>) Class.forName(props.getProperty("value.serializer")).newInstance());
+            } catch (ReflectiveOperationException e) {
+               throw new IllegalArgumentException(e);
+            }
+            created.add(producer);
+            return (Producer<String, V>) producer;
+         }
+      };
+   }
+
+   @Test
+   public void shouldParseProfiles() {
+      Map<String, Properties> profiles = MessageProducerRegistry.parseProfiles(PROFILES);
+      assertEquals(3, profiles.size());
+      assertEquals("lz4", profiles.get("bulk").getProperty("compression.type"));
+      assertEquals("262144", profiles.get("bulk").getProperty("batch.size"));
+      assertEquals("all", profiles.get("reliable").getProperty("acks"));
+      assertEquals(String.valueOf(Integer.MAX_VALUE), profiles.get("reliable").getProperty("retries"));
+      assertEquals("1", profiles.get("reliable").getProperty("max.in.flight.requests.per.connection"));
+      assertTrue(MessageProducerRegistry.parseProfiles(null).isEmpty());
+   }
+
+   @Test(expected = ProducerProfileException.class)
+   public void shouldRejectReservedSettings() {
+      MessageProducerRegistry.parseProfiles("bulk:value.serializer=Foo");
+   }
+
+   @Test(expected = ProducerProfileException.class)
+   public void shouldRejectUndefinedTopicProfile() {
+      new MessageProducerRegistry("localhost:9092", null, MessageProducerRegistry.parseProfiles(PROFILES),
+            MessageProducerRegistry.parseTopicProfiles("topic.OdeBsmJson:fast"));
+   }
+
+   @Test
+   public void profilesShouldInheritDefaultProfile() {
+      Properties bulk = registry.getProducerProperties("bulk", MessageProducer.SERIALIZATION_STRING_SERIALIZER);
+      assertEquals("5", bulk.getProperty("linger.ms"));
+      assertEquals("lz4", bulk.getProperty("compression.type"));
+      assertEquals(MessageProducer.DEFAULT_PRODUCER_ACKS, bulk.get("acks"));
+      assertEquals("localhost:9092", bulk.get("bootstrap.servers"));
+      assertEquals(MessageProducer.SERIALIZATION_STRING_SERIALIZER, bulk.get("value.serializer"));
+
+      assertEquals("bulk", registry.getProfileName("topic.OdeBsmJson"));
+      assertEquals(MessageProducerRegistry.DEFAULT_PROFILE, registry.getProfileName("topic.OdeBsmPojo"));
+   }
+
+   @Test
+   public void shouldShareProducerPerSerializerAndProfile() {
+      MessageProducer<String, String> first = registry.getStringProducer();
+      MessageProducer<String, String> second = registry.getStringProducer();
+      MessageProducer<String, byte[]> bytes = registry.getByteArrayProducer();
+      assertEquals(0, registry.getOpenProducerCount());
+
+      first.send("topic.OdeBsmPojo", null, "a");
+      second.send("topic.OdeBsmPojo", null, "b");
+      first.send("topic.OdeBsmJson", null, "c");
+      bytes.send("topic.OdeBsmPojo", null, new byte[] { 1 });
+
+      assertEquals(3, registry.getOpenProducerCount());
+      assertEquals(3, created.size());
+      assertEquals(2, created.get(0).history().size());
+      assertEquals("topic.OdeBsmJson", created.get(1).history().get(0).topic());
+      assertSame(first.getProducer(), second.getProducer());
+      assertNotSame(first.getProducer(), bytes.getProducer());
+   }
+
+   @Test
+   public void shouldCloseSharedProducerAfterLastUser() {
+      MessageProducer<String, String> first = registry.getStringProducer();
+      MessageProducer<String, String> second = registry.getStringProducer();
+      first.send("topic.OdeTimJson", null, "a");
+      second.send("topic.OdeTimJson", null, "b");
+      assertEquals(1, registry.getOpenProducerCount());
+
+      first.close();
+      first.close();
+      assertEquals(1, registry.getOpenProducerCount());
+      assertFalse(created.get(0).closed);
+
+      second.close();
+      assertEquals(0, registry.getOpenProducerCount());
+      assertTrue(created.get(0).closed);
+   }
+
+   @Test
+   public void shouldSerializeOnceForSeveralTopics() {
+      MessageProducer<String, String> producer = registry.getStringProducer();
+      producer.send(Arrays.asList("topic.OdeTimJson", "topic.OdeDNMsgJson", "topic.OdeBsmJson"), "key", "tim");
+
+      // the byte array producers of the reliable, default and bulk profiles
+      assertEquals(3, created.size());
+      for (TrackingProducer bytes : created) {
+         ProducerRecord<String, Object> record = bytes.history().get(0);
+         assertEquals("key", record.key());
+         assertArrayEquals("tim".getBytes(StandardCharsets.UTF_8), (byte[]) record.value());
+      }
+
+      producer.send(Arrays.asList("topic.OdeTimJson"), "key", "tim");
+      assertEquals(4, created.size());
+      assertEquals("tim", created.get(3).history().get(0).value());
+
+      producer.close();
+      assertEquals(0, registry.getOpenProducerCount());
+   }
+
+   @Test
+   public void flushShouldOnlyWaitForOwnRecords() {
+      autoComplete = false;
+      MessageProducer<String, String> first = registry.getStringProducer();
+      MessageProducer<String, String> second = registry.getStringProducer();
+      first.send("topic.OdeBsmPojo", null, "a");
+      second.send("topic.OdeBsmPojo", null, "b");
+      assertEquals(1, created.size());
+
+      assertTrue(created.get(0).completeNext());
+      first.flush();
+      // the shared producer was not flushed, the record of second is still in flight
+      assertTrue(created.get(0).completeNext());
+      assertFalse(created.get(0).completeNext());
+      second.flush();
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void closedProducerShouldNotSend() {
+      MessageProducer<String, String> producer = registry.getStringProducer();
+      producer.close();
+      producer.send("topic.OdeBsmPojo", null, "a");
+   }
+
+   @Test
+   public void closeShouldCloseAllProducers() {
+      registry.getStringProducer().send("topic.OdeBsmPojo", null, "a");
+      registry.getByteArrayProducer().send("topic.OdeBsmPojo", null, new byte[] { 1 });
+      registry.close();
+      assertEquals(0, registry.getOpenProducerCount());
+      assertTrue(created.get(0).closed);
+      assertTrue(created.get(1).closed);
+   }
+}